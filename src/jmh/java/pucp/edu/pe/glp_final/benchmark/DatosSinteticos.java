@@ -0,0 +1,123 @@
+package pucp.edu.pe.glp_final.benchmark;
+
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.MovimientoCamion;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.model.enums.TipoCamion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Entradas sintéticas para los benchmarks. Con la misma semilla se generan siempre
+ * los mismos datos, así que los resultados de distintos commits son comparables.
+ */
+final class DatosSinteticos {
+
+    static final long SEMILLA = 20250601L;
+    static final LocalDateTime MOMENTO = LocalDateTime.of(2025, 6, 1, 8, 0);
+    static final int ANCHO = 70;
+    static final int ALTO = 50;
+
+    private DatosSinteticos() {
+    }
+
+    /**
+     * Flota del enunciado: 2 TA, 4 TB, 4 TC y 10 TD en el almacén central
+     */
+    static List<Camion> flota() {
+        List<Camion> camiones = new ArrayList<>();
+        agregarCamiones(camiones, TipoCamion.TA, 2);
+        agregarCamiones(camiones, TipoCamion.TB, 4);
+        agregarCamiones(camiones, TipoCamion.TC, 4);
+        agregarCamiones(camiones, TipoCamion.TD, 10);
+        return camiones;
+    }
+
+    /**
+     * Pedidos recibidos en la hora previa al momento de referencia, de 1 a 25 m³ con 4 a 36 horas de plazo
+     */
+    static List<Pedido> pedidos(int cantidad, Random aleatorio) {
+        List<Pedido> pedidos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            pedidos.add(new Pedido("P-" + i, "c-" + aleatorio.nextInt(1000), ubicacion(aleatorio),
+                    1 + aleatorio.nextInt(25), MOMENTO.minusMinutes(aleatorio.nextInt(60)),
+                    4 + aleatorio.nextInt(33)));
+        }
+        return pedidos;
+    }
+
+    /**
+     * Bloqueos vigentes todo el día de referencia, cada uno una poligonal de 2 a 4 tramos
+     * horizontales o verticales, como los de los archivos de bloqueos
+     */
+    static List<Bloqueo> bloqueos(int cantidad, Random aleatorio) {
+        LocalDateTime inicio = MOMENTO.toLocalDate().atStartOfDay();
+        List<Bloqueo> bloqueos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            List<Ubicacion> nodos = new ArrayList<>();
+            int x = aleatorio.nextInt(ANCHO + 1);
+            int y = aleatorio.nextInt(ALTO + 1);
+            nodos.add(new Ubicacion(x, y));
+            int tramos = 2 + aleatorio.nextInt(3);
+            for (int t = 0; t < tramos; t++) {
+                int largo = 1 + aleatorio.nextInt(15);
+                boolean horizontal = t % 2 == 0;
+                int paso = aleatorio.nextBoolean() ? 1 : -1;
+                for (int k = 0; k < largo; k++) {
+                    int nx = horizontal ? x + paso : x;
+                    int ny = horizontal ? y : y + paso;
+                    if (nx < 0 || nx > ANCHO || ny < 0 || ny > ALTO) {
+                        break;
+                    }
+                    x = nx;
+                    y = ny;
+                    nodos.add(new Ubicacion(x, y));
+                }
+            }
+            bloqueos.add(new Bloqueo(inicio, inicio.plusDays(1), nodos));
+        }
+        return bloqueos;
+    }
+
+    /**
+     * Recorrido celda a celda con pasos de un minuto y una entrega cada 40 pasos
+     */
+    static MovimientoCamion movimiento(int pasos, Random aleatorio) {
+        MovimientoCamion movimiento = new MovimientoCamion("TA01", "R-benchmark");
+        movimiento.setHoraInicio(MOMENTO);
+        int x = 12;
+        int y = 8;
+        LocalDateTime tiempo = MOMENTO;
+        movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(new Ubicacion(x, y), tiempo,
+                MovimientoCamion.PasoMovimiento.TipoPaso.INICIO));
+        for (int i = 1; i < pasos; i++) {
+            if (aleatorio.nextBoolean()) {
+                x = x < ANCHO && (x == 0 || aleatorio.nextBoolean()) ? x + 1 : x - 1;
+            } else {
+                y = y < ALTO && (y == 0 || aleatorio.nextBoolean()) ? y + 1 : y - 1;
+            }
+            tiempo = tiempo.plusMinutes(1);
+            MovimientoCamion.PasoMovimiento.TipoPaso tipo = i % 40 == 0
+                    ? MovimientoCamion.PasoMovimiento.TipoPaso.ENTREGA
+                    : MovimientoCamion.PasoMovimiento.TipoPaso.MOVIMIENTO;
+            movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(new Ubicacion(x, y), tiempo, tipo));
+        }
+        movimiento.setHoraFinEstimada(tiempo);
+        return movimiento;
+    }
+
+    static Ubicacion ubicacion(Random aleatorio) {
+        return new Ubicacion(aleatorio.nextInt(ANCHO + 1), aleatorio.nextInt(ALTO + 1));
+    }
+
+    private static void agregarCamiones(List<Camion> camiones, TipoCamion tipo, int cantidad) {
+        for (int i = 1; i <= cantidad; i++) {
+            camiones.add(new Camion(String.format("%s%02d", tipo, i), tipo, new Ubicacion(12, 8)));
+        }
+    }
+}
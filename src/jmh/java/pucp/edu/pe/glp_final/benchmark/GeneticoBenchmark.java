@@ -0,0 +1,58 @@
+package pucp.edu.pe.glp_final.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pucp.edu.pe.glp_final.algorithm.Genetico;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ruta;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una planificación completa del algoritmo genético con sus parámetros predeterminados.
+ * Cada ejecución dura de décimas de segundo a varios segundos, así que se mide una
+ * llamada por iteración.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneticoBenchmark {
+
+    @Param({"50", "200", "1000"})
+    public int pedidos;
+
+    private Mapa mapa;
+    private List<Camion> camiones;
+    private List<Pedido> pendientes;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(DatosSinteticos.SEMILLA);
+        mapa = new Mapa(DatosSinteticos.ANCHO, DatosSinteticos.ALTO);
+        mapa.usarBloqueos(DatosSinteticos.bloqueos(20, aleatorio), null);
+        pendientes = DatosSinteticos.pedidos(pedidos, aleatorio);
+    }
+
+    /**
+     * Flota y pedidos nuevos, sin rutas en caché y con la misma semilla: cada iteración hace el mismo trabajo
+     */
+    @Setup(Level.Iteration)
+    public void reiniciar() {
+        camiones = DatosSinteticos.flota();
+        mapa.getRouteCache().clear();
+    }
+
+    @Benchmark
+    public List<Ruta> optimizarRutas() {
+        Genetico genetico = new Genetico();
+        genetico.setAleatorio(new Random(DatosSinteticos.SEMILLA));
+        return genetico.optimizarRutas(camiones, pendientes.stream().map(Pedido::copiar).toList(),
+                mapa, DatosSinteticos.MOMENTO);
+    }
+}
@@ -0,0 +1,73 @@
+package pucp.edu.pe.glp_final.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de rutas A* en el mapa de 70x50 con distinta cantidad de bloqueos.
+ * Se recorre una lista fija de pares origen-destino para no medir siempre el mismo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapaBenchmark {
+
+    private static final int PARES = 256;
+
+    @Param({"0", "20", "80"})
+    public int bloqueos;
+
+    private Mapa mapa;
+    private Ubicacion[] origenes;
+    private Ubicacion[] destinos;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(DatosSinteticos.SEMILLA);
+        mapa = new Mapa(DatosSinteticos.ANCHO, DatosSinteticos.ALTO);
+        mapa.usarBloqueos(DatosSinteticos.bloqueos(bloqueos, aleatorio), null);
+
+        origenes = new Ubicacion[PARES];
+        destinos = new Ubicacion[PARES];
+        for (int i = 0; i < PARES; i++) {
+            origenes[i] = libre(aleatorio);
+            destinos[i] = libre(aleatorio);
+        }
+    }
+
+    /**
+     * encontrarRuta no pasa por el caché de rutas: cada llamada hace la búsqueda completa
+     */
+    @Benchmark
+    public List<Ubicacion> encontrarRuta() {
+        int i = siguiente++ & (PARES - 1);
+        return mapa.encontrarRuta(origenes[i], destinos[i], DatosSinteticos.MOMENTO);
+    }
+
+    /**
+     * Sin el caché de rutas del mapa, que de otro modo respondería todas las llamadas después de la primera vuelta
+     */
+    @Benchmark
+    public List<Ubicacion> encontrarRutaConTiempo() {
+        int i = siguiente++ & (PARES - 1);
+        mapa.getRouteCache().clear();
+        return mapa.encontrarRutaConTiempo(origenes[i], destinos[i], DatosSinteticos.MOMENTO, 50.0);
+    }
+
+    private Ubicacion libre(Random aleatorio) {
+        Ubicacion ubicacion;
+        do {
+            ubicacion = DatosSinteticos.ubicacion(aleatorio);
+        } while (mapa.estaBloqueado(ubicacion, DatosSinteticos.MOMENTO));
+        return ubicacion;
+    }
+}
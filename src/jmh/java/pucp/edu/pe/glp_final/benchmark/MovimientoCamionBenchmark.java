@@ -0,0 +1,46 @@
+package pucp.edu.pe.glp_final.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pucp.edu.pe.glp_final.model.MovimientoCamion;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posición de un camión en momentos al azar de un movimiento ya materializado
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MovimientoCamionBenchmark {
+
+    private static final int MOMENTOS = 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int pasos;
+
+    private MovimientoCamion movimiento;
+    private LocalDateTime[] momentos;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(DatosSinteticos.SEMILLA);
+        movimiento = DatosSinteticos.movimiento(pasos, aleatorio);
+        momentos = new LocalDateTime[MOMENTOS];
+        for (int i = 0; i < MOMENTOS; i++) {
+            // Incluye momentos antes del inicio y después del fin
+            momentos[i] = DatosSinteticos.MOMENTO.plusSeconds(aleatorio.nextInt(pasos * 60 + 120) - 60);
+        }
+        movimiento.obtenerPosicionEnMomento(momentos[0]); // Compila la pista fuera de la medición
+    }
+
+    @Benchmark
+    public MovimientoCamion.PosicionCamion obtenerPosicionEnMomento() {
+        return movimiento.obtenerPosicionEnMomento(momentos[siguiente++ & (MOMENTOS - 1)]);
+    }
+}
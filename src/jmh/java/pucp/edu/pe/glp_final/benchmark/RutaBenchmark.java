@@ -0,0 +1,63 @@
+package pucp.edu.pe.glp_final.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ruta;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.model.enums.TipoCamion;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordenamiento de las paradas de una ruta. Ambas operaciones modifican la ruta, así
+ * que cada llamada arma una nueva con los mismos pedidos; ese costo queda incluido.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RutaBenchmark {
+
+    @Param({"10", "50"})
+    public int paradas;
+
+    private Mapa mapa;
+    private Camion camion;
+    private List<Pedido> pedidos;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(DatosSinteticos.SEMILLA);
+        mapa = new Mapa(DatosSinteticos.ANCHO, DatosSinteticos.ALTO);
+        camion = new Camion("TA01", TipoCamion.TA, new Ubicacion(12, 8));
+        pedidos = DatosSinteticos.pedidos(paradas, aleatorio);
+    }
+
+    @Benchmark
+    public Ruta optimizarSecuencia() {
+        Ruta ruta = nuevaRuta();
+        ruta.optimizarSecuencia();
+        return ruta;
+    }
+
+    @Benchmark
+    public Ruta optimizarConRecargas() {
+        Ruta ruta = nuevaRuta();
+        ruta.optimizarConRecargas(mapa, camion);
+        return ruta;
+    }
+
+    private Ruta nuevaRuta() {
+        Ruta ruta = new Ruta("R-benchmark", camion.getCodigo(), camion.getUbicacionActual());
+        for (Pedido pedido : pedidos) {
+            ruta.agregarPedido(pedido);
+        }
+        return ruta;
+    }
+}
@@ -22,6 +22,9 @@ public class Genetico {
     private double tasaCruce;
     private int elitismo;
 
+    // Fuente de aleatoriedad; con semilla fija la planificación es reproducible
+    private Random aleatorio = new Random();
+
     // Datos del problema
     private List<Camion> camionesDisponibles;
     private List<Pedido> pedidosPendientes;
@@ -116,12 +119,12 @@ public class Genetico {
             // Generar el resto de la población mediante cruce y mutación
             while (nuevaPoblacion.size() < tamañoPoblacion) {
                 // Seleccionar padres
-                Individuo padre = seleccionados.get(new Random().nextInt(seleccionados.size()));
-                Individuo madre = seleccionados.get(new Random().nextInt(seleccionados.size()));
+                Individuo padre = seleccionados.get(aleatorio.nextInt(seleccionados.size()));
+                Individuo madre = seleccionados.get(aleatorio.nextInt(seleccionados.size()));
 
                 // Realizar cruce con cierta probabilidad
                 List<Individuo> hijos;
-                if (Math.random() < tasaCruce) {
+                if (aleatorio.nextDouble() < tasaCruce) {
                     hijos = cruce(padre, madre);
                 } else {
                     hijos = Arrays.asList(padre.clonar(), madre.clonar());
@@ -129,7 +132,7 @@ public class Genetico {
 
                 // Aplicar mutación con cierta probabilidad
                 for (Individuo hijo : hijos) {
-                    if (Math.random() < tasaMutacion) {
+                    if (aleatorio.nextDouble() < tasaMutacion) {
                         mutacion(hijo);
                     }
 
@@ -258,7 +261,7 @@ public class Genetico {
             // Inicializar genes (asignación de pedidos a camiones)
             for (Pedido pedido : pedidosPendientes) {
                 // Asignar a un camión aleatorio o a ninguno (valor -1)
-                int indiceCamion = new Random().nextInt(camionesDisponibles.size() + 1) - 1;
+                int indiceCamion = aleatorio.nextInt(camionesDisponibles.size() + 1) - 1;
                 individuo.getGenes().add(indiceCamion);
             }
 
@@ -411,7 +414,7 @@ public class Genetico {
 
             // Seleccionar participantes aleatorios para el torneo
             for (int j = 0; j < tamañoTorneo; j++) {
-                int indice = new Random().nextInt(poblacion.size());
+                int indice = aleatorio.nextInt(poblacion.size());
                 torneo.add(poblacion.get(indice));
             }
 
@@ -435,7 +438,7 @@ public class Genetico {
         Individuo hijo2 = new Individuo();
 
         // Punto de cruce aleatorio
-        int puntoCruce = new Random().nextInt(padre.getGenes().size());
+        int puntoCruce = aleatorio.nextInt(padre.getGenes().size());
 
         // Generar genes de los hijos
         for (int i = 0; i < padre.getGenes().size(); i++) {
@@ -458,10 +461,10 @@ public class Genetico {
      */
     private void mutacion(Individuo individuo) {
         // Seleccionar un gen aleatorio para mutar
-        int indiceMutacion = new Random().nextInt(individuo.getGenes().size());
+        int indiceMutacion = aleatorio.nextInt(individuo.getGenes().size());
 
         // Cambiar la asignación del pedido
-        int nuevaAsignacion = new Random().nextInt(camionesDisponibles.size() + 1) - 1;
+        int nuevaAsignacion = aleatorio.nextInt(camionesDisponibles.size() + 1) - 1;
         individuo.getGenes().set(indiceMutacion, nuevaAsignacion);
     }
 
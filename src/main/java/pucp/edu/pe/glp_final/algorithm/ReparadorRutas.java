@@ -0,0 +1,203 @@
+package pucp.edu.pe.glp_final.algorithm;
+
+import lombok.Getter;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reparación incremental de rutas por inserción más barata: reubica pedidos sin camión
+ * (p. ej. los de un camión averiado) en rutas en curso o en camiones libres, sin tocar
+ * el orden del resto de las rutas. Cada pedido, por orden de vencimiento, se inserta en
+ * la posición factible que menos distancia agrega; los que no caben en ninguna quedan
+ * para la siguiente planificación completa.
+ */
+public class ReparadorRutas {
+
+    private static final int MINUTOS_ENTREGA = 15;
+
+    /**
+     * Ruta donde se pueden insertar pedidos. Cada punto tiene su momento de salida, si
+     * es una entrega su hora límite y su GLP, y si es una recarga el tanque vuelve a
+     * llenarse. El primer punto ya está comprometido: solo se inserta después de él.
+     */
+    @Getter
+    public static class RutaCandidata {
+        private final Camion camion;
+        private final boolean nueva; // Camión libre: la ruta solo existe si recibe pedidos
+        private final double glpInicial; // A bordo antes del primer punto
+        private final List<Ubicacion> puntos = new ArrayList<>();
+        private final List<LocalDateTime> salidas = new ArrayList<>();
+        private final List<LocalDateTime> limites = new ArrayList<>(); // null si el punto no es una entrega
+        private final List<Double> cantidades = new ArrayList<>(); // GLP que se entrega en el punto
+        private final List<Boolean> recargas = new ArrayList<>();
+        private final List<Pedido> insertados = new ArrayList<>();
+
+        private RutaCandidata(Camion camion, boolean nueva, double glpInicial) {
+            this.camion = camion;
+            this.nueva = nueva;
+            this.glpInicial = glpInicial;
+        }
+
+        /**
+         * Ruta en curso; sus puntos se agregan en orden con agregarEntrega, agregarRecarga y agregarParada
+         * @param glpABordo GLP que lleva el camión ahora
+         */
+        public static RutaCandidata enCurso(Camion camion, double glpABordo) {
+            return new RutaCandidata(camion, false, glpABordo);
+        }
+
+        /**
+         * Camión libre que saldría en el momento dado desde su ubicación y volvería al destino
+         */
+        public static RutaCandidata libre(Camion camion, LocalDateTime momento, Ubicacion destino) {
+            RutaCandidata candidata = new RutaCandidata(camion, true, camion.getCapacidadTanqueGLP());
+            candidata.agregarParada(camion.getUbicacionActual(), momento);
+            candidata.agregarParada(destino, momento.plus(camion.calcularTiempoViaje(camion.getUbicacionActual(), destino)));
+            return candidata;
+        }
+
+        public void agregarEntrega(Ubicacion ubicacion, LocalDateTime salida, LocalDateTime limite, double cantidadGLP) {
+            agregarPunto(puntos.size(), ubicacion, salida, limite, cantidadGLP, false);
+        }
+
+        /**
+         * Recarga en un almacén: el tanque de GLP queda lleno al salir
+         */
+        public void agregarRecarga(Ubicacion ubicacion, LocalDateTime salida) {
+            agregarPunto(puntos.size(), ubicacion, salida, null, 0.0, true);
+        }
+
+        /**
+         * Punto sin entrega ni recarga, p. ej. la llegada final
+         */
+        public void agregarParada(Ubicacion ubicacion, LocalDateTime salida) {
+            agregarPunto(puntos.size(), ubicacion, salida, null, 0.0, false);
+        }
+
+        public int cantidadPuntos() {
+            return puntos.size();
+        }
+
+        /**
+         * GLP que queda libre en el tramo entre recargas donde caería una entrega insertada
+         * antes del punto k: el GLP al inicio del tramo menos todas sus entregas, incluidas
+         * las posteriores a k
+         */
+        public double glpLibreAntesDe(int k) {
+            int inicio = k - 1;
+            while (inicio >= 0 && !recargas.get(inicio)) {
+                inicio--;
+            }
+            double libre = inicio >= 0 ? camion.getCapacidadTanqueGLP() : glpInicial;
+            for (int i = inicio + 1; i < puntos.size(); i++) {
+                if (i >= k && recargas.get(i)) {
+                    break;
+                }
+                libre -= cantidades.get(i);
+            }
+            return libre;
+        }
+
+        private void agregarPunto(int k, Ubicacion ubicacion, LocalDateTime salida, LocalDateTime limite,
+                                  double cantidadGLP, boolean recarga) {
+            puntos.add(k, ubicacion);
+            salidas.add(k, salida);
+            limites.add(k, limite);
+            cantidades.add(k, cantidadGLP);
+            recargas.add(k, recarga);
+        }
+    }
+
+    /**
+     * Pedido insertado antes del punto indicado de la ruta, contado sobre la ruta
+     * tal como quedó con las inserciones anteriores
+     */
+    public record Insercion(Pedido pedido, RutaCandidata ruta, int posicion) {
+    }
+
+    /**
+     * @return Inserciones en el orden en que deben aplicarse
+     */
+    public List<Insercion> reparar(List<Pedido> pedidos, List<RutaCandidata> candidatas) {
+        List<Pedido> porVencimiento = new ArrayList<>(pedidos);
+        porVencimiento.sort(Comparator.comparing(Pedido::getHoraLimiteEntrega));
+
+        List<Insercion> inserciones = new ArrayList<>();
+        for (Pedido pedido : porVencimiento) {
+            RutaCandidata mejorRuta = null;
+            int mejorPosicion = -1;
+            double mejorCosto = Double.MAX_VALUE;
+
+            for (RutaCandidata ruta : candidatas) {
+                for (int k = 1; k < ruta.cantidadPuntos(); k++) {
+                    if (ruta.glpLibreAntesDe(k) < pedido.getCantidadGLP()) continue;
+                    double costo = costoInsercion(ruta, pedido, k);
+                    // A igual costo se prefiere una ruta en curso antes que sacar otro camión
+                    if (costo < mejorCosto || (costo == mejorCosto && mejorRuta != null && mejorRuta.nueva && !ruta.nueva)) {
+                        mejorRuta = ruta;
+                        mejorPosicion = k;
+                        mejorCosto = costo;
+                    }
+                }
+            }
+
+            if (mejorRuta != null) {
+                insertar(mejorRuta, pedido, mejorPosicion);
+                inserciones.add(new Insercion(pedido, mejorRuta, mejorPosicion));
+            }
+        }
+        return inserciones;
+    }
+
+    /**
+     * Distancia que agrega insertar el pedido antes del punto k, o infinito si
+     * el pedido o alguna entrega posterior quedaría fuera de plazo
+     */
+    private double costoInsercion(RutaCandidata ruta, Pedido pedido, int k) {
+        Camion camion = ruta.camion;
+        Ubicacion anterior = ruta.puntos.get(k - 1);
+        Ubicacion siguiente = ruta.puntos.get(k);
+        Ubicacion destino = pedido.getUbicacion();
+
+        LocalDateTime entrega = ruta.salidas.get(k - 1)
+                .plus(camion.calcularTiempoViaje(anterior, destino))
+                .plusMinutes(MINUTOS_ENTREGA);
+        if (entrega.isAfter(pedido.getHoraLimiteEntrega())) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        LocalDateTime nuevaLlegada = entrega.plus(camion.calcularTiempoViaje(destino, siguiente));
+        LocalDateTime llegadaOriginal = ruta.salidas.get(k - 1).plus(camion.calcularTiempoViaje(anterior, siguiente));
+        Duration retraso = Duration.between(llegadaOriginal, nuevaLlegada);
+        for (int j = k; j < ruta.cantidadPuntos(); j++) {
+            LocalDateTime limite = ruta.limites.get(j);
+            if (limite != null && ruta.salidas.get(j).plus(retraso).isAfter(limite)) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        return anterior.distanciaA(destino) + destino.distanciaA(siguiente) - anterior.distanciaA(siguiente);
+    }
+
+    private void insertar(RutaCandidata ruta, Pedido pedido, int k) {
+        Camion camion = ruta.camion;
+        ruta.agregarPunto(k, pedido.getUbicacion(), null, pedido.getHoraLimiteEntrega(), pedido.getCantidadGLP(), false);
+        ruta.insertados.add(pedido);
+
+        // Recalcular las salidas desde el punto insertado
+        for (int i = k; i < ruta.cantidadPuntos(); i++) {
+            LocalDateTime salida = ruta.salidas.get(i - 1).plus(camion.calcularTiempoViaje(ruta.puntos.get(i - 1), ruta.puntos.get(i)));
+            if (ruta.limites.get(i) != null) {
+                salida = salida.plusMinutes(MINUTOS_ENTREGA);
+            }
+            ruta.salidas.set(i, salida);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package pucp.edu.pe.glp_final.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Ajustes de esquema que JPA no puede declarar: columna de hora límite en
+ * tablas existentes e índices de pedidos (PostgreSQL). Todos los índices de
+ * pedidos se crean aquí; los de pendientes son parciales, WHERE entregado = false.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class IndicesBaseDatosConfig {
+
+    private static final String[] SENTENCIAS_POSTGRES = {
+            "ALTER TABLE pedidos ADD COLUMN IF NOT EXISTS hora_limite_entrega TIMESTAMP",
+            "UPDATE pedidos SET hora_limite_entrega = hora_recepcion + horas_limite_entrega * INTERVAL '1 hour' " +
+                    "WHERE hora_limite_entrega IS NULL",
+            "CREATE INDEX IF NOT EXISTS idx_pedidos_pendientes_recepcion ON pedidos (hora_recepcion, id) " +
+                    "WHERE entregado = false",
+            // Completo: la paginación por clave recorre todos los pedidos, no solo los pendientes
+            "CREATE INDEX IF NOT EXISTS idx_pedidos_recepcion_id ON pedidos (hora_recepcion, id)",
+            "CREATE INDEX IF NOT EXISTS idx_pedidos_pendientes_camion ON pedidos (camion_asignado) " +
+                    "WHERE entregado = false"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Se ejecuta antes de la carga de datos iniciales
+     */
+    @Bean
+    @Order(0)
+    public CommandLineRunner crearIndicesParciales() {
+        return args -> {
+            String motor = jdbcTemplate.execute((ConnectionCallback<String>) conexion ->
+                    conexion.getMetaData().getDatabaseProductName());
+
+            if (!"PostgreSQL".equalsIgnoreCase(motor)) {
+                log.info("Motor {} sin soporte de índices parciales, los pedidos quedan sin índices secundarios", motor);
+                return;
+            }
+
+            for (String sentencia : SENTENCIAS_POSTGRES) {
+                jdbcTemplate.execute(sentencia);
+            }
+            log.info("✓ Índices de pedidos verificados");
+        };
+    }
+}
@@ -11,6 +11,9 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import pucp.edu.pe.glp_final.service.AlmacenService;
 import pucp.edu.pe.glp_final.service.CamionService;
+import pucp.edu.pe.glp_final.service.EstadoFlotaService;
+import pucp.edu.pe.glp_final.service.LibroPedidosService;
+import pucp.edu.pe.glp_final.service.MapaService;
 
 import java.util.concurrent.Executor;
 
@@ -26,6 +29,9 @@ public class InitializationConfig {
 
     private final CamionService camionService;
     private final AlmacenService almacenService;
+    private final EstadoFlotaService estadoFlotaService;
+    private final LibroPedidosService libroPedidosService;
+    private final MapaService mapaService;
 
     /**
      * Inicialización de datos al arrancar la aplicación
@@ -44,6 +50,18 @@ public class InitializationConfig {
                 camionService.inicializarFlota();
                 log.info("✓ Flota de camiones inicializada");
 
+                // Cargar el estado de la flota en memoria
+                estadoFlotaService.cargar();
+                log.info("✓ Estado de flota cargado en memoria");
+
+                // Cargar los pedidos pendientes en el libro en memoria
+                libroPedidosService.cargar();
+                log.info("✓ Libro de pedidos pendientes cargado");
+
+                // Compilar los bloqueos guardados en su índice por momento
+                mapaService.cargarBloqueosGuardados();
+                log.info("✓ Bloqueos compilados");
+
                 log.info("Inicialización de datos completada exitosamente");
 
             } catch (Exception e) {
@@ -0,0 +1,126 @@
+package pucp.edu.pe.glp_final.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Sesión WebSocket con su propia cola de salida acotada. Enviar solo encola: un hilo
+ * virtual vacía la cola hacia el cliente de a un mensaje, así que un cliente lento no
+ * ocupa los hilos del canal de salida que atienden a los demás.
+ *
+ * Con la cola llena se descarta el frame MESSAGE más antiguo de esta sesión; los frames
+ * de control (CONNECTED, RECEIPT, ERROR) nunca se descartan. Si un envío falla, la
+ * sesión se cierra y el cliente, al reconectarse, recibe el estado completo.
+ */
+@Slf4j
+class SesionSalidaAcotada extends WebSocketSessionDecorator {
+
+    private static final byte[] COMANDO_MESSAGE = "MESSAGE".getBytes(StandardCharsets.US_ASCII);
+
+    private final int capacidad;
+    private final Deque<WebSocketMessage<?>> cola = new ArrayDeque<>();
+    // Protegidos por cola
+    private boolean enviando;
+    private int descartados;
+
+    SesionSalidaAcotada(WebSocketSession delegada, int capacidad) {
+        super(delegada);
+        this.capacidad = capacidad;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> mensaje) {
+        synchronized (cola) {
+            if (cola.size() >= capacidad) {
+                descartarMasAntiguo();
+            }
+            cola.addLast(mensaje);
+            if (enviando) {
+                return;
+            }
+            enviando = true;
+        }
+        Thread.ofVirtual().name("salida-ws-" + getId()).start(this::vaciar);
+    }
+
+    private void descartarMasAntiguo() {
+        Iterator<WebSocketMessage<?>> iterador = cola.iterator();
+        while (iterador.hasNext()) {
+            if (esMensajeDeTopico(iterador.next())) {
+                iterador.remove();
+                descartados++;
+                return;
+            }
+        }
+    }
+
+    private void vaciar() {
+        while (true) {
+            WebSocketMessage<?> mensaje;
+            int perdidos;
+            synchronized (cola) {
+                mensaje = cola.pollFirst();
+                if (mensaje == null) {
+                    enviando = false;
+                    return;
+                }
+                perdidos = descartados;
+                descartados = 0;
+            }
+            if (perdidos > 0) {
+                log.debug("Sesión {} lenta: se descartaron {} mensajes antiguos", getId(), perdidos);
+            }
+
+            try {
+                getDelegate().sendMessage(mensaje);
+            } catch (IOException | RuntimeException e) {
+                synchronized (cola) {
+                    cola.clear();
+                    enviando = false;
+                }
+                log.debug("No se pudo enviar a la sesión {}, se cierra: {}", getId(), e.getMessage());
+                cerrar();
+                return;
+            }
+        }
+    }
+
+    private void cerrar() {
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            log.debug("La sesión {} ya estaba cerrada", getId());
+        }
+    }
+
+    private static boolean esMensajeDeTopico(WebSocketMessage<?> mensaje) {
+        if (mensaje instanceof TextMessage texto) {
+            return texto.getPayload().startsWith("MESSAGE");
+        }
+        if (mensaje instanceof BinaryMessage binario) {
+            ByteBuffer datos = binario.getPayload().duplicate();
+            if (datos.remaining() < COMANDO_MESSAGE.length) {
+                return false;
+            }
+            for (byte b : COMANDO_MESSAGE) {
+                if (datos.get() != b) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
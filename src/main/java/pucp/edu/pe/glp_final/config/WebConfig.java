@@ -1,13 +1,17 @@
 package pucp.edu.pe.glp_final.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
 /**
  * Configuración web para CORS y WebSockets
@@ -16,6 +20,15 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebConfig implements WebMvcConfigurer, WebSocketMessageBrokerConfigurer {
 
+    @Value("${glp.websocket.limite-envio-ms:5000}")
+    private int limiteEnvioMs;
+
+    @Value("${glp.websocket.limite-buffer-bytes:524288}")
+    private int limiteBufferBytes;
+
+    @Value("${glp.websocket.capacidad-salida:1000}")
+    private int capacidadSalida;
+
     /**
      * Configuración de CORS para permitir requests desde el frontend
      */
@@ -42,6 +55,23 @@ public class WebConfig implements WebMvcConfigurer, WebSocketMessageBrokerConfig
         config.setUserDestinationPrefix("/user");
     }
 
+    /**
+     * Límites por suscriptor: cada sesión tiene su propia cola de salida acotada que, llena,
+     * descarta el mensaje más antiguo de esa sesión ({@link SesionSalidaAcotada}); un cliente
+     * que deja de recibir se desconecta y al reconectarse recibe el estado completo
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(limiteEnvioMs)
+                .setSendBufferSizeLimit(limiteBufferBytes)
+                .addDecoratorFactory(manejador -> new WebSocketHandlerDecorator(manejador) {
+                    @Override
+                    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                        super.afterConnectionEstablished(new SesionSalidaAcotada(session, capacidadSalida));
+                    }
+                });
+    }
+
     /**
      * Registro de endpoints STOMP para WebSockets
      */
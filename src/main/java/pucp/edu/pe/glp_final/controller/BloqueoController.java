@@ -0,0 +1,40 @@
+package pucp.edu.pe.glp_final.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pucp.edu.pe.glp_final.dto.BloqueoDTO;
+import pucp.edu.pe.glp_final.dto.ResultadoCargaBloqueosDTO;
+import pucp.edu.pe.glp_final.service.CargaBloqueosService;
+import pucp.edu.pe.glp_final.service.MapaService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/bloqueos")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class BloqueoController {
+
+    private final MapaService mapaService;
+    private final CargaBloqueosService cargaBloqueosService;
+
+    @PostMapping
+    public ResponseEntity<Void> registrarBloqueos(@RequestBody List<BloqueoDTO> bloqueos) {
+        mapaService.cargarBloqueos(bloqueos);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Carga un archivo de bloqueos mensual (texto plano, una línea por bloqueo)
+     */
+    @PostMapping(value = "/carga", consumes = {"text/plain", "application/octet-stream"})
+    public ResponseEntity<ResultadoCargaBloqueosDTO> cargarArchivo(@RequestParam int anio, @RequestParam int mes,
+                                                                   InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(cargaBloqueosService.cargar(cuerpo, anio, mes));
+    }
+}
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pucp.edu.pe.glp_final.dto.CamionDTO;
+import pucp.edu.pe.glp_final.dto.PaginaDTO;
 import pucp.edu.pe.glp_final.model.enums.EstadoCamion;
 import pucp.edu.pe.glp_final.service.CamionService;
 
@@ -26,6 +27,12 @@ public class CamionController {
         return ResponseEntity.ok(camiones);
     }
 
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaDTO<CamionDTO>> obtenerPagina(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(camionService.obtenerPagina(cursor, limite));
+    }
+
     @GetMapping("/{codigo}")
     public ResponseEntity<CamionDTO> obtenerPorCodigo(@PathVariable String codigo) {
         return camionService.obtenerPorCodigo(codigo)
@@ -3,12 +3,18 @@ package pucp.edu.pe.glp_final.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.*;
 import pucp.edu.pe.glp_final.dto.CrearPedidoRequest;
+import pucp.edu.pe.glp_final.dto.PaginaDTO;
 import pucp.edu.pe.glp_final.dto.PedidoDTO;
+import pucp.edu.pe.glp_final.dto.ResultadoCargaPedidosDTO;
+import pucp.edu.pe.glp_final.service.CargaPedidosService;
 import pucp.edu.pe.glp_final.service.PedidoService;
 import pucp.edu.pe.glp_final.service.WebSocketService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,6 +27,7 @@ public class PedidoController {
 
     private final PedidoService pedidoService;
     private final WebSocketService webSocketService;
+    private final CargaPedidosService cargaPedidosService;
 
     @GetMapping
     public ResponseEntity<List<PedidoDTO>> obtenerTodos() {
@@ -34,6 +41,37 @@ public class PedidoController {
         return ResponseEntity.ok(pedidos);
     }
 
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaDTO<PedidoDTO>> obtenerPagina(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(pedidoService.obtenerPagina(cursor, limite));
+    }
+
+    @GetMapping("/pendientes/pagina")
+    public ResponseEntity<PaginaDTO<PedidoDTO>> obtenerPaginaPendientes(@RequestParam(required = false) String cursor,
+                                                                        @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(pedidoService.obtenerPaginaPendientes(cursor, limite));
+    }
+
+    /**
+     * Todos los pedidos en NDJSON, escritos a medida que se leen de la base de datos
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamTodos() {
+        StreamingResponseBody cuerpo = pedidoService::escribirTodosNdjson;
+        return ResponseEntity.ok(cuerpo);
+    }
+
+    /**
+     * Carga un archivo de ventas mensual enviado tal cual como cuerpo de la petición;
+     * se procesa a medida que llega, sin guardarlo completo en memoria
+     */
+    @PostMapping(value = "/carga", consumes = {"text/plain", "application/octet-stream"})
+    public ResponseEntity<ResultadoCargaPedidosDTO> cargarArchivo(@RequestParam int anio, @RequestParam int mes,
+                                                                  InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(cargaPedidosService.cargar(cuerpo, anio, mes));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<PedidoDTO> obtenerPorId(@PathVariable String id) {
         return pedidoService.obtenerPorId(id)
@@ -47,6 +85,12 @@ public class PedidoController {
         return ResponseEntity.ok(pedidos);
     }
 
+    @GetMapping("/camion/{codigoCamion}/pendientes")
+    public ResponseEntity<List<PedidoDTO>> obtenerPendientesPorCamion(@PathVariable String codigoCamion) {
+        List<PedidoDTO> pedidos = pedidoService.obtenerPendientesPorCamion(codigoCamion);
+        return ResponseEntity.ok(pedidos);
+    }
+
     @GetMapping("/vencidos")
     public ResponseEntity<List<PedidoDTO>> obtenerVencidos(@RequestParam(required = false) LocalDateTime momento) {
         LocalDateTime momentoConsulta = momento != null ? momento : LocalDateTime.now();
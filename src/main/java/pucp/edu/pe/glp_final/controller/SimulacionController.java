@@ -4,12 +4,19 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import pucp.edu.pe.glp_final.dto.BarridoSimulacionRequest;
 import pucp.edu.pe.glp_final.dto.EstadoSimulacionDTO;
 import pucp.edu.pe.glp_final.dto.IniciarSimulacionRequest;
-import pucp.edu.pe.glp_final.dto.EstadoSimulacionDTO.EscenarioSimulacion;
+import pucp.edu.pe.glp_final.dto.InstantaneaSimulacionDTO;
+import pucp.edu.pe.glp_final.dto.PistaMovimientoDTO;
+import pucp.edu.pe.glp_final.dto.ReporteSimulacionDTO;
+import pucp.edu.pe.glp_final.dto.ResultadoBarridoDTO;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
+import pucp.edu.pe.glp_final.service.BarridoSimulacionService;
+import pucp.edu.pe.glp_final.service.SimulacionService;
 
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.util.List;
 
 @RestController
 @RequestMapping("/simulacion")
@@ -18,11 +25,8 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class SimulacionController {
 
-    // Simulador simple para demostración
-    private boolean simulacionActiva = false;
-    private EscenarioSimulacion escenarioActual = null;
-    private LocalDateTime fechaInicio = null;
-    private Double velocidadSimulacion = 1.0;
+    private final SimulacionService simulacionService;
+    private final BarridoSimulacionService barridoSimulacionService;
 
     @PostMapping("/iniciar")
     public ResponseEntity<EstadoSimulacionDTO> iniciarSimulacion(@RequestBody IniciarSimulacionRequest request) {
@@ -38,15 +42,7 @@ public class SimulacionController {
                 request.setVelocidadSimulacion(1.0);
             }
 
-            // Iniciar simulación
-            this.simulacionActiva = true;
-            this.escenarioActual = request.getEscenario();
-            this.fechaInicio = request.getFechaInicio();
-            this.velocidadSimulacion = request.getVelocidadSimulacion();
-
-            log.info("Simulación iniciada: Escenario {}, Velocidad {}x", escenarioActual, velocidadSimulacion);
-
-            EstadoSimulacionDTO estado = obtenerEstadoActual();
+            EstadoSimulacionDTO estado = simulacionService.iniciarSimulacion(request);
             return ResponseEntity.ok(estado);
 
         } catch (Exception e) {
@@ -55,43 +51,70 @@ public class SimulacionController {
         }
     }
 
+    /**
+     * Ejecuta el escenario completo a máxima velocidad y devuelve sus indicadores
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ReporteSimulacionDTO> ejecutarLote(@RequestBody IniciarSimulacionRequest request) {
+        if (request.getEscenario() == null) {
+            request.setEscenario(EscenarioSimulacion.SIMULACION_SEMANAL);
+        }
+        if (request.getFechaInicio() == null) {
+            request.setFechaInicio(LocalDateTime.now());
+        }
+
+        try {
+            return ResponseEntity.ok(simulacionService.ejecutarLote(request));
+        } catch (Exception e) {
+            log.error("Error en simulación en lote", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Barrido Monte Carlo: réplicas con semilla en paralelo e intervalos de confianza de los indicadores
+     */
+    @PostMapping("/barrido")
+    public ResponseEntity<ResultadoBarridoDTO> ejecutarBarrido(@RequestBody BarridoSimulacionRequest request) {
+        return ResponseEntity.ok(barridoSimulacionService.ejecutarBarrido(request));
+    }
+
+    /**
+     * Reproduce a máxima velocidad una corrida registrada con registrarEventos=true.
+     * Con replanificar=true ejecuta el planificador actual sobre las mismas entradas.
+     */
+    @PostMapping("/reproducir/{simulacionId}")
+    public ResponseEntity<ReporteSimulacionDTO> reproducir(@PathVariable String simulacionId,
+                                                           @RequestParam(defaultValue = "false") boolean replanificar) {
+        return ResponseEntity.ok(simulacionService.reproducir(simulacionId, replanificar));
+    }
+
     @PostMapping("/pausar")
     public ResponseEntity<EstadoSimulacionDTO> pausarSimulacion() {
-        if (!simulacionActiva) {
+        try {
+            return ResponseEntity.ok(simulacionService.pausarSimulacion());
+        } catch (IllegalStateException e) {
             return ResponseEntity.badRequest().build();
         }
-
-        log.info("Simulación pausada");
-        EstadoSimulacionDTO estado = obtenerEstadoActual();
-        return ResponseEntity.ok(estado);
     }
 
     @PostMapping("/reanudar")
     public ResponseEntity<EstadoSimulacionDTO> reanudarSimulacion() {
-        if (!simulacionActiva) {
+        try {
+            return ResponseEntity.ok(simulacionService.reanudarSimulacion());
+        } catch (IllegalStateException e) {
             return ResponseEntity.badRequest().build();
         }
-
-        log.info("Simulación reanudada");
-        EstadoSimulacionDTO estado = obtenerEstadoActual();
-        return ResponseEntity.ok(estado);
     }
 
     @PostMapping("/detener")
     public ResponseEntity<EstadoSimulacionDTO> detenerSimulacion() {
-        this.simulacionActiva = false;
-        this.escenarioActual = null;
-        this.fechaInicio = null;
-
-        log.info("Simulación detenida");
-        EstadoSimulacionDTO estado = obtenerEstadoActual();
-        return ResponseEntity.ok(estado);
+        return ResponseEntity.ok(simulacionService.detenerSimulacion());
     }
 
     @GetMapping("/estado")
     public ResponseEntity<EstadoSimulacionDTO> obtenerEstado() {
-        EstadoSimulacionDTO estado = obtenerEstadoActual();
-        return ResponseEntity.ok(estado);
+        return ResponseEntity.ok(simulacionService.obtenerEstadoActual());
     }
 
     @PostMapping("/velocidad")
@@ -100,14 +123,85 @@ public class SimulacionController {
             return ResponseEntity.badRequest().build();
         }
 
-        this.velocidadSimulacion = velocidad;
-        log.info("Velocidad de simulación cambiada a: {}x", velocidad);
+        simulacionService.cambiarVelocidad(velocidad);
         return ResponseEntity.ok().build();
     }
 
     @GetMapping("/activa")
     public ResponseEntity<Boolean> estaActiva() {
-        return ResponseEntity.ok(simulacionActiva);
+        return ResponseEntity.ok(simulacionService.estaActiva());
+    }
+
+    // Sesiones concurrentes: cada una con su reloj, flota y tópicos /topic/simulacion/{id}/...
+    @GetMapping("/sesiones")
+    public ResponseEntity<List<EstadoSimulacionDTO>> listarSesiones() {
+        return ResponseEntity.ok(simulacionService.listarSesiones());
+    }
+
+    @GetMapping("/sesiones/{sesionId}")
+    public ResponseEntity<EstadoSimulacionDTO> obtenerSesion(@PathVariable String sesionId) {
+        return simulacionService.obtenerEstado(sesionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/sesiones/{sesionId}/rutas/{rutaId}/pista")
+    public ResponseEntity<PistaMovimientoDTO> obtenerPistaRuta(@PathVariable String sesionId,
+                                                              @PathVariable String rutaId) {
+        return simulacionService.obtenerPistaRuta(sesionId, rutaId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/sesiones/{sesionId}/pausar")
+    public ResponseEntity<EstadoSimulacionDTO> pausarSesion(@PathVariable String sesionId) {
+        return ResponseEntity.ok(simulacionService.pausarSimulacion(sesionId));
+    }
+
+    @PostMapping("/sesiones/{sesionId}/reanudar")
+    public ResponseEntity<EstadoSimulacionDTO> reanudarSesion(@PathVariable String sesionId) {
+        return ResponseEntity.ok(simulacionService.reanudarSimulacion(sesionId));
+    }
+
+    @PostMapping("/sesiones/{sesionId}/detener")
+    public ResponseEntity<EstadoSimulacionDTO> detenerSesion(@PathVariable String sesionId) {
+        return ResponseEntity.ok(simulacionService.detenerSimulacion(sesionId));
+    }
+
+    @PostMapping("/sesiones/{sesionId}/velocidad")
+    public ResponseEntity<Void> cambiarVelocidadSesion(@PathVariable String sesionId, @RequestParam Double velocidad) {
+        simulacionService.cambiarVelocidad(sesionId, velocidad);
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/sesiones/{sesionId}")
+    public ResponseEntity<Void> eliminarSesion(@PathVariable String sesionId) {
+        return simulacionService.eliminarSesion(sesionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // Instantáneas: estado completo de una sesión para reanudarla o bifurcarla
+    @PostMapping("/sesiones/{sesionId}/instantaneas")
+    public ResponseEntity<InstantaneaSimulacionDTO> guardarInstantanea(@PathVariable String sesionId) {
+        return ResponseEntity.ok(simulacionService.guardarInstantanea(sesionId));
+    }
+
+    @GetMapping("/sesiones/{sesionId}/instantaneas")
+    public ResponseEntity<List<InstantaneaSimulacionDTO>> listarInstantaneas(@PathVariable String sesionId) {
+        return ResponseEntity.ok(simulacionService.listarInstantaneas(sesionId));
+    }
+
+    /**
+     * Inicia una nueva sesión desde la instantánea; la sesión original no se modifica
+     */
+    @PostMapping("/instantaneas/{instantaneaId}/restaurar")
+    public ResponseEntity<EstadoSimulacionDTO> restaurarInstantanea(@PathVariable String instantaneaId,
+                                                                    @RequestParam(defaultValue = "1.0") Double velocidad) {
+        if (velocidad <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(simulacionService.restaurarInstantanea(instantaneaId, velocidad));
     }
 
     // Endpoints para escenarios específicos
@@ -136,19 +230,4 @@ public class SimulacionController {
 
         return iniciarSimulacion(request);
     }
-
-    private EstadoSimulacionDTO obtenerEstadoActual() {
-        EstadoSimulacionDTO estado = new EstadoSimulacionDTO();
-        estado.setId(simulacionActiva ? "SIM-" + System.currentTimeMillis() : null);
-        estado.setEscenario(escenarioActual);
-        estado.setMomentoActual(simulacionActiva ? LocalDateTime.now() : null);
-        estado.setActiva(simulacionActiva);
-        estado.setProgreso(simulacionActiva ? Math.random() * 100 : 0.0); // Mock
-        estado.setPedidosPendientes(simulacionActiva ? (int)(Math.random() * 50) : 0);
-        estado.setPedidosEntregados(simulacionActiva ? (int)(Math.random() * 100) : 0);
-        estado.setConsumoCombustibleTotal(simulacionActiva ? Math.random() * 1000 : 0.0);
-        estado.setDistanciaRecorridaTotal(simulacionActiva ? Math.random() * 5000 : 0.0);
-
-        return estado;
-    }
 }
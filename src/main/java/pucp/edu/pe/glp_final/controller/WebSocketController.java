@@ -2,6 +2,7 @@ package pucp.edu.pe.glp_final.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
@@ -57,6 +58,27 @@ public class WebSocketController {
         }
     }
 
+    /**
+     * Estado inicial al suscribirse al tópico de una sesión de simulación
+     */
+    @SubscribeMapping("/simulacion/{sesionId}/estado")
+    public Object suscribirEstadoSesion(@DestinationVariable String sesionId) {
+        return simulacionService.obtenerEstado(sesionId)
+                .<Object>map(estado -> estado)
+                .orElse("Sesión de simulación no encontrada");
+    }
+
+    /**
+     * Estado completo al suscribirse a los deltas de una sesión; tras un salto en la
+     * secuencia el cliente se vuelve a suscribir para resincronizarse
+     */
+    @SubscribeMapping("/simulacion/{sesionId}/delta")
+    public Object suscribirDeltasSesion(@DestinationVariable String sesionId) {
+        return simulacionService.obtenerEstadoBase(sesionId)
+                .<Object>map(estado -> estado)
+                .orElse("Sesión de simulación no encontrada");
+    }
+
     /**
      * Maneja mensajes de ping desde el cliente
      */
@@ -0,0 +1,15 @@
+package pucp.edu.pe.glp_final.dto;
+
+import lombok.Data;
+
+/**
+ * Barrido Monte Carlo: réplicas de un mismo escenario con semillas consecutivas
+ */
+@Data
+public class BarridoSimulacionRequest {
+    private IniciarSimulacionRequest simulacion;
+    private Integer replicaciones;
+    private Long semillaBase;      // Réplica i usa semillaBase + i
+    private Integer paralelismo;   // Por defecto, núcleos disponibles
+    private Boolean incluirReportes; // Incluir el reporte de cada réplica
+}
@@ -0,0 +1,21 @@
+package pucp.edu.pe.glp_final.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import pucp.edu.pe.glp_final.model.enums.EstadoCamion;
+
+/**
+ * Campos de un camión que cambiaron desde la publicación anterior; los demás van nulos y no se envían
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CambioCamionDTO {
+    private String codigo;
+    private UbicacionDTO ubicacion;
+    private EstadoCamion estado;
+    private Double nivelGlpActual;
+    private Double nivelCombustibleActual;
+    private Boolean enMantenimiento;
+    private Boolean averiado;
+    private String motivoEstado; // "" si se borró
+}
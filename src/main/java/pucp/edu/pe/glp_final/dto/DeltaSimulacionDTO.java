@@ -0,0 +1,30 @@
+package pucp.edu.pe.glp_final.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cambios del estado de una sesión respecto a la publicación anterior. La secuencia
+ * aumenta de uno en uno: si el cliente detecta un salto, vuelve a suscribirse para
+ * recibir el estado completo y aplica solo los deltas de secuencia mayor.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class DeltaSimulacionDTO {
+    private String simulacionId;
+    private long secuencia;
+    private LocalDateTime momentoActual;
+    private Double progreso;
+    private Boolean activa;
+    private Integer pedidosPendientes;
+    private Integer pedidosEntregados;
+    private Double consumoCombustibleTotal;
+    private Double distanciaRecorridaTotal;
+    private List<CambioCamionDTO> camiones = new ArrayList<>();
+    private List<String> rutasAgregadas = new ArrayList<>();
+    private List<String> rutasRetiradas = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package pucp.edu.pe.glp_final.dto;
+
+import lombok.Data;
+
+/**
+ * Distribución de un indicador sobre las réplicas de un barrido
+ */
+@Data
+public class EstadisticaKpiDTO {
+    private Integer muestras;
+    private Double media;
+    private Double desviacionEstandar;
+    private Double minimo;
+    private Double maximo;
+    private Double intervaloConfianza95Inferior;
+    private Double intervaloConfianza95Superior;
+}
@@ -1,6 +1,7 @@
 package pucp.edu.pe.glp_final.dto;
 
 import lombok.Data;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,6 +15,8 @@ public class EstadoSimulacionDTO {
     private Boolean activa;
     private List<CamionDTO> estadoCamiones;
     private List<RutaDTO> rutasActivas;
+    private List<String> idsRutasActivas;
+    private Long secuencia; // Último delta incluido, en el estado completo del tópico de deltas
     private Integer pedidosPendientes;
     private Integer pedidosEntregados;
     private Double consumoCombustibleTotal;
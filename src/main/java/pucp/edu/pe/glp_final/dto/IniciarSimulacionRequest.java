@@ -13,4 +13,11 @@ public class IniciarSimulacionRequest {
     private Double velocidadSimulacion;
     private Boolean incluirAverias;
     private Boolean incluirMantenimientos;
+    private Boolean maximaVelocidad; // Sin espera entre eventos
+    private Long semilla; // Opcional, para resultados reproducibles
+    private Boolean registrarEventos; // Registro binario para reproducir la corrida
+    private Integer horasEntreInstantaneas; // Horas simuladas entre puntos de control; sin valor no se guardan
+    private Integer minutosHorizonteCongelado; // Horizonte rodante; sin valor las rutas en curso no se replanifican
+    private Boolean posicionesBinarias; // Publica también las posiciones de la flota en binario
+    private Integer horasVentanaCarga; // Carga pedidos y bloqueos por ventanas; sin valor se cargan todos al inicio
 }
\ No newline at end of file
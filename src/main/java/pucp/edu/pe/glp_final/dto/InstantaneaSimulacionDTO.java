@@ -0,0 +1,20 @@
+package pucp.edu.pe.glp_final.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Instantánea guardada de una simulación, desde la que se puede restaurar o bifurcar
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstantaneaSimulacionDTO {
+    private String id;
+    private String simulacionId;
+    private LocalDateTime momento; // Momento simulado
+    private Long tamanoBytes;
+}
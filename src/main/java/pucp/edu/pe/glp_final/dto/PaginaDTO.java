@@ -0,0 +1,19 @@
+package pucp.edu.pe.glp_final.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados con cursor opaco para pedir la siguiente (paginación por clave)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> elementos;
+    private String siguienteCursor;
+    private boolean hayMas;
+}
@@ -0,0 +1,19 @@
+package pucp.edu.pe.glp_final.dto;
+
+import lombok.Data;
+
+/**
+ * Recorrido que le resta a una ruta como cuadros clave en arreglos paralelos. La
+ * posición entre dos cuadros se obtiene interpolando linealmente, así que el cliente
+ * pide la pista una vez y anima localmente en lugar de consultar la posición.
+ */
+@Data
+public class PistaMovimientoDTO {
+    private String rutaId;
+    private String codigoCamion;
+    private long inicio; // Segundos UTC del primer cuadro
+    private int[] segundos; // Desde inicio
+    private int[] x;
+    private int[] y;
+    private int[] tipos; // Ordinal de MovimientoCamion.PasoMovimiento.TipoPaso
+}
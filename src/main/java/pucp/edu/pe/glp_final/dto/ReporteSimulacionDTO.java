@@ -0,0 +1,48 @@
+package pucp.edu.pe.glp_final.dto;
+
+import lombok.Data;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Indicadores de una simulación ejecutada en modo lote
+ */
+@Data
+public class ReporteSimulacionDTO {
+    private String id;
+    private EscenarioSimulacion escenario;
+    private Long semilla;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime momentoFinal;
+    private Long duracionEjecucionMs; // Tiempo real de ejecución
+    private Long eventosProcesados;
+
+    // Pedidos
+    private Integer pedidosRecibidos;
+    private Integer pedidosGenerados;
+    private Integer pedidosEntregados;
+    private Integer pedidosATiempo;
+    private Integer pedidosPendientes;
+    private Double tasaEntregaATiempo; // Entregados a tiempo / entregados (0-1)
+
+    // Recursos
+    private Double consumoCombustibleTotal;
+    private Double distanciaRecorridaTotal;
+
+    // Colapso (null si no se alcanzó)
+    private LocalDateTime momentoColapso;
+    private Double horasHastaColapso;
+
+    // Latencia del planificador (ms)
+    private Integer planificaciones;
+    private Double latenciaPlanificacionP50Ms;
+    private Double latenciaPlanificacionP90Ms;
+    private Double latenciaPlanificacionP99Ms;
+    private Double latenciaPlanificacionMaxMs;
+
+    // Reparaciones incrementales de rutas tras averías
+    private Integer reparaciones;
+    private Double latenciaReparacionP99Ms;
+    private Double latenciaReparacionMaxMs;
+}
@@ -0,0 +1,22 @@
+package pucp.edu.pe.glp_final.dto;
+
+import lombok.Data;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado agregado de un barrido Monte Carlo
+ */
+@Data
+public class ResultadoBarridoDTO {
+    private EscenarioSimulacion escenario;
+    private Integer replicaciones;
+    private Long semillaBase;
+    private Integer paralelismo;
+    private Long duracionEjecucionMs;
+    private Integer replicasConColapso;
+    private Map<String, EstadisticaKpiDTO> indicadores; // Por nombre de indicador
+    private List<ReporteSimulacionDTO> reportes;        // Solo si se solicitaron
+}
@@ -0,0 +1,21 @@
+package pucp.edu.pe.glp_final.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de cargar un archivo de bloqueos, con su rendimiento
+ */
+@Data
+public class ResultadoCargaBloqueosDTO {
+    private Integer anio;
+    private Integer mes;
+    private Long lineasLeidas;
+    private Long bloqueosInsertados;
+    private Long nodosBloqueados;
+    private Long lineasRechazadas;
+    private Long duracionMs;
+    private List<String> errores = new ArrayList<>(); // Solo los primeros
+}
@@ -20,9 +20,14 @@ public class BloqueoEntity {
     @Column(name = "hora_fin", nullable = false)
     private LocalDateTime horaFin;
 
+    // Solo en registros anteriores a nodos_codificados
     @Column(name = "nodos_bloqueados", columnDefinition = "TEXT")
     private String nodosBloqueados; // JSON string de ubicaciones
 
+    // Celdas bloqueadas, en orden a lo largo del bloqueo, codificadas con SecuenciaNodosCodec
+    @Column(name = "nodos_codificados", columnDefinition = "BYTEA")
+    private byte[] nodosCodificados;
+
     @Column(name = "activo")
     private Boolean activo = true;
 
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos") // Índices en IndicesBaseDatosConfig
 @Data
 @NoArgsConstructor
 public class PedidoEntity {
@@ -32,6 +32,10 @@ public class PedidoEntity {
     @Column(name = "horas_limite_entrega", nullable = false)
     private Integer horasLimiteEntrega;
 
+    // Persistida para que las consultas de vencimiento usen índice
+    @Column(name = "hora_limite_entrega")
+    private LocalDateTime horaLimiteEntrega;
+
     @Column(name = "hora_entrega_programada")
     private LocalDateTime horaEntregaProgramada;
 
@@ -47,8 +51,17 @@ public class PedidoEntity {
     @Column(name = "fecha_creacion")
     private LocalDateTime fechaCreacion = LocalDateTime.now();
 
-    // Método calculado para hora límite
+    // Hora límite almacenada, o calculada si la entidad aún no se ha guardado
     public LocalDateTime getHoraLimiteEntrega() {
-        return horaRecepcion.plusHours(horasLimiteEntrega);
+        if (horaLimiteEntrega == null && horaRecepcion != null && horasLimiteEntrega != null) {
+            return horaRecepcion.plusHours(horasLimiteEntrega);
+        }
+        return horaLimiteEntrega;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void calcularHoraLimiteEntrega() {
+        horaLimiteEntrega = horaRecepcion.plusHours(horasLimiteEntrega);
     }
 }
\ No newline at end of file
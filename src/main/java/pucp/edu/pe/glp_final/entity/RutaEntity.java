@@ -54,6 +54,14 @@ public class RutaEntity {
     @Column(name = "fecha_creacion")
     private LocalDateTime fechaCreacion = LocalDateTime.now();
 
+    // Secuencia completa de nodos codificada con SecuenciaNodosCodec.
+    // En ruta_nodos solo se guardan las paradas.
+    @Column(name = "nodos_codificados", columnDefinition = "BYTEA")
+    private byte[] nodosCodificados;
+
+    @Column(name = "cantidad_nodos")
+    private Integer cantidadNodos = 0;
+
     // Relaciones
     @OneToMany(mappedBy = "ruta", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<RutaPedidoEntity> pedidosAsignados;
@@ -83,6 +83,45 @@ public class EntityMapper {
         return camion;
     }
 
+    public Camion toModel(CamionDTO dto) {
+        if (dto == null) return null;
+
+        Ubicacion ubicacion = new Ubicacion(dto.getUbicacion().getX(), dto.getUbicacion().getY());
+        Camion camion = new Camion(dto.getCodigo(), dto.getTipo(), ubicacion);
+
+        camion.setEstado(dto.getEstado());
+        camion.setNivelGLPActual(dto.getNivelGlpActual());
+        camion.setNivelCombustibleActual(dto.getNivelCombustibleActual());
+        camion.setEnMantenimiento(dto.getEnMantenimiento());
+        camion.setAveriado(dto.getAveriado());
+        camion.setMotivoEstado(dto.getMotivoEstado());
+        camion.setFechaUltimoMantenimiento(dto.getFechaUltimoMantenimiento());
+        camion.setFechaProximoMantenimiento(dto.getFechaProximoMantenimiento());
+
+        return camion;
+    }
+
+    public CamionDTO toDTO(Camion camion) {
+        if (camion == null) return null;
+
+        CamionDTO dto = new CamionDTO();
+        dto.setCodigo(camion.getCodigo());
+        dto.setTipo(camion.getTipo());
+        dto.setUbicacion(new UbicacionDTO(camion.getUbicacionActual().getX(), camion.getUbicacionActual().getY()));
+        dto.setEstado(camion.getEstado());
+        dto.setNivelGlpActual(camion.getNivelGLPActual());
+        dto.setNivelCombustibleActual(camion.getNivelCombustibleActual());
+        dto.setEnMantenimiento(camion.isEnMantenimiento());
+        dto.setAveriado(camion.isAveriado());
+        dto.setMotivoEstado(camion.getMotivoEstado());
+        dto.setFechaUltimoMantenimiento(camion.getFechaUltimoMantenimiento());
+        dto.setFechaProximoMantenimiento(camion.getFechaProximoMantenimiento());
+        dto.setCapacidadTanqueGLP(camion.getCapacidadTanqueGLP());
+        dto.setPesoTara(camion.getPesoTara());
+
+        return dto;
+    }
+
     private Double getCapacidadPorTipo(TipoCamion tipo) {
         return switch (tipo) {
             case TA -> 25.0;
@@ -164,6 +203,25 @@ public class EntityMapper {
         return pedido;
     }
 
+    public PedidoDTO toDTO(Pedido pedido) {
+        if (pedido == null) return null;
+
+        PedidoDTO dto = new PedidoDTO();
+        dto.setId(pedido.getId());
+        dto.setIdCliente(pedido.getIdCliente());
+        dto.setUbicacion(new UbicacionDTO(pedido.getUbicacion().getX(), pedido.getUbicacion().getY()));
+        dto.setCantidadGlp(pedido.getCantidadGLP());
+        dto.setHorasLimiteEntrega((int) pedido.getTiempoLimiteEntrega().toHours());
+        dto.setHoraRecepcion(pedido.getHoraRecepcion());
+        dto.setHoraEntregaProgramada(pedido.getHoraEntregaProgramada());
+        dto.setHoraEntregaReal(pedido.getHoraEntregaReal());
+        dto.setCamionAsignado(pedido.getCamionAsignado());
+        dto.setEntregado(pedido.isEntregado());
+        dto.setHoraLimiteEntrega(pedido.getHoraLimiteEntrega());
+
+        return dto;
+    }
+
     // ========================================
     // RUTA MAPPERS
     // ========================================
@@ -192,12 +250,22 @@ public class EntityMapper {
                     .collect(Collectors.toList()));
         }
 
-        // Mapear nodos
-        if (rutaNodos != null) {
+        // Mapear nodos: la secuencia completa viene codificada; las filas de ruta_nodos
+        // antiguas (sin codificar) contienen todos los nodos
+        if (entity.getNodosCodificados() != null) {
+            List<UbicacionDTO> nodos = new ArrayList<>(
+                    SecuenciaNodosCodec.contarNodos(entity.getNodosCodificados()));
+            for (Ubicacion nodo : SecuenciaNodosCodec.decodificar(entity.getNodosCodificados())) {
+                nodos.add(new UbicacionDTO(nodo.getX(), nodo.getY()));
+            }
+            dto.setSecuenciaNodos(nodos);
+        } else if (rutaNodos != null) {
             dto.setSecuenciaNodos(rutaNodos.stream()
                     .map(rn -> new UbicacionDTO(rn.getUbicacionX(), rn.getUbicacionY()))
                     .collect(Collectors.toList()));
+        }
 
+        if (rutaNodos != null) {
             dto.setSecuenciaParadas(rutaNodos.stream()
                     .filter(RutaNodoEntity::getEsParada)
                     .map(rn -> new UbicacionDTO(rn.getUbicacionX(), rn.getUbicacionY()))
@@ -207,6 +275,51 @@ public class EntityMapper {
         return dto;
     }
 
+    public RutaEntity toEntity(Ruta ruta) {
+        if (ruta == null) return null;
+
+        RutaEntity entity = new RutaEntity();
+        entity.setId(ruta.getId());
+        entity.setCodigoCamion(ruta.getCodigoCamion());
+        entity.setOrigenX(ruta.getOrigen().getX());
+        entity.setOrigenY(ruta.getOrigen().getY());
+        if (ruta.getDestino() != null) {
+            entity.setDestinoX(ruta.getDestino().getX());
+            entity.setDestinoY(ruta.getDestino().getY());
+        }
+        entity.setHoraInicio(ruta.getHoraInicio());
+        entity.setHoraFinEstimada(ruta.calcularHoraFin());
+        entity.setHoraFinReal(ruta.getHoraFinReal());
+        entity.setDistanciaTotal(ruta.getDistanciaTotal());
+        entity.setConsumoCombustible(ruta.getConsumoCombustible());
+        entity.setCompletada(ruta.isCompletada());
+        entity.setCancelada(ruta.isCancelada());
+
+        // Secuencia completa en un solo blob, paradas como filas
+        entity.setNodosCodificados(SecuenciaNodosCodec.codificar(ruta.getSecuenciaNodos()));
+        entity.setCantidadNodos(ruta.getSecuenciaNodos().size());
+        entity.setNodos(toRutaNodoParadas(entity, ruta.getSecuenciaParadas()));
+
+        return entity;
+    }
+
+    /**
+     * Crea las filas de ruta_nodos solo para las paradas de la ruta
+     */
+    public List<RutaNodoEntity> toRutaNodoParadas(RutaEntity ruta, List<Ubicacion> paradas) {
+        List<RutaNodoEntity> nodos = new ArrayList<>(paradas.size());
+        for (int i = 0; i < paradas.size(); i++) {
+            RutaNodoEntity nodo = new RutaNodoEntity();
+            nodo.setRuta(ruta);
+            nodo.setUbicacionX(paradas.get(i).getX());
+            nodo.setUbicacionY(paradas.get(i).getY());
+            nodo.setOrdenSecuencia(i);
+            nodo.setEsParada(true);
+            nodos.add(nodo);
+        }
+        return nodos;
+    }
+
     // ========================================
     // BLOQUEO MAPPERS
     // ========================================
@@ -220,18 +333,39 @@ public class EntityMapper {
         dto.setHoraFin(entity.getHoraFin());
         dto.setActivo(entity.getActivo());
 
-        // Deserializar nodos bloqueados desde JSON
+        List<UbicacionDTO> nodos = new ArrayList<>();
+        for (Ubicacion nodo : nodosBloqueados(entity)) {
+            nodos.add(new UbicacionDTO(nodo.getX(), nodo.getY()));
+        }
+        dto.setNodosBloqueados(nodos);
+
+        return dto;
+    }
+
+    public Bloqueo toModel(BloqueoEntity entity) {
+        if (entity == null) return null;
+        return new Bloqueo(entity.getHoraInicio(), entity.getHoraFin(), nodosBloqueados(entity));
+    }
+
+    /**
+     * Nodos del bloqueo desde la columna binaria; los registros anteriores a ella se leen del JSON
+     */
+    private List<Ubicacion> nodosBloqueados(BloqueoEntity entity) {
+        if (entity.getNodosCodificados() != null) {
+            return SecuenciaNodosCodec.decodificar(entity.getNodosCodificados());
+        }
+        if (entity.getNodosBloqueados() == null) {
+            return new ArrayList<>();
+        }
         try {
             List<UbicacionDTO> nodos = objectMapper.readValue(
                     entity.getNodosBloqueados(),
                     new TypeReference<List<UbicacionDTO>>() {}
             );
-            dto.setNodosBloqueados(nodos);
+            return nodos.stream().map(n -> new Ubicacion(n.getX(), n.getY())).toList();
         } catch (JsonProcessingException e) {
-            dto.setNodosBloqueados(new ArrayList<>());
+            return new ArrayList<>();
         }
-
-        return dto;
     }
 
     public BloqueoEntity toEntity(BloqueoDTO dto) {
@@ -243,13 +377,13 @@ public class EntityMapper {
         entity.setHoraFin(dto.getHoraFin());
         entity.setActivo(dto.getActivo());
 
-        // Serializar nodos bloqueados a JSON
-        try {
-            String nodosJson = objectMapper.writeValueAsString(dto.getNodosBloqueados());
-            entity.setNodosBloqueados(nodosJson);
-        } catch (JsonProcessingException e) {
-            entity.setNodosBloqueados("[]");
+        List<Ubicacion> nodos = new ArrayList<>();
+        if (dto.getNodosBloqueados() != null) {
+            for (UbicacionDTO nodo : dto.getNodosBloqueados()) {
+                nodos.add(new Ubicacion(nodo.getX(), nodo.getY()));
+            }
         }
+        entity.setNodosCodificados(SecuenciaNodosCodec.codificar(nodos));
 
         return entity;
     }
@@ -326,7 +460,15 @@ public class EntityMapper {
         return entities.stream().map(this::toModel).collect(Collectors.toList());
     }
 
+    public List<Camion> toCamionModelListDesdeDTO(List<CamionDTO> dtos) {
+        return dtos.stream().map(this::toModel).collect(Collectors.toList());
+    }
+
     public List<Pedido> toPedidoModelList(List<PedidoEntity> entities) {
         return entities.stream().map(this::toModel).collect(Collectors.toList());
     }
+
+    public List<PedidoDTO> toPedidoDTOListDesdeModelo(List<Pedido> pedidos) {
+        return pedidos.stream().map(this::toDTO).collect(Collectors.toList());
+    }
 }
\ No newline at end of file
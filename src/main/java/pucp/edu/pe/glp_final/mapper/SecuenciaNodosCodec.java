@@ -0,0 +1,281 @@
+package pucp.edu.pe.glp_final.mapper;
+
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.io.ByteArrayOutputStream;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Codifica una secuencia de nodos del mapa en un arreglo de bytes compacto.
+ *
+ * Formato: [formato][cantidad][x0][y0][movimientos...]
+ * - DIRECCIONES: todos los pasos son a un nodo adyacente, 2 bits por paso (4 pasos por byte)
+ * - DELTAS: pares (dx, dy) en varint zigzag, para secuencias con saltos arbitrarios
+ */
+public final class SecuenciaNodosCodec {
+
+    public static final byte FORMATO_DIRECCIONES = 1;
+    public static final byte FORMATO_DELTAS = 2;
+
+    // Códigos de dirección de 2 bits
+    private static final int DERECHA = 0;   // x + 1
+    private static final int IZQUIERDA = 1; // x - 1
+    private static final int ARRIBA = 2;    // y + 1
+    private static final int ABAJO = 3;     // y - 1
+
+    private static final byte[] VACIO = new byte[0];
+
+    private SecuenciaNodosCodec() {
+    }
+
+    /**
+     * Codifica la secuencia de nodos eligiendo el formato más compacto posible
+     * @param nodos Secuencia de nodos
+     * @return Bytes codificados (arreglo vacío si no hay nodos)
+     */
+    public static byte[] codificar(List<Ubicacion> nodos) {
+        if (nodos == null || nodos.isEmpty()) {
+            return VACIO;
+        }
+
+        boolean soloAdyacentes = true;
+        for (int i = 1; i < nodos.size() && soloAdyacentes; i++) {
+            soloAdyacentes = nodos.get(i - 1).distanciaA(nodos.get(i)) == 1;
+        }
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(8 + nodos.size() / 2);
+        salida.write(soloAdyacentes ? FORMATO_DIRECCIONES : FORMATO_DELTAS);
+        escribirVarint(salida, nodos.size());
+
+        Ubicacion primero = nodos.get(0);
+        escribirVarint(salida, zigzag(primero.getX()));
+        escribirVarint(salida, zigzag(primero.getY()));
+
+        if (soloAdyacentes) {
+            int acumulado = 0;
+            int bits = 0;
+            for (int i = 1; i < nodos.size(); i++) {
+                acumulado |= codigoDireccion(nodos.get(i - 1), nodos.get(i)) << bits;
+                bits += 2;
+                if (bits == 8) {
+                    salida.write(acumulado);
+                    acumulado = 0;
+                    bits = 0;
+                }
+            }
+            if (bits > 0) {
+                salida.write(acumulado);
+            }
+        } else {
+            for (int i = 1; i < nodos.size(); i++) {
+                Ubicacion anterior = nodos.get(i - 1);
+                Ubicacion actual = nodos.get(i);
+                escribirVarint(salida, zigzag(actual.getX() - anterior.getX()));
+                escribirVarint(salida, zigzag(actual.getY() - anterior.getY()));
+            }
+        }
+
+        return salida.toByteArray();
+    }
+
+    /**
+     * Devuelve una vista de solo lectura que decodifica la secuencia bajo demanda.
+     * Recorrerla con un iterador no materializa la lista completa.
+     * @param datos Bytes generados por {@link #codificar(List)}
+     * @return Secuencia de nodos
+     */
+    public static List<Ubicacion> decodificar(byte[] datos) {
+        return new SecuenciaCodificada(datos);
+    }
+
+    /**
+     * Lee la cantidad de nodos sin decodificar la secuencia
+     */
+    public static int contarNodos(byte[] datos) {
+        if (datos == null || datos.length == 0) {
+            return 0;
+        }
+        return (int) new Lector(datos, 1).leerVarint();
+    }
+
+    private static int codigoDireccion(Ubicacion desde, Ubicacion hacia) {
+        int dx = hacia.getX() - desde.getX();
+        int dy = hacia.getY() - desde.getY();
+        if (dx == 1) return DERECHA;
+        if (dx == -1) return IZQUIERDA;
+        if (dy == 1) return ARRIBA;
+        return ABAJO;
+    }
+
+    private static int zigzag(int valor) {
+        return (valor << 1) ^ (valor >> 31);
+    }
+
+    private static int deszigzag(long valor) {
+        int v = (int) valor;
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void escribirVarint(ByteArrayOutputStream salida, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            salida.write((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.write(valor);
+    }
+
+    /**
+     * Cursor de lectura sobre el arreglo codificado
+     */
+    private static final class Lector {
+        private final byte[] datos;
+        private int posicion;
+
+        Lector(byte[] datos, int posicion) {
+            this.datos = datos;
+            this.posicion = posicion;
+        }
+
+        long leerVarint() {
+            long resultado = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos[posicion++];
+                resultado |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            return resultado;
+        }
+
+        int leerByte() {
+            return datos[posicion++] & 0xFF;
+        }
+    }
+
+    /**
+     * Lista inmutable respaldada por los bytes codificados. El acceso aleatorio
+     * decodifica una sola vez a arreglos primitivos; la iteración decodifica paso a paso.
+     * Los arreglos se publican juntos en un campo volatile, así que la lista se puede
+     * compartir entre hilos (dos hilos pueden decodificar a la vez, con el mismo resultado).
+     */
+    private static final class SecuenciaCodificada extends AbstractList<Ubicacion> {
+        private final byte[] datos;
+        private final int cantidad;
+        private volatile Coordenadas coordenadas;
+
+        SecuenciaCodificada(byte[] datos) {
+            this.datos = datos != null ? datos : VACIO;
+            this.cantidad = contarNodos(this.datos);
+        }
+
+        @Override
+        public int size() {
+            return cantidad;
+        }
+
+        @Override
+        public Ubicacion get(int indice) {
+            if (indice < 0 || indice >= cantidad) {
+                throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango: " + cantidad);
+            }
+            Coordenadas actuales = coordenadas;
+            if (actuales == null) {
+                actuales = materializar();
+                coordenadas = actuales;
+            }
+            return new Ubicacion(actuales.xs()[indice], actuales.ys()[indice]);
+        }
+
+        @Override
+        public Iterator<Ubicacion> iterator() {
+            return new Decodificador(datos, cantidad);
+        }
+
+        private Coordenadas materializar() {
+            int[] xs = new int[cantidad];
+            int[] ys = new int[cantidad];
+            Decodificador decodificador = new Decodificador(datos, cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                decodificador.avanzar();
+                xs[i] = decodificador.x;
+                ys[i] = decodificador.y;
+            }
+            return new Coordenadas(xs, ys);
+        }
+    }
+
+    private record Coordenadas(int[] xs, int[] ys) {
+    }
+
+    /**
+     * Iterador que reconstruye los nodos a partir del formato codificado
+     */
+    private static final class Decodificador implements Iterator<Ubicacion> {
+        private final Lector lector;
+        private final byte formato;
+        private final int cantidad;
+        private int leidos;
+        private int x;
+        private int y;
+        private int byteDirecciones;
+        private int bitsRestantes;
+
+        Decodificador(byte[] datos, int cantidad) {
+            this.cantidad = cantidad;
+            if (cantidad == 0) {
+                this.lector = null;
+                this.formato = 0;
+                return;
+            }
+            this.formato = datos[0];
+            if (formato != FORMATO_DIRECCIONES && formato != FORMATO_DELTAS) {
+                throw new IllegalArgumentException("Formato de secuencia de nodos desconocido: " + formato);
+            }
+            this.lector = new Lector(datos, 1);
+            lector.leerVarint(); // cantidad, ya conocida
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leidos < cantidad;
+        }
+
+        @Override
+        public Ubicacion next() {
+            avanzar();
+            return new Ubicacion(x, y);
+        }
+
+        void avanzar() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (leidos == 0) {
+                x = deszigzag(lector.leerVarint());
+                y = deszigzag(lector.leerVarint());
+            } else if (formato == FORMATO_DIRECCIONES) {
+                if (bitsRestantes == 0) {
+                    byteDirecciones = lector.leerByte();
+                    bitsRestantes = 8;
+                }
+                int codigo = byteDirecciones & 0b11;
+                byteDirecciones >>>= 2;
+                bitsRestantes -= 2;
+                switch (codigo) {
+                    case DERECHA -> x++;
+                    case IZQUIERDA -> x--;
+                    case ARRIBA -> y++;
+                    default -> y--;
+                }
+            } else {
+                x += deszigzag(lector.leerVarint());
+                y += deszigzag(lector.leerVarint());
+            }
+            leidos++;
+        }
+    }
+}
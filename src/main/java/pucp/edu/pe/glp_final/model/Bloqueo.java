@@ -31,14 +31,14 @@ public class Bloqueo {
     }
 
     /**
-     * Verifica si un nodo está bloqueado en un momento dado
+     * Verifica si un nodo está bloqueado en un momento dado. Como en {@link Mapa} e
+     * {@link IndiceBloqueos}, el bloqueo rige estrictamente entre su inicio y su fin.
      * @param nodo Nodo a verificar
      * @param momento Momento para la verificación
      * @return true si el nodo está bloqueado en ese momento
      */
     public boolean estaBloqueado(Ubicacion nodo, LocalDateTime momento) {
-        return (momento.isAfter(horaInicio) || momento.isEqual(horaInicio)) &&
-                (momento.isBefore(horaFin) || momento.isEqual(horaFin)) &&
+        return momento.isAfter(horaInicio) && momento.isBefore(horaFin) &&
                 nodosBloqueados.contains(nodo);
     }
 
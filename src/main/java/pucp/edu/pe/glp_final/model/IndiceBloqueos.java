@@ -0,0 +1,129 @@
+package pucp.edu.pe.glp_final.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bloqueos compilados para consultar por momento. Los inicios y fines de todos los
+ * bloqueos parten el tiempo en intervalos, y cada intervalo guarda en un mapa de bits
+ * las celdas bloqueadas durante él: consultar una celda es una bisección sobre los
+ * límites y la lectura de un bit. Como en {@link Mapa}, un bloqueo rige estrictamente
+ * entre su inicio y su fin, con resolución de un segundo. Es inmutable, así que un
+ * mismo índice puede compartirse entre mapas.
+ */
+public final class IndiceBloqueos {
+
+    private final int ancho;
+    private final int alto;
+    private final long[] limites; // Segundos UTC, ordenados y sin repetidos
+    private final long[][] celdas; // Bits por intervalo [limites[i], limites[i + 1]); null si no hay bloqueos
+
+    private IndiceBloqueos(int ancho, int alto, long[] limites, long[][] celdas) {
+        this.ancho = ancho;
+        this.alto = alto;
+        this.limites = limites;
+        this.celdas = celdas;
+    }
+
+    /**
+     * @param ancho Coordenada x máxima del mapa
+     * @param alto  Coordenada y máxima del mapa
+     */
+    public static IndiceBloqueos compilar(List<Bloqueo> bloqueos, int ancho, int alto) {
+        // Bloqueado si inicio < t < fin, es decir, t en [inicio + 1, fin) en segundos enteros
+        long[] desde = new long[bloqueos.size()];
+        long[] hasta = new long[bloqueos.size()];
+        long[] puntos = new long[bloqueos.size() * 2];
+        int cantidadPuntos = 0;
+        for (int b = 0; b < bloqueos.size(); b++) {
+            desde[b] = segundos(bloqueos.get(b).getHoraInicio()) + 1;
+            hasta[b] = segundos(bloqueos.get(b).getHoraFin());
+            if (desde[b] < hasta[b]) {
+                puntos[cantidadPuntos++] = desde[b];
+                puntos[cantidadPuntos++] = hasta[b];
+            }
+        }
+
+        Arrays.sort(puntos, 0, cantidadPuntos);
+        int m = 0;
+        for (int i = 0; i < cantidadPuntos; i++) {
+            if (m == 0 || puntos[i] != puntos[m - 1]) {
+                puntos[m++] = puntos[i];
+            }
+        }
+        long[] limites = Arrays.copyOf(puntos, m);
+        long[][] celdas = new long[Math.max(0, m - 1)][];
+        int palabras = ((ancho + 1) * (alto + 1) + 63) / 64;
+
+        for (int b = 0; b < bloqueos.size(); b++) {
+            if (desde[b] >= hasta[b]) {
+                continue;
+            }
+            List<Ubicacion> nodos = bloqueos.get(b).getNodosBloqueados();
+            int primero = Arrays.binarySearch(limites, desde[b]);
+            int ultimo = Arrays.binarySearch(limites, hasta[b]);
+            for (int i = primero; i < ultimo; i++) {
+                if (celdas[i] == null) {
+                    celdas[i] = new long[palabras];
+                }
+                for (Ubicacion nodo : nodos) {
+                    if (dentro(nodo.getX(), nodo.getY(), ancho, alto)) {
+                        int bit = nodo.getX() * (alto + 1) + nodo.getY();
+                        celdas[i][bit >>> 6] |= 1L << bit;
+                    }
+                }
+            }
+        }
+        return new IndiceBloqueos(ancho, alto, limites, celdas);
+    }
+
+    public boolean estaBloqueado(Ubicacion ubicacion, LocalDateTime momento) {
+        return estaBloqueado(ubicacion.getX(), ubicacion.getY(), segundos(momento));
+    }
+
+    /**
+     * @param segundo Momento en segundos UTC
+     */
+    public boolean estaBloqueado(int x, int y, long segundo) {
+        if (!dentro(x, y, ancho, alto)) {
+            return false;
+        }
+        int intervalo = siguienteLimite(segundo) - 1;
+        if (intervalo < 0 || intervalo >= celdas.length || celdas[intervalo] == null) {
+            return false;
+        }
+        int bit = x * (alto + 1) + y;
+        return (celdas[intervalo][bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public int cantidadIntervalos() {
+        return celdas.length;
+    }
+
+    /**
+     * Índice del primer límite posterior al segundo dado
+     */
+    private int siguienteLimite(long segundo) {
+        int bajo = 0;
+        int tope = limites.length;
+        while (bajo < tope) {
+            int medio = (bajo + tope) >>> 1;
+            if (limites[medio] <= segundo) {
+                bajo = medio + 1;
+            } else {
+                tope = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static boolean dentro(int x, int y, int ancho, int alto) {
+        return x >= 0 && x <= ancho && y >= 0 && y <= alto;
+    }
+
+    private static long segundos(LocalDateTime momento) {
+        return momento.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,266 @@
+package pucp.edu.pe.glp_final.model;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Libro de pedidos pendientes en memoria con índices por vencimiento, por
+ * recepción y por celda del mapa, además del total de GLP pendiente.
+ *
+ * Las consultas por rango de tiempo cuestan O(log n + k). Todas las operaciones
+ * están protegidas por un único candado de lectura/escritura para que los
+ * índices se mantengan consistentes entre sí.
+ */
+public class LibroPedidos {
+
+    // Lado de cada celda del índice espacial (km)
+    public static final int TAMANO_CELDA = 10;
+
+    private static final String ID_MINIMO = "";
+    private static final String ID_MAXIMO = "\uffff";
+
+    private final Map<String, Pedido> porId = new HashMap<>();
+    private final NavigableMap<ClaveOrden, Pedido> porVencimiento = new TreeMap<>();
+    private final NavigableMap<ClaveOrden, Pedido> porRecepcion = new TreeMap<>();
+    private final Map<Integer, Set<Pedido>> porCelda = new HashMap<>();
+    private double glpPendiente;
+
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+
+    /**
+     * Clave de orden (momento, id) para desempatar pedidos con el mismo momento
+     */
+    private record ClaveOrden(LocalDateTime momento, String id) implements Comparable<ClaveOrden> {
+        @Override
+        public int compareTo(ClaveOrden otra) {
+            int comparacion = momento.compareTo(otra.momento);
+            return comparacion != 0 ? comparacion : id.compareTo(otra.id);
+        }
+    }
+
+    /**
+     * Agrega un pedido pendiente, reemplazando la versión anterior si existe
+     */
+    public void agregar(Pedido pedido) {
+        candado.writeLock().lock();
+        try {
+            retirarSinBloqueo(pedido.getId());
+
+            porId.put(pedido.getId(), pedido);
+            porVencimiento.put(new ClaveOrden(pedido.getHoraLimiteEntrega(), pedido.getId()), pedido);
+            porRecepcion.put(new ClaveOrden(pedido.getHoraRecepcion(), pedido.getId()), pedido);
+            porCelda.computeIfAbsent(celda(pedido.getUbicacion()), k -> new HashSet<>()).add(pedido);
+            glpPendiente += pedido.getCantidadGLP();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retira un pedido del libro (entregado o eliminado)
+     * @return Pedido retirado, vacío si no estaba pendiente
+     */
+    public Optional<Pedido> retirar(String pedidoId) {
+        candado.writeLock().lock();
+        try {
+            return Optional.ofNullable(retirarSinBloqueo(pedidoId));
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Actualiza el camión asignado a un pedido pendiente
+     * @return true si el pedido estaba en el libro
+     */
+    public boolean asignarCamion(String pedidoId, String codigoCamion) {
+        candado.writeLock().lock();
+        try {
+            Pedido pedido = porId.get(pedidoId);
+            if (pedido == null) {
+                return false;
+            }
+            pedido.setCamionAsignado(codigoCamion);
+            return true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    public void limpiar() {
+        candado.writeLock().lock();
+        try {
+            porId.clear();
+            porVencimiento.clear();
+            porRecepcion.clear();
+            porCelda.clear();
+            glpPendiente = 0.0;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    public Optional<Pedido> obtener(String pedidoId) {
+        candado.readLock().lock();
+        try {
+            return Optional.ofNullable(porId.get(pedidoId));
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public int contar() {
+        candado.readLock().lock();
+        try {
+            return porId.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public double getGlpPendiente() {
+        candado.readLock().lock();
+        try {
+            return glpPendiente;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pedidos pendientes ordenados por hora límite de entrega
+     */
+    public List<Pedido> pendientesPorVencimiento() {
+        candado.readLock().lock();
+        try {
+            return new ArrayList<>(porVencimiento.values());
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pedidos pendientes ordenados por hora de recepción
+     */
+    public List<Pedido> pendientesPorRecepcion() {
+        candado.readLock().lock();
+        try {
+            return new ArrayList<>(porRecepcion.values());
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pedidos pendientes cuya hora límite es anterior al momento dado
+     */
+    public List<Pedido> vencidos(LocalDateTime momento) {
+        candado.readLock().lock();
+        try {
+            return new ArrayList<>(porVencimiento.headMap(new ClaveOrden(momento, ID_MINIMO), false).values());
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pedidos pendientes con hora límite dentro del rango [inicio, fin]
+     */
+    public List<Pedido> conVencimientoEntre(LocalDateTime inicio, LocalDateTime fin) {
+        candado.readLock().lock();
+        try {
+            return new ArrayList<>(porVencimiento.subMap(
+                    new ClaveOrden(inicio, ID_MINIMO), true,
+                    new ClaveOrden(fin, ID_MAXIMO), true).values());
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pedidos pendientes recibidos después de la clave (horaRecepcion, id), en orden
+     * de recepción. Permite recorrer el libro por páginas sin desplazamientos.
+     */
+    public List<Pedido> pendientesRecibidosDespuesDe(LocalDateTime horaRecepcion, String id, int limite) {
+        candado.readLock().lock();
+        try {
+            Collection<Pedido> cola = horaRecepcion == null
+                    ? porRecepcion.values()
+                    : porRecepcion.tailMap(new ClaveOrden(horaRecepcion, id), false).values();
+            List<Pedido> pagina = new ArrayList<>(Math.min(limite, cola.size()));
+            for (Pedido pedido : cola) {
+                if (pagina.size() >= limite) break;
+                pagina.add(pedido);
+            }
+            return pagina;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pedidos pendientes a una distancia Manhattan menor o igual al radio dado.
+     * Solo se revisan las celdas que intersectan el radio.
+     */
+    public List<Pedido> pendientesCercanos(Ubicacion centro, int radio) {
+        candado.readLock().lock();
+        try {
+            List<Pedido> cercanos = new ArrayList<>();
+            int celdaMinX = Math.floorDiv(centro.getX() - radio, TAMANO_CELDA);
+            int celdaMaxX = Math.floorDiv(centro.getX() + radio, TAMANO_CELDA);
+            int celdaMinY = Math.floorDiv(centro.getY() - radio, TAMANO_CELDA);
+            int celdaMaxY = Math.floorDiv(centro.getY() + radio, TAMANO_CELDA);
+
+            for (int cx = celdaMinX; cx <= celdaMaxX; cx++) {
+                for (int cy = celdaMinY; cy <= celdaMaxY; cy++) {
+                    Set<Pedido> enCelda = porCelda.get(claveCelda(cx, cy));
+                    if (enCelda == null) continue;
+                    for (Pedido pedido : enCelda) {
+                        if (pedido.getUbicacion().distanciaA(centro) <= radio) {
+                            cercanos.add(pedido);
+                        }
+                    }
+                }
+            }
+            return cercanos;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private Pedido retirarSinBloqueo(String pedidoId) {
+        Pedido pedido = porId.remove(pedidoId);
+        if (pedido == null) {
+            return null;
+        }
+
+        porVencimiento.remove(new ClaveOrden(pedido.getHoraLimiteEntrega(), pedidoId));
+        porRecepcion.remove(new ClaveOrden(pedido.getHoraRecepcion(), pedidoId));
+
+        int clave = celda(pedido.getUbicacion());
+        Set<Pedido> enCelda = porCelda.get(clave);
+        if (enCelda != null) {
+            enCelda.remove(pedido);
+            if (enCelda.isEmpty()) {
+                porCelda.remove(clave);
+            }
+        }
+
+        glpPendiente -= pedido.getCantidadGLP();
+        if (porId.isEmpty()) {
+            glpPendiente = 0.0; // Evitar arrastrar error de redondeo
+        }
+        return pedido;
+    }
+
+    private static int celda(Ubicacion ubicacion) {
+        return claveCelda(Math.floorDiv(ubicacion.getX(), TAMANO_CELDA),
+                Math.floorDiv(ubicacion.getY(), TAMANO_CELDA));
+    }
+
+    private static int claveCelda(int cx, int cy) {
+        return cx * 1024 + cy;
+    }
+}
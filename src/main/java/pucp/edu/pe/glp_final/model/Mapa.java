@@ -1,4 +1,5 @@
 package pucp.edu.pe.glp_final.model;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import pucp.edu.pe.glp_final.model.enums.TipoAlmacen;
@@ -14,6 +15,8 @@ public class Mapa {
     private final int alto;       // Dimensión en el eje Y (km)
     private final List<Bloqueo> bloqueos;
     private List<Bloqueo> bloqueosFiltrados;
+    @Setter(AccessLevel.NONE)
+    private IndiceBloqueos indiceBloqueos; // Compilado a partir de bloqueosFiltrados
     private final List<Almacen> almacenes;
 
     // Cache simple
@@ -47,10 +50,37 @@ public class Mapa {
     public void setBloqueos(List<Bloqueo> bloqueos) {
         this.bloqueos.clear();
         this.bloqueos.addAll(bloqueos);
+        this.indiceBloqueos = null;
         // Limpiar cache al cambiar bloqueos
         routeCache.clear();
     }
 
+    /**
+     * Reemplaza los bloqueos y los deja todos vigentes para las consultas
+     * @param indice Índice ya compilado con al menos estos bloqueos (p. ej. el compartido
+     *               de MapaService), o null para compilarlo aquí
+     */
+    public void usarBloqueos(List<Bloqueo> bloqueos, IndiceBloqueos indice) {
+        setBloqueos(bloqueos);
+        this.bloqueosFiltrados = new ArrayList<>(bloqueos);
+        this.indiceBloqueos = indice != null ? indice : IndiceBloqueos.compilar(bloqueosFiltrados, ancho, alto);
+    }
+
+    /**
+     * Agrega los bloqueos de una nueva ventana de tiempo y descarta los que ya terminaron,
+     * para que la memoria dependa solo de los bloqueos vigentes o próximos
+     */
+    public void renovarBloqueos(List<Bloqueo> nuevos, LocalDateTime momento) {
+        List<Bloqueo> vigentes = new ArrayList<>(bloqueos.size() + nuevos.size());
+        for (Bloqueo bloqueo : bloqueos) {
+            if (bloqueo.getHoraFin().isAfter(momento)) {
+                vigentes.add(bloqueo);
+            }
+        }
+        vigentes.addAll(nuevos);
+        usarBloqueos(vigentes, null);
+    }
+
     private void inicializarAlmacenes() {
         // Almacén central: posición X=12, Y=8
         almacenes.add(new Almacen("CENTRAL", new Ubicacion(12, 8),
@@ -425,6 +455,7 @@ public class Mapa {
     public void filtrarBloqueosParaFecha(LocalDate fechaInicio, LocalDate fechaFin) {
         if (bloqueos == null || bloqueos.isEmpty()) {
             bloqueosFiltrados = Collections.emptyList();
+            indiceBloqueos = null;
             return;
         }
 
@@ -450,12 +481,16 @@ public class Mapa {
             }
         }
         System.out.println("Bloqueos filtrados para rango " + fechaInicio + " - " + fechaFin + ": " + bloqueosFiltrados.size());
+        indiceBloqueos = IndiceBloqueos.compilar(bloqueosFiltrados, ancho, alto);
     }
 
     /**
      * Versión de estaBloqueado que usa la lista filtrada
      */
     public boolean estaBloqueado(Ubicacion ubicacion, LocalDateTime momento) {
+        if (indiceBloqueos != null) {
+            return indiceBloqueos.estaBloqueado(ubicacion, momento);
+        }
         // Si no hay bloqueos filtrados, no hay nada bloqueado
         if (bloqueosFiltrados == null || bloqueosFiltrados.isEmpty()) {
             return false;
@@ -1,10 +1,14 @@
 package pucp.edu.pe.glp_final.model;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Representa el movimiento detallado paso a paso de un camión
@@ -20,6 +24,15 @@ public class MovimientoCamion {
     private EstadoMovimiento estado;
     private int pasoActual;
 
+    // Pasos en arreglos paralelos para las consultas por momento; se rearman al cambiar los pasos.
+    // Se lee y se escribe bajo el monitor del movimiento, igual que la lista de pasos
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Pista pista;
+
+    // Tramos que aún no se convirtieron en pasos; null cuando ya no quedan
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private GeneradorTramos generador;
+
     public MovimientoCamion(String codigoCamion, String rutaId) {
         this.codigoCamion = codigoCamion;
         this.rutaId = rutaId;
@@ -31,83 +44,193 @@ public class MovimientoCamion {
     /**
      * Añade un paso de movimiento a la secuencia
      */
-    public void agregarPaso(PasoMovimiento paso) {
+    public synchronized void agregarPaso(PasoMovimiento paso) {
         pasos.add(paso);
+        pista = null;
     }
 
     /**
-     * Obtiene el paso actual basado en un momento específico
+     * Los tramos se materializan en pasos recién cuando una consulta llega a ellos
      */
-    public PasoMovimiento obtenerPasoEnMomento(LocalDateTime momento) {
-        if (pasos.isEmpty() || momento.isBefore(horaInicio)) {
-            return null;
+    public synchronized void materializarPorTramos(GeneradorTramos generador) {
+        this.generador = generador;
+    }
+
+    /**
+     * Materializa tramos hasta cubrir el momento dado, o hasta que no queden
+     */
+    public synchronized void materializarHasta(LocalDateTime momento) {
+        while (generador != null
+                && (pasos.isEmpty() || !pasos.get(pasos.size() - 1).getTiempoLlegada().isAfter(momento))) {
+            if (!generador.agregarSiguienteTramo(this)) {
+                generador = null;
+            }
+        }
+    }
+
+    public void materializarTodo() {
+        materializarHasta(LocalDateTime.MAX);
+    }
+
+    public synchronized boolean estaMaterializado() {
+        return generador == null;
+    }
+
+    /**
+     * Forma compacta del movimiento completo, si todos sus pasos son celdas contiguas
+     * recorridas a una misma velocidad o paradas en el lugar
+     */
+    public synchronized Optional<TrayectoCompacto> compactar() {
+        materializarTodo();
+        if (pasos.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // La velocidad es la del primer avance
+        int segundosPorCelda = 60;
+        for (int i = 1; i < pasos.size(); i++) {
+            if (!pasos.get(i).getUbicacion().equals(pasos.get(i - 1).getUbicacion())) {
+                segundosPorCelda = (int) (segundos(pasos.get(i).getTiempoLlegada()) - segundos(pasos.get(i - 1).getTiempoLlegada()));
+                break;
+            }
+        }
+        if (segundosPorCelda <= 0) {
+            return Optional.empty();
         }
 
-        for (int i = 0; i < pasos.size(); i++) {
+        PasoMovimiento primero = pasos.get(0);
+        TrayectoCompacto.Constructor trayecto = TrayectoCompacto.desde(primero.getUbicacion(),
+                primero.getTiempoLlegada(), segundosPorCelda);
+        for (int i = 1; i < pasos.size(); i++) {
+            PasoMovimiento anterior = pasos.get(i - 1);
             PasoMovimiento paso = pasos.get(i);
-            if (momento.isBefore(paso.getTiempoLlegada()) ||
-                    (i == pasos.size() - 1)) {
-                return paso;
+            long duracion = segundos(paso.getTiempoLlegada()) - segundos(anterior.getTiempoLlegada());
+            if (paso.getUbicacion().equals(anterior.getUbicacion()) && duracion >= 0 && duracion <= Integer.MAX_VALUE) {
+                trayecto.detener(paso.getTipo(), (int) duracion, paso.getPedidoId());
+            } else if (paso.getTipo() == PasoMovimiento.TipoPaso.MOVIMIENTO && duracion == segundosPorCelda
+                    && paso.getUbicacion().distanciaA(anterior.getUbicacion()) == 1) {
+                trayecto.mover(paso.getUbicacion());
+            } else {
+                return Optional.empty();
             }
         }
+        return Optional.of(trayecto.construir());
+    }
 
-        return pasos.get(pasos.size() - 1);
+    /**
+     * Todos los pasos del movimiento; materializa los tramos que falten
+     */
+    public synchronized List<PasoMovimiento> getPasos() {
+        materializarTodo();
+        return pasos;
+    }
+
+    /**
+     * Obtiene el paso actual basado en un momento específico
+     */
+    public synchronized PasoMovimiento obtenerPasoEnMomento(LocalDateTime momento) {
+        materializarHasta(momento);
+        if (pasos.isEmpty() || momento.isBefore(horaInicio)) {
+            return null;
+        }
+
+        // Primer paso al que aún no se llegó, o el último si ya se llegó a todos
+        Pista p = pista();
+        int siguiente = p.siguientePaso(segundos(momento));
+        return pasos.get(Math.min(siguiente, p.cantidad() - 1));
     }
 
     /**
      * Obtiene la posición interpolada del camión en un momento específico
      */
-    public PosicionCamion obtenerPosicionEnMomento(LocalDateTime momento) {
+    public synchronized PosicionCamion obtenerPosicionEnMomento(LocalDateTime momento) {
+        materializarHasta(momento);
         if (pasos.isEmpty() || momento.isBefore(horaInicio)) {
             return new PosicionCamion(pasos.isEmpty() ? new Ubicacion(0, 0) : pasos.get(0).getUbicacion(),
                     0.0, EstadoMovimiento.PENDIENTE);
         }
 
-        // Encontrar el segmento actual
-        for (int i = 0; i < pasos.size() - 1; i++) {
-            PasoMovimiento pasoActual = pasos.get(i);
-            PasoMovimiento pasoSiguiente = pasos.get(i + 1);
+        Pista p = pista();
+        long t = segundos(momento);
+        int siguiente = p.siguientePaso(t);
 
-            if (momento.isAfter(pasoActual.getTiempoLlegada()) &&
-                    momento.isBefore(pasoSiguiente.getTiempoLlegada())) {
-
-                // Interpolar posición entre dos puntos
-                return interpolarPosicion(pasoActual, pasoSiguiente, momento);
-            }
+        // Si está en el último paso o después
+        if (siguiente >= p.cantidad()) {
+            int ultimo = p.cantidad() - 1;
+            return new PosicionCamion(p.ubicaciones()[ultimo], 100.0,
+                    t > p.tiempos()[ultimo] ? EstadoMovimiento.COMPLETADO : EstadoMovimiento.EN_MOVIMIENTO);
         }
-
-        // Si está después del último paso
-        PasoMovimiento ultimoPaso = pasos.get(pasos.size() - 1);
-        return new PosicionCamion(ultimoPaso.getUbicacion(), 100.0,
-                momento.isAfter(ultimoPaso.getTiempoLlegada()) ?
-                        EstadoMovimiento.COMPLETADO : EstadoMovimiento.EN_MOVIMIENTO);
+        if (siguiente == 0) {
+            return new PosicionCamion(p.ubicaciones()[0], 0.0, EstadoMovimiento.EN_MOVIMIENTO);
+        }
+        return interpolarPosicion(p, siguiente - 1, siguiente, t);
     }
 
     /**
      * Interpola la posición entre dos pasos
      */
-    private PosicionCamion interpolarPosicion(PasoMovimiento paso1, PasoMovimiento paso2, LocalDateTime momento) {
-        long tiempoTotal = java.time.Duration.between(paso1.getTiempoLlegada(), paso2.getTiempoLlegada()).toSeconds();
-        long tiempoTranscurrido = java.time.Duration.between(paso1.getTiempoLlegada(), momento).toSeconds();
-
+    private PosicionCamion interpolarPosicion(Pista p, int desde, int hasta, long t) {
+        long tiempoTotal = p.tiempos()[hasta] - p.tiempos()[desde];
         if (tiempoTotal == 0) {
-            return new PosicionCamion(paso1.getUbicacion(), 0.0, EstadoMovimiento.EN_MOVIMIENTO);
+            return new PosicionCamion(p.ubicaciones()[desde], 0.0, EstadoMovimiento.EN_MOVIMIENTO);
         }
 
-        double progreso = (double) tiempoTranscurrido / tiempoTotal;
+        double progreso = (double) (t - p.tiempos()[desde]) / tiempoTotal;
         progreso = Math.max(0.0, Math.min(1.0, progreso)); // Clamp entre 0 y 1
 
         // Interpolación lineal
-        int x = (int) (paso1.getUbicacion().getX() +
-                (paso2.getUbicacion().getX() - paso1.getUbicacion().getX()) * progreso);
-        int y = (int) (paso1.getUbicacion().getY() +
-                (paso2.getUbicacion().getY() - paso1.getUbicacion().getY()) * progreso);
+        int x = (int) (p.xs()[desde] + (p.xs()[hasta] - p.xs()[desde]) * progreso);
+        int y = (int) (p.ys()[desde] + (p.ys()[hasta] - p.ys()[desde]) * progreso);
 
-        Ubicacion posicionInterpolada = new Ubicacion(x, y);
+        // Entre nodos contiguos la posición truncada es uno de los extremos: se reutiliza su ubicación
+        Ubicacion posicionInterpolada;
+        if (x == p.xs()[desde] && y == p.ys()[desde]) {
+            posicionInterpolada = p.ubicaciones()[desde];
+        } else if (x == p.xs()[hasta] && y == p.ys()[hasta]) {
+            posicionInterpolada = p.ubicaciones()[hasta];
+        } else {
+            posicionInterpolada = new Ubicacion(x, y);
+        }
 
         return new PosicionCamion(posicionInterpolada, progreso * 100, EstadoMovimiento.EN_MOVIMIENTO);
     }
 
+    /**
+     * Pasos ya materializados compilados en arreglos paralelos, en el orden de la secuencia.
+     * La pista devuelta no cambia después: se puede recorrer fuera del monitor.
+     */
+    public synchronized Pista pista() {
+        Pista p = pista;
+        // También se rearma si la lista se modificó sin pasar por agregarPaso
+        if (p == null || p.cantidad() != pasos.size()) {
+            p = Pista.compilar(pasos);
+            pista = p;
+        }
+        return p;
+    }
+
+    /**
+     * Pista sin los pasos que la interpolación lineal entre sus vecinos ya reproduce:
+     * movimientos en línea recta a velocidad constante. Basta con los pasos que quedan
+     * para calcular la posición en cualquier momento.
+     */
+    public Pista pistaComprimida() {
+        Pista p = pista();
+        int n = p.cantidad();
+        int[] conservados = new int[n];
+        int cantidad = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || i == n - 1 || !p.esInterpolable(i)) {
+                conservados[cantidad++] = i;
+            }
+        }
+        return cantidad == n ? p : p.seleccionar(Arrays.copyOf(conservados, cantidad));
+    }
+
+    private static long segundos(LocalDateTime momento) {
+        return momento.toEpochSecond(ZoneOffset.UTC);
+    }
+
     /**
      * Calcula el progreso total de la ruta en porcentaje
      */
@@ -128,6 +251,18 @@ public class MovimientoCamion {
         return Math.min(100.0, (double) tiempoTranscurrido / tiempoTotal * 100);
     }
 
+    /**
+     * Fuente de los pasos de un movimiento que se arma de a un tramo
+     */
+    @FunctionalInterface
+    public interface GeneradorTramos {
+        /**
+         * Agrega al movimiento los pasos del siguiente tramo
+         * @return false si ya no quedaban tramos
+         */
+        boolean agregarSiguienteTramo(MovimientoCamion movimiento);
+    }
+
     public enum EstadoMovimiento {
         PENDIENTE,
         EN_MOVIMIENTO,
@@ -168,6 +303,34 @@ public class MovimientoCamion {
             this.tiempoParada = tiempoParada;
         }
 
+        /**
+         * Paso sin descripción propia: se arma al leerla a partir del tipo
+         */
+        public PasoMovimiento(Ubicacion ubicacion, LocalDateTime tiempoLlegada, TipoPaso tipo) {
+            this(ubicacion, tiempoLlegada, tipo, null);
+        }
+
+        public PasoMovimiento(Ubicacion ubicacion, LocalDateTime tiempoLlegada, TipoPaso tipo,
+                              String pedidoId, double tiempoParada) {
+            this(ubicacion, tiempoLlegada, tipo, null, pedidoId, tiempoParada);
+        }
+
+        public String getDescripcion() {
+            if (descripcion != null) {
+                return descripcion;
+            }
+            return switch (tipo) {
+                case INICIO -> "Inicio de ruta en " + ubicacion;
+                case MOVIMIENTO -> "Movimiento a " + ubicacion;
+                case ENTREGA -> "Entrega del pedido " + pedidoId + " en " + ubicacion;
+                case RECARGA_GLP -> "Recarga de GLP en " + ubicacion;
+                case RECARGA_COMBUSTIBLE -> "Recarga de combustible en " + ubicacion;
+                case PARADA_MANTENIMIENTO -> "Parada de mantenimiento en " + ubicacion;
+                case AVERIA -> "Avería en " + ubicacion;
+                case FIN -> "Fin de ruta en " + ubicacion;
+            };
+        }
+
         public enum TipoPaso {
             INICIO,
             MOVIMIENTO,
@@ -180,6 +343,81 @@ public class MovimientoCamion {
         }
     }
 
+    /**
+     * Pasos en arreglos paralelos: llegada en segundos UTC, coordenadas y ordinal de
+     * {@link PasoMovimiento.TipoPaso}. Los tiempos no decrecen, así que se buscan por
+     * bisección; la resolución es de un segundo.
+     */
+    public record Pista(long[] tiempos, int[] xs, int[] ys, byte[] tipos, Ubicacion[] ubicaciones) {
+
+        static Pista compilar(List<PasoMovimiento> pasos) {
+            int n = pasos.size();
+            Pista p = new Pista(new long[n], new int[n], new int[n], new byte[n], new Ubicacion[n]);
+            for (int i = 0; i < n; i++) {
+                PasoMovimiento paso = pasos.get(i);
+                p.tiempos[i] = segundos(paso.getTiempoLlegada());
+                p.xs[i] = paso.getUbicacion().getX();
+                p.ys[i] = paso.getUbicacion().getY();
+                p.tipos[i] = (byte) paso.getTipo().ordinal();
+                p.ubicaciones[i] = paso.getUbicacion();
+            }
+            return p;
+        }
+
+        public int cantidad() {
+            return tiempos.length;
+        }
+
+        /**
+         * Índice del primer paso con llegada posterior al momento dado, o la cantidad
+         * de pasos si ya se llegó a todos
+         */
+        public int siguientePaso(long t) {
+            int bajo = 0;
+            int alto = tiempos.length;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (tiempos[medio] <= t) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+
+        /**
+         * Si el paso i es un movimiento intermedio alineado con sus vecinos y recorrido
+         * a la misma velocidad en ambos tramos
+         */
+        boolean esInterpolable(int i) {
+            if (tipos[i] != PasoMovimiento.TipoPaso.MOVIMIENTO.ordinal()) {
+                return false;
+            }
+            long dt1 = tiempos[i] - tiempos[i - 1];
+            long dt2 = tiempos[i + 1] - tiempos[i];
+            if (dt1 <= 0 || dt2 <= 0) {
+                return false;
+            }
+            return (long) (xs[i] - xs[i - 1]) * dt2 == (long) (xs[i + 1] - xs[i]) * dt1
+                    && (long) (ys[i] - ys[i - 1]) * dt2 == (long) (ys[i + 1] - ys[i]) * dt1;
+        }
+
+        Pista seleccionar(int[] indices) {
+            int n = indices.length;
+            Pista p = new Pista(new long[n], new int[n], new int[n], new byte[n], new Ubicacion[n]);
+            for (int k = 0; k < n; k++) {
+                int i = indices[k];
+                p.tiempos[k] = tiempos[i];
+                p.xs[k] = xs[i];
+                p.ys[k] = ys[i];
+                p.tipos[k] = tipos[i];
+                p.ubicaciones[k] = ubicaciones[i];
+            }
+            return p;
+        }
+    }
+
     /**
      * Representa la posición actual de un camión con contexto
      */
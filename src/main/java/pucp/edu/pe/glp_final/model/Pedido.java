@@ -64,20 +64,9 @@ public class Pedido {
         this.ubicacion = ubicacion;
         this.cantidadGLP = cantidadGLP;
 
-        // Parsear el formato "##d##h##m" a LocalDateTime
-        String[] parts = momentoStr.split("d|h|m");
-        int dia = Integer.parseInt(parts[0]);
-        int hora = Integer.parseInt(parts[1]);
-        int minuto = Integer.parseInt(parts[2]);
-
         // Asumimos que se refiere al día del mes actual
         LocalDateTime ahora = LocalDateTime.now();
-        this.horaRecepcion = ahora
-                .withDayOfMonth(dia)
-                .withHour(hora)
-                .withMinute(minuto)
-                .withSecond(0)
-                .withNano(0);
+        this.horaRecepcion = parsearMomento(momentoStr, 0, momentoStr.length(), ahora.getYear(), ahora.getMonthValue());
 
         this.tiempoLimiteEntrega = Duration.ofHours(horasLimiteEntrega);
         this.entregado = false;
@@ -98,27 +87,55 @@ public class Pedido {
         this.ubicacion = ubicacion;
         this.cantidadGLP = cantidadGLP;
 
-        // Parsear el formato "##d##h##m" a LocalDateTime
-        String[] parts = momentoStr.split("d|h|m");
-        int dia = Integer.parseInt(parts[0]);
-        int hora = Integer.parseInt(parts[1]);
-        int minuto = Integer.parseInt(parts[2]);
-
-        // Asumimos que se refiere al día del mes actual
-        LocalDateTime ahora = LocalDateTime.now();
-        this.horaRecepcion = ahora
-                .withYear(anio)
-                .withMonth(mes)
-                .withDayOfMonth(dia)
-                .withHour(hora)
-                .withMinute(minuto)
-                .withSecond(0)
-                .withNano(0);
+        this.horaRecepcion = parsearMomento(momentoStr, 0, momentoStr.length(), anio, mes);
 
         this.tiempoLimiteEntrega = Duration.ofHours(horasLimiteEntrega);
         this.entregado = false;
     }
 
+    /**
+     * Parsea el formato "##d##h##m" de los archivos de pedidos recorriendo los caracteres,
+     * sin expresiones regulares
+     * @param inicio Posición del primer dígito del día en el texto
+     * @param fin    Posición siguiente a la "m" de los minutos
+     * @throws IllegalArgumentException si el texto no tiene el formato
+     */
+    public static LocalDateTime parsearMomento(CharSequence texto, int inicio, int fin, int anio, int mes) {
+        int[] partes = new int[3];
+        char[] separadores = {'d', 'h', 'm'};
+        int pos = inicio;
+        for (int i = 0; i < 3; i++) {
+            int valor = 0;
+            int digitos = 0;
+            while (pos < fin && texto.charAt(pos) >= '0' && texto.charAt(pos) <= '9') {
+                valor = valor * 10 + (texto.charAt(pos++) - '0');
+                digitos++;
+            }
+            if (digitos == 0 || digitos > 4 || pos >= fin || texto.charAt(pos) != separadores[i]) {
+                throw new IllegalArgumentException("Momento inválido: " + texto.subSequence(inicio, fin));
+            }
+            partes[i] = valor;
+            pos++;
+        }
+        if (pos != fin) {
+            throw new IllegalArgumentException("Momento inválido: " + texto.subSequence(inicio, fin));
+        }
+        return LocalDateTime.of(anio, mes, partes[0], partes[1], partes[2]);
+    }
+
+    /**
+     * Crea una copia independiente del pedido con el mismo id
+     */
+    public Pedido copiar() {
+        Pedido copia = new Pedido(id, idCliente, ubicacion, cantidadGLP, horaRecepcion,
+                (int) tiempoLimiteEntrega.toHours());
+        copia.horaEntregaProgramada = horaEntregaProgramada;
+        copia.horaEntregaReal = horaEntregaReal;
+        copia.camionAsignado = camionAsignado;
+        copia.entregado = entregado;
+        return copia;
+    }
+
     public LocalDateTime getHoraLimiteEntrega() {
         return horaRecepcion.plus(tiempoLimiteEntrega);
     }
@@ -1,5 +1,6 @@
 package pucp.edu.pe.glp_final.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import pucp.edu.pe.glp_final.MonitoreoService;
@@ -13,6 +14,8 @@ import java.util.*;
  */
 @Getter @Setter
 public class Ruta {
+    private static final int MINUTOS_ENTREGA = 15;
+
     private final String id;
     private final String codigoCamion;
 
@@ -33,14 +36,28 @@ public class Ruta {
     private boolean requiereReabastecimiento;
     private boolean factibilidadEncontrada;
 
-    // NUEVO: Movimiento detallado
-    private MovimientoCamion movimientoDetallado;
-    private boolean movimientoGenerado;
+    // NUEVO: Movimiento detallado. Las consultas llegan desde varios hilos: los cambios de
+    // movimiento se hacen bajo el monitor de la ruta y se publican por campos volatile;
+    // quien lee toma primero movimientoDetallado y, si es null, el trayecto compacto
+    private volatile MovimientoCamion movimientoDetallado;
+    private volatile boolean movimientoGenerado;
+    // Reemplaza al movimiento detallado una vez materializado por completo
+    @Setter(AccessLevel.NONE)
+    private volatile TrayectoCompacto trayecto;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private boolean compactable; // false si un intento de compactar el movimiento actual ya falló
 
     private MonitoreoService monitoreoService;
 
     public Ruta(String codigoCamion, Ubicacion origen) {
-        this.id = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), codigoCamion, origen);
+    }
+
+    /**
+     * Ruta con identificador conocido, p. ej. al restaurar una simulación guardada
+     */
+    public Ruta(String id, String codigoCamion, Ubicacion origen) {
+        this.id = id;
         this.codigoCamion = codigoCamion;
         this.origen = origen;
         this.secuenciaNodos = new ArrayList<>();
@@ -56,157 +73,210 @@ public class Ruta {
     }
 
     /**
-     * Genera el movimiento detallado para esta ruta
+     * Prepara el movimiento detallado para esta ruta. Los tramos se calculan recién
+     * cuando se consulta un momento que llega a ellos, así que una ruta que nadie mira
+     * o que se reemplaza antes de recorrerse no busca caminos en el mapa.
      */
-    public void generarMovimientoDetallado(Mapa mapa, LocalDateTime horaInicio) {
+    public synchronized void generarMovimientoDetallado(Mapa mapa, LocalDateTime horaInicio) {
         if (movimientoGenerado || secuenciaNodos.isEmpty()) {
             return;
         }
 
         this.horaInicio = horaInicio;
-        movimientoDetallado = new MovimientoCamion(codigoCamion, id);
-        movimientoDetallado.setHoraInicio(horaInicio);
+        this.trayecto = null;
+        this.compactable = true;
+        MovimientoCamion movimiento = new MovimientoCamion(codigoCamion, id);
+        movimiento.setHoraInicio(horaInicio);
+        movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(
+                origen, horaInicio, MovimientoCamion.PasoMovimiento.TipoPaso.INICIO));
+        movimiento.materializarPorTramos(new TramosRuta(mapa, horaInicio));
+
+        // Hasta materializar el último tramo, el fin se estima con distancias Manhattan
+        LocalDateTime finEstimado = estimarFin(horaInicio);
+        movimiento.setHoraFinEstimada(finEstimado);
+        movimiento.setEstado(MovimientoCamion.EstadoMovimiento.PENDIENTE);
+        this.horaFinEstimada = finEstimado;
+        this.movimientoDetallado = movimiento;
+        this.movimientoGenerado = true;
+    }
 
-        LocalDateTime tiempoActual = horaInicio;
-        Ubicacion ubicacionActual = origen;
+    /**
+     * Hora de fin con todos los tramos calculados: materializa los que falten, así que
+     * se usa antes de guardar o publicar la ruta, no en cada consulta. Sin movimiento
+     * generado devuelve la hora de fin tal como está.
+     */
+    public LocalDateTime calcularHoraFin() {
+        MovimientoCamion movimiento = movimientoDetallado;
+        if (movimiento != null) {
+            movimiento.materializarTodo();
+        }
+        return horaFinEstimada;
+    }
 
-        // Agregar paso inicial
-        movimientoDetallado.agregarPaso(new MovimientoCamion.PasoMovimiento(
-                ubicacionActual,
-                tiempoActual,
-                MovimientoCamion.PasoMovimiento.TipoPaso.INICIO,
-                "Inicio de ruta para camión " + codigoCamion
-        ));
+    private LocalDateTime estimarFin(LocalDateTime horaInicio) {
+        LocalDateTime tiempo = horaInicio;
+        Ubicacion actual = origen;
+        for (Ubicacion nodo : secuenciaNodos) {
+            tiempo = tiempo.plusMinutes(minutosViaje(actual.distanciaA(nodo)));
+            actual = nodo;
+            if (encontrarPedidoEnUbicacion(nodo) != null) {
+                tiempo = tiempo.plusMinutes(MINUTOS_ENTREGA);
+            }
+        }
+        if (destino != null) {
+            tiempo = tiempo.plusMinutes(minutosViaje(actual.distanciaA(destino)));
+        }
+        return tiempo;
+    }
 
-        // Procesar cada nodo de la secuencia
-        for (int i = 0; i < secuenciaNodos.size(); i++) {
-            Ubicacion siguienteNodo = secuenciaNodos.get(i);
+    // Velocidad promedio 50 km/h
+    private static long minutosViaje(int distancia) {
+        return Math.round((double) distancia / 50.0 * 60);
+    }
 
-            // Generar ruta detallada entre ubicación actual y siguiente nodo
-            List<Ubicacion> rutaDetallada = mapa.encontrarRuta(ubicacionActual, siguienteNodo, tiempoActual);
+    /**
+     * Tramos de la ruta entre nodos consecutivos, más el regreso al destino, calculados de a uno
+     */
+    private final class TramosRuta implements MovimientoCamion.GeneradorTramos {
+        private final Mapa mapa;
+        private LocalDateTime tiempoActual;
+        private Ubicacion ubicacionActual = origen;
+        private int siguienteNodo;
+        private boolean finalizado;
+
+        private TramosRuta(Mapa mapa, LocalDateTime horaInicio) {
+            this.mapa = mapa;
+            this.tiempoActual = horaInicio;
+        }
 
-            if (!rutaDetallada.isEmpty()) {
-                // Agregar cada paso del movimiento
-                for (int j = 1; j < rutaDetallada.size(); j++) { // Empezar en 1 para evitar duplicar posición actual
-                    Ubicacion nodo = rutaDetallada.get(j);
-
-                    // Calcular tiempo de llegada (velocidad promedio 50 km/h)
-                    Ubicacion nodoAnterior = rutaDetallada.get(j - 1);
-                    int distancia = nodoAnterior.distanciaA(nodo);
-                    long minutosViaje = Math.round((double) distancia / 50.0 * 60);
-                    tiempoActual = tiempoActual.plusMinutes(minutosViaje);
-
-                    movimientoDetallado.agregarPaso(new MovimientoCamion.PasoMovimiento(
-                            nodo,
-                            tiempoActual,
-                            MovimientoCamion.PasoMovimiento.TipoPaso.MOVIMIENTO,
-                            String.format("Movimiento a (%d,%d)", nodo.getX(), nodo.getY())
-                    ));
-                }
+        @Override
+        public boolean agregarSiguienteTramo(MovimientoCamion movimiento) {
+            if (finalizado) {
+                return false;
+            }
+            if (siguienteNodo < secuenciaNodos.size()) {
+                tramoHacia(movimiento, secuenciaNodos.get(siguienteNodo++));
+            } else {
+                regreso(movimiento);
+            }
+            return true;
+        }
 
+        private void tramoHacia(MovimientoCamion movimiento, Ubicacion siguienteNodo) {
+            List<Ubicacion> rutaDetallada = mapa.encontrarRuta(ubicacionActual, siguienteNodo, tiempoActual);
+            if (!rutaDetallada.isEmpty()) {
+                recorrer(movimiento, rutaDetallada);
                 ubicacionActual = siguienteNodo;
             }
 
             // Verificar si hay una entrega en este nodo
             Pedido pedidoEnNodo = encontrarPedidoEnUbicacion(siguienteNodo);
             if (pedidoEnNodo != null) {
-                // Agregar tiempo de entrega
-                tiempoActual = tiempoActual.plusMinutes(15);
-
-                movimientoDetallado.agregarPaso(new MovimientoCamion.PasoMovimiento(
+                tiempoActual = tiempoActual.plusMinutes(MINUTOS_ENTREGA);
+                movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(
                         siguienteNodo,
                         tiempoActual,
                         MovimientoCamion.PasoMovimiento.TipoPaso.ENTREGA,
-                        "Entrega para cliente " + pedidoEnNodo.getIdCliente(),
                         pedidoEnNodo.getId(),
-                        15.0
+                        MINUTOS_ENTREGA
                 ));
-
-                // Registrar evento de entrega
                 registrarEvento(EventoRuta.TipoEvento.ENTREGA, tiempoActual, siguienteNodo,
                         "Entrega programada para cliente " + pedidoEnNodo.getIdCliente());
             }
         }
 
-        // Agregar regreso al destino final
-        if (destino != null && !ubicacionActual.equals(destino)) {
-            List<Ubicacion> rutaRegreso = mapa.encontrarRuta(ubicacionActual, destino, tiempoActual);
+        private void regreso(MovimientoCamion movimiento) {
+            if (destino != null && !ubicacionActual.equals(destino)) {
+                recorrer(movimiento, mapa.encontrarRuta(ubicacionActual, destino, tiempoActual));
+            }
 
-            for (int j = 1; j < rutaRegreso.size(); j++) {
-                Ubicacion nodo = rutaRegreso.get(j);
-                Ubicacion nodoAnterior = rutaRegreso.get(j - 1);
-                int distancia = nodoAnterior.distanciaA(nodo);
-                long minutosViaje = Math.round((double) distancia / 50.0 * 60);
-                tiempoActual = tiempoActual.plusMinutes(minutosViaje);
+            Ubicacion fin = destino != null ? destino : ubicacionActual;
+            movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(
+                    fin, tiempoActual, MovimientoCamion.PasoMovimiento.TipoPaso.FIN));
+            movimiento.setHoraFinEstimada(tiempoActual);
+            horaFinEstimada = tiempoActual;
+            registrarEvento(EventoRuta.TipoEvento.FIN, tiempoActual, fin, "Fin estimado de ruta");
+            finalizado = true;
+        }
 
-                movimientoDetallado.agregarPaso(new MovimientoCamion.PasoMovimiento(
-                        nodo,
-                        tiempoActual,
-                        MovimientoCamion.PasoMovimiento.TipoPaso.MOVIMIENTO,
-                        String.format("Regreso a (%d,%d)", nodo.getX(), nodo.getY())
-                ));
+        // Empieza en 1 para no duplicar la posición actual
+        private void recorrer(MovimientoCamion movimiento, List<Ubicacion> camino) {
+            for (int j = 1; j < camino.size(); j++) {
+                Ubicacion nodo = camino.get(j);
+                tiempoActual = tiempoActual.plusMinutes(minutosViaje(camino.get(j - 1).distanciaA(nodo)));
+                movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(
+                        nodo, tiempoActual, MovimientoCamion.PasoMovimiento.TipoPaso.MOVIMIENTO));
             }
         }
-
-        // Agregar paso final
-        movimientoDetallado.agregarPaso(new MovimientoCamion.PasoMovimiento(
-                destino != null ? destino : ubicacionActual,
-                tiempoActual,
-                MovimientoCamion.PasoMovimiento.TipoPaso.FIN,
-                "Fin de ruta para camión " + codigoCamion
-        ));
-
-        movimientoDetallado.setHoraFinEstimada(tiempoActual);
-        movimientoDetallado.setEstado(MovimientoCamion.EstadoMovimiento.PENDIENTE);
-        this.horaFinEstimada = tiempoActual;
-        this.movimientoGenerado = true;
-
-        // Registrar evento de finalización estimada
-        registrarEvento(EventoRuta.TipoEvento.FIN, tiempoActual,
-                destino != null ? destino : ubicacionActual,
-                "Fin estimado de ruta");
     }
 
     /**
      * Obtiene la posición del camión en un momento específico
      */
     public MovimientoCamion.PosicionCamion obtenerPosicionEnMomento(LocalDateTime momento) {
-        if (!movimientoGenerado || movimientoDetallado == null) {
-            return new MovimientoCamion.PosicionCamion(
-                    origen, 0.0, MovimientoCamion.EstadoMovimiento.PENDIENTE);
+        MovimientoCamion movimiento = movimientoDetallado;
+        if (movimiento == null) {
+            TrayectoCompacto compacto = trayecto;
+            return compacto != null ? compacto.obtenerPosicionEnMomento(momento)
+                    : new MovimientoCamion.PosicionCamion(origen, 0.0, MovimientoCamion.EstadoMovimiento.PENDIENTE);
         }
 
-        return movimientoDetallado.obtenerPosicionEnMomento(momento);
+        MovimientoCamion.PosicionCamion posicion = movimiento.obtenerPosicionEnMomento(momento);
+        compactarSiCompleto();
+        return posicion;
     }
 
     /**
      * Obtiene el progreso de la ruta en un momento específico (0-100%)
      */
     public double obtenerProgresoEnMomento(LocalDateTime momento) {
-        if (!movimientoGenerado || movimientoDetallado == null) {
-            return 0.0;
+        MovimientoCamion movimiento = movimientoDetallado;
+        if (movimiento == null) {
+            TrayectoCompacto compacto = trayecto;
+            return compacto != null ? compacto.calcularProgreso(momento) : 0.0;
         }
 
-        return movimientoDetallado.calcularProgreso(momento);
+        return movimiento.calcularProgreso(momento);
     }
 
     /**
      * Obtiene todos los timestamps importantes de la ruta para animación
      */
     public List<LocalDateTime> obtenerTimestampsAnimacion() {
-        if (!movimientoGenerado || movimientoDetallado == null) {
+        MovimientoCamion movimiento = getMovimientoDetallado();
+        if (movimiento == null) {
             return new ArrayList<>();
         }
 
-        return movimientoDetallado.getPasos().stream()
+        // Pide todos los pasos, así que materializa los tramos que falten
+        List<LocalDateTime> timestamps = movimiento.getPasos().stream()
                 .map(MovimientoCamion.PasoMovimiento::getTiempoLlegada)
                 .sorted()
                 .toList();
+        compactarSiCompleto();
+        return timestamps;
+    }
+
+    /**
+     * Movimiento paso a paso. Si ya se compactó, cada llamada lo expande de nuevo sin
+     * guardarlo: arma un paso por celda, así que cuesta tiempo y memoria proporcionales
+     * al largo de la ruta. Para posición, progreso o estado en un momento conviene usar
+     * los métodos de consulta de esta clase, que trabajan sobre la forma compacta.
+     */
+    public MovimientoCamion getMovimientoDetallado() {
+        MovimientoCamion movimiento = movimientoDetallado;
+        if (movimiento != null) {
+            return movimiento;
+        }
+        TrayectoCompacto compacto = trayecto;
+        return compacto != null ? compacto.expandir(codigoCamion, id) : null;
     }
 
     // AÑADIR este método a la clase Ruta
-    public void setMovimientoDetallado(MovimientoCamion movimientoDetallado) {
+    public synchronized void setMovimientoDetallado(MovimientoCamion movimientoDetallado) {
         this.movimientoDetallado = movimientoDetallado;
+        this.trayecto = null;
+        this.compactable = true;
         this.movimientoGenerado = true;
     }
 
@@ -214,16 +284,23 @@ public class Ruta {
      * Obtiene el estado del camión en un momento específico
      */
     public String obtenerEstadoEnMomento(LocalDateTime momento) {
-        if (!movimientoGenerado || movimientoDetallado == null) {
+        MovimientoCamion.PasoMovimiento.TipoPaso tipo;
+        MovimientoCamion movimiento = movimientoDetallado;
+        TrayectoCompacto compacto = movimiento == null ? trayecto : null;
+        if (compacto != null) {
+            tipo = compacto.obtenerTipoEnMomento(momento);
+        } else if (movimiento == null) {
             return "PENDIENTE";
+        } else {
+            MovimientoCamion.PasoMovimiento paso = movimiento.obtenerPasoEnMomento(momento);
+            tipo = paso != null ? paso.getTipo() : null;
+            compactarSiCompleto();
         }
-
-        MovimientoCamion.PasoMovimiento paso = movimientoDetallado.obtenerPasoEnMomento(momento);
-        if (paso == null) {
+        if (tipo == null) {
             return "PENDIENTE";
         }
 
-        return switch (paso.getTipo()) {
+        return switch (tipo) {
             case INICIO -> "INICIANDO";
             case MOVIMIENTO -> "EN_RUTA";
             case ENTREGA -> "ENTREGANDO";
@@ -235,6 +312,25 @@ public class Ruta {
         };
     }
 
+    /**
+     * Una vez materializado todo el movimiento, lo cambia por su forma compacta si los
+     * pasos lo permiten: con cientos de rutas en una simulación larga, los pasos por
+     * celda son la mayor parte de la memoria de las rutas
+     */
+    private synchronized void compactarSiCompleto() {
+        if (compactable && movimientoDetallado != null && movimientoDetallado.estaMaterializado()) {
+            Optional<TrayectoCompacto> compacto = movimientoDetallado.compactar();
+            if (compacto.isPresent()) {
+                // El trayecto se publica antes de soltar el movimiento: quien lea null en
+                // movimientoDetallado ya ve el trayecto
+                trayecto = compacto.get();
+                movimientoDetallado = null;
+            } else {
+                compactable = false;
+            }
+        }
+    }
+
     // Método auxiliar para encontrar pedido en ubicación
     private Pedido encontrarPedidoEnUbicacion(Ubicacion ubicacion) {
         return pedidosAsignados.stream()
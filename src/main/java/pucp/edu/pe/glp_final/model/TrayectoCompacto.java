@@ -0,0 +1,273 @@
+package pucp.edu.pe.glp_final.model;
+
+import pucp.edu.pe.glp_final.model.MovimientoCamion.PasoMovimiento.TipoPaso;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Movimiento de un camión en forma compacta: el punto de partida y una secuencia de
+ * segmentos, cada uno un tramo recto codificado por dirección o una parada en el lugar.
+ * El tiempo de un tramo sale de una velocidad constante (segundos por celda) y el de
+ * una parada de su duración, así que no hay un objeto por celda: cada segmento ocupa
+ * 9 bytes. Cada segmento guarda su fin acumulado y su punto de partida, de modo que
+ * cualquier momento se ubica por bisección.
+ */
+public final class TrayectoCompacto {
+
+    private static final byte PARADA = 4; // Las direcciones son 0-3
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final long inicio; // Segundos UTC
+    private final int segundosPorCelda;
+    private final byte[] codigos; // Dirección del tramo, o PARADA | (ordinal del tipo de paso << 3)
+    private final int[] fines; // Segundos desde el inicio hasta el fin de cada segmento
+    private final short[] xs; // Punto de partida de cada segmento
+    private final short[] ys;
+    private final String[] pedidos; // Pedido de cada parada; null si ninguna es una entrega
+    private final Ubicacion partida;
+    private final Ubicacion llegada;
+
+    private TrayectoCompacto(Constructor c) {
+        int n = c.cantidad;
+        this.inicio = c.inicio;
+        this.segundosPorCelda = c.segundosPorCelda;
+        this.codigos = Arrays.copyOf(c.codigos, n);
+        this.fines = Arrays.copyOf(c.fines, n);
+        this.xs = Arrays.copyOf(c.xs, n);
+        this.ys = Arrays.copyOf(c.ys, n);
+        this.pedidos = c.hayPedidos ? Arrays.copyOf(c.pedidos, n) : null;
+        this.partida = c.partida;
+        this.llegada = new Ubicacion(c.x, c.y);
+    }
+
+    /**
+     * @param segundosPorCelda Tiempo que toma avanzar a una celda contigua
+     */
+    public static Constructor desde(Ubicacion partida, LocalDateTime hora, int segundosPorCelda) {
+        return new Constructor(partida, hora, segundosPorCelda);
+    }
+
+    public int cantidadSegmentos() {
+        return codigos.length;
+    }
+
+    public LocalDateTime getHoraInicio() {
+        return LocalDateTime.ofEpochSecond(inicio, 0, ZoneOffset.UTC);
+    }
+
+    public LocalDateTime getHoraFin() {
+        return getHoraInicio().plusSeconds(duracion());
+    }
+
+    /**
+     * Posición del camión en el momento dado, con el mismo sentido que en {@link MovimientoCamion}:
+     * el camión está en la última celda a la que llegó
+     */
+    public MovimientoCamion.PosicionCamion obtenerPosicionEnMomento(LocalDateTime momento) {
+        long t = momento.toEpochSecond(ZoneOffset.UTC) - inicio;
+        if (t < 0) {
+            return new MovimientoCamion.PosicionCamion(partida, 0.0, MovimientoCamion.EstadoMovimiento.PENDIENTE);
+        }
+
+        int s = segmentoEn(t);
+        if (s == codigos.length) {
+            return new MovimientoCamion.PosicionCamion(llegada, 100.0,
+                    t > duracion() ? MovimientoCamion.EstadoMovimiento.COMPLETADO
+                            : MovimientoCamion.EstadoMovimiento.EN_MOVIMIENTO);
+        }
+
+        long transcurrido = t - inicioSegmento(s);
+        if (codigos[s] >= PARADA) {
+            double progreso = (double) transcurrido / (fines[s] - inicioSegmento(s)) * 100;
+            return new MovimientoCamion.PosicionCamion(new Ubicacion(xs[s], ys[s]), progreso,
+                    MovimientoCamion.EstadoMovimiento.EN_MOVIMIENTO);
+        }
+        long celdas = transcurrido / segundosPorCelda;
+        double progresoCelda = (double) (transcurrido % segundosPorCelda) / segundosPorCelda * 100;
+        return new MovimientoCamion.PosicionCamion(
+                new Ubicacion((int) (xs[s] + DX[codigos[s]] * celdas), (int) (ys[s] + DY[codigos[s]] * celdas)),
+                progresoCelda, MovimientoCamion.EstadoMovimiento.EN_MOVIMIENTO);
+    }
+
+    /**
+     * Tipo del paso al que se dirige el camión en el momento dado, como
+     * {@link MovimientoCamion#obtenerPasoEnMomento}; null antes del inicio
+     */
+    public TipoPaso obtenerTipoEnMomento(LocalDateTime momento) {
+        long t = momento.toEpochSecond(ZoneOffset.UTC) - inicio;
+        if (t < 0) {
+            return null;
+        }
+        if (codigos.length == 0) {
+            return TipoPaso.INICIO;
+        }
+        return tipo(Math.min(segmentoEn(t), codigos.length - 1));
+    }
+
+    /**
+     * Progreso total en porcentaje
+     */
+    public double calcularProgreso(LocalDateTime momento) {
+        long t = momento.toEpochSecond(ZoneOffset.UTC) - inicio;
+        if (t <= 0) {
+            return 0.0;
+        }
+        long total = duracion();
+        return total == 0 || t >= total ? 100.0 : (double) t / total * 100;
+    }
+
+    /**
+     * Vuelve a la forma de un paso por celda, para quien necesita la lista de pasos
+     */
+    public MovimientoCamion expandir(String codigoCamion, String rutaId) {
+        MovimientoCamion movimiento = new MovimientoCamion(codigoCamion, rutaId);
+        LocalDateTime horaInicio = getHoraInicio();
+        movimiento.setHoraInicio(horaInicio);
+        movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(partida, horaInicio, TipoPaso.INICIO));
+
+        for (int s = 0; s < codigos.length; s++) {
+            int desde = inicioSegmento(s);
+            if (codigos[s] >= PARADA) {
+                String pedidoId = pedidos != null ? pedidos[s] : null;
+                movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(new Ubicacion(xs[s], ys[s]),
+                        horaInicio.plusSeconds(fines[s]), tipo(s), pedidoId, (fines[s] - desde) / 60.0));
+            } else {
+                int celdas = (fines[s] - desde) / segundosPorCelda;
+                for (int k = 1; k <= celdas; k++) {
+                    movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(
+                            new Ubicacion(xs[s] + DX[codigos[s]] * k, ys[s] + DY[codigos[s]] * k),
+                            horaInicio.plusSeconds(desde + (long) k * segundosPorCelda), TipoPaso.MOVIMIENTO));
+                }
+            }
+        }
+
+        movimiento.setHoraFinEstimada(getHoraFin());
+        return movimiento;
+    }
+
+    /**
+     * Primer segmento que termina después de t, o la cantidad de segmentos si t es posterior a todos
+     */
+    private int segmentoEn(long t) {
+        int bajo = 0;
+        int alto = fines.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (fines[medio] <= t) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private int inicioSegmento(int s) {
+        return s == 0 ? 0 : fines[s - 1];
+    }
+
+    private long duracion() {
+        return fines.length == 0 ? 0 : fines[fines.length - 1];
+    }
+
+    private TipoPaso tipo(int s) {
+        return codigos[s] >= PARADA ? TipoPaso.values()[codigos[s] >>> 3] : TipoPaso.MOVIMIENTO;
+    }
+
+    /**
+     * Arma el trayecto celda a celda; los avances seguidos en la misma dirección se
+     * acumulan en un solo tramo
+     */
+    public static final class Constructor {
+        private final Ubicacion partida;
+        private final long inicio;
+        private final int segundosPorCelda;
+        private byte[] codigos = new byte[8];
+        private int[] fines = new int[8];
+        private short[] xs = new short[8];
+        private short[] ys = new short[8];
+        private String[] pedidos = new String[8];
+        private boolean hayPedidos;
+        private int cantidad;
+        private int x;
+        private int y;
+        private int tiempo;
+
+        private Constructor(Ubicacion partida, LocalDateTime hora, int segundosPorCelda) {
+            if (segundosPorCelda <= 0) {
+                throw new IllegalArgumentException("segundosPorCelda debe ser mayor a 0");
+            }
+            this.partida = partida;
+            this.inicio = hora.toEpochSecond(ZoneOffset.UTC);
+            this.segundosPorCelda = segundosPorCelda;
+            this.x = partida.getX();
+            this.y = partida.getY();
+        }
+
+        /**
+         * Avanza a una celda contigua a la actual
+         */
+        public Constructor mover(Ubicacion celda) {
+            int dx = celda.getX() - x;
+            int dy = celda.getY() - y;
+            if (Math.abs(dx) + Math.abs(dy) != 1) {
+                throw new IllegalArgumentException("La celda " + celda + " no es contigua a (" + x + "," + y + ")");
+            }
+            byte direccion = (byte) (dx == 1 ? 0 : dx == -1 ? 1 : dy == 1 ? 2 : 3);
+            tiempo = Math.addExact(tiempo, segundosPorCelda);
+            if (cantidad > 0 && codigos[cantidad - 1] == direccion) {
+                fines[cantidad - 1] = tiempo;
+            } else {
+                agregar(direccion, null);
+            }
+            x = celda.getX();
+            y = celda.getY();
+            return this;
+        }
+
+        /**
+         * Detiene el camión en la celda actual durante los segundos indicados
+         * @param pedidoId Pedido entregado en la parada, o null
+         */
+        public Constructor detener(TipoPaso tipo, int segundos, String pedidoId) {
+            if (segundos < 0) {
+                throw new IllegalArgumentException("La duración de una parada no puede ser negativa");
+            }
+            tiempo = Math.addExact(tiempo, segundos);
+            agregar((byte) (PARADA | (tipo.ordinal() << 3)), pedidoId);
+            return this;
+        }
+
+        public TrayectoCompacto construir() {
+            return new TrayectoCompacto(this);
+        }
+
+        private void agregar(byte codigo, String pedidoId) {
+            if (cantidad == codigos.length) {
+                int capacidad = cantidad * 2;
+                codigos = Arrays.copyOf(codigos, capacidad);
+                fines = Arrays.copyOf(fines, capacidad);
+                xs = Arrays.copyOf(xs, capacidad);
+                ys = Arrays.copyOf(ys, capacidad);
+                pedidos = Arrays.copyOf(pedidos, capacidad);
+            }
+            codigos[cantidad] = codigo;
+            fines[cantidad] = tiempo;
+            xs[cantidad] = coordenada(x);
+            ys[cantidad] = coordenada(y);
+            pedidos[cantidad] = pedidoId;
+            hayPedidos |= pedidoId != null;
+            cantidad++;
+        }
+
+        private static short coordenada(int valor) {
+            if (valor < Short.MIN_VALUE || valor > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Coordenada fuera de rango: " + valor);
+            }
+            return (short) valor;
+        }
+    }
+}
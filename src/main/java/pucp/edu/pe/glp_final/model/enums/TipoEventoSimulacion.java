@@ -0,0 +1,23 @@
+package pucp.edu.pe.glp_final.model.enums;
+
+/**
+ * Tipos de evento que maneja el motor de simulación de eventos discretos
+ */
+public enum TipoEventoSimulacion {
+    PEDIDO_RECIBIDO,        // Un pedido llega al sistema
+    ENTREGA,                // Un camión termina de descargar un pedido
+    RECARGA,                // Un camión recarga GLP y combustible en un almacén de la ruta
+    LLEGADA_ALMACEN,        // Un camión termina su ruta en el almacén
+    AVERIA,                 // Avería de un camión en ruta, sorteada al despacharlo
+    FIN_INMOVILIZACION,     // Un camión averiado deja de estar inmovilizado
+    FIN_AVERIA,             // Un camión averiado vuelve a estar disponible
+    INICIO_MANTENIMIENTO,   // Un camión entra a mantenimiento preventivo
+    FIN_MANTENIMIENTO,      // Un camión sale de mantenimiento
+    RECARGA_ALMACENES,      // Recarga diaria de los almacenes intermedios (00:00)
+    REPLANIFICACION,        // Ejecución del planificador de rutas
+    GENERAR_PEDIDOS,        // Generación de pedidos adicionales (escenario de colapso)
+    NOTIFICACION_ESTADO,    // Publicación periódica del estado
+    INSTANTANEA,            // Punto de control periódico del estado completo
+    FIN_SIMULACION,         // Fin del horizonte simulado
+    CARGA_VENTANA           // Incorporación de los pedidos y bloqueos de la siguiente ventana de tiempo
+}
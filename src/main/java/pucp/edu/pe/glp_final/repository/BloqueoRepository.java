@@ -18,6 +18,15 @@ public interface BloqueoRepository extends JpaRepository<BloqueoEntity, String>
             "b.horaInicio <= :momento AND b.horaFin >= :momento")
     List<BloqueoEntity> findBloqueosActivosEnMomento(@Param("momento") LocalDateTime momento);
 
+    @Query("SELECT b FROM BloqueoEntity b WHERE b.activo = true AND " +
+            "b.horaInicio <= :momento AND b.horaFin > :momento ORDER BY b.horaInicio ASC")
+    List<BloqueoEntity> findBloqueosVigentesEn(@Param("momento") LocalDateTime momento);
+
+    @Query("SELECT b FROM BloqueoEntity b WHERE b.activo = true AND " +
+            "b.horaInicio > :desde AND b.horaInicio <= :hasta ORDER BY b.horaInicio ASC")
+    List<BloqueoEntity> findBloqueosQueInicianEntre(@Param("desde") LocalDateTime desde,
+                                                    @Param("hasta") LocalDateTime hasta);
+
     @Query("SELECT b FROM BloqueoEntity b WHERE b.activo = true AND " +
             "((b.horaInicio BETWEEN :inicio AND :fin) OR " +
             "(b.horaFin BETWEEN :inicio AND :fin) OR " +
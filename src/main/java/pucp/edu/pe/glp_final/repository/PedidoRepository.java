@@ -1,13 +1,18 @@
 package pucp.edu.pe.glp_final.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pucp.edu.pe.glp_final.entity.PedidoEntity;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<PedidoEntity, String> {
@@ -18,25 +23,44 @@ public interface PedidoRepository extends JpaRepository<PedidoEntity, String> {
 
     List<PedidoEntity> findByCamionAsignado(String camionAsignado);
 
+    // Resuelta con el índice parcial idx_pedidos_pendientes_camion
+    List<PedidoEntity> findByCamionAsignadoAndEntregadoFalse(String camionAsignado);
+
     @Query("SELECT p FROM PedidoEntity p WHERE p.entregado = false ORDER BY p.horaRecepcion ASC")
     List<PedidoEntity> findPedidosPendientesOrdenados();
 
-    @Query("SELECT p FROM PedidoEntity p WHERE p.entregado = false AND " +
-            "p.horaRecepcion + INTERVAL p.horasLimiteEntrega HOUR < :momento")
-    List<PedidoEntity> findPedidosVencidos(@Param("momento") LocalDateTime momento);
-
-    @Query("SELECT p FROM PedidoEntity p WHERE p.entregado = false AND " +
-            "p.horaRecepcion + INTERVAL p.horasLimiteEntrega HOUR BETWEEN :inicio AND :fin")
-    List<PedidoEntity> findPedidosConVencimientoEntre(@Param("inicio") LocalDateTime inicio,
-                                                      @Param("fin") LocalDateTime fin);
-
     @Query("SELECT p FROM PedidoEntity p WHERE p.horaRecepcion BETWEEN :inicio AND :fin")
     List<PedidoEntity> findPedidosEnRangoFecha(@Param("inicio") LocalDateTime inicio,
                                                @Param("fin") LocalDateTime fin);
 
+    @Query("SELECT p FROM PedidoEntity p WHERE p.entregado = false AND " +
+            "p.horaRecepcion > :desde AND p.horaRecepcion <= :hasta ORDER BY p.horaRecepcion ASC, p.id ASC")
+    List<PedidoEntity> findPendientesRecibidosEntre(@Param("desde") LocalDateTime desde,
+                                                    @Param("hasta") LocalDateTime hasta);
+
     @Query("SELECT COUNT(p) FROM PedidoEntity p WHERE p.entregado = false")
     long countPedidosPendientes();
 
     @Query("SELECT SUM(p.cantidadGlp) FROM PedidoEntity p WHERE p.entregado = false")
     Double sumCantidadGlpPendiente();
-}
\ No newline at end of file
+
+    // Paginación por clave (horaRecepcion, id): cada página se resuelve con el índice
+    // idx_pedidos_recepcion_id, sin OFFSET. La comparación por fila permite a PostgreSQL
+    // usarlo como rango en lugar de evaluar el OR fila por fila
+
+    @Query("SELECT p FROM PedidoEntity p ORDER BY p.horaRecepcion ASC, p.id ASC")
+    List<PedidoEntity> findPrimeraPagina(Pageable pageable);
+
+    @Query("SELECT p FROM PedidoEntity p WHERE (p.horaRecepcion, p.id) > (:hora, :id) " +
+            "ORDER BY p.horaRecepcion ASC, p.id ASC")
+    List<PedidoEntity> findPaginaDespuesDe(@Param("hora") LocalDateTime hora,
+                                           @Param("id") String id,
+                                           Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM PedidoEntity p ORDER BY p.horaRecepcion ASC, p.id ASC")
+    Stream<PedidoEntity> streamTodosOrdenados();
+}
@@ -0,0 +1,149 @@
+package pucp.edu.pe.glp_final.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pucp.edu.pe.glp_final.dto.*;
+import pucp.edu.pe.glp_final.exception.SimulationException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Barridos Monte Carlo: ejecuta N réplicas con semilla de un escenario en paralelo,
+ * cada una en memoria y aislada de las demás, y resume la distribución de sus indicadores.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BarridoSimulacionService {
+
+    public static final int MAX_REPLICACIONES = 1000;
+
+    // Valores críticos t de Student (dos colas, 95%) para 1..30 grados de libertad
+    private static final double[] T_95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double Z_95 = 1.960;
+
+    private final SimulacionService simulacionService;
+
+    public ResultadoBarridoDTO ejecutarBarrido(BarridoSimulacionRequest request) {
+        IniciarSimulacionRequest simulacion = request.getSimulacion();
+        if (simulacion == null || simulacion.getEscenario() == null || simulacion.getFechaInicio() == null) {
+            throw new IllegalArgumentException("Se requiere el escenario y la fecha de inicio de la simulación");
+        }
+        int replicaciones = request.getReplicaciones() != null ? request.getReplicaciones() : 30;
+        if (replicaciones < 2 || replicaciones > MAX_REPLICACIONES) {
+            throw new IllegalArgumentException("Las replicaciones deben estar entre 2 y " + MAX_REPLICACIONES);
+        }
+        long semillaBase = request.getSemillaBase() != null ? request.getSemillaBase() : System.nanoTime();
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        int paralelismo = Math.max(1, Math.min(replicaciones,
+                request.getParalelismo() != null ? Math.min(request.getParalelismo(), nucleos) : nucleos));
+
+        log.info("Barrido iniciado: {} réplicas de {} con semilla base {} en {} hilos",
+                replicaciones, simulacion.getEscenario(), semillaBase, paralelismo);
+        long inicio = System.currentTimeMillis();
+
+        // Simulaciones limitadas por CPU: un hilo de plataforma por núcleo
+        ExecutorService ejecutor = Executors.newFixedThreadPool(paralelismo, fabricaHilos());
+        List<ReporteSimulacionDTO> reportes = new ArrayList<>(replicaciones);
+        try {
+            List<Future<ReporteSimulacionDTO>> futuros = new ArrayList<>(replicaciones);
+            for (int i = 0; i < replicaciones; i++) {
+                long semilla = semillaBase + i;
+                futuros.add(ejecutor.submit(() -> simulacionService.ejecutarLote(simulacion, semilla)));
+            }
+            for (Future<ReporteSimulacionDTO> futuro : futuros) {
+                reportes.add(futuro.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SimulationException("Barrido interrumpido");
+        } catch (ExecutionException e) {
+            throw new SimulationException("Error en una réplica del barrido: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        ResultadoBarridoDTO resultado = new ResultadoBarridoDTO();
+        resultado.setEscenario(simulacion.getEscenario());
+        resultado.setReplicaciones(replicaciones);
+        resultado.setSemillaBase(semillaBase);
+        resultado.setParalelismo(paralelismo);
+        resultado.setDuracionEjecucionMs(System.currentTimeMillis() - inicio);
+        resultado.setReplicasConColapso((int) reportes.stream().filter(r -> r.getMomentoColapso() != null).count());
+        resultado.setIndicadores(resumirIndicadores(reportes));
+        if (Boolean.TRUE.equals(request.getIncluirReportes())) {
+            resultado.setReportes(reportes);
+        }
+
+        log.info("Barrido completado en {} ms", resultado.getDuracionEjecucionMs());
+        return resultado;
+    }
+
+    private Map<String, EstadisticaKpiDTO> resumirIndicadores(List<ReporteSimulacionDTO> reportes) {
+        Map<String, EstadisticaKpiDTO> indicadores = new LinkedHashMap<>();
+        indicadores.put("tasaEntregaATiempo", resumir(reportes, ReporteSimulacionDTO::getTasaEntregaATiempo));
+        indicadores.put("pedidosEntregados", resumir(reportes, r -> (double) r.getPedidosEntregados()));
+        indicadores.put("pedidosPendientes", resumir(reportes, r -> (double) r.getPedidosPendientes()));
+        indicadores.put("consumoCombustibleTotal", resumir(reportes, ReporteSimulacionDTO::getConsumoCombustibleTotal));
+        indicadores.put("distanciaRecorridaTotal", resumir(reportes, ReporteSimulacionDTO::getDistanciaRecorridaTotal));
+        indicadores.put("horasHastaColapso", resumir(reportes, ReporteSimulacionDTO::getHorasHastaColapso));
+        indicadores.put("latenciaPlanificacionP99Ms", resumir(reportes, ReporteSimulacionDTO::getLatenciaPlanificacionP99Ms));
+        return indicadores;
+    }
+
+    /**
+     * Media, desviación estándar muestral e intervalo de confianza al 95% (t de Student).
+     * Las réplicas sin valor (p. ej. sin colapso) no cuentan como muestra.
+     */
+    private EstadisticaKpiDTO resumir(List<ReporteSimulacionDTO> reportes, Function<ReporteSimulacionDTO, Double> indicador) {
+        double[] valores = reportes.stream().map(indicador).filter(Objects::nonNull)
+                .mapToDouble(Double::doubleValue).toArray();
+
+        EstadisticaKpiDTO estadistica = new EstadisticaKpiDTO();
+        estadistica.setMuestras(valores.length);
+        if (valores.length == 0) {
+            return estadistica;
+        }
+
+        double suma = 0, minimo = Double.MAX_VALUE, maximo = -Double.MAX_VALUE;
+        for (double valor : valores) {
+            suma += valor;
+            minimo = Math.min(minimo, valor);
+            maximo = Math.max(maximo, valor);
+        }
+        double media = suma / valores.length;
+
+        double sumaCuadrados = 0;
+        for (double valor : valores) {
+            sumaCuadrados += (valor - media) * (valor - media);
+        }
+        double desviacion = valores.length > 1 ? Math.sqrt(sumaCuadrados / (valores.length - 1)) : 0.0;
+        double margen = valorCritico(valores.length - 1) * desviacion / Math.sqrt(valores.length);
+
+        estadistica.setMedia(media);
+        estadistica.setDesviacionEstandar(desviacion);
+        estadistica.setMinimo(minimo);
+        estadistica.setMaximo(maximo);
+        estadistica.setIntervaloConfianza95Inferior(media - margen);
+        estadistica.setIntervaloConfianza95Superior(media + margen);
+        return estadistica;
+    }
+
+    private static double valorCritico(int gradosLibertad) {
+        if (gradosLibertad < 1) {
+            return 0.0;
+        }
+        return gradosLibertad <= T_95.length ? T_95[gradosLibertad - 1] : Z_95;
+    }
+
+    private static ThreadFactory fabricaHilos() {
+        return Thread.ofPlatform().name("barrido-", 0).daemon(true).factory();
+    }
+}
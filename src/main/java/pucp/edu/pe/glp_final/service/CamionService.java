@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pucp.edu.pe.glp_final.dto.CamionDTO;
+import pucp.edu.pe.glp_final.dto.PaginaDTO;
+import pucp.edu.pe.glp_final.dto.UbicacionDTO;
 import pucp.edu.pe.glp_final.entity.CamionEntity;
 import pucp.edu.pe.glp_final.mapper.EntityMapper;
 import pucp.edu.pe.glp_final.model.Camion;
@@ -14,6 +16,7 @@ import pucp.edu.pe.glp_final.model.enums.TipoCamion;
 import pucp.edu.pe.glp_final.repository.CamionRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,37 +25,54 @@ import java.util.Optional;
 @Slf4j
 public class CamionService {
 
+    private static final int LIMITE_PAGINA_MAXIMO = 1000;
+
     private final CamionRepository camionRepository;
     private final EntityMapper entityMapper;
+    private final EstadoFlotaService estadoFlotaService;
 
-    @Transactional(readOnly = true)
     public List<CamionDTO> obtenerTodos() {
-        List<CamionEntity> entities = camionRepository.findAll();
-        return entityMapper.toCamionDTOList(entities);
+        return estadoFlotaService.obtenerTodos();
+    }
+
+    /**
+     * Página de camiones ordenada por código; el cursor es el último código recibido
+     */
+    public PaginaDTO<CamionDTO> obtenerPagina(String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_PAGINA_MAXIMO);
+        }
+
+        List<CamionDTO> elementos = new ArrayList<>(limite);
+        boolean hayMas = false;
+        for (CamionDTO camion : estadoFlotaService.obtenerTodos()) {
+            if (cursor != null && camion.getCodigo().compareTo(cursor) <= 0) continue;
+            if (elementos.size() == limite) {
+                hayMas = true;
+                break;
+            }
+            elementos.add(camion);
+        }
+
+        String siguiente = hayMas ? elementos.get(elementos.size() - 1).getCodigo() : null;
+        return new PaginaDTO<>(elementos, siguiente, hayMas);
     }
 
-    @Transactional(readOnly = true)
     public Optional<CamionDTO> obtenerPorCodigo(String codigo) {
-        return camionRepository.findById(codigo)
-                .map(entityMapper::toDTO);
+        return estadoFlotaService.obtener(codigo);
     }
 
-    @Transactional(readOnly = true)
     public List<CamionDTO> obtenerDisponibles() {
-        List<CamionEntity> entities = camionRepository.findByEstado(EstadoCamion.DISPONIBLE);
-        return entityMapper.toCamionDTOList(entities);
+        return estadoFlotaService.obtenerPorEstado(EstadoCamion.DISPONIBLE);
     }
 
-    @Transactional(readOnly = true)
     public List<Camion> obtenerCamionesModelo() {
-        List<CamionEntity> entities = camionRepository.findAll();
-        return entityMapper.toCamionModelList(entities);
+        return entityMapper.toCamionModelListDesdeDTO(estadoFlotaService.obtenerTodos());
     }
 
-    @Transactional(readOnly = true)
     public List<Camion> obtenerDisponiblesModelo() {
-        List<CamionEntity> entities = camionRepository.findByEstado(EstadoCamion.DISPONIBLE);
-        return entityMapper.toCamionModelList(entities);
+        return entityMapper.toCamionModelListDesdeDTO(
+                estadoFlotaService.obtenerPorEstado(EstadoCamion.DISPONIBLE));
     }
 
     @Transactional
@@ -60,91 +80,68 @@ public class CamionService {
         CamionEntity entity = entityMapper.toEntity(camionDTO);
         entity = camionRepository.save(entity);
         log.info("Camión creado: {}", entity.getCodigo());
-        return entityMapper.toDTO(entity);
+
+        CamionDTO creado = entityMapper.toDTO(entity);
+        estadoFlotaService.registrar(creado);
+        return creado;
     }
 
-    @Transactional
     public Optional<CamionDTO> actualizar(String codigo, CamionDTO camionDTO) {
-        return camionRepository.findById(codigo)
-                .map(entity -> {
-                    entity.setUbicacionX(camionDTO.getUbicacion().getX());
-                    entity.setUbicacionY(camionDTO.getUbicacion().getY());
-                    entity.setEstado(camionDTO.getEstado());
-                    entity.setNivelGlpActual(camionDTO.getNivelGlpActual());
-                    entity.setNivelCombustibleActual(camionDTO.getNivelCombustibleActual());
-                    entity.setEnMantenimiento(camionDTO.getEnMantenimiento());
-                    entity.setAveriado(camionDTO.getAveriado());
-                    entity.setMotivoEstado(camionDTO.getMotivoEstado());
-
-                    entity = camionRepository.save(entity);
-                    log.info("Camión actualizado: {}", codigo);
-                    return entityMapper.toDTO(entity);
-                });
+        return estadoFlotaService.actualizar(codigo, camion -> {
+            camion.setUbicacion(new UbicacionDTO(camionDTO.getUbicacion().getX(), camionDTO.getUbicacion().getY()));
+            camion.setEstado(camionDTO.getEstado());
+            camion.setNivelGlpActual(camionDTO.getNivelGlpActual());
+            camion.setNivelCombustibleActual(camionDTO.getNivelCombustibleActual());
+            camion.setEnMantenimiento(camionDTO.getEnMantenimiento());
+            camion.setAveriado(camionDTO.getAveriado());
+            camion.setMotivoEstado(camionDTO.getMotivoEstado());
+        }).map(camion -> {
+            log.info("Camión actualizado: {}", codigo);
+            return camion;
+        });
     }
 
-    @Transactional
     public void actualizarEstado(String codigo, EstadoCamion estado, String motivo) {
-        camionRepository.findById(codigo)
-                .ifPresent(entity -> {
-                    entity.setEstado(estado);
-                    entity.setMotivoEstado(motivo);
-                    camionRepository.save(entity);
-                    log.info("Estado de camión {} actualizado a: {}", codigo, estado);
-                });
+        estadoFlotaService.actualizar(codigo, camion -> {
+            camion.setEstado(estado);
+            camion.setMotivoEstado(motivo);
+        }).ifPresent(camion -> log.info("Estado de camión {} actualizado a: {}", codigo, estado));
     }
 
-    @Transactional
     public void actualizarUbicacion(String codigo, int x, int y) {
-        camionRepository.findById(codigo)
-                .ifPresent(entity -> {
-                    entity.setUbicacionX(x);
-                    entity.setUbicacionY(y);
-                    camionRepository.save(entity);
-                    log.debug("Ubicación de camión {} actualizada a: ({},{})", codigo, x, y);
-                });
+        estadoFlotaService.actualizar(codigo, camion -> camion.setUbicacion(new UbicacionDTO(x, y)))
+                .ifPresent(camion -> log.debug("Ubicación de camión {} actualizada a: ({},{})", codigo, x, y));
     }
 
-    @Transactional
     public void programarMantenimiento(String codigo, LocalDateTime fecha) {
-        camionRepository.findById(codigo)
-                .ifPresent(entity -> {
-                    entity.setFechaProximoMantenimiento(fecha);
-                    camionRepository.save(entity);
-                    log.info("Mantenimiento programado para camión {} en fecha: {}", codigo, fecha);
-                });
+        estadoFlotaService.actualizar(codigo, camion -> camion.setFechaProximoMantenimiento(fecha))
+                .ifPresent(camion -> log.info("Mantenimiento programado para camión {} en fecha: {}", codigo, fecha));
     }
 
-    @Transactional
     public void iniciarMantenimiento(String codigo) {
-        camionRepository.findById(codigo)
-                .ifPresent(entity -> {
-                    entity.setEnMantenimiento(true);
-                    entity.setEstado(EstadoCamion.EN_MANTENIMIENTO);
-                    entity.setFechaUltimoMantenimiento(LocalDateTime.now());
-                    entity.setMotivoEstado("Mantenimiento preventivo iniciado");
-                    camionRepository.save(entity);
-                    log.info("Mantenimiento iniciado para camión: {}", codigo);
-                });
+        estadoFlotaService.actualizar(codigo, camion -> {
+            camion.setEnMantenimiento(true);
+            camion.setEstado(EstadoCamion.EN_MANTENIMIENTO);
+            camion.setFechaUltimoMantenimiento(LocalDateTime.now());
+            camion.setMotivoEstado("Mantenimiento preventivo iniciado");
+        }).ifPresent(camion -> log.info("Mantenimiento iniciado para camión: {}", codigo));
     }
 
-    @Transactional
     public void finalizarMantenimiento(String codigo) {
-        camionRepository.findById(codigo)
-                .ifPresent(entity -> {
-                    entity.setEnMantenimiento(false);
-                    entity.setEstado(EstadoCamion.DISPONIBLE);
-                    entity.setMotivoEstado("Disponible después de mantenimiento");
-                    // Recarga completa después del mantenimiento
-                    entity.setNivelCombustibleActual(25.0);
-                    camionRepository.save(entity);
-                    log.info("Mantenimiento finalizado para camión: {}", codigo);
-                });
+        estadoFlotaService.actualizar(codigo, camion -> {
+            camion.setEnMantenimiento(false);
+            camion.setEstado(EstadoCamion.DISPONIBLE);
+            camion.setMotivoEstado("Disponible después de mantenimiento");
+            // Recarga completa después del mantenimiento
+            camion.setNivelCombustibleActual(25.0);
+        }).ifPresent(camion -> log.info("Mantenimiento finalizado para camión: {}", codigo));
     }
 
     @Transactional
     public boolean eliminar(String codigo) {
         if (camionRepository.existsById(codigo)) {
             camionRepository.deleteById(codigo);
+            estadoFlotaService.eliminar(codigo);
             log.info("Camión eliminado: {}", codigo);
             return true;
         }
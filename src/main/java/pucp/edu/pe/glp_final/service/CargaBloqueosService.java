@@ -0,0 +1,214 @@
+package pucp.edu.pe.glp_final.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pucp.edu.pe.glp_final.dto.ResultadoCargaBloqueosDTO;
+import pucp.edu.pe.glp_final.mapper.SecuenciaNodosCodec;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Carga masiva de archivos de bloqueos mensuales, una línea por bloqueo:
+ * <pre>
+ * ##d##h##m-##d##h##m:x1,y1,x2,y2,...
+ * </pre>
+ * p. ej. "01d00h31m-01d21h35m:15,10,30,10,30,18" (del día 1 a las 00:31 al día 1 a las
+ * 21:35, por la poligonal (15,10)-(30,10)-(30,18)). Cada tramo de la poligonal es
+ * horizontal o vertical; se expande a todas las celdas que recorre y se guarda en
+ * nodos_codificados con {@link SecuenciaNodosCodec}, insertando en lotes JDBC.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CargaBloqueosService {
+
+    private static final int MAXIMO_ERRORES = 20;
+    private static final int TAMANO_BUFFER = 1 << 16;
+    // Un bloqueo con fin anterior al inicio cruza al mes siguiente solo si empieza en los
+    // últimos días del mes y termina en los primeros; cualquier otro es un error del archivo
+    private static final int DIAS_CAMBIO_MES = 3;
+    // El mapa tiene 71x51 nodos: una poligonal que recorre más celdas que esto es un error
+    private static final int MAXIMO_CELDAS_POR_LINEA = 10_000;
+
+    private static final String SQL_INSERTAR = "INSERT INTO bloqueos (id, hora_inicio, hora_fin, " +
+            "nodos_codificados, activo, fecha_creacion) VALUES (?, ?, ?, ?, true, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MapaService mapaService;
+
+    @Value("${glp.bloqueos.tamano-lote-carga:500}")
+    private int tamanoLote;
+
+    /**
+     * Inserta todos los bloqueos válidos del archivo en una sola transacción; las líneas
+     * con formato inválido se cuentan y se omiten
+     * @param anio Año al que corresponde el archivo
+     * @param mes  Mes al que corresponde el archivo (1-12)
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public ResultadoCargaBloqueosDTO cargar(InputStream archivo, int anio, int mes) throws IOException {
+        if (mes < 1 || mes > 12) {
+            throw new IllegalArgumentException("Mes inválido: " + mes);
+        }
+        if (tamanoLote <= 0) {
+            throw new IllegalStateException("glp.bloqueos.tamano-lote-carga debe ser mayor a 0");
+        }
+
+        long inicio = System.nanoTime();
+        ResultadoCargaBloqueosDTO resultado = new ResultadoCargaBloqueosDTO();
+        long leidas = 0;
+        long insertados = 0;
+        long nodos = 0;
+        long rechazadas = 0;
+        Timestamp creacion = Timestamp.valueOf(LocalDateTime.now());
+        Mapa mapa = new Mapa();
+        List<Object[]> lote = new ArrayList<>(tamanoLote);
+
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(archivo, StandardCharsets.UTF_8), TAMANO_BUFFER)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                leidas++;
+                if (leidas == 1 && linea.startsWith("\uFEFF")) {
+                    linea = linea.substring(1);
+                }
+                if (linea.isBlank()) {
+                    continue;
+                }
+                Object[] fila;
+                try {
+                    fila = parsearLinea(linea, anio, mes, creacion, mapa);
+                } catch (RuntimeException e) {
+                    rechazadas++;
+                    if (resultado.getErrores().size() < MAXIMO_ERRORES) {
+                        resultado.getErrores().add("Línea " + leidas + ": " + e.getMessage());
+                    }
+                    continue;
+                }
+                nodos += SecuenciaNodosCodec.contarNodos((byte[]) fila[3]);
+                lote.add(fila);
+                if (lote.size() == tamanoLote) {
+                    insertados += insertar(lote);
+                }
+            }
+        }
+        insertados += insertar(lote);
+
+        // El índice de bloqueos se recompila desde la base solo si la carga se confirma
+        mapaService.recompilarDespuesDeConfirmar();
+
+        resultado.setAnio(anio);
+        resultado.setMes(mes);
+        resultado.setLineasLeidas(leidas);
+        resultado.setBloqueosInsertados(insertados);
+        resultado.setNodosBloqueados(nodos);
+        resultado.setLineasRechazadas(rechazadas);
+        resultado.setDuracionMs((System.nanoTime() - inicio) / 1_000_000);
+        log.info("Carga de bloqueos {}-{}: {} insertados ({} nodos), {} rechazados en {} ms", anio, mes,
+                insertados, nodos, rechazadas, resultado.getDuracionMs());
+        return resultado;
+    }
+
+    private int insertar(List<Object[]> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        int cantidad = lote.size();
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, lote);
+        lote.clear();
+        return cantidad;
+    }
+
+    /**
+     * Parámetros de inserción de una línea, en el orden de SQL_INSERTAR
+     * @param mapa Mapa contra cuyos límites se validan los vértices
+     */
+    static Object[] parsearLinea(String linea, int anio, int mes, Timestamp creacion, Mapa mapa) {
+        int dosPuntos = linea.indexOf(':');
+        if (dosPuntos < 0) {
+            throw new IllegalArgumentException("falta ':' después del intervalo");
+        }
+        int guion = linea.indexOf('-');
+        if (guion < 0 || guion > dosPuntos) {
+            throw new IllegalArgumentException("falta '-' entre el inicio y el fin");
+        }
+        LocalDateTime horaInicio = Pedido.parsearMomento(linea, 0, guion, anio, mes);
+        LocalDateTime horaFin = Pedido.parsearMomento(linea, guion + 1, dosPuntos, anio, mes);
+        if (horaFin.isBefore(horaInicio) && cruzaAlMesSiguiente(horaInicio, horaFin)) {
+            horaFin = horaFin.plusMonths(1);
+        }
+        if (!horaFin.isAfter(horaInicio)) {
+            throw new IllegalArgumentException("el fin debe ser posterior al inicio");
+        }
+
+        List<Ubicacion> celdas = expandirPoligonal(new LectorCampos(linea, dosPuntos + 1), mapa);
+        return new Object[]{
+                UUID.randomUUID().toString(), Timestamp.valueOf(horaInicio), Timestamp.valueOf(horaFin),
+                SecuenciaNodosCodec.codificar(celdas), creacion
+        };
+    }
+
+    private static boolean cruzaAlMesSiguiente(LocalDateTime horaInicio, LocalDateTime horaFin) {
+        int diasMes = horaInicio.toLocalDate().lengthOfMonth();
+        return horaInicio.getDayOfMonth() > diasMes - DIAS_CAMBIO_MES && horaFin.getDayOfMonth() <= DIAS_CAMBIO_MES;
+    }
+
+    /**
+     * Todas las celdas por las que pasa la poligonal, en orden y sin repetir los vértices.
+     * Rechaza vértices fuera del mapa antes de expandir el tramo que llega a ellos.
+     */
+    static List<Ubicacion> expandirPoligonal(LectorCampos campos, Mapa mapa) {
+        List<Ubicacion> celdas = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        while (campos.hayMas()) {
+            int nx = campos.entero();
+            if (!campos.hayMas()) {
+                throw new IllegalArgumentException("coordenada sin pareja");
+            }
+            int ny = campos.entero();
+            Ubicacion vertice = new Ubicacion(nx, ny);
+            if (!mapa.esUbicacionValida(vertice)) {
+                throw new IllegalArgumentException("el vértice " + vertice + " está fuera del mapa de "
+                        + mapa.getAncho() + "x" + mapa.getAlto());
+            }
+
+            if (celdas.isEmpty()) {
+                celdas.add(vertice);
+            } else if (nx != x && ny != y) {
+                throw new IllegalArgumentException("tramo diagonal de (" + x + "," + y + ") a (" + nx + "," + ny + ")");
+            } else {
+                int dx = Integer.signum(nx - x);
+                int dy = Integer.signum(ny - y);
+                if (celdas.size() + Math.abs(nx - x) + Math.abs(ny - y) > MAXIMO_CELDAS_POR_LINEA) {
+                    throw new IllegalArgumentException("la poligonal recorre más de " + MAXIMO_CELDAS_POR_LINEA + " celdas");
+                }
+                for (int cx = x + dx, cy = y + dy; cx != nx + dx || cy != ny + dy; cx += dx, cy += dy) {
+                    celdas.add(new Ubicacion(cx, cy));
+                }
+            }
+            x = nx;
+            y = ny;
+        }
+        if (celdas.isEmpty()) {
+            throw new IllegalArgumentException("faltan los nodos bloqueados");
+        }
+        return celdas;
+    }
+}
@@ -0,0 +1,154 @@
+package pucp.edu.pe.glp_final.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pucp.edu.pe.glp_final.dto.ResultadoCargaPedidosDTO;
+import pucp.edu.pe.glp_final.model.Pedido;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Carga masiva de archivos de ventas mensuales, una línea por pedido:
+ * <pre>
+ * ##d##h##m:x,y,c-idCliente,##m3,##h
+ * </pre>
+ * p. ej. "11d13h31m:45,43,c-167,9m3,36h" (recibido el día 11 a las 13:31 en (45,43),
+ * 9 m³ para el cliente c-167, con 36 horas de plazo). El archivo se lee por streaming,
+ * cada línea se parsea recorriendo sus caracteres y los pedidos se insertan en lotes
+ * JDBC, sin pasar por JPA.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CargaPedidosService {
+
+    private static final int MAXIMO_ERRORES = 20;
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private static final String SQL_INSERTAR = "INSERT INTO pedidos (id, id_cliente, ubicacion_x, ubicacion_y, " +
+            "cantidad_glp, hora_recepcion, horas_limite_entrega, hora_limite_entrega, entregado, fecha_creacion) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, false, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LibroPedidosService libroPedidosService;
+
+    @Value("${glp.pedidos.tamano-lote-carga:1000}")
+    private int tamanoLote;
+
+    /**
+     * Inserta todos los pedidos válidos del archivo en una sola transacción; las líneas
+     * con formato inválido se cuentan y se omiten
+     * @param anio Año al que corresponde el archivo
+     * @param mes  Mes al que corresponde el archivo (1-12)
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public ResultadoCargaPedidosDTO cargar(InputStream archivo, int anio, int mes) throws IOException {
+        if (mes < 1 || mes > 12) {
+            throw new IllegalArgumentException("Mes inválido: " + mes);
+        }
+        if (tamanoLote <= 0) {
+            throw new IllegalStateException("glp.pedidos.tamano-lote-carga debe ser mayor a 0");
+        }
+
+        long inicio = System.nanoTime();
+        ResultadoCargaPedidosDTO resultado = new ResultadoCargaPedidosDTO();
+        long leidas = 0;
+        long insertados = 0;
+        long rechazadas = 0;
+        Timestamp creacion = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> lote = new ArrayList<>(tamanoLote);
+
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(archivo, StandardCharsets.UTF_8), TAMANO_BUFFER)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                leidas++;
+                if (leidas == 1 && linea.startsWith("\uFEFF")) {
+                    linea = linea.substring(1);
+                }
+                if (linea.isBlank()) {
+                    continue;
+                }
+                try {
+                    lote.add(parsearLinea(linea, anio, mes, creacion));
+                } catch (RuntimeException e) {
+                    rechazadas++;
+                    if (resultado.getErrores().size() < MAXIMO_ERRORES) {
+                        resultado.getErrores().add("Línea " + leidas + ": " + e.getMessage());
+                    }
+                    continue;
+                }
+                if (lote.size() == tamanoLote) {
+                    insertados += insertar(lote);
+                }
+            }
+        }
+        insertados += insertar(lote);
+
+        // El libro se recarga desde la base solo si la carga se confirma
+        libroPedidosService.recargarDespuesDeConfirmar();
+
+        long duracionNs = System.nanoTime() - inicio;
+        resultado.setAnio(anio);
+        resultado.setMes(mes);
+        resultado.setLineasLeidas(leidas);
+        resultado.setPedidosInsertados(insertados);
+        resultado.setLineasRechazadas(rechazadas);
+        resultado.setDuracionMs(duracionNs / 1_000_000);
+        resultado.setPedidosPorSegundo(duracionNs > 0 ? insertados * 1e9 / duracionNs : 0.0);
+        log.info("Carga de pedidos {}-{}: {} insertados, {} rechazados en {} ms ({} pedidos/s)", anio, mes,
+                insertados, rechazadas, resultado.getDuracionMs(), Math.round(resultado.getPedidosPorSegundo()));
+        return resultado;
+    }
+
+    private int insertar(List<Object[]> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        int cantidad = lote.size();
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, lote);
+        lote.clear();
+        return cantidad;
+    }
+
+    /**
+     * Parámetros de inserción de una línea, en el orden de SQL_INSERTAR. El plazo va en
+     * horas enteras (se guarda como entero): "4.5h" se rechaza en lugar de truncarse.
+     */
+    static Object[] parsearLinea(String linea, int anio, int mes, Timestamp creacion) {
+        int dosPuntos = linea.indexOf(':');
+        if (dosPuntos < 0) {
+            throw new IllegalArgumentException("falta ':' después del momento");
+        }
+        LocalDateTime recepcion = Pedido.parsearMomento(linea, 0, dosPuntos, anio, mes);
+
+        LectorCampos campos = new LectorCampos(linea, dosPuntos + 1);
+        int x = campos.entero();
+        int y = campos.entero();
+        String idCliente = campos.texto("el cliente");
+        double cantidad = campos.decimalConSufijo("m3");
+        int horas = campos.enteroConSufijo("h");
+        campos.verificarFin();
+        if (cantidad <= 0 || horas <= 0) {
+            throw new IllegalArgumentException("cantidad y plazo deben ser positivos");
+        }
+
+        return new Object[]{
+                UUID.randomUUID().toString(), idCliente, x, y, cantidad,
+                Timestamp.valueOf(recepcion), horas, Timestamp.valueOf(recepcion.plusHours(horas)), creacion
+        };
+    }
+}
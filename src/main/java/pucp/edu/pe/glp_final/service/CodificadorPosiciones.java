@@ -0,0 +1,81 @@
+package pucp.edu.pe.glp_final.service;
+
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Ruta;
+import pucp.edu.pe.glp_final.simulacion.Simulador;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Posiciones de la flota de una sesión en un solo mensaje binario por publicación, sin
+ * pasar por JSON. Valores en big-endian:
+ * <pre>
+ * cabecera (12 bytes): versión (short), cantidad de registros (short), momento simulado (long, segundos UTC)
+ * registro (12 bytes): índice del camión (short), x (short), y (short), estado (byte, ordinal de EstadoCamion),
+ *                      reservado (byte), progreso de su ruta (float de 0 a 1, -1 sin ruta)
+ * </pre>
+ * El índice es la posición del camión en estadoCamiones del estado completo de la sesión.
+ */
+final class CodificadorPosiciones {
+
+    static final short VERSION = 1;
+    static final int BYTES_CABECERA = 12;
+    static final int BYTES_REGISTRO = 12;
+
+    // Se reutilizan entre publicaciones; solo los usa el hilo de la simulación
+    private ByteBuffer buffer = ByteBuffer.allocate(BYTES_CABECERA + 32 * BYTES_REGISTRO);
+    private final Map<String, Ruta> rutaPorCamion = new HashMap<>();
+
+    /**
+     * Debe llamarse con la simulación detenida en un evento (en su hilo o dentro de consultar())
+     * @return Copia del mensaje del tamaño exacto: el broker la entrega de forma asíncrona,
+     *         así que no puede ser el arreglo del buffer reutilizado
+     */
+    byte[] codificar(Simulador sim) {
+        List<Camion> camiones = sim.getCamiones();
+        int requerido = BYTES_CABECERA + camiones.size() * BYTES_REGISTRO;
+        if (buffer.capacity() < requerido) {
+            buffer = ByteBuffer.allocate(requerido);
+        }
+
+        rutaPorCamion.clear();
+        for (Ruta ruta : sim.getRutasActivas()) {
+            rutaPorCamion.put(ruta.getCodigoCamion(), ruta);
+        }
+
+        LocalDateTime momento = sim.getMomentoActual();
+        buffer.clear();
+        buffer.putShort(VERSION)
+                .putShort((short) camiones.size())
+                .putLong(momento.toEpochSecond(ZoneOffset.UTC));
+        for (int i = 0; i < camiones.size(); i++) {
+            Camion camion = camiones.get(i);
+            buffer.putShort((short) i)
+                    .putShort((short) camion.getUbicacionActual().getX())
+                    .putShort((short) camion.getUbicacionActual().getY())
+                    .put((byte) camion.getEstado().ordinal())
+                    .put((byte) 0)
+                    .putFloat(progreso(rutaPorCamion.get(camion.getCodigo()), momento));
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static float progreso(Ruta ruta, LocalDateTime momento) {
+        if (ruta == null || ruta.getHoraInicio() == null || ruta.getHoraFinEstimada() == null) {
+            return -1f;
+        }
+        long total = Duration.between(ruta.getHoraInicio(), ruta.getHoraFinEstimada()).getSeconds();
+        if (total <= 0) {
+            return 1f;
+        }
+        long transcurrido = Duration.between(ruta.getHoraInicio(), momento).getSeconds();
+        return (float) Math.min(1.0, Math.max(0.0, (double) transcurrido / total));
+    }
+}
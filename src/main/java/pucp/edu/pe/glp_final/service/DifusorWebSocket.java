@@ -0,0 +1,117 @@
+package pucp.edu.pe.glp_final.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Envío de mensajes WebSocket desde un hilo propio, para que quien publica (p. ej. el
+ * hilo de una simulación) nunca espere el reparto a los suscriptores.
+ *
+ * En los tópicos de estado gana el último valor: se envía como mucho una vez por ciclo,
+ * y un valor que no llegó a enviarse se reemplaza. Los tópicos de eventos tienen una
+ * cola acotada que, llena, descarta el evento más antiguo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DifusorWebSocket {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${glp.websocket.mensajes-por-segundo:10}")
+    private int mensajesPorSegundo;
+
+    @Value("${glp.websocket.capacidad-cola:256}")
+    private int capacidadCola;
+
+    private final Map<String, Supplier<?>> ultimos = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Object>> colas = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ciclo;
+
+    @PostConstruct
+    void iniciar() {
+        if (mensajesPorSegundo <= 0 || capacidadCola <= 0) {
+            throw new IllegalStateException("glp.websocket.mensajes-por-segundo y glp.websocket.capacidad-cola deben ser mayores a 0");
+        }
+        long periodoMs = Math.max(1, 1000 / mensajesPorSegundo);
+        ciclo = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("difusor-websocket").daemon().factory());
+        ciclo.scheduleAtFixedRate(this::enviarPendientes, periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void detener() {
+        ciclo.shutdown();
+    }
+
+    /**
+     * Publica el estado del tópico, reemplazando al anterior si aún no se envió
+     */
+    public void publicarUltimo(String topico, Object mensaje) {
+        publicarUltimo(topico, () -> mensaje);
+    }
+
+    /**
+     * Como {@link #publicarUltimo(String, Object)}, pero el mensaje se construye al
+     * enviarse, en el hilo del difusor, y solo si no fue reemplazado antes
+     */
+    public void publicarUltimo(String topico, Supplier<?> mensaje) {
+        ultimos.put(topico, mensaje);
+    }
+
+    /**
+     * Encola un evento del tópico; con la cola llena se descarta el más antiguo
+     */
+    public void encolar(String topico, Object mensaje) {
+        colas.compute(topico, (t, cola) -> {
+            if (cola == null) {
+                cola = new ArrayDeque<>();
+            } else if (cola.size() >= capacidadCola) {
+                cola.pollFirst();
+                log.debug("Cola de {} llena: se descartó el evento más antiguo", t);
+            }
+            cola.addLast(mensaje);
+            return cola;
+        });
+    }
+
+    private void enviarPendientes() {
+        // Retirar cada entrada antes de enviarla: lo que se publique mientras tanto va al siguiente ciclo
+        for (String topico : ultimos.keySet()) {
+            Supplier<?> mensaje = ultimos.remove(topico);
+            if (mensaje != null) {
+                enviar(topico, mensaje);
+            }
+        }
+        for (String topico : colas.keySet()) {
+            Deque<Object> cola = colas.remove(topico);
+            if (cola != null) {
+                for (Object mensaje : cola) {
+                    enviar(topico, () -> mensaje);
+                }
+            }
+        }
+    }
+
+    private void enviar(String topico, Supplier<?> mensaje) {
+        try {
+            messagingTemplate.convertAndSend(topico, mensaje.get());
+        } catch (RuntimeException e) {
+            // Un error no debe detener el ciclo programado
+            log.warn("No se pudo enviar el mensaje a {}", topico, e);
+        }
+    }
+}
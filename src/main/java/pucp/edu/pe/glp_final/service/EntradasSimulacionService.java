@@ -0,0 +1,60 @@
+package pucp.edu.pe.glp_final.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pucp.edu.pe.glp_final.entity.BloqueoEntity;
+import pucp.edu.pe.glp_final.entity.PedidoEntity;
+import pucp.edu.pe.glp_final.mapper.EntityMapper;
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.repository.BloqueoRepository;
+import pucp.edu.pe.glp_final.repository.PedidoRepository;
+import pucp.edu.pe.glp_final.simulacion.FuenteEntradas;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entradas de las simulaciones cargadas por ventanas, leídas de la base de datos
+ * solo para el intervalo pedido
+ */
+@Service
+@RequiredArgsConstructor
+public class EntradasSimulacionService implements FuenteEntradas {
+
+    private final PedidoRepository pedidoRepository;
+    private final BloqueoRepository bloqueoRepository;
+    private final EntityMapper entityMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Pedido> pedidosRecibidosEntre(LocalDateTime desde, LocalDateTime hasta) {
+        List<Pedido> pedidos = new ArrayList<>();
+        for (PedidoEntity entity : pedidoRepository.findPendientesRecibidosEntre(desde, hasta)) {
+            pedidos.add(entityMapper.toModel(entity));
+        }
+        return pedidos;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Bloqueo> bloqueosVigentesEn(LocalDateTime momento) {
+        return aModelo(bloqueoRepository.findBloqueosVigentesEn(momento));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Bloqueo> bloqueosQueInicianEntre(LocalDateTime desde, LocalDateTime hasta) {
+        return aModelo(bloqueoRepository.findBloqueosQueInicianEntre(desde, hasta));
+    }
+
+    private List<Bloqueo> aModelo(List<BloqueoEntity> entities) {
+        List<Bloqueo> bloqueos = new ArrayList<>(entities.size());
+        for (BloqueoEntity entity : entities) {
+            bloqueos.add(entityMapper.toModel(entity));
+        }
+        return bloqueos;
+    }
+}
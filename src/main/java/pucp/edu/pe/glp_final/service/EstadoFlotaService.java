@@ -0,0 +1,184 @@
+package pucp.edu.pe.glp_final.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pucp.edu.pe.glp_final.dto.CamionDTO;
+import pucp.edu.pe.glp_final.dto.UbicacionDTO;
+import pucp.edu.pe.glp_final.entity.CamionEntity;
+import pucp.edu.pe.glp_final.mapper.EntityMapper;
+import pucp.edu.pe.glp_final.model.enums.EstadoCamion;
+import pucp.edu.pe.glp_final.repository.CamionRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Estado autoritativo de la flota en memoria, indexado por código de camión.
+ *
+ * Cada valor del mapa es una instantánea que no se vuelve a modificar: las
+ * actualizaciones trabajan sobre una copia y la publican con compute(), que
+ * bloquea solo la entrada del camión afectado. Los cambios se escriben a
+ * CamionRepository en lotes desde el planificador de tareas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EstadoFlotaService {
+
+    private final CamionRepository camionRepository;
+    private final EntityMapper entityMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, CamionDTO> camiones = new ConcurrentHashMap<>();
+    private final Set<String> pendientesPersistir = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Carga la flota desde la base de datos, reemplazando el estado en memoria
+     */
+    @Transactional(readOnly = true)
+    public void cargar() {
+        Map<String, CamionDTO> cargados = new HashMap<>();
+        for (CamionEntity entity : camionRepository.findAll()) {
+            cargados.put(entity.getCodigo(), entityMapper.toDTO(entity));
+        }
+        camiones.keySet().retainAll(cargados.keySet());
+        camiones.putAll(cargados);
+        pendientesPersistir.clear();
+        log.info("Estado de flota cargado en memoria: {} camiones", camiones.size());
+    }
+
+    /**
+     * Las instantáneas devueltas son de solo lectura: no deben modificarse
+     */
+    public List<CamionDTO> obtenerTodos() {
+        List<CamionDTO> lista = new ArrayList<>(camiones.values());
+        lista.sort(Comparator.comparing(CamionDTO::getCodigo));
+        return lista;
+    }
+
+    public Optional<CamionDTO> obtener(String codigo) {
+        return Optional.ofNullable(camiones.get(codigo));
+    }
+
+    public List<CamionDTO> obtenerPorEstado(EstadoCamion estado) {
+        List<CamionDTO> lista = new ArrayList<>();
+        for (CamionDTO camion : camiones.values()) {
+            if (camion.getEstado() == estado) {
+                lista.add(camion);
+            }
+        }
+        lista.sort(Comparator.comparing(CamionDTO::getCodigo));
+        return lista;
+    }
+
+    /**
+     * Aplica un cambio sobre una copia del camión y la publica como nuevo estado
+     * @param codigo Código del camión
+     * @param cambio Modificación a aplicar sobre la copia
+     * @return Nuevo estado, vacío si el camión no existe
+     */
+    public Optional<CamionDTO> actualizar(String codigo, Consumer<CamionDTO> cambio) {
+        CamionDTO actualizado = camiones.computeIfPresent(codigo, (k, actual) -> {
+            CamionDTO copia = copiar(actual);
+            cambio.accept(copia);
+            return copia;
+        });
+
+        if (actualizado != null) {
+            pendientesPersistir.add(codigo);
+        }
+        return Optional.ofNullable(actualizado);
+    }
+
+    /**
+     * Registra un camión ya persistido (creación o recarga desde BD)
+     */
+    public void registrar(CamionDTO camion) {
+        camiones.put(camion.getCodigo(), camion);
+    }
+
+    public void eliminar(String codigo) {
+        camiones.remove(codigo);
+        pendientesPersistir.remove(codigo);
+    }
+
+    /**
+     * Escribe en lote los camiones modificados desde el último volcado. La escritura, el
+     * flush y el commit ocurren dentro del try: si cualquiera falla, los camiones vuelven
+     * a quedar pendientes y se reintentan en el siguiente volcado.
+     */
+    @Scheduled(fixedDelayString = "${glp.flota.persistencia-ms:2000}")
+    public void persistirCambios() {
+        if (pendientesPersistir.isEmpty()) {
+            return;
+        }
+
+        // Retirar los códigos antes de leer las instantáneas: un cambio posterior
+        // vuelve a marcar el camión y se escribe en el siguiente volcado
+        List<String> codigos = new ArrayList<>();
+        for (Iterator<String> it = pendientesPersistir.iterator(); it.hasNext(); ) {
+            codigos.add(it.next());
+            it.remove();
+        }
+
+        try {
+            Integer persistidos = transactionTemplate.execute(estado -> {
+                List<CamionEntity> entities = camionRepository.findAllById(codigos);
+                for (CamionEntity entity : entities) {
+                    CamionDTO camion = camiones.get(entity.getCodigo());
+                    if (camion != null) {
+                        aplicar(camion, entity);
+                    }
+                }
+                camionRepository.saveAllAndFlush(entities);
+                return entities.size();
+            });
+            log.debug("Persistidos {} camiones modificados", persistidos);
+        } catch (RuntimeException e) {
+            pendientesPersistir.addAll(codigos);
+            log.error("Error al persistir estado de flota, se reintentará", e);
+        }
+    }
+
+    @PreDestroy
+    public void volcarAlCerrar() {
+        persistirCambios();
+    }
+
+    private void aplicar(CamionDTO camion, CamionEntity entity) {
+        entity.setUbicacionX(camion.getUbicacion().getX());
+        entity.setUbicacionY(camion.getUbicacion().getY());
+        entity.setEstado(camion.getEstado());
+        entity.setNivelGlpActual(camion.getNivelGlpActual());
+        entity.setNivelCombustibleActual(camion.getNivelCombustibleActual());
+        entity.setEnMantenimiento(camion.getEnMantenimiento());
+        entity.setAveriado(camion.getAveriado());
+        entity.setMotivoEstado(camion.getMotivoEstado());
+        entity.setFechaUltimoMantenimiento(camion.getFechaUltimoMantenimiento());
+        entity.setFechaProximoMantenimiento(camion.getFechaProximoMantenimiento());
+    }
+
+    private CamionDTO copiar(CamionDTO origen) {
+        CamionDTO copia = new CamionDTO();
+        copia.setCodigo(origen.getCodigo());
+        copia.setTipo(origen.getTipo());
+        copia.setUbicacion(new UbicacionDTO(origen.getUbicacion().getX(), origen.getUbicacion().getY()));
+        copia.setEstado(origen.getEstado());
+        copia.setNivelGlpActual(origen.getNivelGlpActual());
+        copia.setNivelCombustibleActual(origen.getNivelCombustibleActual());
+        copia.setCapacidadTanqueGLP(origen.getCapacidadTanqueGLP());
+        copia.setPesoTara(origen.getPesoTara());
+        copia.setEnMantenimiento(origen.getEnMantenimiento());
+        copia.setAveriado(origen.getAveriado());
+        copia.setMotivoEstado(origen.getMotivoEstado());
+        copia.setFechaUltimoMantenimiento(origen.getFechaUltimoMantenimiento());
+        copia.setFechaProximoMantenimiento(origen.getFechaProximoMantenimiento());
+        return copia;
+    }
+}
@@ -0,0 +1,128 @@
+package pucp.edu.pe.glp_final.service;
+
+import pucp.edu.pe.glp_final.dto.CambioCamionDTO;
+import pucp.edu.pe.glp_final.dto.CamionDTO;
+import pucp.edu.pe.glp_final.dto.DeltaSimulacionDTO;
+import pucp.edu.pe.glp_final.dto.EstadoSimulacionDTO;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Último estado de una sesión publicado en su tópico de deltas. Cada publicación envía
+ * solo lo que cambió respecto a este estado y lo reemplaza; un cliente nuevo o que
+ * perdió un delta recibe este estado completo con su número de secuencia.
+ */
+final class EstadoIncrementalSimulacion {
+
+    private EstadoSimulacionDTO base; // No se modifica una vez publicado
+    private Map<String, CamionDTO> camionesBase = Map.of();
+    private Set<String> rutasBase = Set.of();
+    private long secuencia;
+
+    /**
+     * Diferencia entre el estado dado y el último publicado; el estado dado pasa a ser la base
+     */
+    synchronized DeltaSimulacionDTO avanzar(EstadoSimulacionDTO actual) {
+        EstadoSimulacionDTO anterior = base != null ? base : new EstadoSimulacionDTO();
+        secuencia++;
+
+        DeltaSimulacionDTO delta = new DeltaSimulacionDTO();
+        delta.setSimulacionId(actual.getId());
+        delta.setSecuencia(secuencia);
+        delta.setMomentoActual(actual.getMomentoActual());
+        delta.setProgreso(siCambio(anterior.getProgreso(), actual.getProgreso()));
+        delta.setActiva(siCambio(anterior.getActiva(), actual.getActiva()));
+        delta.setPedidosPendientes(siCambio(anterior.getPedidosPendientes(), actual.getPedidosPendientes()));
+        delta.setPedidosEntregados(siCambio(anterior.getPedidosEntregados(), actual.getPedidosEntregados()));
+        delta.setConsumoCombustibleTotal(siCambio(anterior.getConsumoCombustibleTotal(), actual.getConsumoCombustibleTotal()));
+        delta.setDistanciaRecorridaTotal(siCambio(anterior.getDistanciaRecorridaTotal(), actual.getDistanciaRecorridaTotal()));
+
+        Map<String, CamionDTO> camiones = new HashMap<>();
+        for (CamionDTO camion : actual.getEstadoCamiones()) {
+            camiones.put(camion.getCodigo(), camion);
+            CambioCamionDTO cambio = diferencia(camionesBase.get(camion.getCodigo()), camion);
+            if (cambio != null) {
+                delta.getCamiones().add(cambio);
+            }
+        }
+
+        Set<String> rutas = new HashSet<>(actual.getIdsRutasActivas());
+        for (String rutaId : actual.getIdsRutasActivas()) {
+            if (!rutasBase.contains(rutaId)) {
+                delta.getRutasAgregadas().add(rutaId);
+            }
+        }
+        for (String rutaId : rutasBase) {
+            if (!rutas.contains(rutaId)) {
+                delta.getRutasRetiradas().add(rutaId);
+            }
+        }
+
+        reemplazarBase(actual, camiones, rutas);
+        return delta;
+    }
+
+    /**
+     * Estado completo correspondiente a la última secuencia publicada. Antes de la primera
+     * publicación se toma el estado actual como base, fuera del candado para no bloquear
+     * la simulación mientras se consulta.
+     */
+    EstadoSimulacionDTO completo(Supplier<EstadoSimulacionDTO> actual) {
+        synchronized (this) {
+            if (base != null) {
+                return base;
+            }
+        }
+        EstadoSimulacionDTO inicial = actual.get();
+        synchronized (this) {
+            if (base == null) {
+                Map<String, CamionDTO> camiones = new HashMap<>();
+                inicial.getEstadoCamiones().forEach(c -> camiones.put(c.getCodigo(), c));
+                reemplazarBase(inicial, camiones, new HashSet<>(inicial.getIdsRutasActivas()));
+            }
+            return base;
+        }
+    }
+
+    private void reemplazarBase(EstadoSimulacionDTO estado, Map<String, CamionDTO> camiones, Set<String> rutas) {
+        estado.setSecuencia(secuencia);
+        base = estado;
+        camionesBase = camiones;
+        rutasBase = rutas;
+    }
+
+    /**
+     * @return null si el camión no cambió
+     */
+    private static CambioCamionDTO diferencia(CamionDTO antes, CamionDTO despues) {
+        CambioCamionDTO cambio = new CambioCamionDTO();
+        boolean cambiado = antes == null;
+        if (antes == null) {
+            antes = new CamionDTO();
+        }
+
+        cambio.setUbicacion(siCambio(antes.getUbicacion(), despues.getUbicacion()));
+        cambio.setEstado(siCambio(antes.getEstado(), despues.getEstado()));
+        cambio.setNivelGlpActual(siCambio(antes.getNivelGlpActual(), despues.getNivelGlpActual()));
+        cambio.setNivelCombustibleActual(siCambio(antes.getNivelCombustibleActual(), despues.getNivelCombustibleActual()));
+        cambio.setEnMantenimiento(siCambio(antes.getEnMantenimiento(), despues.getEnMantenimiento()));
+        cambio.setAveriado(siCambio(antes.getAveriado(), despues.getAveriado()));
+        if (!Objects.equals(antes.getMotivoEstado(), despues.getMotivoEstado())) {
+            cambio.setMotivoEstado(despues.getMotivoEstado() != null ? despues.getMotivoEstado() : "");
+        }
+
+        cambiado |= cambio.getUbicacion() != null || cambio.getEstado() != null || cambio.getNivelGlpActual() != null
+                || cambio.getNivelCombustibleActual() != null || cambio.getEnMantenimiento() != null
+                || cambio.getAveriado() != null || cambio.getMotivoEstado() != null;
+        if (!cambiado) {
+            return null;
+        }
+        cambio.setCodigo(despues.getCodigo());
+        return cambio;
+    }
+
+    private static <T> T siCambio(T antes, T despues) {
+        return Objects.equals(antes, despues) ? null : despues;
+    }
+}
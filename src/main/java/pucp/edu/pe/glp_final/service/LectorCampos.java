@@ -0,0 +1,145 @@
+package pucp.edu.pe.glp_final.service;
+
+/**
+ * Cursor sobre los campos separados por comas de una línea de los archivos de carga
+ * (ventas y bloqueos). Lee los números recorriendo los caracteres, sin crear subcadenas;
+ * los errores de formato son IllegalArgumentException con un mensaje corto, que la carga
+ * informa junto al número de línea.
+ */
+final class LectorCampos {
+
+    // Hasta 9 dígitos siempre cabe en un int
+    private static final int MAXIMO_DIGITOS = 9;
+
+    private final String linea;
+    private final int fin;
+    private int pos;
+
+    /**
+     * @param desde Inicio del primer campo; los espacios al final de la línea se ignoran
+     */
+    LectorCampos(String linea, int desde) {
+        int fin = linea.length();
+        while (fin > desde && Character.isWhitespace(linea.charAt(fin - 1))) {
+            fin--;
+        }
+        this.linea = linea;
+        this.fin = fin;
+        this.pos = desde;
+    }
+
+    boolean hayMas() {
+        return pos < fin;
+    }
+
+    /**
+     * Falla si quedan campos sin leer
+     */
+    void verificarFin() {
+        if (hayMas()) {
+            throw new IllegalArgumentException("sobran campos: " + linea.substring(pos, fin));
+        }
+    }
+
+    int entero() {
+        int hasta = finCampo();
+        int valor = entero(linea, pos, hasta);
+        avanzar(hasta);
+        return valor;
+    }
+
+    /**
+     * Campo de texto no vacío
+     */
+    String texto(String nombre) {
+        int hasta = finCampo();
+        if (hasta == pos) {
+            throw new IllegalArgumentException("falta " + nombre);
+        }
+        String valor = linea.substring(pos, hasta);
+        avanzar(hasta);
+        return valor;
+    }
+
+    /**
+     * Número entero seguido del sufijo dado, p. ej. "36h"; rechaza la parte decimal
+     */
+    int enteroConSufijo(String sufijo) {
+        int hasta = finCampo();
+        int finNumero = finNumero(hasta, sufijo);
+        int punto = linea.indexOf('.', pos);
+        if (punto >= 0 && punto < finNumero) {
+            throw new IllegalArgumentException("se esperaba un entero antes de '" + sufijo + "': "
+                    + linea.substring(pos, hasta));
+        }
+        int valor = entero(linea, pos, finNumero);
+        avanzar(hasta);
+        return valor;
+    }
+
+    /**
+     * Número con parte decimal opcional seguido del sufijo dado, p. ej. "9m3" o "12.5m3"
+     */
+    double decimalConSufijo(String sufijo) {
+        int hasta = finCampo();
+        int finNumero = finNumero(hasta, sufijo);
+        int punto = linea.indexOf('.', pos);
+        double valor;
+        if (punto < 0 || punto >= finNumero) {
+            valor = entero(linea, pos, finNumero);
+        } else {
+            int decimales = finNumero - punto - 1;
+            valor = entero(linea, pos, punto) + entero(linea, punto + 1, finNumero) / Math.pow(10, decimales);
+        }
+        avanzar(hasta);
+        return valor;
+    }
+
+    /**
+     * Entero sin signo entre desde y hasta
+     */
+    static int entero(String linea, int desde, int hasta) {
+        if (desde >= hasta || hasta - desde > MAXIMO_DIGITOS) {
+            throw new IllegalArgumentException("número inválido: " + linea.substring(desde, Math.max(desde, hasta)));
+        }
+        int valor = 0;
+        for (int i = desde; i < hasta; i++) {
+            char c = linea.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("número inválido: " + linea.substring(desde, hasta));
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    private int finNumero(int hasta, String sufijo) {
+        if (hasta - pos < sufijo.length() || !linea.startsWith(sufijo, hasta - sufijo.length())) {
+            throw new IllegalArgumentException("falta el sufijo '" + sufijo + "' en " + linea.substring(pos, hasta));
+        }
+        int finNumero = hasta - sufijo.length();
+        if (finNumero == pos) {
+            throw new IllegalArgumentException("falta el número antes de '" + sufijo + "'");
+        }
+        return finNumero;
+    }
+
+    /**
+     * Fin del campo actual: la siguiente coma o el fin de la línea
+     */
+    private int finCampo() {
+        if (!hayMas()) {
+            throw new IllegalArgumentException("faltan campos");
+        }
+        for (int i = pos; i < fin; i++) {
+            if (linea.charAt(i) == ',') {
+                return i;
+            }
+        }
+        return fin;
+    }
+
+    private void avanzar(int finCampo) {
+        pos = finCampo < fin ? finCampo + 1 : fin;
+    }
+}
@@ -0,0 +1,139 @@
+package pucp.edu.pe.glp_final.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pucp.edu.pe.glp_final.dto.PedidoDTO;
+import pucp.edu.pe.glp_final.entity.PedidoEntity;
+import pucp.edu.pe.glp_final.mapper.EntityMapper;
+import pucp.edu.pe.glp_final.model.LibroPedidos;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.repository.PedidoRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Libro de pedidos pendientes en memoria, sincronizado por las escrituras de
+ * PedidoService. Atiende las consultas de pendientes, vencidos y totales sin
+ * ir a la base de datos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LibroPedidosService {
+
+    private final PedidoRepository pedidoRepository;
+    private final EntityMapper entityMapper;
+
+    private final LibroPedidos libro = new LibroPedidos();
+
+    /**
+     * Carga los pedidos pendientes desde la base de datos
+     */
+    @Transactional(readOnly = true)
+    public void cargar() {
+        libro.limpiar();
+        for (PedidoEntity entity : pedidoRepository.findByEntregado(false)) {
+            libro.agregar(entityMapper.toModel(entity));
+        }
+        log.info("Libro de pedidos cargado: {} pendientes, {} m³ de GLP",
+                libro.contar(), libro.getGlpPendiente());
+    }
+
+    // ========================================
+    // SINCRONIZACIÓN (después de confirmar la transacción)
+    // ========================================
+
+    /**
+     * Vuelve a cargar el libro desde la base al confirmarse la transacción actual, p. ej.
+     * después de una carga masiva que no pasa por JPA
+     */
+    public void recargarDespuesDeConfirmar() {
+        despuesDeConfirmar(this::cargar);
+    }
+
+    public void registrar(PedidoEntity entity) {
+        if (Boolean.TRUE.equals(entity.getEntregado())) {
+            retirar(entity.getId());
+            return;
+        }
+        Pedido pedido = entityMapper.toModel(entity);
+        despuesDeConfirmar(() -> libro.agregar(pedido));
+    }
+
+    public void asignarCamion(String pedidoId, String codigoCamion) {
+        despuesDeConfirmar(() -> libro.asignarCamion(pedidoId, codigoCamion));
+    }
+
+    public void retirar(String pedidoId) {
+        despuesDeConfirmar(() -> libro.retirar(pedidoId));
+    }
+
+    // ========================================
+    // CONSULTAS
+    // ========================================
+
+    public List<PedidoDTO> obtenerPendientes() {
+        return entityMapper.toPedidoDTOListDesdeModelo(libro.pendientesPorRecepcion());
+    }
+
+    /**
+     * Copias de los pedidos pendientes ordenadas por recepción; el planificador
+     * puede modificarlas sin alterar el libro
+     */
+    public List<Pedido> obtenerPendientesModelo() {
+        return libro.pendientesPorRecepcion().stream().map(Pedido::copiar).toList();
+    }
+
+    /**
+     * Pendientes recibidos después de la clave (horaRecepcion, id); null para empezar desde el inicio
+     */
+    public List<PedidoDTO> obtenerPendientesDespuesDe(LocalDateTime horaRecepcion, String id, int limite) {
+        return entityMapper.toPedidoDTOListDesdeModelo(libro.pendientesRecibidosDespuesDe(horaRecepcion, id, limite));
+    }
+
+    public List<PedidoDTO> obtenerPendientesPorVencimiento() {
+        return entityMapper.toPedidoDTOListDesdeModelo(libro.pendientesPorVencimiento());
+    }
+
+    public List<PedidoDTO> obtenerVencidos(LocalDateTime momento) {
+        return entityMapper.toPedidoDTOListDesdeModelo(libro.vencidos(momento));
+    }
+
+    public List<PedidoDTO> obtenerConVencimientoEntre(LocalDateTime inicio, LocalDateTime fin) {
+        return entityMapper.toPedidoDTOListDesdeModelo(libro.conVencimientoEntre(inicio, fin));
+    }
+
+    public List<PedidoDTO> obtenerCercanos(int x, int y, int radio) {
+        return entityMapper.toPedidoDTOListDesdeModelo(libro.pendientesCercanos(new Ubicacion(x, y), radio));
+    }
+
+    public long contarPendientes() {
+        return libro.contar();
+    }
+
+    public double sumaCantidadPendiente() {
+        return libro.getGlpPendiente();
+    }
+
+    /**
+     * Ejecuta el cambio al confirmarse la transacción actual, o de inmediato si no hay una
+     */
+    private void despuesDeConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+}
@@ -3,15 +3,23 @@ package pucp.edu.pe.glp_final.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import pucp.edu.pe.glp_final.dto.BloqueoDTO;
+import pucp.edu.pe.glp_final.entity.BloqueoEntity;
+import pucp.edu.pe.glp_final.mapper.EntityMapper;
 import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.IndiceBloqueos;
 import pucp.edu.pe.glp_final.model.Mapa;
 import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.repository.BloqueoRepository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -19,18 +27,30 @@ import java.util.List;
 public class MapaService {
 
     private final AlmacenService almacenService;
+    private final BloqueoRepository bloqueoRepository;
+    private final EntityMapper entityMapper;
+
+    // Bloqueos activos de la base y su índice, compilados una vez por carga y compartidos por todos los mapas
+    private volatile BloqueosCompilados compilados = new BloqueosCompilados(List.of(), null);
+
+    private record BloqueosCompilados(List<Bloqueo> bloqueos, IndiceBloqueos indice) {}
 
     /**
-     * Obtiene el mapa actual con bloqueos filtrados
+     * Obtiene el mapa actual con los bloqueos que aún no terminan
      */
     public Mapa obtenerMapaActual(LocalDateTime momento) {
         Mapa mapa = new Mapa(); // 70x50 km por defecto
+        BloqueosCompilados actuales = compilados;
 
-        // Filtrar bloqueos para el día actual
-        LocalDate fecha = momento.toLocalDate();
-        mapa.filtrarBloqueosParaFecha(fecha, fecha);
+        List<Bloqueo> vigentes = new ArrayList<>();
+        for (Bloqueo bloqueo : actuales.bloqueos()) {
+            if (bloqueo.getHoraFin().isAfter(momento)) {
+                vigentes.add(bloqueo);
+            }
+        }
+        mapa.usarBloqueos(vigentes, actuales.indice());
 
-        log.debug("Mapa generado para momento: {}", momento);
+        log.debug("Mapa generado para momento: {} ({} bloqueos)", momento, vigentes.size());
         return mapa;
     }
 
@@ -39,19 +59,71 @@ public class MapaService {
      */
     public Mapa obtenerMapaParaRango(LocalDate fechaInicio, LocalDate fechaFin) {
         Mapa mapa = new Mapa();
-        mapa.filtrarBloqueosParaFecha(fechaInicio, fechaFin);
+        BloqueosCompilados actuales = compilados;
+
+        List<Bloqueo> enRango = new ArrayList<>();
+        for (Bloqueo bloqueo : actuales.bloqueos()) {
+            if (!bloqueo.getHoraFin().toLocalDate().isBefore(fechaInicio)
+                    && !bloqueo.getHoraInicio().toLocalDate().isAfter(fechaFin)) {
+                enRango.add(bloqueo);
+            }
+        }
+        mapa.usarBloqueos(enRango, actuales.indice());
 
-        log.debug("Mapa generado para rango: {} - {}", fechaInicio, fechaFin);
+        log.debug("Mapa generado para rango: {} - {} ({} bloqueos)", fechaInicio, fechaFin, enRango.size());
         return mapa;
     }
 
     /**
-     * Carga bloqueos desde archivo o base de datos
+     * Guarda los bloqueos y recompila el índice cuando se confirma la transacción
      */
+    @Transactional
     public void cargarBloqueos(List<BloqueoDTO> bloqueosDTO) {
-        // Aquí se implementaría la carga de bloqueos
-        // Por ahora es un stub
         log.info("Cargando {} bloqueos", bloqueosDTO.size());
+        List<BloqueoEntity> entities = new ArrayList<>();
+        for (BloqueoDTO dto : bloqueosDTO) {
+            BloqueoEntity entity = entityMapper.toEntity(dto);
+            if (entity.getId() == null) {
+                entity.setId(UUID.randomUUID().toString());
+            }
+            if (entity.getActivo() == null) {
+                entity.setActivo(true);
+            }
+            entities.add(entity);
+        }
+        bloqueoRepository.saveAll(entities);
+        recompilarDespuesDeConfirmar();
+    }
+
+    /**
+     * Lee los bloqueos activos de la base y compila su índice por momento
+     */
+    @Transactional(readOnly = true)
+    public void cargarBloqueosGuardados() {
+        List<Bloqueo> bloqueos = new ArrayList<>();
+        for (BloqueoEntity entity : bloqueoRepository.findByActivo(true)) {
+            bloqueos.add(entityMapper.toModel(entity));
+        }
+        Mapa referencia = new Mapa();
+        IndiceBloqueos indice = IndiceBloqueos.compilar(bloqueos, referencia.getAncho(), referencia.getAlto());
+        compilados = new BloqueosCompilados(List.copyOf(bloqueos), indice);
+        log.info("{} bloqueos compilados en {} intervalos", bloqueos.size(), indice.cantidadIntervalos());
+    }
+
+    /**
+     * Recompila los bloqueos desde la base solo si la transacción en curso se confirma
+     */
+    public void recompilarDespuesDeConfirmar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cargarBloqueosGuardados();
+                }
+            });
+        } else {
+            cargarBloqueosGuardados();
+        }
     }
 
     /**
@@ -22,12 +22,13 @@ public class OptimizacionService {
 
     private final CamionRepository camionRepository;
     private final PedidoRepository pedidoRepository;
+    private final LibroPedidosService libroPedidosService;
     private final RutaRepository rutaRepository;
-    private final UbicacionService ubicacionService;
     private final WebSocketService webSocketService;
     private final CamionMapper camionMapper;
     private final PedidoMapper pedidoMapper;
     private final RutaMapper rutaMapper;
+    private final EntityMapper entityMapper;
 
     @Transactional
     public OptimizacionResponse optimizarRutas(OptimizacionRequest request) {
@@ -188,36 +189,11 @@ public class OptimizacionService {
         List<RutaDTO> rutasDTO = new ArrayList<>();
 
         for (Ruta ruta : rutas) {
-            // Crear entidad ruta
-            RutaEntity rutaEntity = new RutaEntity();
-            rutaEntity.setId(UUID.randomUUID().toString());
+            // Origen, destino, secuencia codificada y paradas salen del mapper
+            RutaEntity rutaEntity = entityMapper.toEntity(ruta);
+            rutaEntity.setHoraInicio(momentoActual);
 
-            // Buscar camión asignado
             Optional<CamionEntity> camionOpt = camionRepository.findById(ruta.getCodigoCamion());
-            if (camionOpt.isPresent()) {
-                rutaEntity.setCodigoCamion(camionOpt.get());
-            }
-
-            // Crear ubicaciones origen y destino
-            UbicacionEntity origenEntity = ubicacionService.obtenerOCrearUbicacion(
-                    ruta.getOrigen().getX(), ruta.getOrigen().getY());
-            rutaEntity.setOrigen(origenEntity);
-
-            if (ruta.getDestino() != null) {
-                UbicacionEntity destinoEntity = ubicacionService.obtenerOCrearUbicacion(
-                        ruta.getDestino().getX(), ruta.getDestino().getY());
-                rutaEntity.setDestino(destinoEntity);
-            }
-
-            rutaEntity.setHoraInicio(momentoActual);
-            rutaEntity.setHoraFinEstimada(ruta.getHoraFinEstimada());
-            rutaEntity.setDistanciaTotal(ruta.getDistanciaTotal());
-            rutaEntity.setConsumoCombustible(ruta.getConsumoCombustible());
-            rutaEntity.setCompletada(false);
-            rutaEntity.setCancelada(false);
-            rutaEntity.setRequiereReabastecimiento(ruta.isRequiereReabastecimiento());
-            rutaEntity.setFactibilidadEncontrada(ruta.isFactibilidadEncontrada());
-            rutaEntity.setMovimientoGenerado(false);
 
             rutaEntity = rutaRepository.save(rutaEntity);
 
@@ -228,6 +204,7 @@ public class OptimizacionService {
                     PedidoEntity pedidoEntity = pedidoOpt.get();
                     pedidoEntity.setCamionAsignado(camionOpt.get());
                     pedidoRepository.save(pedidoEntity);
+                    libroPedidosService.asignarCamion(pedido.getId(), camionOpt.get().getCodigo());
                 }
             }
 
@@ -1,20 +1,30 @@
 package pucp.edu.pe.glp_final.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pucp.edu.pe.glp_final.dto.CrearPedidoRequest;
+import pucp.edu.pe.glp_final.dto.PaginaDTO;
 import pucp.edu.pe.glp_final.dto.PedidoDTO;
 import pucp.edu.pe.glp_final.entity.PedidoEntity;
 import pucp.edu.pe.glp_final.mapper.EntityMapper;
 import pucp.edu.pe.glp_final.model.Pedido;
 import pucp.edu.pe.glp_final.repository.PedidoRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +33,11 @@ public class PedidoService {
 
     private final PedidoRepository pedidoRepository;
     private final EntityMapper entityMapper;
+    private final LibroPedidosService libroPedidosService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    private static final int LIMITE_PAGINA_MAXIMO = 1000;
 
     @Transactional(readOnly = true)
     public List<PedidoDTO> obtenerTodos() {
@@ -30,16 +45,71 @@ public class PedidoService {
         return entityMapper.toPedidoDTOList(entities);
     }
 
+    /**
+     * Página de pedidos ordenada por (horaRecepcion, id)
+     * @param cursor Cursor devuelto por la página anterior, null para la primera
+     * @param limite Cantidad máxima de elementos
+     */
     @Transactional(readOnly = true)
-    public List<PedidoDTO> obtenerPendientes() {
-        List<PedidoEntity> entities = pedidoRepository.findPedidosPendientesOrdenados();
-        return entityMapper.toPedidoDTOList(entities);
+    public PaginaDTO<PedidoDTO> obtenerPagina(String cursor, int limite) {
+        validarLimite(limite);
+        PageRequest pagina = PageRequest.of(0, limite + 1);
+
+        List<PedidoEntity> entities;
+        if (cursor == null || cursor.isBlank()) {
+            entities = pedidoRepository.findPrimeraPagina(pagina);
+        } else {
+            ClaveCursor clave = decodificarCursor(cursor);
+            entities = pedidoRepository.findPaginaDespuesDe(clave.horaRecepcion(), clave.id(), pagina);
+        }
+
+        boolean hayMas = entities.size() > limite;
+        List<PedidoDTO> elementos = entityMapper.toPedidoDTOList(hayMas ? entities.subList(0, limite) : entities);
+        return construirPagina(elementos, hayMas);
+    }
+
+    /**
+     * Página de pedidos pendientes desde el libro en memoria, en orden de recepción
+     */
+    public PaginaDTO<PedidoDTO> obtenerPaginaPendientes(String cursor, int limite) {
+        validarLimite(limite);
+        ClaveCursor clave = cursor == null || cursor.isBlank() ? null : decodificarCursor(cursor);
+
+        List<PedidoDTO> elementos = libroPedidosService.obtenerPendientesDespuesDe(
+                clave != null ? clave.horaRecepcion() : null,
+                clave != null ? clave.id() : null,
+                limite + 1);
+
+        boolean hayMas = elementos.size() > limite;
+        return construirPagina(hayMas ? elementos.subList(0, limite) : elementos, hayMas);
     }
 
+    /**
+     * Escribe todos los pedidos como NDJSON (un objeto JSON por línea) leyendo
+     * la tabla con un cursor de base de datos; la memoria usada no depende del
+     * tamaño del historial.
+     */
     @Transactional(readOnly = true)
+    public void escribirTodosNdjson(OutputStream salida) {
+        try (Stream<PedidoEntity> entities = pedidoRepository.streamTodosOrdenados()) {
+            entities.forEach(entity -> {
+                try {
+                    salida.write(objectMapper.writeValueAsBytes(entityMapper.toDTO(entity)));
+                    salida.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                entityManager.detach(entity);
+            });
+        }
+    }
+
+    public List<PedidoDTO> obtenerPendientes() {
+        return libroPedidosService.obtenerPendientes();
+    }
+
     public List<Pedido> obtenerPendientesModelo() {
-        List<PedidoEntity> entities = pedidoRepository.findPedidosPendientesOrdenados();
-        return entityMapper.toPedidoModelList(entities);
+        return libroPedidosService.obtenerPendientesModelo();
     }
 
     @Transactional(readOnly = true)
@@ -55,11 +125,19 @@ public class PedidoService {
     }
 
     @Transactional(readOnly = true)
-    public List<PedidoDTO> obtenerVencidos(LocalDateTime momento) {
-        List<PedidoEntity> entities = pedidoRepository.findPedidosVencidos(momento);
+    public List<PedidoDTO> obtenerPendientesPorCamion(String codigoCamion) {
+        List<PedidoEntity> entities = pedidoRepository.findByCamionAsignadoAndEntregadoFalse(codigoCamion);
         return entityMapper.toPedidoDTOList(entities);
     }
 
+    public List<PedidoDTO> obtenerVencidos(LocalDateTime momento) {
+        return libroPedidosService.obtenerVencidos(momento);
+    }
+
+    public List<PedidoDTO> obtenerConVencimientoEntre(LocalDateTime inicio, LocalDateTime fin) {
+        return libroPedidosService.obtenerConVencimientoEntre(inicio, fin);
+    }
+
     @Transactional
     public PedidoDTO crearPedido(CrearPedidoRequest request) {
         PedidoEntity entity = new PedidoEntity();
@@ -74,6 +152,7 @@ public class PedidoService {
         entity.setEntregado(false);
 
         entity = pedidoRepository.save(entity);
+        libroPedidosService.registrar(entity);
         log.info("Pedido creado: {} para cliente {}", entity.getId(), entity.getIdCliente());
 
         return entityMapper.toDTO(entity);
@@ -85,6 +164,7 @@ public class PedidoService {
                 .map(entity -> {
                     entity.setCamionAsignado(codigoCamion);
                     entity = pedidoRepository.save(entity);
+                    libroPedidosService.asignarCamion(pedidoId, codigoCamion);
                     log.info("Pedido {} asignado a camión {}", pedidoId, codigoCamion);
                     return entityMapper.toDTO(entity);
                 });
@@ -97,28 +177,61 @@ public class PedidoService {
                     entity.setEntregado(true);
                     entity.setHoraEntregaReal(horaEntrega);
                     entity = pedidoRepository.save(entity);
+                    libroPedidosService.retirar(pedidoId);
                     log.info("Pedido {} marcado como entregado", pedidoId);
                     return entityMapper.toDTO(entity);
                 });
     }
 
-    @Transactional(readOnly = true)
     public long contarPendientes() {
-        return pedidoRepository.countPedidosPendientes();
+        return libroPedidosService.contarPendientes();
     }
 
-    @Transactional(readOnly = true)
     public Double sumaCantidadPendiente() {
-        return pedidoRepository.sumCantidadGlpPendiente();
+        return libroPedidosService.sumaCantidadPendiente();
     }
 
     @Transactional
     public boolean eliminar(String id) {
         if (pedidoRepository.existsById(id)) {
             pedidoRepository.deleteById(id);
+            libroPedidosService.retirar(id);
             log.info("Pedido eliminado: {}", id);
             return true;
         }
         return false;
     }
-}
\ No newline at end of file
+
+    private record ClaveCursor(LocalDateTime horaRecepcion, String id) {
+    }
+
+    private PaginaDTO<PedidoDTO> construirPagina(List<PedidoDTO> elementos, boolean hayMas) {
+        String siguiente = null;
+        if (hayMas && !elementos.isEmpty()) {
+            PedidoDTO ultimo = elementos.get(elementos.size() - 1);
+            siguiente = codificarCursor(ultimo.getHoraRecepcion(), ultimo.getId());
+        }
+        return new PaginaDTO<>(elementos, siguiente, hayMas);
+    }
+
+    private void validarLimite(int limite) {
+        if (limite < 1 || limite > LIMITE_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_PAGINA_MAXIMO);
+        }
+    }
+
+    private String codificarCursor(LocalDateTime horaRecepcion, String id) {
+        String clave = horaRecepcion + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(clave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ClaveCursor decodificarCursor(String cursor) {
+        try {
+            String clave = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = clave.indexOf('|');
+            return new ClaveCursor(LocalDateTime.parse(clave.substring(0, separador)), clave.substring(separador + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -2,360 +2,679 @@ package pucp.edu.pe.glp_final.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import pucp.edu.pe.glp_final.dto.*;
-import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
-
-import java.time.LocalDateTime;
+import pucp.edu.pe.glp_final.exception.ResourceNotFoundException;
+import pucp.edu.pe.glp_final.exception.SimulationException;
+import pucp.edu.pe.glp_final.mapper.EntityMapper;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.MovimientoCamion;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.enums.TipoIncidente;
+import pucp.edu.pe.glp_final.simulacion.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.atomic.AtomicBoolean;
-
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de sesiones de simulación. Cada sesión tiene su propio reloj, flota,
+ * pedidos y cola de eventos, se ejecuta en un hilo virtual propio y publica su
+ * estado en tópicos WebSocket propios (/topic/simulacion/{id}/...).
+ *
+ * Los endpoints sin identificador de sesión operan sobre la última sesión iniciada.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SimulacionService {
 
+    // Sesiones finalizadas que se conservan para consultar resultados
+    private static final Duration RETENCION_SESIONES_FINALIZADAS = Duration.ofHours(1);
+
+    private static final String EXTENSION_INSTANTANEA = ".glpsnap";
+    private static final Pattern PATRON_INSTANTANEA = Pattern.compile("[0-9a-fA-F-]{36}-\\d{8}T\\d{4}");
+
     private final CamionService camionService;
     private final PedidoService pedidoService;
-    private final OptimizacionService optimizacionService;
+    private final MapaService mapaService;
     private final WebSocketService webSocketService;
+    private final EntityMapper entityMapper;
+    private final EntradasSimulacionService entradasSimulacionService;
 
-    // Estado de la simulación
-    private String simulacionId;
-    private EscenarioSimulacion escenarioActual;
-    private LocalDateTime fechaInicio;
-    private LocalDateTime momentoActualSimulacion;
-    private Double velocidadSimulacion = 1.0;
-    private final AtomicBoolean simulacionActiva = new AtomicBoolean(false);
-    private final AtomicBoolean simulacionPausada = new AtomicBoolean(false);
-    private Integer duracionDias;
-    private Boolean incluirAverias = false;
-    private Boolean incluirMantenimientos = false;
+    @Value("${glp.simulacion.max-sesiones-activas:8}")
+    private int maxSesionesActivas;
 
-    // Estadísticas
-    private int pedidosEntregados = 0;
-    private double consumoTotalCombustible = 0.0;
-    private double distanciaTotalRecorrida = 0.0;
+    @Value("${glp.simulacion.directorio-registros:registros-simulacion}")
+    private String directorioRegistros;
 
-    public EstadoSimulacionDTO iniciarSimulacion(IniciarSimulacionRequest request) {
-        if (simulacionActiva.get()) {
-            throw new IllegalStateException("Ya hay una simulación en curso");
+    @Value("${glp.simulacion.directorio-instantaneas:instantaneas-simulacion}")
+    private String directorioInstantaneas;
+
+    private final Map<String, SesionSimulacion> sesiones = new ConcurrentHashMap<>();
+    private final Map<String, EstadoIncrementalSimulacion> estadosPublicados = new ConcurrentHashMap<>();
+    private volatile String sesionActualId;
+
+    public synchronized EstadoSimulacionDTO iniciarSimulacion(IniciarSimulacionRequest request) {
+        verificarCapacidad();
+
+        Simulador nuevo = crearSimulador(request, request.getDuracionDias(), request.getSemilla());
+        nuevo.setVelocidad(request.getVelocidadSimulacion() != null ? request.getVelocidadSimulacion() : 1.0);
+        nuevo.setMaximaVelocidad(Boolean.TRUE.equals(request.getMaximaVelocidad()));
+        if (request.getHorasEntreInstantaneas() != null) {
+            nuevo.setHorasEntreInstantaneas(request.getHorasEntreInstantaneas());
         }
+        List<Camion> camiones = camionService.obtenerCamionesModelo();
+        List<Pedido> pedidos = pedidosIniciales(request);
+        nuevo.setObservador(new ObservadorWebSocket(Boolean.TRUE.equals(request.getPosicionesBinarias()))
+                .y(new ObservadorInstantaneas())
+                .y(abrirRegistro(request, nuevo, camiones, pedidos)));
+        nuevo.inicializar(camiones, pedidos);
+
+        return registrarSesion(nuevo);
+    }
 
-        this.simulacionId = UUID.randomUUID().toString();
-        this.escenarioActual = request.getEscenario();
-        this.fechaInicio = request.getFechaInicio();
-        this.momentoActualSimulacion = request.getFechaInicio();
-        this.velocidadSimulacion = request.getVelocidadSimulacion();
-        this.duracionDias = request.getDuracionDias();
-        this.incluirAverias = request.getIncluirAverias();
-        this.incluirMantenimientos = request.getIncluirMantenimientos();
+    /**
+     * Crea una nueva sesión que continúa desde una instantánea guardada. La sesión
+     * original no se modifica, por lo que se pueden bifurcar varias ramas del mismo punto.
+     */
+    public synchronized EstadoSimulacionDTO restaurarInstantanea(String instantaneaId, double velocidad) {
+        verificarCapacidad();
 
-        // Reiniciar estadísticas
-        this.pedidosEntregados = 0;
-        this.consumoTotalCombustible = 0.0;
-        this.distanciaTotalRecorrida = 0.0;
+        InstantaneaSimulacion instantanea;
+        try {
+            instantanea = InstantaneaSimulacion.leer(archivoInstantanea(instantaneaId));
+        } catch (IOException e) {
+            throw new ResourceNotFoundException("No se pudo leer la instantánea " + instantaneaId);
+        }
 
-        simulacionActiva.set(true);
-        simulacionPausada.set(false);
+        Mapa mapa = new Mapa();
+        mapa.usarBloqueos(instantanea.getBloqueos(), null);
 
-        log.info("Simulación iniciada: {} - Escenario: {} - Velocidad: {}x",
-                simulacionId, escenarioActual, velocidadSimulacion);
+        // Sin el estado del planificador, su secuencia aleatoria se reinicia desde la semilla
+        Random aleatorioPlanificador = instantanea.getEstadoAleatorioPlanificador() != null
+                ? GeneradorAleatorio.desdeEstado(instantanea.getEstadoAleatorioPlanificador())
+                : new GeneradorAleatorio(~instantanea.getSemilla());
 
-        // Iniciar el bucle de simulación de forma asíncrona
-        ejecutarSimulacionAsincrona();
+        Simulador restaurado = Simulador.restaurar(instantanea, UUID.randomUUID().toString(), mapa,
+                Planificador.genetico(aleatorioPlanificador));
+        if (restaurado.getMinutosVentanaCarga() > 0) {
+            restaurado.cargarPorVentanas(entradasSimulacionService, restaurado.getMinutosVentanaCarga());
+        }
+        restaurado.setVelocidad(velocidad);
+        restaurado.setObservador(new ObservadorWebSocket(false).y(new ObservadorInstantaneas()));
 
-        return obtenerEstadoActual();
+        return registrarSesion(restaurado);
     }
 
-    public EstadoSimulacionDTO pausarSimulacion() {
-        if (!simulacionActiva.get()) {
-            throw new IllegalStateException("No hay simulación activa");
+    /**
+     * Guarda el estado actual de la sesión, aunque esté en curso
+     */
+    public InstantaneaSimulacionDTO guardarInstantanea(String sesionId) {
+        Simulador sim = simulador(sesionId);
+        String instantaneaId = sim.consultar(s -> InstantaneaSimulacion.identificador(s.getId(), s.getMomentoActual()));
+        try {
+            sim.guardarInstantanea(archivoInstantanea(instantaneaId));
+        } catch (IOException e) {
+            throw new SimulationException("No se pudo guardar la instantánea de la simulación " + sesionId, e);
         }
+        return describirInstantanea(instantaneaId);
+    }
 
-        simulacionPausada.set(true);
-        log.info("Simulación {} pausada", simulacionId);
+    /**
+     * Instantáneas guardadas de una simulación, en orden de momento simulado
+     */
+    public List<InstantaneaSimulacionDTO> listarInstantaneas(String simulacionId) {
+        UUID.fromString(simulacionId);
+        Path directorio = Path.of(directorioInstantaneas);
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        try (var archivos = Files.list(directorio)) {
+            return archivos.map(archivo -> archivo.getFileName().toString())
+                    .filter(nombre -> nombre.startsWith(simulacionId + "-") && nombre.endsWith(EXTENSION_INSTANTANEA))
+                    .map(nombre -> nombre.substring(0, nombre.length() - EXTENSION_INSTANTANEA.length()))
+                    .sorted()
+                    .map(this::describirInstantanea)
+                    .toList();
+        } catch (IOException e) {
+            throw new SimulationException("No se pudieron listar las instantáneas de la simulación " + simulacionId, e);
+        }
+    }
 
-        return obtenerEstadoActual();
+    private void verificarCapacidad() {
+        long activas = sesiones.values().stream().filter(s -> s.getSimulador().estaActiva()).count();
+        if (activas >= maxSesionesActivas) {
+            throw new IllegalStateException("Se alcanzó el máximo de " + maxSesionesActivas + " simulaciones activas");
+        }
     }
 
-    public EstadoSimulacionDTO reanudarSimulacion() {
-        if (!simulacionActiva.get()) {
-            throw new IllegalStateException("No hay simulación activa");
+    private EstadoSimulacionDTO registrarSesion(Simulador nuevo) {
+        SesionSimulacion sesion = new SesionSimulacion(nuevo);
+        sesiones.put(sesion.getId(), sesion);
+        sesionActualId = sesion.getId();
+
+        Thread.ofVirtual()
+                .name("simulacion-" + sesion.getId().substring(0, 8))
+                .start(sesion::ejecutar);
+
+        log.info("Simulación iniciada: {} - Escenario: {} - Velocidad: {}x", nuevo.getId(), nuevo.getEscenario(),
+                nuevo.getVelocidad());
+
+        return construirEstadoSesion(nuevo);
+    }
+
+    /**
+     * Ejecuta el escenario completo en el hilo actual, sin esperas ni notificaciones
+     * por WebSocket, y devuelve sus indicadores. No interfiere con la simulación en curso.
+     */
+    public ReporteSimulacionDTO ejecutarLote(IniciarSimulacionRequest request) {
+        return ejecutarLote(request, request.getSemilla());
+    }
+
+    /**
+     * Igual que {@link #ejecutarLote(IniciarSimulacionRequest)} con la semilla dada; el request no se modifica
+     */
+    public ReporteSimulacionDTO ejecutarLote(IniciarSimulacionRequest request, Long semilla) {
+        Integer duracionDias = request.getDuracionDias() != null
+                ? request.getDuracionDias()
+                : duracionPorDefecto(request);
+
+        Simulador lote = crearSimulador(request, duracionDias, semilla);
+        lote.setModoLote(true);
+        List<Camion> camiones = camionService.obtenerCamionesModelo();
+        List<Pedido> pedidos = pedidosIniciales(request);
+        lote.setObservador(abrirRegistro(request, lote, camiones, pedidos));
+        lote.inicializar(camiones, pedidos);
+
+        return ejecutarHastaTerminar(lote);
+    }
+
+    /**
+     * Vuelve a ejecutar a máxima velocidad una corrida registrada, con sus mismas entradas.
+     * @param simulacionId  Simulación cuyo registro de eventos se reproduce
+     * @param replanificar  false: usa las rutas registradas y la corrida es idéntica;
+     *                      true: ejecuta el planificador actual sobre las mismas entradas (comparación A/B)
+     */
+    public ReporteSimulacionDTO reproducir(String simulacionId, boolean replanificar) {
+        RegistroSimulacion registro;
+        try {
+            registro = RegistroSimulacion.leer(archivoRegistro(simulacionId));
+        } catch (IOException e) {
+            throw new ResourceNotFoundException("No se pudo leer el registro de la simulación " + simulacionId);
+        }
+        if (!registro.isCompleto()) {
+            log.warn("El registro de la simulación {} está incompleto; la reproducción puede divergir al final", simulacionId);
         }
 
-        simulacionPausada.set(false);
-        log.info("Simulación {} reanudada", simulacionId);
+        Mapa mapa = new Mapa();
+        mapa.usarBloqueos(registro.getBloqueos(), null);
+
+        Simulador reproduccion = new Simulador(
+                UUID.randomUUID().toString(),
+                registro.getEscenario(),
+                registro.getFechaInicio(),
+                registro.getDuracionDias(),
+                registro.isIncluirAverias(),
+                registro.isIncluirMantenimientos(),
+                mapa,
+                replanificar
+                        ? Planificador.genetico(new GeneradorAleatorio(~registro.getSemilla()))
+                        : new PlanificadorRegistrado(registro.getPlanificaciones()),
+                registro.getSemilla()
+        );
+        reproduccion.setModoLote(true);
+        reproduccion.setMinutosHorizonteCongelado(registro.getMinutosHorizonteCongelado());
+        if (registro.getMinutosVentanaCarga() > 0) {
+            reproduccion.cargarPorVentanas(FuenteEntradas.deListas(registro.getPedidosVentana(),
+                    registro.getBloqueosVentana()), registro.getMinutosVentanaCarga());
+        }
+        reproduccion.reproducirEntradas(registro.getPedidosGenerados(), registro.getAverias());
+        reproduccion.inicializar(registro.getCamiones(), registro.getPedidos());
 
-        return obtenerEstadoActual();
+        log.info("Reproduciendo simulación {} ({}, {} planificaciones registradas)", simulacionId,
+                replanificar ? "replanificando" : "rutas registradas", registro.getPlanificaciones().size());
+        return ejecutarHastaTerminar(reproduccion);
     }
 
-    public EstadoSimulacionDTO detenerSimulacion() {
-        simulacionActiva.set(false);
-        simulacionPausada.set(false);
+    private ReporteSimulacionDTO ejecutarHastaTerminar(Simulador lote) {
+        long inicio = System.currentTimeMillis();
+        lote.ejecutar();
+        long duracionMs = System.currentTimeMillis() - inicio;
 
-        log.info("Simulación {} detenida", simulacionId);
+        ReporteSimulacionDTO reporte = lote.consultar(sim -> construirReporte(sim, duracionMs));
+        log.info("Simulación en lote {} ({}, semilla {}) completada en {} ms: {}/{} pedidos a tiempo",
+                reporte.getId(), reporte.getEscenario(), reporte.getSemilla(), duracionMs,
+                reporte.getPedidosATiempo(), reporte.getPedidosEntregados());
+        return reporte;
+    }
 
-        return obtenerEstadoActual();
+    /**
+     * Abre el registro de eventos de la corrida si se solicitó y escribe su estado inicial
+     */
+    private ObservadorSimulacion abrirRegistro(IniciarSimulacionRequest request, Simulador sim,
+                                               List<Camion> camiones, List<Pedido> pedidos) {
+        if (!Boolean.TRUE.equals(request.getRegistrarEventos())) {
+            return ObservadorSimulacion.NINGUNO;
+        }
+        try {
+            RegistroEventosSimulacion registro = new RegistroEventosSimulacion(archivoRegistro(sim.getId()));
+            registro.escribirInicio(sim, camiones, pedidos);
+            log.info("Registrando eventos de la simulación {} en {}", sim.getId(), registro.getArchivo());
+            return registro;
+        } catch (IOException e) {
+            throw new SimulationException("No se pudo crear el registro de eventos de la simulación", e);
+        }
     }
 
-    public void cambiarVelocidad(Double nuevaVelocidad) {
-        if (nuevaVelocidad <= 0) {
-            throw new IllegalArgumentException("La velocidad debe ser mayor a 0");
+    private Path archivoInstantanea(String instantaneaId) {
+        // Solo {uuid}-{yyyyMMdd'T'HHmm}, para no salir del directorio de instantáneas
+        if (!PATRON_INSTANTANEA.matcher(instantaneaId).matches()) {
+            throw new IllegalArgumentException("Identificador de instantánea inválido: " + instantaneaId);
         }
+        return Path.of(directorioInstantaneas, instantaneaId + EXTENSION_INSTANTANEA);
+    }
 
-        this.velocidadSimulacion = nuevaVelocidad;
-        log.info("Velocidad de simulación cambiada a: {}x", nuevaVelocidad);
+    private InstantaneaSimulacionDTO describirInstantanea(String instantaneaId) {
+        Path archivo = archivoInstantanea(instantaneaId);
+        try {
+            return new InstantaneaSimulacionDTO(instantaneaId,
+                    InstantaneaSimulacion.simulacionDe(instantaneaId),
+                    InstantaneaSimulacion.momentoDe(instantaneaId),
+                    Files.size(archivo));
+        } catch (IOException e) {
+            throw new ResourceNotFoundException("Instantánea no encontrada: " + instantaneaId);
+        }
     }
 
-    public boolean estaActiva() {
-        return simulacionActiva.get();
+    private Path archivoRegistro(String simulacionId) {
+        // Solo identificadores UUID, para no salir del directorio de registros
+        UUID.fromString(simulacionId);
+        return Path.of(directorioRegistros, simulacionId + ".glplog");
     }
 
-    public EstadoSimulacionDTO obtenerEstadoActual() {
-        EstadoSimulacionDTO estado = new EstadoSimulacionDTO();
-        estado.setId(simulacionId);
-        estado.setEscenario(escenarioActual);
-        estado.setMomentoActual(momentoActualSimulacion);
-        estado.setActiva(simulacionActiva.get());
-
-        // Calcular progreso
-        if (fechaInicio != null && duracionDias != null) {
-            LocalDateTime fechaFin = fechaInicio.plusDays(duracionDias);
-            long totalMinutos = ChronoUnit.MINUTES.between(fechaInicio, fechaFin);
-            long transcurridos = ChronoUnit.MINUTES.between(fechaInicio, momentoActualSimulacion);
-            estado.setProgreso(Math.min(100.0, (double) transcurridos / totalMinutos * 100));
-        } else {
-            estado.setProgreso(0.0);
-        }
+    // ========================================
+    // SESIONES
+    // ========================================
 
-        // Obtener estado actual de camiones y rutas
-        estado.setEstadoCamiones(camionService.obtenerTodos());
-        estado.setPedidosPendientes((int) pedidoService.contarPendientes());
-        estado.setPedidosEntregados(pedidosEntregados);
-        estado.setConsumoCombustibleTotal(consumoTotalCombustible);
-        estado.setDistanciaRecorridaTotal(distanciaTotalRecorrida);
+    public List<EstadoSimulacionDTO> listarSesiones() {
+        return sesiones.values().stream()
+                .sorted(Comparator.comparing(SesionSimulacion::getCreada))
+                .map(sesion -> construirEstadoSesion(sesion.getSimulador()))
+                .toList();
+    }
 
-        return estado;
+    public Optional<EstadoSimulacionDTO> obtenerEstado(String sesionId) {
+        return Optional.ofNullable(sesiones.get(sesionId))
+                .map(sesion -> construirEstadoSesion(sesion.getSimulador()));
     }
 
-    @Async
-    public void ejecutarSimulacionAsincrona() {
-        try {
-            while (simulacionActiva.get()) {
-                if (!simulacionPausada.get()) {
-                    ejecutarPasoSimulacion();
-                }
+    /**
+     * Estado completo con el que un cliente empieza a aplicar los deltas de la sesión
+     */
+    public Optional<EstadoSimulacionDTO> obtenerEstadoBase(String sesionId) {
+        return Optional.ofNullable(sesiones.get(sesionId))
+                .map(sesion -> estadoPublicado(sesionId).completo(() -> construirEstadoSesion(sesion.getSimulador())));
+    }
 
-                // Dormir según la velocidad de simulación
-                Thread.sleep((long) (1000 / velocidadSimulacion));
-            }
-        } catch (InterruptedException e) {
-            log.warn("Simulación interrumpida", e);
-            simulacionActiva.set(false);
-        } catch (Exception e) {
-            log.error("Error durante simulación", e);
-            simulacionActiva.set(false);
-            webSocketService.notificarError("Error en simulación", e.getMessage());
-        }
+    /**
+     * Pista comprimida de lo que le resta a una ruta activa de la sesión
+     */
+    public Optional<PistaMovimientoDTO> obtenerPistaRuta(String sesionId, String rutaId) {
+        return simulador(sesionId).consultar(sim -> sim.movimientoDeRuta(rutaId))
+                .map(SimulacionService::construirPista);
     }
 
-    private void ejecutarPasoSimulacion() {
-        // Avanzar tiempo de simulación
-        momentoActualSimulacion = momentoActualSimulacion.plusMinutes(1);
+    public EstadoSimulacionDTO pausarSimulacion(String sesionId) {
+        Simulador sim = simuladorActivo(sesionId);
+        sim.pausar();
+        log.info("Simulación {} pausada", sesionId);
+        return construirEstadoSesion(sim);
+    }
 
-        // Verificar si la simulación debe terminar
-        if (debeTerminarSimulacion()) {
-            detenerSimulacion();
-            return;
-        }
+    public EstadoSimulacionDTO reanudarSimulacion(String sesionId) {
+        Simulador sim = simuladorActivo(sesionId);
+        sim.reanudar();
+        log.info("Simulación {} reanudada", sesionId);
+        return construirEstadoSesion(sim);
+    }
 
-        // Procesar eventos según el escenario
-        switch (escenarioActual) {
-            case DIA_A_DIA:
-                procesarDiaADia();
-                break;
-            case SIMULACION_SEMANAL:
-            case SEMANAL:
-                procesarSimulacionSemanal();
-                break;
-            case COLAPSO:
-                procesarSimulacionColapso();
-                break;
-        }
+    public EstadoSimulacionDTO detenerSimulacion(String sesionId) {
+        Simulador sim = simulador(sesionId);
+        sim.detener();
+        log.info("Simulación {} detenida", sesionId);
+        return construirEstadoSesion(sim);
+    }
 
-        // Enviar estado actualizado por WebSocket cada 10 segundos de simulación
-        if (momentoActualSimulacion.getMinute() % 10 == 0) {
-            webSocketService.notificarEstadoSimulacion(obtenerEstadoActual());
+    public void cambiarVelocidad(String sesionId, Double nuevaVelocidad) {
+        if (nuevaVelocidad == null || nuevaVelocidad <= 0) {
+            throw new IllegalArgumentException("La velocidad debe ser mayor a 0");
         }
+        simulador(sesionId).setVelocidad(nuevaVelocidad);
+        log.info("Velocidad de simulación {} cambiada a: {}x", sesionId, nuevaVelocidad);
     }
 
-    private boolean debeTerminarSimulacion() {
-        if (duracionDias != null) {
-            LocalDateTime fechaFin = fechaInicio.plusDays(duracionDias);
-            if (momentoActualSimulacion.isAfter(fechaFin)) {
-                log.info("Simulación terminada: duración completada");
-                return true;
-            }
+    /**
+     * Detiene la sesión si sigue activa y la quita del registro
+     * @return false si no existía
+     */
+    public boolean eliminarSesion(String sesionId) {
+        SesionSimulacion sesion = sesiones.remove(sesionId);
+        if (sesion == null) {
+            return false;
         }
+        sesion.getSimulador().detener();
+        estadosPublicados.remove(sesionId);
+        log.info("Sesión de simulación {} eliminada", sesionId);
+        return true;
+    }
 
-        // Para simulación de colapso, verificar condiciones de colapso
-        if (escenarioActual == EscenarioSimulacion.COLAPSO) {
-            long pedidosPendientes = pedidoService.contarPendientes();
-            List<CamionDTO> camionesDisponibles = camionService.obtenerDisponibles();
+    @Scheduled(fixedRate = 600000) // Cada 10 minutos
+    public void limpiarSesionesFinalizadas() {
+        Instant limite = Instant.now().minus(RETENCION_SESIONES_FINALIZADAS);
+        sesiones.values().removeIf(sesion -> sesion.estaFinalizada() && sesion.getFinalizada().isBefore(limite));
+        estadosPublicados.keySet().retainAll(sesiones.keySet());
+    }
 
-            // Condiciones de colapso: muchos pedidos pendientes y pocos camiones disponibles
-            if (pedidosPendientes > 50 && camionesDisponibles.size() < 3) {
-                log.info("Simulación terminada: condiciones de colapso alcanzadas");
-                return true;
-            }
-        }
+    // ========================================
+    // SESIÓN ACTUAL (endpoints sin identificador)
+    // ========================================
 
-        return false;
+    public EstadoSimulacionDTO pausarSimulacion() {
+        return pausarSimulacion(sesionActual());
     }
 
-    private void procesarDiaADia() {
-        // Verificar si es hora de ejecutar optimización (cada hora)
-        if (momentoActualSimulacion.getMinute() == 0) {
-            ejecutarOptimizacionPeriodica();
-        }
+    public EstadoSimulacionDTO reanudarSimulacion() {
+        return reanudarSimulacion(sesionActual());
+    }
 
-        // Procesar mantenimientos si están habilitados
-        if (incluirMantenimientos && momentoActualSimulacion.getMinute() == 0) {
-            procesarMantenimientos();
+    public EstadoSimulacionDTO detenerSimulacion() {
+        String sesionId = sesionActualId;
+        if (sesionId == null || !sesiones.containsKey(sesionId)) {
+            return obtenerEstadoActual();
         }
+        return detenerSimulacion(sesionId);
+    }
 
-        // Procesar averías si están habilitadas
-        if (incluirAverias) {
-            procesarAverias();
+    public void cambiarVelocidad(Double nuevaVelocidad) {
+        cambiarVelocidad(sesionActual(), nuevaVelocidad);
+    }
+
+    public boolean estaActiva() {
+        SesionSimulacion sesion = sesionActualId != null ? sesiones.get(sesionActualId) : null;
+        return sesion != null && sesion.getSimulador().estaActiva();
+    }
+
+    public EstadoSimulacionDTO obtenerEstadoActual() {
+        String sesionId = sesionActualId;
+        return Optional.ofNullable(sesionId).flatMap(this::obtenerEstado).orElseGet(() -> {
+            EstadoSimulacionDTO estado = new EstadoSimulacionDTO();
+            estado.setActiva(false);
+            estado.setProgreso(0.0);
+            return estado;
+        });
+    }
+
+    private String sesionActual() {
+        String sesionId = sesionActualId;
+        if (sesionId == null) {
+            throw new IllegalStateException("No hay simulación activa");
         }
+        return sesionId;
     }
 
-    private void procesarSimulacionSemanal() {
-        // Similar a día a día pero con mayor frecuencia de eventos
-        if (momentoActualSimulacion.getMinute() % 30 == 0) {
-            ejecutarOptimizacionPeriodica();
+    private Simulador simulador(String sesionId) {
+        SesionSimulacion sesion = sesiones.get(sesionId);
+        if (sesion == null) {
+            throw new ResourceNotFoundException("Sesión de simulación no encontrada: " + sesionId);
         }
+        return sesion.getSimulador();
+    }
 
-        if (incluirMantenimientos && momentoActualSimulacion.getHour() % 6 == 0 && momentoActualSimulacion.getMinute() == 0) {
-            procesarMantenimientos();
+    private Simulador simuladorActivo(String sesionId) {
+        Simulador sim = simulador(sesionId);
+        if (!sim.estaActiva()) {
+            throw new IllegalStateException("La simulación " + sesionId + " no está activa");
         }
+        return sim;
+    }
 
-        if (incluirAverias && Math.random() < 0.05) { // 5% de probabilidad por minuto
-            procesarAverias();
+    private Simulador crearSimulador(IniciarSimulacionRequest request, Integer duracionDias, Long semillaSolicitada) {
+        long semilla = semillaSolicitada != null ? semillaSolicitada : ThreadLocalRandom.current().nextLong();
+        Simulador sim = new Simulador(
+                UUID.randomUUID().toString(),
+                request.getEscenario(),
+                request.getFechaInicio(),
+                duracionDias,
+                Boolean.TRUE.equals(request.getIncluirAverias()),
+                Boolean.TRUE.equals(request.getIncluirMantenimientos()),
+                cargaPorVentanas(request) ? new Mapa() : mapaService.obtenerMapaActual(request.getFechaInicio()),
+                Planificador.genetico(new GeneradorAleatorio(~semilla)), // Flujo independiente del de la simulación
+                semilla
+        );
+        if (request.getMinutosHorizonteCongelado() != null) {
+            sim.setMinutosHorizonteCongelado(request.getMinutosHorizonteCongelado());
+        }
+        if (cargaPorVentanas(request)) {
+            // Los bloqueos y los pedidos posteriores al inicio llegan desde la base a medida que avanza el reloj
+            sim.cargarPorVentanas(entradasSimulacionService, request.getHorasVentanaCarga() * 60);
         }
+        return sim;
     }
 
-    private void procesarSimulacionColapso() {
-        // Generar más pedidos y más averías para forzar el colapso
-        if (momentoActualSimulacion.getMinute() % 15 == 0) {
-            generarPedidosAdicionales();
+    private static boolean cargaPorVentanas(IniciarSimulacionRequest request) {
+        return request.getHorasVentanaCarga() != null && request.getHorasVentanaCarga() > 0;
+    }
+
+    /**
+     * Pedidos pendientes con que empieza la simulación; con carga por ventanas, solo los ya recibidos
+     */
+    private List<Pedido> pedidosIniciales(IniciarSimulacionRequest request) {
+        List<Pedido> pedidos = pedidoService.obtenerPendientesModelo();
+        if (!cargaPorVentanas(request)) {
+            return pedidos;
         }
+        return pedidos.stream().filter(p -> !p.getHoraRecepcion().isAfter(request.getFechaInicio())).toList();
+    }
+
+    /**
+     * Horizonte de una simulación en lote sin duración explícita; el colapso puede terminarla antes
+     */
+    private int duracionPorDefecto(IniciarSimulacionRequest request) {
+        return switch (request.getEscenario()) {
+            case DIA_A_DIA -> 1;
+            case SIMULACION_SEMANAL, SEMANAL -> 7;
+            case COLAPSO -> 30;
+        };
+    }
 
-        if (momentoActualSimulacion.getMinute() % 20 == 0) {
-            ejecutarOptimizacionPeriodica();
+    private ReporteSimulacionDTO construirReporte(Simulador sim, long duracionMs) {
+        ReporteSimulacionDTO reporte = new ReporteSimulacionDTO();
+        reporte.setId(sim.getId());
+        reporte.setEscenario(sim.getEscenario());
+        reporte.setSemilla(sim.getSemilla());
+        reporte.setFechaInicio(sim.getFechaInicio());
+        reporte.setMomentoFinal(sim.getMomentoActual());
+        reporte.setDuracionEjecucionMs(duracionMs);
+        reporte.setEventosProcesados(sim.getEventosProcesados());
+
+        reporte.setPedidosRecibidos(sim.getPedidosRecibidos());
+        reporte.setPedidosGenerados(sim.getPedidosGenerados());
+        reporte.setPedidosEntregados(sim.getPedidosEntregados());
+        reporte.setPedidosATiempo(sim.getPedidosATiempo());
+        reporte.setPedidosPendientes(sim.getPedidosPendientes());
+        reporte.setTasaEntregaATiempo(sim.getPedidosEntregados() > 0
+                ? (double) sim.getPedidosATiempo() / sim.getPedidosEntregados()
+                : 0.0);
+
+        reporte.setConsumoCombustibleTotal(sim.getConsumoTotalCombustible());
+        reporte.setDistanciaRecorridaTotal(sim.getDistanciaTotalRecorrida());
+
+        if (sim.getMomentoColapso() != null) {
+            reporte.setMomentoColapso(sim.getMomentoColapso());
+            reporte.setHorasHastaColapso(ChronoUnit.MINUTES.between(sim.getFechaInicio(), sim.getMomentoColapso()) / 60.0);
         }
 
-        if (incluirAverias && Math.random() < 0.1) { // 10% de probabilidad por minuto
-            procesarAverias();
+        List<Long> latencias = sim.getLatenciasPlanificacion().stream().sorted().toList();
+        reporte.setPlanificaciones(latencias.size());
+        reporte.setLatenciaPlanificacionP50Ms(percentilMs(latencias, 50));
+        reporte.setLatenciaPlanificacionP90Ms(percentilMs(latencias, 90));
+        reporte.setLatenciaPlanificacionP99Ms(percentilMs(latencias, 99));
+        reporte.setLatenciaPlanificacionMaxMs(percentilMs(latencias, 100));
+
+        List<Long> reparaciones = sim.getLatenciasReparacion().stream().sorted().toList();
+        reporte.setReparaciones(reparaciones.size());
+        reporte.setLatenciaReparacionP99Ms(percentilMs(reparaciones, 99));
+        reporte.setLatenciaReparacionMaxMs(percentilMs(reparaciones, 100));
+        return reporte;
+    }
+
+    /**
+     * Percentil por rango más cercano sobre latencias ordenadas en nanosegundos
+     */
+    private static Double percentilMs(List<Long> ordenadas, int percentil) {
+        if (ordenadas.isEmpty()) {
+            return null;
         }
+        int rango = (int) Math.ceil(percentil / 100.0 * ordenadas.size());
+        return ordenadas.get(Math.max(0, rango - 1)) / 1_000_000.0;
     }
 
-    private void ejecutarOptimizacionPeriodica() {
-        try {
-            OptimizacionRequest request = new OptimizacionRequest();
-            request.setMomentoActual(momentoActualSimulacion);
-            request.setAlgoritmo("GENETICO");
-            request.setForzarReplanificacion(false);
+    private static PistaMovimientoDTO construirPista(MovimientoCamion movimiento) {
+        MovimientoCamion.Pista pista = movimiento.pistaComprimida();
+        int n = pista.cantidad();
+        long inicio = n > 0 ? pista.tiempos()[0] : 0;
+        int[] segundos = new int[n];
+        int[] tipos = new int[n];
+        for (int i = 0; i < n; i++) {
+            segundos[i] = Math.toIntExact(pista.tiempos()[i] - inicio);
+            tipos[i] = pista.tipos()[i];
+        }
 
-            optimizacionService.optimizarRutas(request);
-            log.debug("Optimización periódica ejecutada en: {}", momentoActualSimulacion);
+        PistaMovimientoDTO dto = new PistaMovimientoDTO();
+        dto.setRutaId(movimiento.getRutaId());
+        dto.setCodigoCamion(movimiento.getCodigoCamion());
+        dto.setInicio(inicio);
+        dto.setSegundos(segundos);
+        dto.setX(pista.xs().clone());
+        dto.setY(pista.ys().clone());
+        dto.setTipos(tipos);
+        return dto;
+    }
 
-        } catch (Exception e) {
-            log.error("Error en optimización periódica", e);
-        }
+    private EstadoIncrementalSimulacion estadoPublicado(String sesionId) {
+        return estadosPublicados.computeIfAbsent(sesionId, id -> new EstadoIncrementalSimulacion());
     }
 
-    private void procesarMantenimientos() {
-        // Simular mantenimientos programados
-        List<CamionDTO> camiones = camionService.obtenerTodos();
-        for (CamionDTO camion : camiones) {
-            if (camion.getFechaProximoMantenimiento() != null &&
-                    momentoActualSimulacion.isAfter(camion.getFechaProximoMantenimiento()) &&
-                    !camion.getEnMantenimiento()) {
+    private EstadoSimulacionDTO construirEstadoSesion(Simulador sim) {
+        return sim.consultar(this::construirEstado);
+    }
+
+    private EstadoSimulacionDTO construirEstado(Simulador sim) {
+        EstadoSimulacionDTO estado = new EstadoSimulacionDTO();
+        estado.setId(sim.getId());
+        estado.setEscenario(sim.getEscenario());
+        estado.setMomentoActual(sim.getMomentoActual());
+        estado.setActiva(sim.estaActiva());
+        estado.setProgreso(sim.getProgreso());
+        estado.setEstadoCamiones(sim.getCamiones().stream().map(entityMapper::toDTO).toList());
+        estado.setIdsRutasActivas(sim.getRutasActivas().stream().map(ruta -> ruta.getId()).toList());
+        estado.setPedidosPendientes(sim.getPedidosPendientes());
+        estado.setPedidosEntregados(sim.getPedidosEntregados());
+        estado.setConsumoCombustibleTotal(sim.getConsumoTotalCombustible());
+        estado.setDistanciaRecorridaTotal(sim.getDistanciaTotalRecorrida());
+        return estado;
+    }
 
-                camionService.iniciarMantenimiento(camion.getCodigo());
-                log.info("Mantenimiento iniciado para camión: {}", camion.getCodigo());
+    /**
+     * Guarda una instantánea en cada punto de control de la simulación. Un error
+     * de escritura se registra y la simulación continúa.
+     */
+    private class ObservadorInstantaneas implements ObservadorSimulacion {
+
+        @Override
+        public void puntoDeControl(Simulador sim) {
+            String instantaneaId = InstantaneaSimulacion.identificador(sim.getId(), sim.getMomentoActual());
+            try {
+                long inicio = System.nanoTime();
+                sim.guardarInstantanea(archivoInstantanea(instantaneaId));
+                log.debug("Instantánea {} guardada en {} ms", instantaneaId, (System.nanoTime() - inicio) / 1_000_000);
+            } catch (IOException e) {
+                log.error("No se pudo guardar la instantánea {}", instantaneaId, e);
             }
         }
     }
 
-    private void procesarAverias() {
-        // Simular averías aleatorias
-        List<CamionDTO> camionesEnRuta = camionService.obtenerTodos().stream()
-                .filter(c -> "EN_RUTA".equals(c.getEstado().name()))
-                .toList();
+    /**
+     * Publica por WebSocket lo que ocurre en la simulación, en los tópicos de su sesión.
+     * Se invoca desde el hilo de la simulación mientras procesa un evento.
+     */
+    private class ObservadorWebSocket implements ObservadorSimulacion {
 
-        for (CamionDTO camion : camionesEnRuta) {
-            if (Math.random() < 0.001) { // 0.1% de probabilidad por minuto
-                String tipoAveria = generarTipoAveriaAleatoria();
-                camionService.actualizarEstado(camion.getCodigo(),
-                        pucp.edu.pe.glp_final.model.enums.EstadoCamion.AVERIADO,
-                        "Avería tipo " + tipoAveria);
+        private final CodificadorPosiciones posiciones; // null si no se publican en binario
 
-                webSocketService.notificarAveria(camion, tipoAveria);
-                log.warn("Avería {} simulada en camión: {}", tipoAveria, camion.getCodigo());
-            }
+        ObservadorWebSocket(boolean posicionesBinarias) {
+            this.posiciones = posicionesBinarias ? new CodificadorPosiciones() : null;
         }
-    }
 
-    private String generarTipoAveriaAleatoria() {
-        double random = Math.random();
-        if (random < 0.6) return "TI1"; // 60% - Avería menor
-        if (random < 0.9) return "TI2"; // 30% - Avería moderada
-        return "TI3"; // 10% - Avería mayor
-    }
+        /**
+         * El tópico de la sesión recibe solo los cambios; el tópico general conserva el estado completo
+         */
+        @Override
+        public void estadoActualizado(Simulador sim) {
+            EstadoSimulacionDTO estado = construirEstado(sim);
+            EstadoIncrementalSimulacion publicado = estadoPublicado(sim.getId());
+            webSocketService.notificarDeltaSimulacion(sim.getId(), () -> publicado.avanzar(estado));
+            if (posiciones != null) {
+                webSocketService.notificarPosicionesSimulacion(sim.getId(), posiciones.codificar(sim));
+            }
+            if (sim.getId().equals(sesionActualId)) {
+                webSocketService.notificarEstadoSimulacion(estado);
+            }
+        }
 
-    private void generarPedidosAdicionales() {
-        // Generar pedidos adicionales para el escenario de colapso
-        for (int i = 0; i < 3; i++) {
-            CrearPedidoRequest request = new CrearPedidoRequest();
-            request.setIdCliente("c-simulacion-" + System.currentTimeMillis() + "-" + i);
-            request.setUbicacion(new UbicacionDTO(
-                    (int) (Math.random() * 70),
-                    (int) (Math.random() * 50)
-            ));
-            request.setCantidadGlp(5.0 + Math.random() * 20.0); // 5-25 m³
-            request.setHorasLimiteEntrega(4 + (int) (Math.random() * 8)); // 4-12 horas
-            request.setHoraRecepcion(momentoActualSimulacion);
+        @Override
+        public void pedidoEntregado(Simulador sim, Pedido pedido) {
+            webSocketService.notificarEntregaSimulada(sim.getId(), entityMapper.toDTO(pedido));
+        }
 
-            pedidoService.crearPedido(request);
+        @Override
+        public void averiaRegistrada(Simulador sim, Camion camion, TipoIncidente tipo) {
+            webSocketService.notificarAveriaSimulada(sim.getId(), entityMapper.toDTO(camion), tipo.name(),
+                    sim.getMomentoActual());
         }
 
-        log.debug("Generados 3 pedidos adicionales para simulación de colapso");
-    }
+        @Override
+        public void simulacionFinalizada(Simulador sim) {
+            EstadoSimulacionDTO estado = sim.consultar(SimulacionService.this::construirEstado);
+            EstadoIncrementalSimulacion publicado = estadoPublicado(sim.getId());
+            webSocketService.notificarDeltaSimulacion(sim.getId(), () -> publicado.avanzar(estado));
+            publicarEstado(sim, estado);
+        }
 
-    // Tarea programada para limpiar simulaciones antiguas
-    @Scheduled(fixedRate = 60000) // Cada minuto
-    public void monitorearSimulacion() {
-        if (simulacionActiva.get() && !simulacionPausada.get()) {
-            // Actualizar estadísticas
-            actualizarEstadisticas();
+        @Override
+        public void errorSimulacion(Simulador sim, Exception e) {
+            webSocketService.notificarErrorSimulacion(sim.getId(), "Error en simulación", e.getMessage());
+        }
 
-            // Verificar condiciones de parada automática
-            if (debeTerminarSimulacion()) {
-                detenerSimulacion();
+        /**
+         * La sesión actual también se publica en el tópico general para los clientes existentes
+         */
+        private void publicarEstado(Simulador sim, EstadoSimulacionDTO estado) {
+            webSocketService.notificarEstadoSimulacion(sim.getId(), estado);
+            if (sim.getId().equals(sesionActualId)) {
+                webSocketService.notificarEstadoSimulacion(estado);
             }
         }
     }
-
-    private void actualizarEstadisticas() {
-        // Actualizar estadísticas de la simulación
-        // Esto se podría hacer consultando la base de datos o manteniendo contadores
-        log.debug("Estadísticas actualizadas para simulación: {}", simulacionId);
-    }
-}
\ No newline at end of file
+}
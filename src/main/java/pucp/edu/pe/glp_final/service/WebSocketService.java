@@ -2,25 +2,30 @@ package pucp.edu.pe.glp_final.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import pucp.edu.pe.glp_final.dto.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
+/**
+ * Los estados (flota, simulación, progreso, bloqueos) se publican agrupados: solo llega
+ * el último de cada tópico. Los eventos (pedidos, entregas, averías, errores) se encolan.
+ * Ningún método espera el envío: lo hace {@link DifusorWebSocket} en su propio hilo.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketService {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final DifusorWebSocket difusor;
 
     /**
      * Notifica actualización de estado de camiones
      */
     public void notificarEstadoCamiones(List<CamionDTO> camiones) {
-        messagingTemplate.convertAndSend("/topic/camiones/estado", camiones);
+        difusor.publicarUltimo("/topic/camiones/estado", camiones);
         log.debug("Estado de {} camiones enviado por WebSocket", camiones.size());
     }
 
@@ -28,7 +33,7 @@ public class WebSocketService {
      * Notifica nuevos pedidos
      */
     public void notificarNuevoPedido(PedidoDTO pedido) {
-        messagingTemplate.convertAndSend("/topic/pedidos/nuevo", pedido);
+        difusor.encolar("/topic/pedidos/nuevo", pedido);
         log.info("Nuevo pedido {} notificado por WebSocket", pedido.getId());
     }
 
@@ -36,7 +41,7 @@ public class WebSocketService {
      * Notifica pedidos entregados
      */
     public void notificarPedidoEntregado(PedidoDTO pedido) {
-        messagingTemplate.convertAndSend("/topic/pedidos/entregado", pedido);
+        difusor.encolar("/topic/pedidos/entregado", pedido);
         log.info("Entrega de pedido {} notificada por WebSocket", pedido.getId());
     }
 
@@ -50,7 +55,7 @@ public class WebSocketService {
         evento.setPedidosAsignados(pedidosAsignados);
         evento.setRutas(rutas);
 
-        messagingTemplate.convertAndSend("/topic/optimizacion/completada", evento);
+        difusor.encolar("/topic/optimizacion/completada", evento);
         log.info("Optimización con {} rutas notificada por WebSocket", rutas.size());
     }
 
@@ -58,7 +63,7 @@ public class WebSocketService {
      * Notifica estado de simulación
      */
     public void notificarEstadoSimulacion(EstadoSimulacionDTO estado) {
-        messagingTemplate.convertAndSend("/topic/simulacion/estado", estado);
+        difusor.publicarUltimo("/topic/simulacion/estado", estado);
         log.debug("Estado de simulación enviado por WebSocket");
     }
 
@@ -66,7 +71,7 @@ public class WebSocketService {
      * Notifica progreso de rutas en tiempo real
      */
     public void notificarProgresoRutas(List<MonitoreoRutaDTO> progreso) {
-        messagingTemplate.convertAndSend("/topic/rutas/progreso", progreso);
+        difusor.publicarUltimo("/topic/rutas/progreso", progreso);
         log.debug("Progreso de {} rutas enviado por WebSocket", progreso.size());
     }
 
@@ -80,7 +85,7 @@ public class WebSocketService {
         evento.setTipoAveria(tipoAveria);
         evento.setUbicacion(camion.getUbicacion());
 
-        messagingTemplate.convertAndSend("/topic/camiones/averia", evento);
+        difusor.encolar("/topic/camiones/averia", evento);
         log.warn("Avería {} en camión {} notificada por WebSocket", tipoAveria, camion.getCodigo());
     }
 
@@ -88,7 +93,7 @@ public class WebSocketService {
      * Notifica bloqueos activos
      */
     public void notificarBloqueosActivos(List<BloqueoDTO> bloqueos) {
-        messagingTemplate.convertAndSend("/topic/mapa/bloqueos", bloqueos);
+        difusor.publicarUltimo("/topic/mapa/bloqueos", bloqueos);
         log.info("{} bloqueos activos notificados por WebSocket", bloqueos.size());
     }
 
@@ -101,10 +106,76 @@ public class WebSocketService {
         evento.setMensaje(mensaje);
         evento.setDetalles(detalles);
 
-        messagingTemplate.convertAndSend("/topic/sistema/error", evento);
+        difusor.encolar("/topic/sistema/error", evento);
         log.error("Error notificado por WebSocket: {}", mensaje);
     }
 
+    // ========================================
+    // SESIONES DE SIMULACIÓN (/topic/simulacion/{sesionId}/...)
+    // ========================================
+
+    /**
+     * Notifica el estado de una sesión de simulación en su propio tópico
+     */
+    public void notificarEstadoSimulacion(String sesionId, EstadoSimulacionDTO estado) {
+        difusor.publicarUltimo(topicoSimulacion(sesionId, "estado"), estado);
+        log.debug("Estado de simulación {} enviado por WebSocket", sesionId);
+    }
+
+    /**
+     * Notifica los cambios del estado de una sesión desde la publicación anterior.
+     * El delta se calcula al enviarse, de modo que los estados agrupados no se pierden.
+     */
+    public void notificarDeltaSimulacion(String sesionId, Supplier<DeltaSimulacionDTO> delta) {
+        difusor.publicarUltimo(topicoSimulacion(sesionId, "delta"), () -> {
+            DeltaSimulacionDTO calculado = delta.get();
+            log.debug("Delta {} de simulación {} enviado por WebSocket", calculado.getSecuencia(), sesionId);
+            return calculado;
+        });
+    }
+
+    /**
+     * Notifica las posiciones de la flota de una sesión en el formato de {@link CodificadorPosiciones};
+     * se envía en un frame binario (application/octet-stream)
+     */
+    public void notificarPosicionesSimulacion(String sesionId, byte[] posiciones) {
+        difusor.publicarUltimo(topicoSimulacion(sesionId, "posiciones"), posiciones);
+    }
+
+    /**
+     * Notifica una entrega simulada, sin mezclarla con las entregas reales
+     */
+    public void notificarEntregaSimulada(String sesionId, PedidoDTO pedido) {
+        difusor.encolar(topicoSimulacion(sesionId, "pedidos/entregado"), pedido);
+    }
+
+    /**
+     * Notifica una avería simulada con el momento de la simulación en que ocurrió
+     */
+    public void notificarAveriaSimulada(String sesionId, CamionDTO camion, String tipoAveria, LocalDateTime momento) {
+        AveriaEventoDTO evento = new AveriaEventoDTO();
+        evento.setTimestamp(momento);
+        evento.setCamion(camion);
+        evento.setTipoAveria(tipoAveria);
+        evento.setUbicacion(camion.getUbicacion());
+
+        difusor.encolar(topicoSimulacion(sesionId, "averia"), evento);
+    }
+
+    public void notificarErrorSimulacion(String sesionId, String mensaje, String detalles) {
+        ErrorEventoDTO evento = new ErrorEventoDTO();
+        evento.setTimestamp(LocalDateTime.now());
+        evento.setMensaje(mensaje);
+        evento.setDetalles(detalles);
+
+        difusor.encolar(topicoSimulacion(sesionId, "error"), evento);
+        log.error("Error en simulación {} notificado por WebSocket: {}", sesionId, mensaje);
+    }
+
+    private static String topicoSimulacion(String sesionId, String subtopico) {
+        return "/topic/simulacion/" + sesionId + "/" + subtopico;
+    }
+
     // DTOs para eventos específicos
     public static class OptimizacionEventoDTO {
         private LocalDateTime timestamp;
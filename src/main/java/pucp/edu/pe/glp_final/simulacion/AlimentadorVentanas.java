@@ -0,0 +1,72 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Pedido;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Carga las entradas de una simulación ventana por ventana. Al entregar una ventana
+ * empieza a leer la siguiente en un hilo virtual, así que cuando el reloj simulado
+ * la alcanza normalmente ya está en memoria y la simulación no espera a la fuente.
+ */
+final class AlimentadorVentanas {
+
+    record Ventana(LocalDateTime desde, LocalDateTime hasta, List<Pedido> pedidos, List<Bloqueo> bloqueos) {}
+
+    private final FuenteEntradas fuente;
+    private final int minutosVentana;
+    private final String nombreHilo;
+
+    // Ventana siguiente, leyéndose en segundo plano; la usa solo el hilo de la simulación
+    private LocalDateTime desdeAnticipada;
+    private CompletableFuture<Ventana> anticipada;
+
+    AlimentadorVentanas(FuenteEntradas fuente, int minutosVentana, String simulacionId) {
+        if (minutosVentana <= 0) {
+            throw new IllegalArgumentException("La ventana de carga debe ser mayor a 0 minutos");
+        }
+        this.fuente = fuente;
+        this.minutosVentana = minutosVentana;
+        this.nombreHilo = "ventana-" + simulacionId.substring(0, Math.min(8, simulacionId.length()));
+    }
+
+    int getMinutosVentana() {
+        return minutosVentana;
+    }
+
+    /**
+     * Primera ventana (inicio, inicio + ventana], con los bloqueos que ya rigen en el inicio
+     */
+    Ventana inicial(LocalDateTime inicio) {
+        Ventana ventana = leer(inicio);
+        List<Bloqueo> bloqueos = new ArrayList<>(fuente.bloqueosVigentesEn(inicio));
+        bloqueos.addAll(ventana.bloqueos());
+        anticipar(ventana.hasta());
+        return new Ventana(ventana.desde(), ventana.hasta(), ventana.pedidos(), bloqueos);
+    }
+
+    /**
+     * Ventana (desde, desde + ventana]; espera su lectura anticipada si aún no termina
+     */
+    Ventana siguiente(LocalDateTime desde) {
+        Ventana ventana = anticipada != null && desde.equals(desdeAnticipada) ? anticipada.join() : leer(desde);
+        anticipar(ventana.hasta());
+        return ventana;
+    }
+
+    private void anticipar(LocalDateTime desde) {
+        desdeAnticipada = desde;
+        anticipada = CompletableFuture.supplyAsync(() -> leer(desde),
+                tarea -> Thread.ofVirtual().name(nombreHilo).start(tarea));
+    }
+
+    private Ventana leer(LocalDateTime desde) {
+        LocalDateTime hasta = desde.plusMinutes(minutosVentana);
+        return new Ventana(desde, hasta, fuente.pedidosRecibidosEntre(desde, hasta),
+                fuente.bloqueosQueInicianEntre(desde, hasta));
+    }
+}
@@ -0,0 +1,11 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.model.enums.TipoIncidente;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avería ocurrida en una simulación, tal como quedó en su registro de eventos
+ */
+public record AveriaRegistrada(LocalDateTime momento, String codigoCamion, TipoIncidente tipo) {
+}
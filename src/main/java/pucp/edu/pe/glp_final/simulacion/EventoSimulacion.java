@@ -0,0 +1,90 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import lombok.Getter;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.model.enums.TipoEventoSimulacion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento programado en un momento del reloj simulado.
+ * Los eventos con el mismo momento se atienden en el orden en que se programaron.
+ */
+@Getter
+public final class EventoSimulacion implements Comparable<EventoSimulacion> {
+    private final LocalDateTime momento;
+    private final TipoEventoSimulacion tipo;
+    private final String codigoCamion;
+    private final String rutaId;
+    private final Pedido pedido;
+    private final Ubicacion ubicacion;
+    private long secuencia; // Asignada por el motor al programar el evento
+
+    private EventoSimulacion(LocalDateTime momento, TipoEventoSimulacion tipo, String codigoCamion,
+                             String rutaId, Pedido pedido, Ubicacion ubicacion) {
+        this.momento = momento;
+        this.tipo = tipo;
+        this.codigoCamion = codigoCamion;
+        this.rutaId = rutaId;
+        this.pedido = pedido;
+        this.ubicacion = ubicacion;
+    }
+
+    public static EventoSimulacion general(LocalDateTime momento, TipoEventoSimulacion tipo) {
+        return new EventoSimulacion(momento, tipo, null, null, null, null);
+    }
+
+    public static EventoSimulacion deCamion(LocalDateTime momento, TipoEventoSimulacion tipo, String codigoCamion) {
+        return new EventoSimulacion(momento, tipo, codigoCamion, null, null, null);
+    }
+
+    public static EventoSimulacion deRuta(LocalDateTime momento, TipoEventoSimulacion tipo, String codigoCamion,
+                                          String rutaId, Ubicacion ubicacion) {
+        return new EventoSimulacion(momento, tipo, codigoCamion, rutaId, null, ubicacion);
+    }
+
+    public static EventoSimulacion entrega(LocalDateTime momento, String codigoCamion, String rutaId,
+                                           Pedido pedido, Ubicacion ubicacion) {
+        return new EventoSimulacion(momento, TipoEventoSimulacion.ENTREGA, codigoCamion, rutaId, pedido, ubicacion);
+    }
+
+    public static EventoSimulacion pedidoRecibido(Pedido pedido) {
+        return new EventoSimulacion(pedido.getHoraRecepcion(), TipoEventoSimulacion.PEDIDO_RECIBIDO,
+                null, null, pedido, pedido.getUbicacion());
+    }
+
+    /**
+     * Evento leído de una instantánea, con la secuencia que tenía al guardarse
+     */
+    static EventoSimulacion restaurar(LocalDateTime momento, TipoEventoSimulacion tipo, String codigoCamion,
+                                      String rutaId, Pedido pedido, Ubicacion ubicacion, long secuencia) {
+        EventoSimulacion evento = new EventoSimulacion(momento, tipo, codigoCamion, rutaId, pedido, ubicacion);
+        evento.secuencia = secuencia;
+        return evento;
+    }
+
+    /**
+     * Mismo evento en otro momento, para volver a programarlo
+     */
+    EventoSimulacion reprogramado(LocalDateTime nuevoMomento) {
+        return new EventoSimulacion(nuevoMomento, tipo, codigoCamion, rutaId, pedido, ubicacion);
+    }
+
+    void asignarSecuencia(long secuencia) {
+        this.secuencia = secuencia;
+    }
+
+    @Override
+    public int compareTo(EventoSimulacion otro) {
+        int comparacion = momento.compareTo(otro.momento);
+        return comparacion != 0 ? comparacion : Long.compare(secuencia, otro.secuencia);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + momento + "] " + tipo +
+                (codigoCamion != null ? " camión " + codigoCamion : "") +
+                (pedido != null ? " pedido " + pedido.getId() : "");
+    }
+}
@@ -0,0 +1,73 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Codificación de los tipos comunes en los archivos binarios de simulación
+ * (registro de eventos e instantáneas). Los opcionales llevan un byte de presencia.
+ */
+final class FormatoBinario {
+
+    private FormatoBinario() {
+    }
+
+    static void escribirMomento(DataOutput salida, LocalDateTime momento) throws IOException {
+        salida.writeLong(momento.toEpochSecond(ZoneOffset.UTC));
+        salida.writeInt(momento.getNano());
+    }
+
+    static LocalDateTime leerMomento(DataInput entrada) throws IOException {
+        return LocalDateTime.ofEpochSecond(entrada.readLong(), entrada.readInt(), ZoneOffset.UTC);
+    }
+
+    static void escribirMomentoOpcional(DataOutput salida, LocalDateTime momento) throws IOException {
+        salida.writeBoolean(momento != null);
+        if (momento != null) {
+            escribirMomento(salida, momento);
+        }
+    }
+
+    static LocalDateTime leerMomentoOpcional(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? leerMomento(entrada) : null;
+    }
+
+    static void escribirUbicacion(DataOutput salida, Ubicacion ubicacion) throws IOException {
+        salida.writeBoolean(ubicacion != null);
+        if (ubicacion != null) {
+            salida.writeInt(ubicacion.getX());
+            salida.writeInt(ubicacion.getY());
+        }
+    }
+
+    static Ubicacion leerUbicacion(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? new Ubicacion(entrada.readInt(), entrada.readInt()) : null;
+    }
+
+    static void escribirTextoOpcional(DataOutput salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    static String leerTextoOpcional(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    static void escribirBytes(DataOutput salida, byte[] datos) throws IOException {
+        salida.writeInt(datos.length);
+        salida.write(datos);
+    }
+
+    static byte[] leerBytes(DataInput entrada) throws IOException {
+        byte[] datos = new byte[entrada.readInt()];
+        entrada.readFully(datos);
+        return datos;
+    }
+}
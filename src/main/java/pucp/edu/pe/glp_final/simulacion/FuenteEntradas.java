@@ -0,0 +1,72 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Pedido;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Origen de los pedidos y bloqueos que una simulación carga por ventanas de tiempo.
+ * Los intervalos son abiertos al inicio y cerrados al fin, de modo que ventanas
+ * consecutivas no repiten entradas. Se consulta desde un hilo distinto al de la simulación.
+ */
+public interface FuenteEntradas {
+
+    /**
+     * Pedidos pendientes con desde &lt; horaRecepcion &lt;= hasta, en orden de recepción
+     */
+    List<Pedido> pedidosRecibidosEntre(LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Bloqueos con horaInicio &lt;= momento &lt; horaFin
+     */
+    List<Bloqueo> bloqueosVigentesEn(LocalDateTime momento);
+
+    /**
+     * Bloqueos con desde &lt; horaInicio &lt;= hasta
+     */
+    List<Bloqueo> bloqueosQueInicianEntre(LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Fuente en memoria que conserva el orden de las listas, p. ej. para reproducir
+     * las ventanas guardadas en un registro de eventos
+     */
+    static FuenteEntradas deListas(List<Pedido> pedidos, List<Bloqueo> bloqueos) {
+        return new FuenteEntradas() {
+            @Override
+            public List<Pedido> pedidosRecibidosEntre(LocalDateTime desde, LocalDateTime hasta) {
+                List<Pedido> resultado = new ArrayList<>();
+                for (Pedido pedido : pedidos) {
+                    if (pedido.getHoraRecepcion().isAfter(desde) && !pedido.getHoraRecepcion().isAfter(hasta)) {
+                        resultado.add(pedido.copiar());
+                    }
+                }
+                return resultado;
+            }
+
+            @Override
+            public List<Bloqueo> bloqueosVigentesEn(LocalDateTime momento) {
+                List<Bloqueo> resultado = new ArrayList<>();
+                for (Bloqueo bloqueo : bloqueos) {
+                    if (!bloqueo.getHoraInicio().isAfter(momento) && bloqueo.getHoraFin().isAfter(momento)) {
+                        resultado.add(bloqueo);
+                    }
+                }
+                return resultado;
+            }
+
+            @Override
+            public List<Bloqueo> bloqueosQueInicianEntre(LocalDateTime desde, LocalDateTime hasta) {
+                List<Bloqueo> resultado = new ArrayList<>();
+                for (Bloqueo bloqueo : bloqueos) {
+                    if (bloqueo.getHoraInicio().isAfter(desde) && !bloqueo.getHoraInicio().isAfter(hasta)) {
+                        resultado.add(bloqueo);
+                    }
+                }
+                return resultado;
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import java.util.Random;
+
+/**
+ * Generador congruencial lineal con el mismo algoritmo y la misma secuencia que
+ * {@link Random}, pero con su estado interno accesible para guardarlo en una
+ * instantánea y continuar la secuencia exactamente donde quedó.
+ */
+public class GeneradorAleatorio extends Random {
+
+    private static final long MULTIPLICADOR = 0x5DEECE66DL;
+    private static final long INCREMENTO = 0xBL;
+    private static final long MASCARA = (1L << 48) - 1;
+
+    private long estado; // Lo asigna setSeed desde el constructor de Random
+
+    public GeneradorAleatorio(long semilla) {
+        super(semilla);
+    }
+
+    /**
+     * Generador que continúa desde un estado obtenido con {@link #getEstado()}
+     */
+    public static GeneradorAleatorio desdeEstado(long estado) {
+        GeneradorAleatorio generador = new GeneradorAleatorio(0);
+        generador.estado = estado & MASCARA;
+        return generador;
+    }
+
+    public synchronized long getEstado() {
+        return estado;
+    }
+
+    @Override
+    public synchronized void setSeed(long semilla) {
+        estado = (semilla ^ MULTIPLICADOR) & MASCARA;
+    }
+
+    @Override
+    protected synchronized int next(int bits) {
+        estado = (estado * MULTIPLICADOR + INCREMENTO) & MASCARA;
+        return (int) (estado >>> (48 - bits));
+    }
+}
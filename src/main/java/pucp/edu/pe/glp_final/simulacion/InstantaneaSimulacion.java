@@ -0,0 +1,417 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import pucp.edu.pe.glp_final.mapper.SecuenciaNodosCodec;
+import pucp.edu.pe.glp_final.model.*;
+import pucp.edu.pe.glp_final.model.enums.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+import static pucp.edu.pe.glp_final.simulacion.FormatoBinario.*;
+
+/**
+ * Estado completo de una simulación en un momento dado: reloj y cola de eventos,
+ * flota, libro de pedidos, rutas en curso, almacenes, estado de las fuentes
+ * aleatorias y estadísticas. Permite reanudar la corrida o bifurcarla desde ese punto.
+ *
+ * Formato: [magia "GLPI"][versión] seguido de secciones de tamaño conocido. Los
+ * pedidos se escriben una sola vez en una tabla y el resto del estado los referencia
+ * por índice, para conservar que eventos, rutas y libro compartan el mismo objeto.
+ */
+@Getter
+@Setter(AccessLevel.PACKAGE)
+public class InstantaneaSimulacion {
+
+    static final int MAGIA = 0x474C5049; // "GLPI"
+    static final int VERSION = 5; // 2: averías como eventos programados; 3: replanificación por cambios; 4: horizonte rodante; 5: carga por ventanas
+
+    private static final DateTimeFormatter FORMATO_MOMENTO = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm");
+
+    private String id;
+    private EscenarioSimulacion escenario;
+    private LocalDateTime fechaInicio;
+    private Integer duracionDias;
+    private boolean incluirAverias;
+    private boolean incluirMantenimientos;
+    private long semilla;
+    private long estadoAleatorio;
+    private Long estadoAleatorioPlanificador; // null si el planificador no expone su fuente
+    private int minutosEntreInstantaneas;
+    private int minutosHorizonteCongelado;
+    private int minutosVentanaCarga;
+
+    private LocalDateTime reloj;
+    private long secuenciaEventos;
+    @Getter(AccessLevel.PACKAGE)
+    private List<EventoSimulacion> eventos = new ArrayList<>();
+    private List<Camion> camiones = new ArrayList<>();
+    private List<Pedido> pedidosPendientes = new ArrayList<>();
+    @Getter(AccessLevel.PACKAGE)
+    private List<RutaEnCurso> rutasActivas = new ArrayList<>();
+    private Set<String> mantenimientosDiferidos = new HashSet<>();
+    private Map<String, Double> nivelesAlmacenes = new LinkedHashMap<>();
+    private List<Bloqueo> bloqueos = new ArrayList<>();
+
+    private int pedidosRecibidos;
+    private int pedidosEntregados;
+    private int pedidosATiempo;
+    private int pedidosGenerados;
+    private double consumoTotalCombustible;
+    private double distanciaTotalRecorrida;
+    private long eventosProcesados;
+    private LocalDateTime momentoColapso;
+    private LocalDateTime primerCambioPendiente; // null si no hay cambios sin replanificar
+    private LocalDateTime replanificacionObjetivo; // null si no hay replanificación programada
+
+    InstantaneaSimulacion() {
+    }
+
+    /**
+     * Identificador de la instantánea: simulación y momento simulado, p. ej. {id}-20250115T0830
+     */
+    public static String identificador(String simulacionId, LocalDateTime momento) {
+        return simulacionId + "-" + FORMATO_MOMENTO.format(momento);
+    }
+
+    /**
+     * Simulación a la que pertenece un identificador de instantánea
+     */
+    public static String simulacionDe(String identificador) {
+        return identificador.substring(0, identificador.lastIndexOf('-'));
+    }
+
+    /**
+     * Momento simulado de un identificador de instantánea
+     */
+    public static LocalDateTime momentoDe(String identificador) {
+        return LocalDateTime.parse(identificador.substring(identificador.lastIndexOf('-') + 1), FORMATO_MOMENTO);
+    }
+
+    public String getIdentificador() {
+        return identificador(id, reloj);
+    }
+
+    /**
+     * Escribe la instantánea en un archivo temporal y lo mueve al destino, para que
+     * una interrupción durante la escritura no deje una instantánea a medias
+     */
+    public void escribir(Path archivo) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, archivo.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+                escribir(salida);
+            }
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    public static InstantaneaSimulacion leer(Path archivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (entrada.readInt() != MAGIA) {
+                throw new IOException("No es una instantánea de simulación: " + archivo);
+            }
+            int version = entrada.readShort();
+            if (version != VERSION) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            InstantaneaSimulacion instantanea = new InstantaneaSimulacion();
+            instantanea.leer(entrada);
+            return instantanea;
+        }
+    }
+
+    // ========================================
+    // ESCRITURA
+    // ========================================
+
+    private void escribir(DataOutputStream salida) throws IOException {
+        salida.writeInt(MAGIA);
+        salida.writeShort(VERSION);
+
+        salida.writeUTF(id);
+        salida.writeUTF(escenario.name());
+        escribirMomento(salida, fechaInicio);
+        salida.writeInt(duracionDias != null ? duracionDias : -1);
+        salida.writeBoolean(incluirAverias);
+        salida.writeBoolean(incluirMantenimientos);
+        salida.writeLong(semilla);
+        salida.writeLong(estadoAleatorio);
+        salida.writeBoolean(estadoAleatorioPlanificador != null);
+        if (estadoAleatorioPlanificador != null) {
+            salida.writeLong(estadoAleatorioPlanificador);
+        }
+        salida.writeInt(minutosEntreInstantaneas);
+        salida.writeInt(minutosHorizonteCongelado);
+        salida.writeInt(minutosVentanaCarga);
+
+        escribirMomento(salida, reloj);
+        salida.writeInt(pedidosRecibidos);
+        salida.writeInt(pedidosEntregados);
+        salida.writeInt(pedidosATiempo);
+        salida.writeInt(pedidosGenerados);
+        salida.writeDouble(consumoTotalCombustible);
+        salida.writeDouble(distanciaTotalRecorrida);
+        salida.writeLong(eventosProcesados);
+        escribirMomentoOpcional(salida, momentoColapso);
+        escribirMomentoOpcional(salida, primerCambioPendiente);
+        escribirMomentoOpcional(salida, replanificacionObjetivo);
+
+        salida.writeInt(bloqueos.size());
+        for (Bloqueo bloqueo : bloqueos) {
+            escribirMomento(salida, bloqueo.getHoraInicio());
+            escribirMomento(salida, bloqueo.getHoraFin());
+            escribirBytes(salida, SecuenciaNodosCodec.codificar(bloqueo.getNodosBloqueados()));
+        }
+        salida.writeInt(nivelesAlmacenes.size());
+        for (Map.Entry<String, Double> nivel : nivelesAlmacenes.entrySet()) {
+            salida.writeUTF(nivel.getKey());
+            salida.writeDouble(nivel.getValue());
+        }
+        salida.writeInt(camiones.size());
+        for (Camion camion : camiones) {
+            escribirCamion(salida, camion);
+        }
+        salida.writeInt(mantenimientosDiferidos.size());
+        for (String codigo : mantenimientosDiferidos) {
+            salida.writeUTF(codigo);
+        }
+
+        // Tabla de pedidos por identidad: libro, rutas y eventos comparten instancias
+        Map<Pedido, Integer> indices = new IdentityHashMap<>();
+        List<Pedido> tabla = new ArrayList<>();
+        pedidosPendientes.forEach(p -> indexar(p, indices, tabla));
+        for (RutaEnCurso enCurso : rutasActivas) {
+            enCurso.getPedidosPendientes().forEach(p -> indexar(p, indices, tabla));
+            enCurso.getRuta().getPedidosAsignados().forEach(p -> indexar(p, indices, tabla));
+        }
+        for (EventoSimulacion evento : eventos) {
+            if (evento.getPedido() != null) {
+                indexar(evento.getPedido(), indices, tabla);
+            }
+        }
+        salida.writeInt(tabla.size());
+        for (Pedido pedido : tabla) {
+            escribirPedido(salida, pedido);
+        }
+
+        escribirIndices(salida, pedidosPendientes, indices);
+        salida.writeInt(rutasActivas.size());
+        for (RutaEnCurso enCurso : rutasActivas) {
+            escribirRuta(salida, enCurso.getRuta(), indices);
+            escribirIndices(salida, enCurso.getPedidosPendientes(), indices);
+        }
+
+        salida.writeLong(secuenciaEventos);
+        salida.writeInt(eventos.size());
+        for (EventoSimulacion evento : eventos) {
+            escribirMomento(salida, evento.getMomento());
+            salida.writeUTF(evento.getTipo().name());
+            escribirTextoOpcional(salida, evento.getCodigoCamion());
+            escribirTextoOpcional(salida, evento.getRutaId());
+            salida.writeInt(evento.getPedido() != null ? indices.get(evento.getPedido()) : -1);
+            escribirUbicacion(salida, evento.getUbicacion());
+            salida.writeLong(evento.getSecuencia());
+        }
+    }
+
+    private static void indexar(Pedido pedido, Map<Pedido, Integer> indices, List<Pedido> tabla) {
+        if (!indices.containsKey(pedido)) {
+            indices.put(pedido, tabla.size());
+            tabla.add(pedido);
+        }
+    }
+
+    private static void escribirIndices(DataOutputStream salida, List<Pedido> pedidos,
+                                        Map<Pedido, Integer> indices) throws IOException {
+        salida.writeInt(pedidos.size());
+        for (Pedido pedido : pedidos) {
+            salida.writeInt(indices.get(pedido));
+        }
+    }
+
+    private static void escribirCamion(DataOutputStream salida, Camion camion) throws IOException {
+        salida.writeUTF(camion.getCodigo());
+        salida.writeUTF(camion.getTipo().name());
+        escribirUbicacion(salida, camion.getUbicacionActual());
+        salida.writeUTF(camion.getEstado().name());
+        salida.writeDouble(camion.getNivelGLPActual());
+        salida.writeDouble(camion.getNivelCombustibleActual());
+        escribirMomentoOpcional(salida, camion.getFechaUltimoMantenimiento());
+        escribirMomentoOpcional(salida, camion.getFechaProximoMantenimiento());
+        salida.writeBoolean(camion.isEnMantenimiento());
+        salida.writeBoolean(camion.isAveriado());
+        escribirTextoOpcional(salida, camion.getTipoAveriaActual() != null ? camion.getTipoAveriaActual().name() : null);
+        escribirMomentoOpcional(salida, camion.getHoraFinInmovilizacion());
+        escribirMomentoOpcional(salida, camion.getHoraDisponibilidad());
+        escribirTextoOpcional(salida, camion.getMotivoEstado());
+        escribirMomentoOpcional(salida, camion.getHoraFinEstadoEstimado());
+    }
+
+    private static void escribirPedido(DataOutputStream salida, Pedido pedido) throws IOException {
+        salida.writeUTF(pedido.getId());
+        salida.writeUTF(pedido.getIdCliente());
+        escribirUbicacion(salida, pedido.getUbicacion());
+        salida.writeDouble(pedido.getCantidadGLP());
+        escribirMomento(salida, pedido.getHoraRecepcion());
+        salida.writeInt((int) pedido.getTiempoLimiteEntrega().toHours());
+        escribirMomentoOpcional(salida, pedido.getHoraEntregaProgramada());
+        escribirMomentoOpcional(salida, pedido.getHoraEntregaReal());
+        escribirTextoOpcional(salida, pedido.getCamionAsignado());
+        salida.writeBoolean(pedido.isEntregado());
+    }
+
+    private static void escribirRuta(DataOutputStream salida, Ruta ruta, Map<Pedido, Integer> indices) throws IOException {
+        salida.writeUTF(ruta.getId());
+        salida.writeUTF(ruta.getCodigoCamion());
+        escribirUbicacion(salida, ruta.getOrigen());
+        escribirUbicacion(salida, ruta.getDestino());
+        escribirBytes(salida, SecuenciaNodosCodec.codificar(ruta.getSecuenciaParadas()));
+        escribirBytes(salida, SecuenciaNodosCodec.codificar(
+                ruta.getSecuenciaNodos() != null ? ruta.getSecuenciaNodos() : List.of()));
+        escribirIndices(salida, ruta.getPedidosAsignados(), indices);
+        escribirMomentoOpcional(salida, ruta.getHoraInicio());
+        escribirMomentoOpcional(salida, ruta.getHoraFinEstimada());
+        salida.writeDouble(ruta.getDistanciaTotal());
+        salida.writeDouble(ruta.getConsumoCombustible());
+    }
+
+    // ========================================
+    // LECTURA
+    // ========================================
+
+    private void leer(DataInputStream entrada) throws IOException {
+        id = entrada.readUTF();
+        escenario = EscenarioSimulacion.valueOf(entrada.readUTF());
+        fechaInicio = leerMomento(entrada);
+        int dias = entrada.readInt();
+        duracionDias = dias >= 0 ? dias : null;
+        incluirAverias = entrada.readBoolean();
+        incluirMantenimientos = entrada.readBoolean();
+        semilla = entrada.readLong();
+        estadoAleatorio = entrada.readLong();
+        estadoAleatorioPlanificador = entrada.readBoolean() ? entrada.readLong() : null;
+        minutosEntreInstantaneas = entrada.readInt();
+        minutosHorizonteCongelado = entrada.readInt();
+        minutosVentanaCarga = entrada.readInt();
+
+        reloj = leerMomento(entrada);
+        pedidosRecibidos = entrada.readInt();
+        pedidosEntregados = entrada.readInt();
+        pedidosATiempo = entrada.readInt();
+        pedidosGenerados = entrada.readInt();
+        consumoTotalCombustible = entrada.readDouble();
+        distanciaTotalRecorrida = entrada.readDouble();
+        eventosProcesados = entrada.readLong();
+        momentoColapso = leerMomentoOpcional(entrada);
+        primerCambioPendiente = leerMomentoOpcional(entrada);
+        replanificacionObjetivo = leerMomentoOpcional(entrada);
+
+        int cantidad = entrada.readInt();
+        for (int i = 0; i < cantidad; i++) {
+            bloqueos.add(new Bloqueo(leerMomento(entrada), leerMomento(entrada),
+                    SecuenciaNodosCodec.decodificar(leerBytes(entrada))));
+        }
+        cantidad = entrada.readInt();
+        for (int i = 0; i < cantidad; i++) {
+            nivelesAlmacenes.put(entrada.readUTF(), entrada.readDouble());
+        }
+        cantidad = entrada.readInt();
+        for (int i = 0; i < cantidad; i++) {
+            camiones.add(leerCamion(entrada));
+        }
+        cantidad = entrada.readInt();
+        for (int i = 0; i < cantidad; i++) {
+            mantenimientosDiferidos.add(entrada.readUTF());
+        }
+
+        cantidad = entrada.readInt();
+        List<Pedido> tabla = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            tabla.add(leerPedido(entrada));
+        }
+
+        pedidosPendientes = leerIndices(entrada, tabla);
+        cantidad = entrada.readInt();
+        for (int i = 0; i < cantidad; i++) {
+            Ruta ruta = leerRuta(entrada, tabla);
+            rutasActivas.add(new RutaEnCurso(ruta, leerIndices(entrada, tabla)));
+        }
+
+        secuenciaEventos = entrada.readLong();
+        cantidad = entrada.readInt();
+        for (int i = 0; i < cantidad; i++) {
+            LocalDateTime momento = leerMomento(entrada);
+            TipoEventoSimulacion tipo = TipoEventoSimulacion.valueOf(entrada.readUTF());
+            String codigoCamion = leerTextoOpcional(entrada);
+            String rutaId = leerTextoOpcional(entrada);
+            int pedido = entrada.readInt();
+            Ubicacion ubicacion = leerUbicacion(entrada);
+            eventos.add(EventoSimulacion.restaurar(momento, tipo, codigoCamion, rutaId,
+                    pedido >= 0 ? tabla.get(pedido) : null, ubicacion, entrada.readLong()));
+        }
+    }
+
+    private static List<Pedido> leerIndices(DataInputStream entrada, List<Pedido> tabla) throws IOException {
+        int cantidad = entrada.readInt();
+        List<Pedido> pedidos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            pedidos.add(tabla.get(entrada.readInt()));
+        }
+        return pedidos;
+    }
+
+    private static Camion leerCamion(DataInputStream entrada) throws IOException {
+        String codigo = entrada.readUTF();
+        TipoCamion tipo = TipoCamion.valueOf(entrada.readUTF());
+        Camion camion = new Camion(codigo, tipo, leerUbicacion(entrada));
+        camion.setEstado(EstadoCamion.valueOf(entrada.readUTF()));
+        camion.setNivelGLPActual(entrada.readDouble());
+        camion.setNivelCombustibleActual(entrada.readDouble());
+        camion.setFechaUltimoMantenimiento(leerMomentoOpcional(entrada));
+        camion.setFechaProximoMantenimiento(leerMomentoOpcional(entrada));
+        camion.setEnMantenimiento(entrada.readBoolean());
+        camion.setAveriado(entrada.readBoolean());
+        String tipoAveria = leerTextoOpcional(entrada);
+        camion.setTipoAveriaActual(tipoAveria != null ? TipoIncidente.valueOf(tipoAveria) : null);
+        camion.setHoraFinInmovilizacion(leerMomentoOpcional(entrada));
+        camion.setHoraDisponibilidad(leerMomentoOpcional(entrada));
+        camion.setMotivoEstado(leerTextoOpcional(entrada));
+        camion.setHoraFinEstadoEstimado(leerMomentoOpcional(entrada));
+        return camion;
+    }
+
+    private static Pedido leerPedido(DataInputStream entrada) throws IOException {
+        Pedido pedido = new Pedido(entrada.readUTF(), entrada.readUTF(), leerUbicacion(entrada),
+                entrada.readDouble(), leerMomento(entrada), entrada.readInt());
+        pedido.setHoraEntregaProgramada(leerMomentoOpcional(entrada));
+        pedido.setHoraEntregaReal(leerMomentoOpcional(entrada));
+        pedido.setCamionAsignado(leerTextoOpcional(entrada));
+        pedido.setEntregado(entrada.readBoolean());
+        return pedido;
+    }
+
+    private static Ruta leerRuta(DataInputStream entrada, List<Pedido> tabla) throws IOException {
+        Ruta ruta = new Ruta(entrada.readUTF(), entrada.readUTF(), leerUbicacion(entrada));
+        ruta.setDestino(leerUbicacion(entrada));
+        ruta.setSecuenciaParadas(new ArrayList<>(SecuenciaNodosCodec.decodificar(leerBytes(entrada))));
+        ruta.setSecuenciaNodos(new ArrayList<>(SecuenciaNodosCodec.decodificar(leerBytes(entrada))));
+        ruta.setPedidosAsignados(leerIndices(entrada, tabla));
+        ruta.setHoraInicio(leerMomentoOpcional(entrada));
+        ruta.setHoraFinEstimada(leerMomentoOpcional(entrada));
+        ruta.setDistanciaTotal(entrada.readDouble());
+        ruta.setConsumoCombustible(entrada.readDouble());
+        return ruta;
+    }
+}
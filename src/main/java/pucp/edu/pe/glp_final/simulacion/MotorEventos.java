@@ -0,0 +1,90 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Cola de prioridad de eventos con reloj simulado. El reloj salta directamente
+ * al momento del siguiente evento en lugar de avanzar en pasos fijos.
+ */
+public class MotorEventos {
+
+    private final PriorityQueue<EventoSimulacion> cola = new PriorityQueue<>();
+    private LocalDateTime reloj;
+    private long secuencia;
+
+    public MotorEventos(LocalDateTime inicio) {
+        this.reloj = inicio;
+    }
+
+    /**
+     * Motor restaurado de una instantánea: los eventos conservan su secuencia original
+     */
+    MotorEventos(LocalDateTime reloj, long secuencia, Collection<EventoSimulacion> eventos) {
+        this.reloj = reloj;
+        this.secuencia = secuencia;
+        this.cola.addAll(eventos);
+    }
+
+    /**
+     * Programa un evento; no se admiten eventos anteriores al reloj
+     */
+    public void programar(EventoSimulacion evento) {
+        if (evento.getMomento().isBefore(reloj)) {
+            throw new IllegalArgumentException("No se puede programar un evento en el pasado: " + evento);
+        }
+        evento.asignarSecuencia(secuencia++);
+        cola.add(evento);
+    }
+
+    /**
+     * Quita un evento programado que aún no se atendió
+     * @return false si ya no estaba en la cola
+     */
+    public boolean cancelar(EventoSimulacion evento) {
+        return cola.remove(evento);
+    }
+
+    /**
+     * Extrae el siguiente evento y avanza el reloj hasta su momento
+     * @return Siguiente evento, o null si la cola está vacía
+     */
+    public EventoSimulacion siguiente() {
+        EventoSimulacion evento = cola.poll();
+        if (evento != null) {
+            reloj = evento.getMomento();
+        }
+        return evento;
+    }
+
+    public LocalDateTime proximoMomento() {
+        EventoSimulacion evento = cola.peek();
+        return evento != null ? evento.getMomento() : null;
+    }
+
+    public LocalDateTime getReloj() {
+        return reloj;
+    }
+
+    /**
+     * Copia de los eventos programados, sin un orden particular
+     */
+    List<EventoSimulacion> eventosProgramados() {
+        return new ArrayList<>(cola);
+    }
+
+    long getSecuencia() {
+        return secuencia;
+    }
+
+    public int pendientes() {
+        return cola.size();
+    }
+
+    public boolean estaVacia() {
+        return cola.isEmpty();
+    }
+}
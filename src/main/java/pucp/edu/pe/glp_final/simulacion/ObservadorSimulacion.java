@@ -0,0 +1,117 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ruta;
+import pucp.edu.pe.glp_final.model.enums.TipoIncidente;
+
+import java.util.List;
+
+/**
+ * Recibe las notificaciones de una simulación en curso. Se invoca desde el hilo
+ * de la simulación, mientras ésta mantiene su estado bloqueado.
+ */
+public interface ObservadorSimulacion {
+
+    ObservadorSimulacion NINGUNO = new ObservadorSimulacion() {
+    };
+
+    default void estadoActualizado(Simulador simulador) {
+    }
+
+    default void pedidoEntregado(Simulador simulador, Pedido pedido) {
+    }
+
+    /**
+     * Pedido creado por la propia simulación (escenario de colapso)
+     */
+    default void pedidoGenerado(Simulador simulador, Pedido pedido) {
+    }
+
+    default void averiaRegistrada(Simulador simulador, Camion camion, TipoIncidente tipo) {
+    }
+
+    /**
+     * Pedidos y bloqueos incorporados al cargar una ventana de tiempo
+     */
+    default void ventanaCargada(Simulador simulador, List<Pedido> pedidos, List<Bloqueo> bloqueos) {
+    }
+
+    default void planificacionCompletada(Simulador simulador, List<Ruta> rutas) {
+    }
+
+    /**
+     * Punto de control periódico: el estado está completo y consistente para guardarse
+     */
+    default void puntoDeControl(Simulador simulador) {
+    }
+
+    default void simulacionFinalizada(Simulador simulador) {
+    }
+
+    default void errorSimulacion(Simulador simulador, Exception error) {
+    }
+
+    /**
+     * Observador que notifica primero a éste y luego al otro
+     */
+    default ObservadorSimulacion y(ObservadorSimulacion otro) {
+        ObservadorSimulacion primero = this;
+        return new ObservadorSimulacion() {
+            @Override
+            public void estadoActualizado(Simulador simulador) {
+                primero.estadoActualizado(simulador);
+                otro.estadoActualizado(simulador);
+            }
+
+            @Override
+            public void pedidoEntregado(Simulador simulador, Pedido pedido) {
+                primero.pedidoEntregado(simulador, pedido);
+                otro.pedidoEntregado(simulador, pedido);
+            }
+
+            @Override
+            public void pedidoGenerado(Simulador simulador, Pedido pedido) {
+                primero.pedidoGenerado(simulador, pedido);
+                otro.pedidoGenerado(simulador, pedido);
+            }
+
+            @Override
+            public void averiaRegistrada(Simulador simulador, Camion camion, TipoIncidente tipo) {
+                primero.averiaRegistrada(simulador, camion, tipo);
+                otro.averiaRegistrada(simulador, camion, tipo);
+            }
+
+            @Override
+            public void ventanaCargada(Simulador simulador, List<Pedido> pedidos, List<Bloqueo> bloqueos) {
+                primero.ventanaCargada(simulador, pedidos, bloqueos);
+                otro.ventanaCargada(simulador, pedidos, bloqueos);
+            }
+
+            @Override
+            public void planificacionCompletada(Simulador simulador, List<Ruta> rutas) {
+                primero.planificacionCompletada(simulador, rutas);
+                otro.planificacionCompletada(simulador, rutas);
+            }
+
+            @Override
+            public void puntoDeControl(Simulador simulador) {
+                primero.puntoDeControl(simulador);
+                otro.puntoDeControl(simulador);
+            }
+
+            @Override
+            public void simulacionFinalizada(Simulador simulador) {
+                primero.simulacionFinalizada(simulador);
+                otro.simulacionFinalizada(simulador);
+            }
+
+            @Override
+            public void errorSimulacion(Simulador simulador, Exception error) {
+                primero.errorSimulacion(simulador, error);
+                otro.errorSimulacion(simulador, error);
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Salida del planificador en un momento de la simulación, tal como quedó en su registro de eventos
+ */
+public record PlanificacionRegistrada(LocalDateTime momento, List<RutaPlanificada> rutas) {
+
+    /**
+     * Ruta propuesta: camión, pedidos en orden y paradas
+     */
+    public record RutaPlanificada(String codigoCamion, Ubicacion origen, Ubicacion destino,
+                                  List<String> pedidoIds, List<Ubicacion> paradas) {
+    }
+}
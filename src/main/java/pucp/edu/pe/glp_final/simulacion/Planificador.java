@@ -0,0 +1,54 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.algorithm.Genetico;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ruta;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Genera las rutas para los camiones disponibles y los pedidos sin asignar
+ */
+@FunctionalInterface
+public interface Planificador {
+
+    List<Ruta> planificar(List<Camion> camiones, List<Pedido> pedidos, Mapa mapa, LocalDateTime momento);
+
+    /**
+     * Fuente aleatoria del planificador, para guardar su estado en una instantánea; null si no usa una
+     */
+    default Random getAleatorio() {
+        return null;
+    }
+
+    /**
+     * Planificador por defecto: algoritmo genético con parámetros predeterminados
+     */
+    static Planificador genetico() {
+        return (camiones, pedidos, mapa, momento) -> new Genetico().optimizarRutas(camiones, pedidos, mapa, momento);
+    }
+
+    /**
+     * Algoritmo genético que toma sus decisiones aleatorias de la fuente dada,
+     * para que una simulación con semilla fija sea reproducible
+     */
+    static Planificador genetico(Random aleatorio) {
+        return new Planificador() {
+            @Override
+            public List<Ruta> planificar(List<Camion> camiones, List<Pedido> pedidos, Mapa mapa, LocalDateTime momento) {
+                Genetico genetico = new Genetico();
+                genetico.setAleatorio(aleatorio);
+                return genetico.optimizarRutas(camiones, pedidos, mapa, momento);
+            }
+
+            @Override
+            public Random getAleatorio() {
+                return aleatorio;
+            }
+        };
+    }
+}
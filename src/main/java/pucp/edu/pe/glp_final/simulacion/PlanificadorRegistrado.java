@@ -0,0 +1,51 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ruta;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Planificador de reproducción: devuelve, en orden, las rutas que el planificador
+ * original produjo en cada llamada, sin volver a ejecutar el algoritmo
+ */
+public class PlanificadorRegistrado implements Planificador {
+
+    private final Deque<PlanificacionRegistrada> pendientes;
+
+    public PlanificadorRegistrado(List<PlanificacionRegistrada> planificaciones) {
+        this.pendientes = new ArrayDeque<>(planificaciones);
+    }
+
+    @Override
+    public List<Ruta> planificar(List<Camion> camiones, List<Pedido> pedidos, Mapa mapa, LocalDateTime momento) {
+        PlanificacionRegistrada registrada = pendientes.poll();
+        if (registrada == null || !registrada.momento().equals(momento)) {
+            throw new IllegalStateException("La reproducción divergió del registro en " + momento +
+                    (registrada != null ? ": se esperaba una planificación en " + registrada.momento() : ""));
+        }
+
+        Map<String, Pedido> porId = new HashMap<>();
+        for (Pedido pedido : pedidos) {
+            porId.put(pedido.getId(), pedido);
+        }
+
+        List<Ruta> rutas = new ArrayList<>(registrada.rutas().size());
+        for (PlanificacionRegistrada.RutaPlanificada planificada : registrada.rutas()) {
+            Ruta ruta = new Ruta(planificada.codigoCamion(), planificada.origen());
+            ruta.setDestino(planificada.destino());
+            ruta.setSecuenciaParadas(new ArrayList<>(planificada.paradas()));
+            for (String pedidoId : planificada.pedidoIds()) {
+                Pedido pedido = porId.get(pedidoId);
+                if (pedido != null) {
+                    ruta.getPedidosAsignados().add(pedido);
+                }
+            }
+            rutas.add(ruta);
+        }
+        return rutas;
+    }
+}
@@ -0,0 +1,214 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import lombok.extern.slf4j.Slf4j;
+import pucp.edu.pe.glp_final.mapper.SecuenciaNodosCodec;
+import pucp.edu.pe.glp_final.model.*;
+import pucp.edu.pe.glp_final.model.enums.TipoIncidente;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static pucp.edu.pe.glp_final.simulacion.FormatoBinario.*;
+
+/**
+ * Registro binario de solo anexado con todas las entradas de una simulación:
+ * parámetros y semilla, bloqueos, flota y pedidos iniciales, pedidos y bloqueos
+ * cargados por ventanas, pedidos generados, averías y salidas del planificador. Con él, {@link RegistroSimulacion} permite
+ * reproducir la corrida de forma determinista.
+ *
+ * Formato: [magia "GLPS"][versión] seguido de registros [etiqueta][contenido].
+ */
+@Slf4j
+public class RegistroEventosSimulacion implements ObservadorSimulacion, Closeable {
+
+    static final int MAGIA = 0x474C5053; // "GLPS"
+    static final int VERSION = 4; // 2: replanificación por cambios (cambian los momentos de planificación); 3: horizonte rodante; 4: carga por ventanas
+
+    static final byte CABECERA = 1;
+    static final byte BLOQUEO = 2;
+    static final byte CAMION = 3;
+    static final byte PEDIDO = 4;
+    static final byte PEDIDO_GENERADO = 5;
+    static final byte AVERIA = 6;
+    static final byte PLANIFICACION = 7;
+    static final byte FIN = 8;
+    static final byte PEDIDO_VENTANA = 9;
+    static final byte BLOQUEO_VENTANA = 10;
+
+    private final Path archivo;
+    private final DataOutputStream salida;
+    private boolean cerrado;
+
+    public RegistroEventosSimulacion(Path archivo) throws IOException {
+        this.archivo = archivo;
+        Files.createDirectories(archivo.toAbsolutePath().getParent());
+        this.salida = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(archivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.APPEND)));
+        salida.writeInt(MAGIA);
+        salida.writeShort(VERSION);
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Escribe el estado inicial; debe llamarse antes de inicializar la simulación
+     */
+    public synchronized void escribirInicio(Simulador simulador, List<Camion> camiones, List<Pedido> pedidos) {
+        escribir(() -> {
+            salida.writeByte(CABECERA);
+            salida.writeUTF(simulador.getId());
+            salida.writeUTF(simulador.getEscenario().name());
+            escribirMomento(salida, simulador.getFechaInicio());
+            salida.writeInt(simulador.getFechaFin() != null
+                    ? (int) ChronoUnit.DAYS.between(simulador.getFechaInicio(), simulador.getFechaFin())
+                    : -1);
+            salida.writeBoolean(simulador.isIncluirAverias());
+            salida.writeBoolean(simulador.isIncluirMantenimientos());
+            salida.writeLong(simulador.getSemilla());
+            salida.writeInt(simulador.getMinutosHorizonteCongelado());
+            salida.writeInt(simulador.getMinutosVentanaCarga());
+
+            for (Bloqueo bloqueo : simulador.getMapa().getBloqueos()) {
+                escribirBloqueo(BLOQUEO, bloqueo);
+            }
+            for (Camion camion : camiones) {
+                escribirCamion(camion);
+            }
+            for (Pedido pedido : pedidos) {
+                escribirPedido(PEDIDO, pedido);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void pedidoGenerado(Simulador simulador, Pedido pedido) {
+        escribir(() -> escribirPedido(PEDIDO_GENERADO, pedido));
+    }
+
+    @Override
+    public synchronized void ventanaCargada(Simulador simulador, List<Pedido> pedidos, List<Bloqueo> bloqueos) {
+        escribir(() -> {
+            for (Pedido pedido : pedidos) {
+                escribirPedido(PEDIDO_VENTANA, pedido);
+            }
+            for (Bloqueo bloqueo : bloqueos) {
+                escribirBloqueo(BLOQUEO_VENTANA, bloqueo);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void averiaRegistrada(Simulador simulador, Camion camion, TipoIncidente tipo) {
+        escribir(() -> {
+            salida.writeByte(AVERIA);
+            escribirMomento(salida, simulador.getMomentoActual());
+            salida.writeUTF(camion.getCodigo());
+            salida.writeUTF(tipo.name());
+        });
+    }
+
+    @Override
+    public synchronized void planificacionCompletada(Simulador simulador, List<Ruta> rutas) {
+        escribir(() -> {
+            salida.writeByte(PLANIFICACION);
+            escribirMomento(salida, simulador.getMomentoActual());
+            salida.writeInt(rutas.size());
+            for (Ruta ruta : rutas) {
+                salida.writeUTF(ruta.getCodigoCamion());
+                escribirUbicacion(salida, ruta.getOrigen());
+                escribirUbicacion(salida, ruta.getDestino());
+                salida.writeInt(ruta.getPedidosAsignados().size());
+                for (Pedido pedido : ruta.getPedidosAsignados()) {
+                    salida.writeUTF(pedido.getId());
+                }
+                escribirBytes(salida, SecuenciaNodosCodec.codificar(ruta.getSecuenciaParadas()));
+            }
+        });
+    }
+
+    @Override
+    public void simulacionFinalizada(Simulador simulador) {
+        close();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cerrado) {
+            return;
+        }
+        escribir(() -> salida.writeByte(FIN));
+        cerrado = true;
+        try {
+            salida.close();
+        } catch (IOException e) {
+            log.error("No se pudo cerrar el registro de eventos {}", archivo, e);
+        }
+    }
+
+    private void escribirCamion(Camion camion) throws IOException {
+        salida.writeByte(CAMION);
+        salida.writeUTF(camion.getCodigo());
+        salida.writeUTF(camion.getTipo().name());
+        escribirUbicacion(salida, camion.getUbicacionActual());
+        salida.writeUTF(camion.getEstado().name());
+        salida.writeDouble(camion.getNivelGLPActual());
+        salida.writeDouble(camion.getNivelCombustibleActual());
+        salida.writeBoolean(camion.isEnMantenimiento());
+        salida.writeBoolean(camion.isAveriado());
+        escribirMomentoOpcional(salida, camion.getFechaUltimoMantenimiento());
+        escribirMomentoOpcional(salida, camion.getFechaProximoMantenimiento());
+    }
+
+    private void escribirBloqueo(byte etiqueta, Bloqueo bloqueo) throws IOException {
+        salida.writeByte(etiqueta);
+        escribirMomento(salida, bloqueo.getHoraInicio());
+        escribirMomento(salida, bloqueo.getHoraFin());
+        escribirBytes(salida, SecuenciaNodosCodec.codificar(bloqueo.getNodosBloqueados()));
+    }
+
+    private void escribirPedido(byte etiqueta, Pedido pedido) throws IOException {
+        salida.writeByte(etiqueta);
+        salida.writeUTF(pedido.getId());
+        salida.writeUTF(pedido.getIdCliente());
+        escribirUbicacion(salida, pedido.getUbicacion());
+        salida.writeDouble(pedido.getCantidadGLP());
+        escribirMomento(salida, pedido.getHoraRecepcion());
+        salida.writeInt((int) pedido.getTiempoLimiteEntrega().toHours());
+        salida.writeBoolean(pedido.getCamionAsignado() != null);
+        if (pedido.getCamionAsignado() != null) {
+            salida.writeUTF(pedido.getCamionAsignado());
+        }
+    }
+
+    /**
+     * Un error de escritura no detiene la simulación, pero deja de registrar:
+     * un registro incompleto no sirve para reproducir la corrida
+     */
+    private void escribir(Escritura escritura) {
+        if (cerrado) {
+            return;
+        }
+        try {
+            escritura.ejecutar();
+        } catch (IOException e) {
+            log.error("Error al escribir el registro de eventos {}, se deja de registrar", archivo, e);
+            cerrado = true;
+            try {
+                salida.close();
+            } catch (IOException ignorada) {
+                // El archivo ya está inutilizable
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Escritura {
+        void ejecutar() throws IOException;
+    }
+}
@@ -0,0 +1,164 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import lombok.Getter;
+import pucp.edu.pe.glp_final.mapper.SecuenciaNodosCodec;
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
+import pucp.edu.pe.glp_final.model.enums.EstadoCamion;
+import pucp.edu.pe.glp_final.model.enums.TipoCamion;
+import pucp.edu.pe.glp_final.model.enums.TipoIncidente;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static pucp.edu.pe.glp_final.simulacion.FormatoBinario.*;
+import static pucp.edu.pe.glp_final.simulacion.RegistroEventosSimulacion.*;
+
+/**
+ * Contenido de un registro de eventos escrito por {@link RegistroEventosSimulacion}:
+ * todo lo necesario para volver a ejecutar la simulación con las mismas entradas
+ */
+@Getter
+public class RegistroSimulacion {
+    private String id;
+    private EscenarioSimulacion escenario;
+    private LocalDateTime fechaInicio;
+    private Integer duracionDias;
+    private boolean incluirAverias;
+    private boolean incluirMantenimientos;
+    private int minutosHorizonteCongelado;
+    private int minutosVentanaCarga;
+    private long semilla;
+
+    private final List<Bloqueo> bloqueos = new ArrayList<>();
+    private final List<Camion> camiones = new ArrayList<>();
+    private final List<Pedido> pedidos = new ArrayList<>();
+    private final List<Pedido> pedidosGenerados = new ArrayList<>();
+    // Entradas cargadas por ventanas, en el orden en que se cargaron
+    private final List<Pedido> pedidosVentana = new ArrayList<>();
+    private final List<Bloqueo> bloqueosVentana = new ArrayList<>();
+    private final List<AveriaRegistrada> averias = new ArrayList<>();
+    private final List<PlanificacionRegistrada> planificaciones = new ArrayList<>();
+
+    // false si la corrida no terminó de escribir el registro
+    private boolean completo;
+
+    private RegistroSimulacion() {
+    }
+
+    /**
+     * Lee un registro de eventos. Un registro truncado se lee hasta su último
+     * evento completo y queda marcado como incompleto.
+     */
+    public static RegistroSimulacion leer(Path archivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (entrada.readInt() != MAGIA) {
+                throw new IOException("No es un registro de eventos de simulación: " + archivo);
+            }
+            int version = entrada.readShort();
+            if (version != VERSION) {
+                throw new IOException("Versión de registro no soportada: " + version);
+            }
+
+            RegistroSimulacion registro = new RegistroSimulacion();
+            try {
+                registro.leerRegistros(entrada);
+            } catch (EOFException e) {
+                registro.completo = false;
+            }
+            if (registro.escenario == null) {
+                throw new IOException("Registro de eventos sin cabecera: " + archivo);
+            }
+            return registro;
+        }
+    }
+
+    private void leerRegistros(DataInputStream entrada) throws IOException {
+        while (true) {
+            byte etiqueta = entrada.readByte();
+            switch (etiqueta) {
+                case CABECERA -> leerCabecera(entrada);
+                case BLOQUEO -> bloqueos.add(leerBloqueo(entrada));
+                case BLOQUEO_VENTANA -> bloqueosVentana.add(leerBloqueo(entrada));
+                case CAMION -> camiones.add(leerCamion(entrada));
+                case PEDIDO -> pedidos.add(leerPedido(entrada));
+                case PEDIDO_GENERADO -> pedidosGenerados.add(leerPedido(entrada));
+                case PEDIDO_VENTANA -> pedidosVentana.add(leerPedido(entrada));
+                case AVERIA -> averias.add(new AveriaRegistrada(leerMomento(entrada), entrada.readUTF(),
+                        TipoIncidente.valueOf(entrada.readUTF())));
+                case PLANIFICACION -> planificaciones.add(leerPlanificacion(entrada));
+                case FIN -> {
+                    completo = true;
+                    return;
+                }
+                default -> throw new IOException("Etiqueta de registro desconocida: " + etiqueta);
+            }
+        }
+    }
+
+    private void leerCabecera(DataInputStream entrada) throws IOException {
+        id = entrada.readUTF();
+        escenario = EscenarioSimulacion.valueOf(entrada.readUTF());
+        fechaInicio = leerMomento(entrada);
+        int dias = entrada.readInt();
+        duracionDias = dias >= 0 ? dias : null;
+        incluirAverias = entrada.readBoolean();
+        incluirMantenimientos = entrada.readBoolean();
+        semilla = entrada.readLong();
+        minutosHorizonteCongelado = entrada.readInt();
+        minutosVentanaCarga = entrada.readInt();
+    }
+
+    private static Bloqueo leerBloqueo(DataInputStream entrada) throws IOException {
+        return new Bloqueo(leerMomento(entrada), leerMomento(entrada), SecuenciaNodosCodec.decodificar(leerBytes(entrada)));
+    }
+
+    private static Camion leerCamion(DataInputStream entrada) throws IOException {
+        String codigo = entrada.readUTF();
+        TipoCamion tipo = TipoCamion.valueOf(entrada.readUTF());
+        Camion camion = new Camion(codigo, tipo, leerUbicacion(entrada));
+        camion.setEstado(EstadoCamion.valueOf(entrada.readUTF()));
+        camion.setNivelGLPActual(entrada.readDouble());
+        camion.setNivelCombustibleActual(entrada.readDouble());
+        camion.setEnMantenimiento(entrada.readBoolean());
+        camion.setAveriado(entrada.readBoolean());
+        camion.setFechaUltimoMantenimiento(leerMomentoOpcional(entrada));
+        camion.setFechaProximoMantenimiento(leerMomentoOpcional(entrada));
+        return camion;
+    }
+
+    private static Pedido leerPedido(DataInputStream entrada) throws IOException {
+        Pedido pedido = new Pedido(entrada.readUTF(), entrada.readUTF(), leerUbicacion(entrada),
+                entrada.readDouble(), leerMomento(entrada), entrada.readInt());
+        if (entrada.readBoolean()) {
+            pedido.setCamionAsignado(entrada.readUTF());
+        }
+        return pedido;
+    }
+
+    private static PlanificacionRegistrada leerPlanificacion(DataInputStream entrada) throws IOException {
+        LocalDateTime momento = leerMomento(entrada);
+        int cantidad = entrada.readInt();
+        List<PlanificacionRegistrada.RutaPlanificada> rutas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String codigoCamion = entrada.readUTF();
+            Ubicacion origen = leerUbicacion(entrada);
+            Ubicacion destino = leerUbicacion(entrada);
+            int pedidos = entrada.readInt();
+            List<String> pedidoIds = new ArrayList<>(pedidos);
+            for (int j = 0; j < pedidos; j++) {
+                pedidoIds.add(entrada.readUTF());
+            }
+            List<Ubicacion> paradas = new ArrayList<>(SecuenciaNodosCodec.decodificar(leerBytes(entrada)));
+            rutas.add(new PlanificacionRegistrada.RutaPlanificada(codigoCamion, origen, destino, pedidoIds, paradas));
+        }
+        return new PlanificacionRegistrada(momento, rutas);
+    }
+}
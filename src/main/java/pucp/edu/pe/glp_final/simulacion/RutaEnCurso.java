@@ -0,0 +1,112 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import lombok.Getter;
+import lombok.Setter;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.MovimientoCamion;
+import pucp.edu.pe.glp_final.model.MovimientoCamion.PasoMovimiento.TipoPaso;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ruta;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ruta despachada a un camión, los pedidos que aún le falta entregar y sus
+ * eventos pendientes (entregas, recargas y llegada) en orden
+ */
+@Getter
+class RutaEnCurso {
+    private final Ruta ruta;
+    private final List<Pedido> pedidosPendientes;
+    private final List<EventoSimulacion> eventosPendientes = new ArrayList<>();
+    // Último punto alcanzado: de ahí parte el tramo en curso
+    private Ubicacion partida;
+    private LocalDateTime horaPartida;
+    // Falla sorteada para lo que resta de la ruta, o null si no cae antes del fin
+    @Setter
+    private EventoSimulacion averiaProgramada;
+
+    RutaEnCurso(Ruta ruta, List<Pedido> pedidos) {
+        this.ruta = ruta;
+        this.pedidosPendientes = new ArrayList<>(pedidos);
+    }
+
+    String getId() {
+        return ruta.getId();
+    }
+
+    void partirDesde(Ubicacion ubicacion, LocalDateTime momento) {
+        this.partida = ubicacion;
+        this.horaPartida = momento;
+    }
+
+    /**
+     * El camión llegó al punto del evento: deja de estar pendiente y el siguiente tramo parte de ahí
+     */
+    void alcanzar(EventoSimulacion evento) {
+        eventosPendientes.remove(evento);
+        partirDesde(evento.getUbicacion(), evento.getMomento());
+    }
+
+    /**
+     * Movimiento que resta desde el último punto alcanzado, según los eventos pendientes.
+     * Cada tramo va en L (primero en x, luego en y), que es la distancia con la que la
+     * simulación calcula el tiempo de viaje; si el camión llega antes que el evento
+     * (p. ej. por el tiempo de entrega), espera detenido en el punto.
+     */
+    MovimientoCamion movimiento(Camion camion) {
+        MovimientoCamion movimiento = new MovimientoCamion(ruta.getCodigoCamion(), getId());
+        Ubicacion posicion = partida;
+        LocalDateTime momento = horaPartida;
+        movimiento.setHoraInicio(momento);
+        movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(posicion, momento, TipoPaso.INICIO,
+                "Salida de " + posicion));
+
+        for (EventoSimulacion evento : eventosPendientes) {
+            Ubicacion destino = evento.getUbicacion();
+            LocalDateTime llegada = momento.plus(camion.calcularTiempoViaje(posicion, destino));
+            if (llegada.isAfter(evento.getMomento())) {
+                llegada = evento.getMomento();
+            }
+
+            int dx = Math.abs(destino.getX() - posicion.getX());
+            int dy = Math.abs(destino.getY() - posicion.getY());
+            if (dx > 0 && dy > 0) {
+                long segundos = Duration.between(momento, llegada).getSeconds() * dx / (dx + dy);
+                Ubicacion esquina = new Ubicacion(destino.getX(), posicion.getY());
+                movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(esquina, momento.plusSeconds(segundos),
+                        TipoPaso.MOVIMIENTO, "Giro en " + esquina));
+            }
+            if (!destino.equals(posicion) && llegada.isBefore(evento.getMomento())) {
+                movimiento.agregarPaso(new MovimientoCamion.PasoMovimiento(destino, llegada,
+                        TipoPaso.MOVIMIENTO, "Llegada a " + destino));
+            }
+
+            movimiento.agregarPaso(paso(evento));
+            posicion = destino;
+            momento = evento.getMomento();
+        }
+
+        movimiento.setHoraFinEstimada(momento);
+        movimiento.setEstado(MovimientoCamion.EstadoMovimiento.EN_MOVIMIENTO);
+        return movimiento;
+    }
+
+    private static MovimientoCamion.PasoMovimiento paso(EventoSimulacion evento) {
+        return switch (evento.getTipo()) {
+            case ENTREGA -> new MovimientoCamion.PasoMovimiento(evento.getUbicacion(), evento.getMomento(),
+                    TipoPaso.ENTREGA, "Entrega del pedido " + evento.getPedido().getId(),
+                    evento.getPedido().getId(), 0.0);
+            case RECARGA -> new MovimientoCamion.PasoMovimiento(evento.getUbicacion(), evento.getMomento(),
+                    TipoPaso.RECARGA_GLP, "Recarga en " + evento.getUbicacion());
+            case LLEGADA_ALMACEN -> new MovimientoCamion.PasoMovimiento(evento.getUbicacion(), evento.getMomento(),
+                    TipoPaso.FIN, "Llegada al almacén");
+            default -> new MovimientoCamion.PasoMovimiento(evento.getUbicacion(), evento.getMomento(),
+                    TipoPaso.MOVIMIENTO, evento.getTipo().name());
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Simulación registrada en el servidor, con su propio reloj, flota, pedidos y
+ * cola de eventos. Se conserva después de terminar para consultar sus resultados.
+ */
+@Getter
+public class SesionSimulacion {
+    private final Simulador simulador;
+    private final Instant creada;
+    private volatile Instant finalizada;
+
+    public SesionSimulacion(Simulador simulador) {
+        this.simulador = simulador;
+        this.creada = Instant.now();
+    }
+
+    public String getId() {
+        return simulador.getId();
+    }
+
+    /**
+     * Ejecuta la simulación en el hilo actual y registra cuándo terminó
+     */
+    public void ejecutar() {
+        try {
+            simulador.ejecutar();
+        } finally {
+            finalizada = Instant.now();
+        }
+    }
+
+    public boolean estaFinalizada() {
+        return finalizada != null;
+    }
+}
@@ -0,0 +1,1450 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import pucp.edu.pe.glp_final.algorithm.ReparadorRutas;
+import pucp.edu.pe.glp_final.model.*;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
+import pucp.edu.pe.glp_final.model.enums.EstadoCamion;
+import pucp.edu.pe.glp_final.model.enums.TipoAlmacen;
+import pucp.edu.pe.glp_final.model.enums.TipoEventoSimulacion;
+import pucp.edu.pe.glp_final.model.enums.TipoIncidente;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Simulación de eventos discretos de la operación de distribución de GLP.
+ *
+ * El reloj salta directamente al siguiente evento programado (entregas,
+ * llegadas, averías, mantenimientos, recarga de almacenes, replanificación)
+ * en lugar de avanzar minuto a minuto. Trabaja sobre copias en memoria de la
+ * flota y de los pedidos, por lo que no modifica el estado global del sistema.
+ */
+@Slf4j
+public class Simulador {
+
+    private static final int MINUTOS_ENTREGA = 15;
+    private static final int MINUTOS_NOTIFICACION = 10;
+    private static final int MINUTOS_GENERACION_PEDIDOS = 15;
+    private static final int HORAS_MANTENIMIENTO = 24;
+    private static final int MINUTOS_ESPERA_REPLANIFICACION = 5; // Sin cambios nuevos durante este lapso se replanifica
+    private static final double CAPACIDAD_MAXIMA_PEDIDO = 25.0; // Tanque del camión TA
+
+    // Condiciones de colapso: muchos pedidos pendientes y pocos camiones disponibles
+    private static final int PEDIDOS_COLAPSO = 50;
+    private static final int CAMIONES_MINIMOS_COLAPSO = 3;
+
+    @Getter
+    private final String id;
+    @Getter
+    private final EscenarioSimulacion escenario;
+    @Getter
+    private final LocalDateTime fechaInicio;
+    @Getter
+    private final LocalDateTime fechaFin; // null si no tiene duración fija
+    private final boolean incluirAverias;
+    private final boolean incluirMantenimientos;
+
+    private final Map<String, Camion> flota = new LinkedHashMap<>();
+    private final LibroPedidos libro = new LibroPedidos();
+    private final Map<String, RutaEnCurso> rutasActivas = new HashMap<>(); // Por código de camión
+    private final Set<String> mantenimientosDiferidos = new HashSet<>();
+    private final Mapa mapa;
+    private final MotorEventos motor;
+    private final Planificador planificador;
+    private final ReparadorRutas reparador = new ReparadorRutas();
+    @Getter
+    private final long semilla;
+    private final GeneradorAleatorio aleatorio;
+    private ObservadorSimulacion observador = ObservadorSimulacion.NINGUNO;
+
+    // Control de ejecución
+    private final AtomicBoolean activa = new AtomicBoolean(false);
+    private final AtomicBoolean pausada = new AtomicBoolean(false);
+    private volatile double velocidad;
+    private volatile boolean maximaVelocidad;
+    private boolean modoLote;
+    private int minutosEntreInstantaneas; // 0: sin puntos de control periódicos
+    private int minutosHorizonteCongelado; // 0: las rutas en curso no se replanifican
+    private int minutosVentanaCarga; // 0: todas las entradas se cargan al inicializar
+    private AlimentadorVentanas alimentador;
+
+    // Replanificación por cambios: como mucho un evento de replanificación en la cola
+    private LocalDateTime primerCambioPendiente;
+    private LocalDateTime replanificacionObjetivo;
+    private EventoSimulacion replanificacionProgramada;
+
+    // Estadísticas
+    private int pedidosRecibidos;
+    private int pedidosEntregados;
+    private int pedidosATiempo;
+    private int pedidosGenerados;
+    private double consumoTotalCombustible;
+    private double distanciaTotalRecorrida;
+    private long eventosProcesados;
+    private LocalDateTime momentoColapso;
+
+    // Reproducción: entradas aleatorias tomadas de un registro en lugar de sortearlas
+    private Deque<Pedido> pedidosGeneradosRegistrados;
+    private Deque<AveriaRegistrada> averiasRegistradas;
+    private final List<Long> latenciasPlanificacion = new ArrayList<>(); // En nanosegundos
+    private final List<Long> latenciasReparacion = new ArrayList<>();
+
+    public Simulador(String id, EscenarioSimulacion escenario, LocalDateTime fechaInicio, Integer duracionDias,
+                     boolean incluirAverias, boolean incluirMantenimientos,
+                     Mapa mapa, Planificador planificador, long semilla) {
+        this(id, escenario, fechaInicio, duracionDias, incluirAverias, incluirMantenimientos, mapa, planificador,
+                semilla, new GeneradorAleatorio(semilla), new MotorEventos(fechaInicio));
+    }
+
+    private Simulador(String id, EscenarioSimulacion escenario, LocalDateTime fechaInicio, Integer duracionDias,
+                      boolean incluirAverias, boolean incluirMantenimientos, Mapa mapa, Planificador planificador,
+                      long semilla, GeneradorAleatorio aleatorio, MotorEventos motor) {
+        this.id = id;
+        this.escenario = escenario;
+        this.fechaInicio = fechaInicio;
+        this.fechaFin = duracionDias != null ? fechaInicio.plusDays(duracionDias) : null;
+        this.incluirAverias = incluirAverias;
+        this.incluirMantenimientos = incluirMantenimientos;
+        this.mapa = mapa;
+        this.planificador = planificador;
+        this.semilla = semilla;
+        this.aleatorio = aleatorio;
+        this.motor = motor;
+        this.velocidad = 1.0;
+    }
+
+    /**
+     * Simulación que continúa desde una instantánea, en lugar de inicializarse.
+     * El planificador debe traer su fuente aleatoria restaurada si se quiere la misma continuación.
+     * @param id   Identificador de la nueva simulación (la original puede seguir en curso)
+     * @param mapa Mapa con los bloqueos de la instantánea
+     */
+    public static Simulador restaurar(InstantaneaSimulacion instantanea, String id, Mapa mapa, Planificador planificador) {
+        MotorEventos motor = new MotorEventos(instantanea.getReloj(), instantanea.getSecuenciaEventos(),
+                instantanea.getEventos());
+        Simulador sim = new Simulador(id, instantanea.getEscenario(), instantanea.getFechaInicio(),
+                instantanea.getDuracionDias(), instantanea.isIncluirAverias(), instantanea.isIncluirMantenimientos(),
+                mapa, planificador, instantanea.getSemilla(),
+                GeneradorAleatorio.desdeEstado(instantanea.getEstadoAleatorio()), motor);
+
+        for (Camion camion : instantanea.getCamiones()) {
+            sim.flota.put(camion.getCodigo(), camion);
+        }
+        instantanea.getPedidosPendientes().forEach(sim.libro::agregar);
+        List<EventoSimulacion> programados = motor.eventosProgramados();
+        Collections.sort(programados);
+        for (RutaEnCurso enCurso : instantanea.getRutasActivas()) {
+            for (EventoSimulacion evento : programados) {
+                if (!enCurso.getId().equals(evento.getRutaId())) {
+                    continue;
+                }
+                if (evento.getTipo() == TipoEventoSimulacion.AVERIA) {
+                    enCurso.setAveriaProgramada(evento);
+                } else {
+                    enCurso.getEventosPendientes().add(evento);
+                }
+            }
+            // La instantánea no guarda el último punto alcanzado: el tramo en curso parte de la restauración
+            Camion camion = sim.flota.get(enCurso.getRuta().getCodigoCamion());
+            enCurso.partirDesde(camion.getUbicacionActual(), motor.getReloj());
+            sim.rutasActivas.put(enCurso.getRuta().getCodigoCamion(), enCurso);
+        }
+        for (EventoSimulacion evento : programados) {
+            if (evento.getTipo() == TipoEventoSimulacion.REPLANIFICACION) {
+                sim.replanificacionProgramada = evento;
+            }
+        }
+        sim.primerCambioPendiente = instantanea.getPrimerCambioPendiente();
+        sim.replanificacionObjetivo = instantanea.getReplanificacionObjetivo();
+        sim.mantenimientosDiferidos.addAll(instantanea.getMantenimientosDiferidos());
+        for (Almacen almacen : mapa.getAlmacenes()) {
+            Double nivel = instantanea.getNivelesAlmacenes().get(almacen.getId());
+            if (nivel != null) {
+                almacen.setNivelActual(nivel);
+            }
+        }
+
+        sim.pedidosRecibidos = instantanea.getPedidosRecibidos();
+        sim.pedidosEntregados = instantanea.getPedidosEntregados();
+        sim.pedidosATiempo = instantanea.getPedidosATiempo();
+        sim.pedidosGenerados = instantanea.getPedidosGenerados();
+        sim.consumoTotalCombustible = instantanea.getConsumoTotalCombustible();
+        sim.distanciaTotalRecorrida = instantanea.getDistanciaTotalRecorrida();
+        sim.eventosProcesados = instantanea.getEventosProcesados();
+        sim.momentoColapso = instantanea.getMomentoColapso();
+        sim.minutosEntreInstantaneas = instantanea.getMinutosEntreInstantaneas();
+        sim.minutosHorizonteCongelado = instantanea.getMinutosHorizonteCongelado();
+        sim.minutosVentanaCarga = instantanea.getMinutosVentanaCarga();
+
+        log.info("Simulación {} restaurada desde {} en {}: {} camiones, {} pedidos pendientes, {} eventos programados",
+                id, instantanea.getId(), motor.getReloj(), sim.flota.size(), sim.libro.contar(), motor.pendientes());
+        return sim;
+    }
+
+    /**
+     * Carga el estado inicial y programa los eventos recurrentes
+     * @param camiones Copia de la flota al inicio de la simulación
+     * @param pedidos  Pedidos pendientes o por recibir
+     */
+    public synchronized void inicializar(List<Camion> camiones, List<Pedido> pedidos) {
+        for (Camion camion : camiones) {
+            // Sin una ruta simulada, un camión en ruta vuelve a estar disponible
+            if (camion.getEstado() == EstadoCamion.EN_RUTA || camion.getEstado() == EstadoCamion.EN_CARGA
+                    || camion.getEstado() == EstadoCamion.EN_DESCARGA) {
+                camion.setEstado(EstadoCamion.DISPONIBLE);
+            }
+            flota.put(camion.getCodigo(), camion);
+
+            if (camion.isEnMantenimiento() && camion.getFechaUltimoMantenimiento() != null) {
+                programar(EventoSimulacion.deCamion(
+                        noAntesDelReloj(camion.getFechaUltimoMantenimiento().plusHours(HORAS_MANTENIMIENTO)),
+                        TipoEventoSimulacion.FIN_MANTENIMIENTO, camion.getCodigo()));
+            } else if (incluirMantenimientos && camion.getFechaProximoMantenimiento() != null) {
+                programar(EventoSimulacion.deCamion(noAntesDelReloj(camion.getFechaProximoMantenimiento()),
+                        TipoEventoSimulacion.INICIO_MANTENIMIENTO, camion.getCodigo()));
+            }
+        }
+
+        for (Pedido pedido : pedidos) {
+            if (pedido.getHoraRecepcion().isAfter(fechaInicio)) {
+                programar(EventoSimulacion.pedidoRecibido(pedido));
+            } else {
+                recibirPedido(pedido);
+            }
+        }
+        if (alimentador != null) {
+            incorporarVentana(alimentador.inicial(fechaInicio));
+            programar(EventoSimulacion.general(fechaInicio, TipoEventoSimulacion.CARGA_VENTANA));
+        }
+
+        // La primera planificación no espera a que se calmen los cambios
+        programarReplanificacion(fechaInicio);
+        programar(EventoSimulacion.general(fechaInicio.toLocalDate().plusDays(1).atStartOfDay(),
+                TipoEventoSimulacion.RECARGA_ALMACENES));
+        if (!modoLote) {
+            programar(EventoSimulacion.general(fechaInicio, TipoEventoSimulacion.NOTIFICACION_ESTADO));
+        }
+
+        if (minutosEntreInstantaneas > 0) {
+            programar(EventoSimulacion.general(fechaInicio.plusMinutes(minutosEntreInstantaneas),
+                    TipoEventoSimulacion.INSTANTANEA));
+        }
+
+        if (escenario == EscenarioSimulacion.COLAPSO) {
+            programar(EventoSimulacion.general(fechaInicio.plusMinutes(MINUTOS_GENERACION_PEDIDOS),
+                    TipoEventoSimulacion.GENERAR_PEDIDOS));
+        }
+        if (fechaFin != null) {
+            programar(EventoSimulacion.general(fechaFin, TipoEventoSimulacion.FIN_SIMULACION));
+        }
+
+        log.info("Simulación {} inicializada: {} camiones, {} pedidos pendientes, {} eventos programados",
+                id, flota.size(), libro.contar(), motor.pendientes());
+    }
+
+    // ========================================
+    // CONTROL DE EJECUCIÓN
+    // ========================================
+
+    /**
+     * Procesa eventos hasta que la cola se vacía, se alcanza el fin o se detiene.
+     * Con velocidad limitada espera 1000/velocidad ms por minuto simulado entre eventos.
+     */
+    public void ejecutar() {
+        activa.set(true);
+        try {
+            while (activa.get()) {
+                if (pausada.get()) {
+                    Thread.sleep(100);
+                    continue;
+                }
+
+                LocalDateTime proximo = motor.proximoMomento();
+                if (proximo == null) {
+                    break;
+                }
+                if (!maximaVelocidad) {
+                    esperarHasta(proximo);
+                    if (!activa.get()) {
+                        break;
+                    }
+                }
+                procesarSiguienteEvento();
+            }
+        } catch (InterruptedException e) {
+            log.warn("Simulación {} interrumpida", id);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Error durante simulación {}", id, e);
+            observador.errorSimulacion(this, e);
+        } finally {
+            activa.set(false);
+            log.info("Simulación {} finalizada en {} tras {} eventos", id, motor.getReloj(), eventosProcesados);
+            observador.simulacionFinalizada(this);
+        }
+    }
+
+    public void pausar() {
+        pausada.set(true);
+    }
+
+    public void reanudar() {
+        pausada.set(false);
+    }
+
+    public void detener() {
+        activa.set(false);
+        pausada.set(false);
+    }
+
+    public boolean estaActiva() {
+        return activa.get();
+    }
+
+    public boolean estaPausada() {
+        return pausada.get();
+    }
+
+    public void setVelocidad(double velocidad) {
+        if (velocidad <= 0) {
+            throw new IllegalArgumentException("La velocidad debe ser mayor a 0");
+        }
+        this.velocidad = velocidad;
+    }
+
+    public double getVelocidad() {
+        return velocidad;
+    }
+
+    /**
+     * Sin límite de velocidad no se espera entre eventos
+     */
+    public void setMaximaVelocidad(boolean maximaVelocidad) {
+        this.maximaVelocidad = maximaVelocidad;
+    }
+
+    /**
+     * En modo lote se procesa sin esperas ni notificaciones periódicas de estado.
+     * Debe configurarse antes de inicializar.
+     */
+    public void setModoLote(boolean modoLote) {
+        this.modoLote = modoLote;
+        if (modoLote) {
+            this.maximaVelocidad = true;
+        }
+    }
+
+    /**
+     * Reproduce los pedidos generados y las averías de una corrida registrada en lugar
+     * de sortearlos. Debe configurarse antes de inicializar.
+     */
+    public void reproducirEntradas(List<Pedido> pedidosGenerados, List<AveriaRegistrada> averias) {
+        this.pedidosGeneradosRegistrados = new ArrayDeque<>(pedidosGenerados);
+        this.averiasRegistradas = new ArrayDeque<>(averias);
+        for (AveriaRegistrada averia : averias) {
+            programar(EventoSimulacion.deCamion(averia.momento(), TipoEventoSimulacion.AVERIA, averia.codigoCamion()));
+        }
+    }
+
+    /**
+     * Cada cuántas horas simuladas se avisa al observador de un punto de control.
+     * Debe configurarse antes de inicializar; 0 desactiva los puntos de control.
+     */
+    public void setHorasEntreInstantaneas(int horas) {
+        if (horas < 0) {
+            throw new IllegalArgumentException("Las horas entre instantáneas no pueden ser negativas");
+        }
+        this.minutosEntreInstantaneas = horas * 60;
+    }
+
+    /**
+     * Horizonte rodante: en cada replanificación, las entregas de las rutas en curso que quedan
+     * a más de estos minutos vuelven a optimizarse junto con los pedidos nuevos; las anteriores
+     * quedan congeladas. Con 0 las rutas en curso no cambian. Debe configurarse antes de inicializar.
+     */
+    public void setMinutosHorizonteCongelado(int minutos) {
+        if (minutos < 0) {
+            throw new IllegalArgumentException("El horizonte congelado no puede ser negativo");
+        }
+        this.minutosHorizonteCongelado = minutos;
+    }
+
+    /**
+     * Carga los pedidos por recibir y los bloqueos de la fuente por ventanas de tiempo a medida
+     * que avanza el reloj, en lugar de recibirlos todos al inicializar: en memoria quedan solo
+     * los de las próximas una o dos ventanas y los bloqueos que aún no terminan. Debe
+     * configurarse antes de inicializar o, en una simulación restaurada, antes de ejecutarla.
+     */
+    public void cargarPorVentanas(FuenteEntradas fuente, int minutosVentana) {
+        this.alimentador = new AlimentadorVentanas(fuente, minutosVentana, id);
+        this.minutosVentanaCarga = minutosVentana;
+    }
+
+    /**
+     * Guarda el estado completo en el archivo; se puede llamar con la simulación en curso
+     */
+    public synchronized void guardarInstantanea(Path archivo) throws IOException {
+        capturarInstantanea().escribir(archivo);
+    }
+
+    public void setObservador(ObservadorSimulacion observador) {
+        this.observador = observador != null ? observador : ObservadorSimulacion.NINGUNO;
+    }
+
+    /**
+     * Consulta el estado de la simulación sin que avance mientras se lee
+     */
+    public synchronized <T> T consultar(Function<Simulador, T> consulta) {
+        return consulta.apply(this);
+    }
+
+    private void esperarHasta(LocalDateTime proximo) throws InterruptedException {
+        double minutosRestantes = ChronoUnit.SECONDS.between(motor.getReloj(), proximo) / 60.0;
+        while (minutosRestantes > 0 && activa.get() && !maximaVelocidad) {
+            if (pausada.get()) {
+                Thread.sleep(100);
+                continue;
+            }
+            long espera = (long) Math.min(200, minutosRestantes * 1000 / velocidad);
+            if (espera <= 0) {
+                break;
+            }
+            Thread.sleep(espera);
+            minutosRestantes -= espera * velocidad / 1000.0;
+        }
+    }
+
+    // ========================================
+    // PROCESAMIENTO DE EVENTOS
+    // ========================================
+
+    /**
+     * Avanza el reloj hasta el siguiente evento y lo atiende
+     * @return false si no quedaban eventos
+     */
+    public synchronized boolean procesarSiguienteEvento() {
+        EventoSimulacion evento = motor.siguiente();
+        if (evento == null) {
+            return false;
+        }
+        eventosProcesados++;
+
+        switch (evento.getTipo()) {
+            case PEDIDO_RECIBIDO -> recibirPedido(evento.getPedido());
+            case ENTREGA -> registrarEntrega(evento);
+            case RECARGA -> registrarRecarga(evento);
+            case LLEGADA_ALMACEN -> finalizarRuta(evento);
+            case AVERIA -> atenderAveria(evento);
+            case FIN_INMOVILIZACION -> finalizarInmovilizacion(evento);
+            case FIN_AVERIA -> finalizarAveria(evento);
+            case INICIO_MANTENIMIENTO -> iniciarMantenimiento(evento);
+            case FIN_MANTENIMIENTO -> finalizarMantenimiento(evento);
+            case RECARGA_ALMACENES -> recargarAlmacenes();
+            case REPLANIFICACION -> replanificar();
+            case GENERAR_PEDIDOS -> generarPedidosAdicionales();
+            case NOTIFICACION_ESTADO -> notificarEstado();
+            case INSTANTANEA -> puntoDeControl();
+            case CARGA_VENTANA -> cargarVentana();
+            case FIN_SIMULACION -> {
+                log.info("Simulación {} terminada: duración completada", id);
+                activa.set(false);
+            }
+        }
+
+        if (escenario == EscenarioSimulacion.COLAPSO && momentoColapso == null && hayColapso()) {
+            momentoColapso = motor.getReloj();
+            log.info("Simulación {} terminada: condiciones de colapso alcanzadas en {}", id, momentoColapso);
+            activa.set(false);
+        }
+        return true;
+    }
+
+    private void recibirPedido(Pedido pedido) {
+        pedidosRecibidos++;
+        marcarCambio();
+        if (pedido.getCantidadGLP() <= CAPACIDAD_MAXIMA_PEDIDO) {
+            libro.agregar(pedido);
+            return;
+        }
+
+        // Dividir en partes que quepan en el camión de mayor capacidad
+        double restante = pedido.getCantidadGLP();
+        int parte = 1;
+        while (restante > 0) {
+            double cantidad = Math.min(restante, CAPACIDAD_MAXIMA_PEDIDO);
+            libro.agregar(new Pedido(pedido.getId() + "-" + parte++, pedido.getIdCliente(), pedido.getUbicacion(),
+                    cantidad, pedido.getHoraRecepcion(), (int) pedido.getTiempoLimiteEntrega().toHours()));
+            restante -= cantidad;
+        }
+    }
+
+    /**
+     * Registra un cambio que puede alterar el plan: un pedido nuevo, un camión que vuelve a
+     * estar disponible, pedidos que quedaron sin camión o bloqueos recién cargados. Los
+     * cambios seguidos se agrupan en una sola replanificación, MINUTOS_ESPERA_REPLANIFICACION
+     * después del último, pero nunca más de minutosEntrePlanificaciones() después del primero.
+     */
+    private void marcarCambio() {
+        LocalDateTime reloj = motor.getReloj();
+        if (primerCambioPendiente == null) {
+            primerCambioPendiente = reloj;
+        }
+        LocalDateTime limite = primerCambioPendiente.plusMinutes(minutosEntrePlanificaciones());
+        LocalDateTime momento = reloj.plusMinutes(MINUTOS_ESPERA_REPLANIFICACION);
+        programarReplanificacion(momento.isAfter(limite) ? limite : momento);
+    }
+
+    /**
+     * Fija el momento de la próxima replanificación. Si el evento en la cola es anterior,
+     * se deja y se pospone al atenderlo; si es posterior, se reemplaza.
+     */
+    private void programarReplanificacion(LocalDateTime momento) {
+        if (replanificacionProgramada != null && momento.isBefore(replanificacionProgramada.getMomento())) {
+            motor.cancelar(replanificacionProgramada);
+            replanificacionProgramada = null;
+        }
+        if (replanificacionProgramada == null) {
+            replanificacionProgramada = EventoSimulacion.general(momento, TipoEventoSimulacion.REPLANIFICACION);
+            programar(replanificacionProgramada);
+        }
+        replanificacionObjetivo = momento;
+    }
+
+    private void replanificar() {
+        replanificacionProgramada = null;
+        if (replanificacionObjetivo != null && motor.getReloj().isBefore(replanificacionObjetivo)) {
+            // Siguieron llegando cambios: se espera a que se calmen
+            programarReplanificacion(replanificacionObjetivo);
+            return;
+        }
+        primerCambioPendiente = null;
+        replanificacionObjetivo = null;
+
+        List<Camion> disponibles = new ArrayList<>();
+        double capacidadMaxima = 0;
+        for (Camion camion : flota.values()) {
+            if (camion.getEstado() == EstadoCamion.DISPONIBLE) {
+                disponibles.add(camion);
+                capacidadMaxima = Math.max(capacidadMaxima, camion.getCapacidadTanqueGLP());
+            }
+        }
+
+        // Las rutas en curso entran al plan como camiones que quedan libres al final de su tramo congelado
+        Map<String, Continuacion> continuaciones = minutosHorizonteCongelado > 0 ? liberarColas() : Map.of();
+        for (Continuacion continuacion : continuaciones.values()) {
+            Camion camion = flota.get(continuacion.enCurso().getRuta().getCodigoCamion());
+            Camion copia = new Camion(camion.getCodigo(), camion.getTipo(), continuacion.posicion());
+            copia.setEstado(EstadoCamion.DISPONIBLE);
+            copia.setNivelGLPActual(continuacion.glp());
+            copia.setNivelCombustibleActual(camion.getNivelCombustibleActual());
+            disponibles.add(copia);
+            capacidadMaxima = Math.max(capacidadMaxima, camion.getCapacidadTanqueGLP());
+        }
+        if (disponibles.isEmpty()) {
+            return;
+        }
+
+        // Copias: el planificador marca los pedidos mientras evalúa soluciones
+        List<Pedido> porAsignar = new ArrayList<>();
+        for (Pedido pedido : libro.pendientesPorVencimiento()) {
+            if (pedido.getCamionAsignado() == null && pedido.getCantidadGLP() <= capacidadMaxima) {
+                porAsignar.add(pedido.copiar());
+            }
+        }
+        if (porAsignar.isEmpty()) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        List<Ruta> rutas = planificador.planificar(disponibles, porAsignar, mapa, motor.getReloj());
+        long latencia = System.nanoTime() - inicio;
+        latenciasPlanificacion.add(latencia);
+        log.debug("Planificación en {}: {} pedidos, {} rutas, {} ms", motor.getReloj(), porAsignar.size(),
+                rutas.size(), latencia / 1_000_000);
+
+        Set<String> planificados = new HashSet<>();
+        Map<String, Ruta> planPorCamion = new HashMap<>();
+        for (Ruta ruta : rutas) {
+            ruta.getPedidosAsignados().forEach(p -> planificados.add(p.getId()));
+            if (continuaciones.containsKey(ruta.getCodigoCamion())) {
+                planPorCamion.put(ruta.getCodigoCamion(), ruta);
+            } else {
+                despachar(ruta);
+            }
+        }
+        for (Continuacion continuacion : continuaciones.values()) {
+            continuarRuta(continuacion, planPorCamion.get(continuacion.enCurso().getRuta().getCodigoCamion()), planificados);
+        }
+        observador.planificacionCompletada(this, rutas);
+
+        // Pedidos que no se pudieron asignar con camiones libres (p. ej. por bloqueos vigentes):
+        // se reintenta tras el intervalo del escenario aunque no haya otros cambios
+        if (contarCamiones(EstadoCamion.DISPONIBLE) > 0 && quedanSinAsignar(capacidadMaxima)) {
+            programarReplanificacion(motor.getReloj().plusMinutes(minutosEntrePlanificaciones()));
+        }
+    }
+
+    private boolean quedanSinAsignar(double capacidadMaxima) {
+        for (Pedido pedido : libro.pendientesPorVencimiento()) {
+            if (pedido.getCamionAsignado() == null && pedido.getCantidadGLP() <= capacidadMaxima) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Asigna la ruta al camión y programa sus entregas, recargas y llegada final
+     */
+    private void despachar(Ruta ruta) {
+        Camion camion = flota.get(ruta.getCodigoCamion());
+        if (camion == null || camion.getEstado() != EstadoCamion.DISPONIBLE) {
+            return;
+        }
+
+        List<Pedido> pedidosRuta = pedidosSinAsignar(ruta.getPedidosAsignados());
+        if (pedidosRuta.isEmpty()) {
+            return;
+        }
+
+        Ubicacion destino = ruta.getDestino() != null ? ruta.getDestino() : mapa.obtenerAlmacenCentral().getUbicacion();
+        List<EventoSimulacion> eventos = new ArrayList<>();
+        List<Pedido> programados = encadenarParadas(camion, ruta.getId(), camion.getUbicacionActual(), motor.getReloj(),
+                ruta.getSecuenciaParadas(), pedidosRuta, Double.POSITIVE_INFINITY, destino, eventos);
+        if (programados.isEmpty()) {
+            return;
+        }
+        eventos.forEach(this::programar);
+        LocalDateTime momento = eventos.get(eventos.size() - 1).getMomento();
+
+        for (Pedido pedido : programados) {
+            libro.asignarCamion(pedido.getId(), camion.getCodigo());
+        }
+
+        // Sale del almacén con el GLP necesario, hasta la capacidad del tanque
+        double glpRuta = programados.stream().mapToDouble(Pedido::getCantidadGLP).sum();
+        camion.setNivelGLPActual(Math.min(camion.getCapacidadTanqueGLP(), glpRuta));
+        camion.setEstado(EstadoCamion.EN_RUTA);
+        ruta.setHoraInicio(motor.getReloj());
+        ruta.setHoraFinEstimada(momento);
+        RutaEnCurso enCurso = new RutaEnCurso(ruta, programados);
+        enCurso.partirDesde(camion.getUbicacionActual(), motor.getReloj());
+        enCurso.getEventosPendientes().addAll(eventos);
+        rutasActivas.put(camion.getCodigo(), enCurso);
+        programarAveria(camion, enCurso, momento);
+    }
+
+    /**
+     * Arma las entregas y recargas de las paradas en orden, y la llegada final al destino
+     * @param glp GLP a bordo al partir; se omiten las entregas para las que no alcanza
+     * @return Pedidos programados, en orden de entrega
+     */
+    private List<Pedido> encadenarParadas(Camion camion, String rutaId, Ubicacion posicion, LocalDateTime momento,
+                                          List<Ubicacion> paradas, List<Pedido> pedidos, double glp,
+                                          Ubicacion destino, List<EventoSimulacion> eventos) {
+        List<Pedido> programados = new ArrayList<>();
+        for (Ubicacion parada : paradas) {
+            momento = momento.plus(camion.calcularTiempoViaje(posicion, parada));
+            posicion = parada;
+
+            for (Pedido pedido : pedidos) {
+                if (pedido.getUbicacion().equals(parada) && !programados.contains(pedido)
+                        && pedido.getCantidadGLP() <= glp) {
+                    momento = momento.plusMinutes(MINUTOS_ENTREGA);
+                    eventos.add(EventoSimulacion.entrega(momento, camion.getCodigo(), rutaId, pedido, parada));
+                    programados.add(pedido);
+                    glp -= pedido.getCantidadGLP();
+                }
+            }
+            if (esAlmacen(parada)) {
+                eventos.add(EventoSimulacion.deRuta(momento, TipoEventoSimulacion.RECARGA,
+                        camion.getCodigo(), rutaId, parada));
+                glp = Math.max(glp, camion.getCapacidadTanqueGLP());
+            }
+        }
+
+        momento = momento.plus(camion.calcularTiempoViaje(posicion, destino));
+        eventos.add(EventoSimulacion.deRuta(momento, TipoEventoSimulacion.LLEGADA_ALMACEN,
+                camion.getCodigo(), rutaId, destino));
+        return programados;
+    }
+
+    /**
+     * Instancias del libro de los pedidos dados que siguen sin camión
+     */
+    private List<Pedido> pedidosSinAsignar(List<Pedido> pedidos) {
+        List<Pedido> sinAsignar = new ArrayList<>();
+        for (Pedido pedido : pedidos) {
+            libro.obtener(pedido.getId())
+                    .filter(p -> p.getCamionAsignado() == null)
+                    .ifPresent(sinAsignar::add);
+        }
+        return sinAsignar;
+    }
+
+    // ========================================
+    // HORIZONTE RODANTE
+    // ========================================
+
+    /**
+     * Ruta en curso cuya cola se liberó: el camión sigue con el tramo congelado y
+     * queda libre en la posición y el momento de su último punto, con el GLP indicado
+     */
+    private record Continuacion(RutaEnCurso enCurso, Ubicacion posicion, LocalDateTime momento, double glp,
+                                List<Pedido> liberados) {
+    }
+
+    /**
+     * Cancela las entregas de las rutas en curso que quedan más allá del horizonte y
+     * devuelve sus pedidos al libro sin camión
+     * @return Continuaciones por código de camión, solo de las rutas que liberaron entregas
+     */
+    private Map<String, Continuacion> liberarColas() {
+        LocalDateTime limite = motor.getReloj().plusMinutes(minutosHorizonteCongelado);
+        Map<String, Continuacion> continuaciones = new LinkedHashMap<>();
+        for (RutaEnCurso enCurso : rutasActivas.values()) {
+            Continuacion continuacion = liberarCola(enCurso, limite);
+            if (continuacion != null) {
+                continuaciones.put(enCurso.getRuta().getCodigoCamion(), continuacion);
+            }
+        }
+        return continuaciones;
+    }
+
+    private Continuacion liberarCola(RutaEnCurso enCurso, LocalDateTime limite) {
+        List<EventoSimulacion> cadena = enCurso.getEventosPendientes();
+        // El primer punto siempre queda congelado: el camión ya va hacia él
+        int corte = 1;
+        while (corte < cadena.size() && !cadena.get(corte).getMomento().isAfter(limite)) {
+            corte++;
+        }
+        List<EventoSimulacion> cola = cadena.subList(Math.min(corte, cadena.size()), cadena.size());
+        if (cola.stream().noneMatch(e -> e.getTipo() == TipoEventoSimulacion.ENTREGA)) {
+            return null;
+        }
+
+        Camion camion = flota.get(enCurso.getRuta().getCodigoCamion());
+        double glp = camion.getNivelGLPActual();
+        for (EventoSimulacion evento : cadena.subList(0, corte)) {
+            if (evento.getTipo() == TipoEventoSimulacion.ENTREGA) {
+                glp -= evento.getPedido().getCantidadGLP();
+            } else if (evento.getTipo() == TipoEventoSimulacion.RECARGA) {
+                glp = camion.getCapacidadTanqueGLP();
+            }
+        }
+
+        List<Pedido> liberados = new ArrayList<>();
+        for (EventoSimulacion evento : cola) {
+            motor.cancelar(evento);
+            if (evento.getTipo() == TipoEventoSimulacion.ENTREGA) {
+                liberados.add(evento.getPedido());
+            }
+        }
+        cola.clear();
+
+        Set<String> ids = new HashSet<>();
+        for (Pedido pedido : liberados) {
+            libro.asignarCamion(pedido.getId(), null);
+            enCurso.getPedidosPendientes().remove(pedido);
+            ids.add(pedido.getId());
+        }
+        enCurso.getRuta().getPedidosAsignados().removeIf(p -> ids.contains(p.getId()));
+
+        EventoSimulacion ultimo = cadena.get(corte - 1);
+        return new Continuacion(enCurso, ultimo.getUbicacion(), ultimo.getMomento(), Math.max(0, glp), liberados);
+    }
+
+    /**
+     * Extiende el tramo congelado con las paradas del nuevo plan. Los pedidos liberados que
+     * el plan no asignó a ningún camión siguen en este, en su orden original, para que el
+     * horizonte rodante nunca deje sin camión un pedido que ya lo tenía.
+     * @param plan        Ruta planificada para el camión, o null si el plan no le dio pedidos
+     * @param planificados Pedidos asignados por el plan a cualquier camión
+     */
+    private void continuarRuta(Continuacion continuacion, Ruta plan, Set<String> planificados) {
+        RutaEnCurso enCurso = continuacion.enCurso();
+        Ruta ruta = enCurso.getRuta();
+        Camion camion = flota.get(ruta.getCodigoCamion());
+
+        List<Ubicacion> paradas = new ArrayList<>();
+        List<Pedido> pedidos = new ArrayList<>();
+        if (plan != null) {
+            paradas.addAll(plan.getSecuenciaParadas());
+            pedidos.addAll(pedidosSinAsignar(plan.getPedidosAsignados()));
+        }
+        for (Pedido liberado : continuacion.liberados()) {
+            if (!planificados.contains(liberado.getId()) && liberado.getCamionAsignado() == null) {
+                paradas.add(liberado.getUbicacion());
+                pedidos.add(liberado);
+            }
+        }
+
+        Ubicacion destino = ruta.getDestino() != null ? ruta.getDestino() : mapa.obtenerAlmacenCentral().getUbicacion();
+        List<EventoSimulacion> eventos = new ArrayList<>();
+        List<Pedido> programados = encadenarParadas(camion, ruta.getId(), continuacion.posicion(),
+                continuacion.momento(), paradas, pedidos, continuacion.glp(), destino, eventos);
+        eventos.forEach(this::programar);
+        enCurso.getEventosPendientes().addAll(eventos);
+
+        for (Pedido pedido : programados) {
+            libro.asignarCamion(pedido.getId(), camion.getCodigo());
+            enCurso.getPedidosPendientes().add(pedido);
+            ruta.getPedidosAsignados().add(pedido);
+        }
+        ruta.setHoraFinEstimada(eventos.get(eventos.size() - 1).getMomento());
+        programarAveria(camion, enCurso, ruta.getHoraFinEstimada());
+        if (programados.size() < pedidos.size()) {
+            marcarCambio(); // Sin GLP a bordo para todo: el resto vuelve a planificarse
+        }
+    }
+
+    private void registrarEntrega(EventoSimulacion evento) {
+        RutaEnCurso enCurso = rutaVigente(evento);
+        if (enCurso == null) {
+            return;
+        }
+
+        Camion camion = flota.get(evento.getCodigoCamion());
+        moverCamion(camion, evento.getUbicacion());
+
+        enCurso.alcanzar(evento);
+        Pedido pedido = evento.getPedido();
+        camion.setNivelGLPActual(Math.max(0, camion.getNivelGLPActual() - pedido.getCantidadGLP()));
+        pedido.setHoraEntregaReal(motor.getReloj());
+        libro.retirar(pedido.getId());
+        enCurso.getPedidosPendientes().remove(pedido);
+
+        pedidosEntregados++;
+        if (!motor.getReloj().isAfter(pedido.getHoraLimiteEntrega())) {
+            pedidosATiempo++;
+        }
+        observador.pedidoEntregado(this, pedido);
+    }
+
+    private void registrarRecarga(EventoSimulacion evento) {
+        RutaEnCurso enCurso = rutaVigente(evento);
+        if (enCurso == null) {
+            return;
+        }
+        enCurso.alcanzar(evento);
+
+        Camion camion = flota.get(evento.getCodigoCamion());
+        moverCamion(camion, evento.getUbicacion());
+        camion.setNivelCombustibleActual(camion.getCapacidadTanqueCombustible());
+
+        Almacen almacen = mapa.obtenerAlmacenMasCercano(evento.getUbicacion());
+        double faltante = camion.getCapacidadTanqueGLP() - camion.getNivelGLPActual();
+        if (almacen.getTipo() == TipoAlmacen.PRINCIPAL || almacen.extraer(faltante)) {
+            camion.setNivelGLPActual(camion.getCapacidadTanqueGLP());
+        }
+    }
+
+    private void finalizarRuta(EventoSimulacion evento) {
+        RutaEnCurso enCurso = rutaVigente(evento);
+        if (enCurso == null) {
+            return;
+        }
+
+        Camion camion = flota.get(evento.getCodigoCamion());
+        moverCamion(camion, evento.getUbicacion());
+        camion.setNivelCombustibleActual(camion.getCapacidadTanqueCombustible());
+
+        rutasActivas.remove(camion.getCodigo());
+        liberarPedidos(enCurso);
+        enCurso.getRuta().setCompletada(true);
+        enCurso.getRuta().setHoraFinReal(motor.getReloj());
+
+        camion.setEstado(EstadoCamion.DISPONIBLE);
+        iniciarMantenimientoDiferido(camion);
+        if (camion.getEstado() == EstadoCamion.DISPONIBLE) {
+            marcarCambio();
+        }
+    }
+
+    // ========================================
+    // AVERÍAS Y MANTENIMIENTO
+    // ========================================
+
+    /**
+     * Sortea el tiempo hasta la próxima falla del camión entre el reloj y el fin de la ruta
+     * y, si ocurre antes, la programa como evento. Con probabilidad p de falla por minuto
+     * en ruta, el tiempo hasta la falla es exponencial con tasa -ln(1 - p) por minuto.
+     * Se vuelve a llamar cada vez que el fin de la ruta se mueve: la falla pendiente se
+     * cancela y se sortea de nuevo para lo que resta, lo que vale porque la exponencial
+     * no tiene memoria.
+     */
+    private void programarAveria(Camion camion, RutaEnCurso enCurso, LocalDateTime finRuta) {
+        if (!incluirAverias || averiasRegistradas != null) {
+            return;
+        }
+        if (enCurso.getAveriaProgramada() != null) {
+            motor.cancelar(enCurso.getAveriaProgramada());
+            enCurso.setAveriaProgramada(null);
+        }
+        double tasa = -Math.log1p(-probabilidadAveriaPorMinuto());
+        double minutos = -Math.log(1.0 - aleatorio.nextDouble()) / tasa;
+        long duracionRuta = ChronoUnit.SECONDS.between(motor.getReloj(), finRuta);
+        if (minutos * 60 < duracionRuta) {
+            EventoSimulacion averia = EventoSimulacion.deRuta(motor.getReloj().plusSeconds((long) (minutos * 60)),
+                    TipoEventoSimulacion.AVERIA, camion.getCodigo(), enCurso.getId(), null);
+            programar(averia);
+            enCurso.setAveriaProgramada(averia);
+        }
+    }
+
+    private void atenderAveria(EventoSimulacion evento) {
+        Camion camion = flota.get(evento.getCodigoCamion());
+        if (averiasRegistradas != null) {
+            // Con un planificador distinto al registrado, el camión puede no estar en ruta en ese momento
+            AveriaRegistrada registrada = averiasRegistradas.poll();
+            if (registrada != null && camion != null && camion.getEstado() == EstadoCamion.EN_RUTA) {
+                registrarAveria(camion, registrada.tipo());
+            } else {
+                log.debug("Avería registrada descartada en reproducción: {}", registrada);
+            }
+            return;
+        }
+
+        // La ruta pudo terminar, cancelarse o reemplazarse antes de la falla
+        if (rutaVigente(evento) != null) {
+            registrarAveria(camion, generarTipoAveriaAleatoria());
+        }
+    }
+
+    private void registrarAveria(Camion camion, TipoIncidente tipo) {
+        camion.registrarAveria(tipo, motor.getReloj());
+        camion.setMotivoEstado("Avería tipo " + tipo);
+
+        RutaEnCurso enCurso = rutasActivas.remove(camion.getCodigo());
+        List<Pedido> varados = new ArrayList<>();
+        if (enCurso != null) {
+            varados.addAll(enCurso.getPedidosPendientes());
+            liberarPedidos(enCurso);
+            enCurso.getEventosPendientes().forEach(motor::cancelar);
+            enCurso.getRuta().setCancelada(true);
+        }
+
+        programar(EventoSimulacion.deCamion(noAntesDelReloj(camion.getHoraFinInmovilizacion()),
+                TipoEventoSimulacion.FIN_INMOVILIZACION, camion.getCodigo()));
+        log.debug("Avería {} simulada en camión {} en {}", tipo, camion.getCodigo(), motor.getReloj());
+        observador.averiaRegistrada(this, camion, tipo);
+
+        repararRutas(varados);
+    }
+
+    /**
+     * Reubica de inmediato los pedidos de un camión averiado en las rutas en curso o en
+     * camiones libres, sin esperar a la siguiente planificación ni reordenar las demás
+     * rutas. Los pedidos que no se pueden reubicar quedan para la siguiente replanificación.
+     */
+    private void repararRutas(List<Pedido> varados) {
+        List<Pedido> porReubicar = new ArrayList<>();
+        for (Pedido varado : varados) {
+            libro.obtener(varado.getId())
+                    .filter(p -> p.getCamionAsignado() == null)
+                    .ifPresent(porReubicar::add);
+        }
+        if (porReubicar.isEmpty()) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        Map<ReparadorRutas.RutaCandidata, RutaEnCurso> rutaPorCandidata = new IdentityHashMap<>();
+        List<ReparadorRutas.RutaCandidata> candidatas = new ArrayList<>();
+        for (RutaEnCurso enCurso : rutasActivas.values()) {
+            Camion camion = flota.get(enCurso.getRuta().getCodigoCamion());
+            // El GLP libre se calcula por tramo entre recargas recorriendo la cadena de eventos
+            ReparadorRutas.RutaCandidata candidata =
+                    ReparadorRutas.RutaCandidata.enCurso(camion, camion.getNivelGLPActual());
+            for (EventoSimulacion evento : enCurso.getEventosPendientes()) {
+                switch (evento.getTipo()) {
+                    case ENTREGA -> candidata.agregarEntrega(evento.getUbicacion(), evento.getMomento(),
+                            evento.getPedido().getHoraLimiteEntrega(), evento.getPedido().getCantidadGLP());
+                    case RECARGA -> candidata.agregarRecarga(evento.getUbicacion(), evento.getMomento());
+                    default -> candidata.agregarParada(evento.getUbicacion(), evento.getMomento());
+                }
+            }
+            if (candidata.cantidadPuntos() >= 2) {
+                candidatas.add(candidata);
+                rutaPorCandidata.put(candidata, enCurso);
+            }
+        }
+        Ubicacion central = mapa.obtenerAlmacenCentral().getUbicacion();
+        for (Camion camion : flota.values()) {
+            if (camion.getEstado() == EstadoCamion.DISPONIBLE) {
+                candidatas.add(ReparadorRutas.RutaCandidata.libre(camion, motor.getReloj(), central));
+            }
+        }
+
+        List<ReparadorRutas.Insercion> inserciones = reparador.reparar(porReubicar, candidatas);
+        for (ReparadorRutas.Insercion insercion : inserciones) {
+            RutaEnCurso enCurso = rutaPorCandidata.get(insercion.ruta());
+            if (enCurso != null) {
+                insertarEnRuta(enCurso, insercion.pedido(), insercion.posicion());
+            }
+        }
+        for (ReparadorRutas.RutaCandidata candidata : candidatas) {
+            if (candidata.isNueva() && !candidata.getInsertados().isEmpty()) {
+                Ruta ruta = new Ruta(candidata.getCamion().getCodigo(), candidata.getCamion().getUbicacionActual());
+                ruta.setSecuenciaParadas(new ArrayList<>(candidata.getPuntos().subList(1, candidata.cantidadPuntos() - 1)));
+                ruta.setDestino(central);
+                ruta.getPedidosAsignados().addAll(candidata.getInsertados());
+                despachar(ruta);
+            }
+        }
+
+        if (inserciones.size() < porReubicar.size()) {
+            marcarCambio();
+        }
+
+        long latencia = System.nanoTime() - inicio;
+        latenciasReparacion.add(latencia);
+        log.debug("Reparación en {}: {} de {} pedidos reubicados en {} µs", motor.getReloj(), inserciones.size(),
+                porReubicar.size(), latencia / 1_000);
+    }
+
+    /**
+     * Inserta una entrega antes del evento k de la ruta en curso y reprograma los eventos siguientes
+     */
+    private void insertarEnRuta(RutaEnCurso enCurso, Pedido pedido, int k) {
+        Camion camion = flota.get(enCurso.getRuta().getCodigoCamion());
+        List<EventoSimulacion> cadena = enCurso.getEventosPendientes();
+        List<EventoSimulacion> siguientes = new ArrayList<>(cadena.subList(k, cadena.size()));
+        siguientes.forEach(motor::cancelar);
+        cadena.subList(k, cadena.size()).clear();
+
+        EventoSimulacion anterior = cadena.get(k - 1);
+        Ubicacion posicion = pedido.getUbicacion();
+        LocalDateTime momento = anterior.getMomento()
+                .plus(camion.calcularTiempoViaje(anterior.getUbicacion(), posicion))
+                .plusMinutes(MINUTOS_ENTREGA);
+        cadena.add(EventoSimulacion.entrega(momento, camion.getCodigo(), enCurso.getId(), pedido, posicion));
+        for (EventoSimulacion evento : siguientes) {
+            momento = momento.plus(camion.calcularTiempoViaje(posicion, evento.getUbicacion()));
+            if (evento.getTipo() == TipoEventoSimulacion.ENTREGA) {
+                momento = momento.plusMinutes(MINUTOS_ENTREGA);
+            }
+            posicion = evento.getUbicacion();
+            cadena.add(evento.reprogramado(momento));
+        }
+        cadena.subList(k, cadena.size()).forEach(this::programar);
+
+        libro.asignarCamion(pedido.getId(), camion.getCodigo());
+        enCurso.getPedidosPendientes().add(pedido);
+        enCurso.getRuta().getPedidosAsignados().add(pedido);
+        enCurso.getRuta().setHoraFinEstimada(momento);
+        programarAveria(camion, enCurso, momento);
+    }
+
+    private void finalizarInmovilizacion(EventoSimulacion evento) {
+        Camion camion = flota.get(evento.getCodigoCamion());
+        if (camion.getHoraDisponibilidad() == null || !motor.getReloj().isBefore(camion.getHoraDisponibilidad())) {
+            recuperarDeAveria(camion);
+            return;
+        }
+
+        // Remolcado al taller del almacén central hasta que vuelva a estar disponible
+        camion.setEstado(EstadoCamion.INDISPONIBLE);
+        camion.setUbicacionActual(mapa.obtenerAlmacenCentral().getUbicacion());
+        programar(EventoSimulacion.deCamion(camion.getHoraDisponibilidad(),
+                TipoEventoSimulacion.FIN_AVERIA, camion.getCodigo()));
+    }
+
+    private void finalizarAveria(EventoSimulacion evento) {
+        recuperarDeAveria(flota.get(evento.getCodigoCamion()));
+    }
+
+    private void recuperarDeAveria(Camion camion) {
+        camion.setAveriado(false);
+        camion.setTipoAveriaActual(null);
+        camion.setEstado(EstadoCamion.DISPONIBLE);
+        camion.setMotivoEstado("Disponible después de avería");
+        iniciarMantenimientoDiferido(camion);
+        if (camion.getEstado() == EstadoCamion.DISPONIBLE) {
+            marcarCambio();
+        }
+    }
+
+    private void iniciarMantenimiento(EventoSimulacion evento) {
+        Camion camion = flota.get(evento.getCodigoCamion());
+        if (camion.getEstado() != EstadoCamion.DISPONIBLE) {
+            // Se inicia cuando el camión termine su ruta o se recupere
+            mantenimientosDiferidos.add(camion.getCodigo());
+            return;
+        }
+        comenzarMantenimiento(camion);
+    }
+
+    private void iniciarMantenimientoDiferido(Camion camion) {
+        if (mantenimientosDiferidos.remove(camion.getCodigo())) {
+            comenzarMantenimiento(camion);
+        }
+    }
+
+    private void comenzarMantenimiento(Camion camion) {
+        camion.setEnMantenimiento(true);
+        camion.setEstado(EstadoCamion.EN_MANTENIMIENTO);
+        camion.setFechaUltimoMantenimiento(motor.getReloj());
+        camion.setMotivoEstado("Mantenimiento preventivo iniciado");
+        programarSiguiente(TipoEventoSimulacion.FIN_MANTENIMIENTO, camion.getCodigo(), HORAS_MANTENIMIENTO * 60);
+    }
+
+    private void finalizarMantenimiento(EventoSimulacion evento) {
+        Camion camion = flota.get(evento.getCodigoCamion());
+        camion.setEnMantenimiento(false);
+        camion.setEstado(EstadoCamion.DISPONIBLE);
+        camion.setFechaProximoMantenimiento(null);
+        camion.setMotivoEstado("Disponible después de mantenimiento");
+        camion.setNivelCombustibleActual(camion.getCapacidadTanqueCombustible());
+        marcarCambio();
+    }
+
+    // ========================================
+    // EVENTOS RECURRENTES
+    // ========================================
+
+    private void recargarAlmacenes() {
+        mapa.getAlmacenes().forEach(Almacen::recargar);
+        programarSiguiente(TipoEventoSimulacion.RECARGA_ALMACENES, 24 * 60);
+    }
+
+    private void generarPedidosAdicionales() {
+        if (pedidosGeneradosRegistrados != null) {
+            while (!pedidosGeneradosRegistrados.isEmpty()
+                    && !pedidosGeneradosRegistrados.peek().getHoraRecepcion().isAfter(motor.getReloj())) {
+                pedidosGenerados++;
+                recibirPedido(pedidosGeneradosRegistrados.poll());
+            }
+            programarSiguiente(TipoEventoSimulacion.GENERAR_PEDIDOS, MINUTOS_GENERACION_PEDIDOS);
+            return;
+        }
+
+        for (int i = 0; i < 3; i++) {
+            pedidosGenerados++;
+            Pedido pedido = new Pedido(
+                    "PS-" + pedidosGenerados,
+                    "c-simulacion-" + pedidosGenerados,
+                    new Ubicacion(aleatorio.nextInt(70), aleatorio.nextInt(50)),
+                    5.0 + aleatorio.nextDouble() * 20.0,   // 5-25 m³
+                    motor.getReloj(),
+                    4 + aleatorio.nextInt(8)               // 4-11 horas
+            );
+            observador.pedidoGenerado(this, pedido);
+            recibirPedido(pedido);
+        }
+        programarSiguiente(TipoEventoSimulacion.GENERAR_PEDIDOS, MINUTOS_GENERACION_PEDIDOS);
+    }
+
+    /**
+     * Incorpora la ventana que empieza una ventana después del reloj, de modo que siempre se
+     * conocen con anticipación los pedidos y bloqueos próximos
+     */
+    private void cargarVentana() {
+        if (alimentador == null) {
+            log.warn("Simulación {}: carga de ventana sin fuente de entradas, se omite", id);
+            return;
+        }
+        LocalDateTime desde = motor.getReloj().plusMinutes(minutosVentanaCarga);
+        if (fechaFin != null && !desde.isBefore(fechaFin)) {
+            return;
+        }
+        incorporarVentana(alimentador.siguiente(desde));
+        programarSiguiente(TipoEventoSimulacion.CARGA_VENTANA, minutosVentanaCarga);
+    }
+
+    private void incorporarVentana(AlimentadorVentanas.Ventana ventana) {
+        for (Pedido pedido : ventana.pedidos()) {
+            programar(EventoSimulacion.pedidoRecibido(pedido));
+        }
+        mapa.renovarBloqueos(ventana.bloqueos(), motor.getReloj());
+        if (!ventana.bloqueos().isEmpty()) {
+            // Las rutas ya planificadas no conocían estos bloqueos
+            marcarCambio();
+        }
+        observador.ventanaCargada(this, ventana.pedidos(), ventana.bloqueos());
+        log.debug("Simulación {}: ventana ({}, {}] con {} pedidos y {} bloqueos; {} bloqueos en el mapa", id,
+                ventana.desde(), ventana.hasta(), ventana.pedidos().size(), ventana.bloqueos().size(),
+                mapa.getBloqueos().size());
+    }
+
+    private void notificarEstado() {
+        observador.estadoActualizado(this);
+        programarSiguiente(TipoEventoSimulacion.NOTIFICACION_ESTADO, MINUTOS_NOTIFICACION);
+    }
+
+    private void puntoDeControl() {
+        if (minutosEntreInstantaneas <= 0) {
+            return;
+        }
+        // El siguiente punto de control queda en la cola, y por tanto en la instantánea
+        programarSiguiente(TipoEventoSimulacion.INSTANTANEA, minutosEntreInstantaneas);
+        observador.puntoDeControl(this);
+    }
+
+    /**
+     * Estado actual para guardarlo; debe escribirse antes de que la simulación avance
+     */
+    private InstantaneaSimulacion capturarInstantanea() {
+        if (pedidosGeneradosRegistrados != null) {
+            throw new IllegalStateException("Una reproducción de un registro de eventos no admite instantáneas");
+        }
+
+        InstantaneaSimulacion instantanea = new InstantaneaSimulacion();
+        instantanea.setId(id);
+        instantanea.setEscenario(escenario);
+        instantanea.setFechaInicio(fechaInicio);
+        instantanea.setDuracionDias(fechaFin != null ? (int) ChronoUnit.DAYS.between(fechaInicio, fechaFin) : null);
+        instantanea.setIncluirAverias(incluirAverias);
+        instantanea.setIncluirMantenimientos(incluirMantenimientos);
+        instantanea.setSemilla(semilla);
+        instantanea.setEstadoAleatorio(aleatorio.getEstado());
+        if (planificador.getAleatorio() instanceof GeneradorAleatorio generador) {
+            instantanea.setEstadoAleatorioPlanificador(generador.getEstado());
+        }
+        instantanea.setMinutosEntreInstantaneas(minutosEntreInstantaneas);
+        instantanea.setMinutosHorizonteCongelado(minutosHorizonteCongelado);
+        instantanea.setMinutosVentanaCarga(minutosVentanaCarga);
+
+        instantanea.setReloj(motor.getReloj());
+        instantanea.setSecuenciaEventos(motor.getSecuencia());
+        instantanea.setEventos(motor.eventosProgramados());
+        instantanea.setCamiones(new ArrayList<>(flota.values()));
+        instantanea.setPedidosPendientes(libro.pendientesPorRecepcion());
+        instantanea.setRutasActivas(new ArrayList<>(rutasActivas.values()));
+        instantanea.setMantenimientosDiferidos(new HashSet<>(mantenimientosDiferidos));
+        for (Almacen almacen : mapa.getAlmacenes()) {
+            instantanea.getNivelesAlmacenes().put(almacen.getId(), almacen.getNivelActual());
+        }
+        instantanea.setBloqueos(new ArrayList<>(mapa.getBloqueos()));
+
+        instantanea.setPedidosRecibidos(pedidosRecibidos);
+        instantanea.setPedidosEntregados(pedidosEntregados);
+        instantanea.setPedidosATiempo(pedidosATiempo);
+        instantanea.setPedidosGenerados(pedidosGenerados);
+        instantanea.setConsumoTotalCombustible(consumoTotalCombustible);
+        instantanea.setDistanciaTotalRecorrida(distanciaTotalRecorrida);
+        instantanea.setEventosProcesados(eventosProcesados);
+        instantanea.setMomentoColapso(momentoColapso);
+        instantanea.setPrimerCambioPendiente(primerCambioPendiente);
+        instantanea.setReplanificacionObjetivo(replanificacionObjetivo);
+        return instantanea;
+    }
+
+    // ========================================
+    // AUXILIARES
+    // ========================================
+
+    private void programar(EventoSimulacion evento) {
+        motor.programar(evento);
+    }
+
+    private void programarSiguiente(TipoEventoSimulacion tipo, int minutos) {
+        programar(EventoSimulacion.general(motor.getReloj().plusMinutes(minutos), tipo));
+    }
+
+    private void programarSiguiente(TipoEventoSimulacion tipo, String codigoCamion, int minutos) {
+        programar(EventoSimulacion.deCamion(motor.getReloj().plusMinutes(minutos), tipo, codigoCamion));
+    }
+
+    private LocalDateTime noAntesDelReloj(LocalDateTime momento) {
+        return momento.isBefore(motor.getReloj()) ? motor.getReloj() : momento;
+    }
+
+    /**
+     * Ruta a la que pertenece el evento, si sigue siendo la ruta activa del camión.
+     * Los eventos de rutas canceladas o reemplazadas se descartan.
+     */
+    private RutaEnCurso rutaVigente(EventoSimulacion evento) {
+        RutaEnCurso enCurso = rutasActivas.get(evento.getCodigoCamion());
+        return enCurso != null && enCurso.getId().equals(evento.getRutaId()) ? enCurso : null;
+    }
+
+    /**
+     * Devuelve al libro como no asignados los pedidos que la ruta no llegó a entregar
+     */
+    private void liberarPedidos(RutaEnCurso enCurso) {
+        for (Pedido pedido : enCurso.getPedidosPendientes()) {
+            libro.asignarCamion(pedido.getId(), null);
+        }
+        enCurso.getPedidosPendientes().clear();
+    }
+
+    private void moverCamion(Camion camion, Ubicacion destino) {
+        int distancia = camion.getUbicacionActual().distanciaA(destino);
+        if (distancia > 0) {
+            double consumo = camion.calcularConsumoCombustible(distancia);
+            camion.setNivelCombustibleActual(Math.max(0, camion.getNivelCombustibleActual() - consumo));
+            consumoTotalCombustible += consumo;
+            distanciaTotalRecorrida += distancia;
+        }
+        camion.setUbicacionActual(destino);
+    }
+
+    private boolean esAlmacen(Ubicacion ubicacion) {
+        for (Almacen almacen : mapa.getAlmacenes()) {
+            if (almacen.getUbicacion().equals(ubicacion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hayColapso() {
+        if (libro.contar() <= PEDIDOS_COLAPSO) {
+            return false;
+        }
+        return contarCamiones(EstadoCamion.DISPONIBLE) < CAMIONES_MINIMOS_COLAPSO;
+    }
+
+    /**
+     * Espera máxima entre un cambio y la replanificación que lo atiende
+     */
+    private int minutosEntrePlanificaciones() {
+        return switch (escenario) {
+            case DIA_A_DIA -> 60;
+            case SIMULACION_SEMANAL, SEMANAL -> 30;
+            case COLAPSO -> 20;
+        };
+    }
+
+    private double probabilidadAveriaPorMinuto() {
+        // 0.1% por camión en ruta y minuto, ponderado según el escenario
+        return switch (escenario) {
+            case DIA_A_DIA -> 0.001;
+            case SIMULACION_SEMANAL, SEMANAL -> 0.05 * 0.001;
+            case COLAPSO -> 0.1 * 0.001;
+        };
+    }
+
+    private TipoIncidente generarTipoAveriaAleatoria() {
+        double valor = aleatorio.nextDouble();
+        if (valor < 0.6) return TipoIncidente.TI1; // 60% - Avería menor
+        if (valor < 0.9) return TipoIncidente.TI2; // 30% - Avería moderada
+        return TipoIncidente.TI3;                   // 10% - Avería mayor
+    }
+
+    // ========================================
+    // CONSULTAS (usar dentro de consultar())
+    // ========================================
+
+    Mapa getMapa() {
+        return mapa;
+    }
+
+    boolean isIncluirAverias() {
+        return incluirAverias;
+    }
+
+    boolean isIncluirMantenimientos() {
+        return incluirMantenimientos;
+    }
+
+    int getMinutosHorizonteCongelado() {
+        return minutosHorizonteCongelado;
+    }
+
+    public int getMinutosVentanaCarga() {
+        return minutosVentanaCarga;
+    }
+
+    public LocalDateTime getMomentoActual() {
+        return motor.getReloj();
+    }
+
+    public List<Camion> getCamiones() {
+        return new ArrayList<>(flota.values());
+    }
+
+    public List<Ruta> getRutasActivas() {
+        return rutasActivas.values().stream().map(RutaEnCurso::getRuta).toList();
+    }
+
+    /**
+     * Movimiento que le resta a una ruta activa, desde su último punto alcanzado
+     */
+    public Optional<MovimientoCamion> movimientoDeRuta(String rutaId) {
+        for (RutaEnCurso enCurso : rutasActivas.values()) {
+            if (enCurso.getId().equals(rutaId)) {
+                return Optional.of(enCurso.movimiento(flota.get(enCurso.getRuta().getCodigoCamion())));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int contarCamiones(EstadoCamion estado) {
+        int cantidad = 0;
+        for (Camion camion : flota.values()) {
+            if (camion.getEstado() == estado) cantidad++;
+        }
+        return cantidad;
+    }
+
+    public int getPedidosPendientes() {
+        return libro.contar();
+    }
+
+    public int getPedidosRecibidos() {
+        return pedidosRecibidos;
+    }
+
+    public int getPedidosEntregados() {
+        return pedidosEntregados;
+    }
+
+    public int getPedidosATiempo() {
+        return pedidosATiempo;
+    }
+
+    public double getConsumoTotalCombustible() {
+        return consumoTotalCombustible;
+    }
+
+    public double getDistanciaTotalRecorrida() {
+        return distanciaTotalRecorrida;
+    }
+
+    public long getEventosProcesados() {
+        return eventosProcesados;
+    }
+
+    public LocalDateTime getMomentoColapso() {
+        return momentoColapso;
+    }
+
+    public int getPedidosGenerados() {
+        return pedidosGenerados;
+    }
+
+    /**
+     * Latencias de cada reparación de rutas tras una avería, en nanosegundos
+     */
+    public List<Long> getLatenciasReparacion() {
+        return new ArrayList<>(latenciasReparacion);
+    }
+
+    /**
+     * Latencias de cada llamada al planificador, en nanosegundos
+     */
+    public List<Long> getLatenciasPlanificacion() {
+        return new ArrayList<>(latenciasPlanificacion);
+    }
+
+    /**
+     * Progreso del horizonte simulado (0-100), 0 si no tiene duración fija
+     */
+    public double getProgreso() {
+        if (fechaFin == null) {
+            return 0.0;
+        }
+        long total = ChronoUnit.MINUTES.between(fechaInicio, fechaFin);
+        long transcurridos = ChronoUnit.MINUTES.between(fechaInicio, motor.getReloj());
+        return total > 0 ? Math.min(100.0, (double) transcurridos / total * 100) : 100.0;
+    }
+}
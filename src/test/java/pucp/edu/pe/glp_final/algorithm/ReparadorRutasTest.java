@@ -0,0 +1,121 @@
+package pucp.edu.pe.glp_final.algorithm;
+
+import org.junit.jupiter.api.Test;
+import pucp.edu.pe.glp_final.algorithm.ReparadorRutas.Insercion;
+import pucp.edu.pe.glp_final.algorithm.ReparadorRutas.RutaCandidata;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.model.enums.TipoCamion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReparadorRutasTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private static final Ubicacion CENTRAL = new Ubicacion(0, 0);
+
+    private final ReparadorRutas reparador = new ReparadorRutas();
+
+    @Test
+    void descartaPedidoQueNoLlegaASuHoraLimite() {
+        RutaCandidata libre = RutaCandidata.libre(camion("TD01"), INICIO, CENTRAL);
+        // 50 km son 60 min de viaje más 15 de descarga: no llega en 1 hora
+        Pedido lejano = new Pedido("C1", new Ubicacion(50, 0), 1.0, INICIO, 1);
+
+        assertTrue(reparador.reparar(List.of(lejano), List.of(libre)).isEmpty());
+    }
+
+    @Test
+    void noInsertaSiRetrasaUnaEntregaPosteriorFueraDePlazo() {
+        RutaCandidata enCurso = RutaCandidata.enCurso(camion("TD01"), 5.0);
+        enCurso.agregarParada(CENTRAL, INICIO);
+        enCurso.agregarEntrega(new Ubicacion(10, 0), INICIO.plusMinutes(27), INICIO.plusMinutes(30), 1.0);
+        enCurso.agregarParada(CENTRAL, INICIO.plusMinutes(39));
+        Pedido pedido = new Pedido("C1", new Ubicacion(0, 10), 1.0, INICIO, 10);
+
+        List<Insercion> inserciones = reparador.reparar(List.of(pedido), List.of(enCurso));
+
+        assertEquals(1, inserciones.size());
+        assertEquals(2, inserciones.get(0).posicion());
+    }
+
+    @Test
+    void glpLibreSeCalculaPorTramoEntreRecargas() {
+        RutaCandidata enCurso = RutaCandidata.enCurso(camion("TD01"), 5.0);
+        enCurso.agregarParada(CENTRAL, INICIO);
+        enCurso.agregarEntrega(new Ubicacion(5, 0), INICIO.plusMinutes(21), INICIO.plusHours(10), 5.0);
+        enCurso.agregarRecarga(new Ubicacion(10, 0), INICIO.plusMinutes(27));
+        enCurso.agregarParada(new Ubicacion(20, 0), INICIO.plusMinutes(39));
+
+        assertEquals(0.0, enCurso.glpLibreAntesDe(1));
+        assertEquals(0.0, enCurso.glpLibreAntesDe(2));
+        assertEquals(5.0, enCurso.glpLibreAntesDe(3));
+    }
+
+    @Test
+    void insertaDespuesDeLaRecargaCuandoAntesNoHayGLP() {
+        RutaCandidata enCurso = RutaCandidata.enCurso(camion("TD01"), 5.0);
+        enCurso.agregarParada(CENTRAL, INICIO);
+        enCurso.agregarEntrega(new Ubicacion(5, 0), INICIO.plusMinutes(21), INICIO.plusHours(10), 5.0);
+        enCurso.agregarRecarga(new Ubicacion(10, 0), INICIO.plusMinutes(27));
+        enCurso.agregarParada(new Ubicacion(20, 0), INICIO.plusMinutes(39));
+        Pedido pedido = new Pedido("C1", new Ubicacion(3, 0), 2.0, INICIO, 10);
+
+        List<Insercion> inserciones = reparador.reparar(List.of(pedido), List.of(enCurso));
+
+        assertEquals(1, inserciones.size());
+        assertEquals(3, inserciones.get(0).posicion());
+        assertEquals(3.0, enCurso.glpLibreAntesDe(4));
+    }
+
+    @Test
+    void rechazaPedidoSiNingunTramoTieneGLP() {
+        RutaCandidata enCurso = RutaCandidata.enCurso(camion("TD01"), 5.0);
+        enCurso.agregarParada(CENTRAL, INICIO);
+        enCurso.agregarEntrega(new Ubicacion(5, 0), INICIO.plusMinutes(21), INICIO.plusHours(10), 5.0);
+        enCurso.agregarParada(new Ubicacion(10, 0), INICIO.plusMinutes(27));
+        Pedido pedido = new Pedido("C1", new Ubicacion(6, 0), 2.0, INICIO, 10);
+
+        assertTrue(reparador.reparar(List.of(pedido), List.of(enCurso)).isEmpty());
+    }
+
+    @Test
+    void aIgualCostoPrefiereLaRutaEnCurso() {
+        RutaCandidata libre = RutaCandidata.libre(camion("TD02"), INICIO, CENTRAL);
+        RutaCandidata enCurso = RutaCandidata.enCurso(camion("TD01"), 5.0);
+        enCurso.agregarParada(CENTRAL, INICIO);
+        enCurso.agregarParada(CENTRAL, INICIO);
+        Pedido pedido = new Pedido("C1", new Ubicacion(5, 0), 1.0, INICIO, 10);
+
+        List<Insercion> inserciones = reparador.reparar(List.of(pedido), List.of(libre, enCurso));
+
+        assertEquals(1, inserciones.size());
+        assertSame(enCurso, inserciones.get(0).ruta());
+    }
+
+    @Test
+    void eligeLaInsercionMasBarata() {
+        RutaCandidata libre = RutaCandidata.libre(camion("TD02"), INICIO, CENTRAL);
+        RutaCandidata enCurso = RutaCandidata.enCurso(camion("TD01"), 5.0);
+        enCurso.agregarParada(CENTRAL, INICIO);
+        enCurso.agregarParada(new Ubicacion(10, 0), INICIO.plusMinutes(12));
+        Pedido pedido = new Pedido("C1", new Ubicacion(5, 0), 1.0, INICIO, 10);
+
+        List<Insercion> inserciones = reparador.reparar(List.of(pedido), List.of(libre, enCurso));
+
+        assertEquals(1, inserciones.size());
+        assertSame(enCurso, inserciones.get(0).ruta());
+        assertEquals(1, inserciones.get(0).posicion());
+        assertTrue(libre.getInsertados().isEmpty());
+    }
+
+    private static Camion camion(String codigo) {
+        return new Camion(codigo, TipoCamion.TD, CENTRAL);
+    }
+}
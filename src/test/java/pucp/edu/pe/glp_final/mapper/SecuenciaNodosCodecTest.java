@@ -0,0 +1,88 @@
+package pucp.edu.pe.glp_final.mapper;
+
+import org.junit.jupiter.api.Test;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecuenciaNodosCodecTest {
+
+    @Test
+    void secuenciaAdyacenteUsaDosBitsPorPaso() {
+        // 9 pasos: dos bytes completos y uno parcial
+        List<Ubicacion> nodos = List.of(
+                new Ubicacion(3, 3), new Ubicacion(4, 3), new Ubicacion(5, 3), new Ubicacion(5, 4),
+                new Ubicacion(5, 5), new Ubicacion(4, 5), new Ubicacion(4, 4), new Ubicacion(4, 3),
+                new Ubicacion(3, 3), new Ubicacion(2, 3));
+
+        byte[] datos = SecuenciaNodosCodec.codificar(nodos);
+
+        assertEquals(SecuenciaNodosCodec.FORMATO_DIRECCIONES, datos[0]);
+        assertEquals(1 + 1 + 2 + 3, datos.length);
+        assertSecuencia(nodos, datos);
+    }
+
+    @Test
+    void secuenciaConSaltosUsaDeltasVarint() {
+        List<Ubicacion> nodos = List.of(
+                new Ubicacion(0, 0), new Ubicacion(12, 8), new Ubicacion(12, 9),
+                new Ubicacion(-70, 300), new Ubicacion(69, 49));
+
+        byte[] datos = SecuenciaNodosCodec.codificar(nodos);
+
+        assertEquals(SecuenciaNodosCodec.FORMATO_DELTAS, datos[0]);
+        assertSecuencia(nodos, datos);
+    }
+
+    @Test
+    void unSoloNodoYSecuenciaVacia() {
+        List<Ubicacion> uno = List.of(new Ubicacion(69, 49));
+        assertSecuencia(uno, SecuenciaNodosCodec.codificar(uno));
+
+        assertEquals(0, SecuenciaNodosCodec.codificar(List.of()).length);
+        assertEquals(0, SecuenciaNodosCodec.codificar(null).length);
+        assertTrue(SecuenciaNodosCodec.decodificar(null).isEmpty());
+        assertEquals(0, SecuenciaNodosCodec.contarNodos(new byte[0]));
+    }
+
+    @Test
+    void accesoFueraDeRangoFalla() {
+        List<Ubicacion> decodificada = SecuenciaNodosCodec.decodificar(
+                SecuenciaNodosCodec.codificar(List.of(new Ubicacion(1, 1), new Ubicacion(1, 2))));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> decodificada.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> decodificada.get(-1));
+    }
+
+    private static void assertSecuencia(List<Ubicacion> esperada, byte[] datos) {
+        assertEquals(esperada.size(), SecuenciaNodosCodec.contarNodos(datos));
+
+        // Iteración paso a paso
+        List<Ubicacion> iterada = new ArrayList<>();
+        for (Ubicacion nodo : SecuenciaNodosCodec.decodificar(datos)) {
+            iterada.add(nodo);
+        }
+        assertCoordenadas(esperada, iterada);
+
+        // Acceso aleatorio (decodifica a arreglos)
+        List<Ubicacion> decodificada = SecuenciaNodosCodec.decodificar(datos);
+        List<Ubicacion> porIndice = new ArrayList<>();
+        for (int i = decodificada.size() - 1; i >= 0; i--) {
+            porIndice.add(0, decodificada.get(i));
+        }
+        assertCoordenadas(esperada, porIndice);
+    }
+
+    private static void assertCoordenadas(List<Ubicacion> esperada, List<Ubicacion> obtenida) {
+        assertEquals(esperada.size(), obtenida.size());
+        for (int i = 0; i < esperada.size(); i++) {
+            assertEquals(esperada.get(i).getX(), obtenida.get(i).getX(), "x del nodo " + i);
+            assertEquals(esperada.get(i).getY(), obtenida.get(i).getY(), "y del nodo " + i);
+        }
+    }
+}
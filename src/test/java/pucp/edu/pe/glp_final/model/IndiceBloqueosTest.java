@@ -0,0 +1,125 @@
+package pucp.edu.pe.glp_final.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceBloqueosTest {
+
+    private static final LocalDateTime DIA = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void sinBloqueosNadaEstaBloqueado() {
+        IndiceBloqueos indice = IndiceBloqueos.compilar(List.of(), 70, 50);
+
+        assertEquals(0, indice.cantidadIntervalos());
+        assertFalse(indice.estaBloqueado(new Ubicacion(0, 0), DIA));
+    }
+
+    @Test
+    void rigeEstrictamenteEntreInicioYFin() {
+        Ubicacion celda = new Ubicacion(5, 5);
+        IndiceBloqueos indice = IndiceBloqueos.compilar(
+                List.of(bloqueo(10, 12, celda)), 70, 50);
+
+        assertFalse(indice.estaBloqueado(celda, DIA.plusHours(10)));
+        assertTrue(indice.estaBloqueado(celda, DIA.plusHours(10).plusSeconds(1)));
+        assertTrue(indice.estaBloqueado(celda, DIA.plusHours(12).minusSeconds(1)));
+        assertFalse(indice.estaBloqueado(celda, DIA.plusHours(12)));
+        assertFalse(indice.estaBloqueado(new Ubicacion(5, 6), DIA.plusHours(11)));
+    }
+
+    @Test
+    void ventanasSolapadasUnenSusCeldas() {
+        Ubicacion a = new Ubicacion(1, 1);
+        Ubicacion ab = new Ubicacion(1, 2);
+        Ubicacion b = new Ubicacion(1, 3);
+        IndiceBloqueos indice = IndiceBloqueos.compilar(
+                List.of(bloqueo(8, 12, a, ab), bloqueo(10, 14, ab, b)), 70, 50);
+
+        assertEquals(3, indice.cantidadIntervalos());
+
+        LocalDateTime soloPrimero = DIA.plusHours(9);
+        assertTrue(indice.estaBloqueado(a, soloPrimero));
+        assertTrue(indice.estaBloqueado(ab, soloPrimero));
+        assertFalse(indice.estaBloqueado(b, soloPrimero));
+
+        LocalDateTime ambos = DIA.plusHours(11);
+        assertTrue(indice.estaBloqueado(a, ambos));
+        assertTrue(indice.estaBloqueado(ab, ambos));
+        assertTrue(indice.estaBloqueado(b, ambos));
+
+        LocalDateTime soloSegundo = DIA.plusHours(13);
+        assertFalse(indice.estaBloqueado(a, soloSegundo));
+        assertTrue(indice.estaBloqueado(ab, soloSegundo));
+        assertTrue(indice.estaBloqueado(b, soloSegundo));
+    }
+
+    @Test
+    void bloqueosContiguosDejanLibreElMinutoDelCambio() {
+        Ubicacion celda = new Ubicacion(7, 7);
+        IndiceBloqueos indice = IndiceBloqueos.compilar(
+                List.of(bloqueo(8, 12, celda), bloqueo(12, 16, celda)), 70, 50);
+
+        assertTrue(indice.estaBloqueado(celda, DIA.plusHours(12).minusSeconds(1)));
+        assertFalse(indice.estaBloqueado(celda, DIA.plusHours(12)));
+        assertTrue(indice.estaBloqueado(celda, DIA.plusHours(12).plusSeconds(1)));
+    }
+
+    @Test
+    void celdasEnElBordeDelMapa() {
+        Ubicacion origen = new Ubicacion(0, 0);
+        Ubicacion esquina = new Ubicacion(70, 50);
+        Ubicacion fuera = new Ubicacion(71, 50);
+        IndiceBloqueos indice = IndiceBloqueos.compilar(
+                List.of(bloqueo(0, 1, origen, esquina, fuera)), 70, 50);
+
+        LocalDateTime momento = DIA.plusMinutes(30);
+        assertTrue(indice.estaBloqueado(origen, momento));
+        assertTrue(indice.estaBloqueado(esquina, momento));
+        assertFalse(indice.estaBloqueado(fuera, momento));
+        assertFalse(indice.estaBloqueado(new Ubicacion(-1, 0), momento));
+    }
+
+    @Test
+    void tramoBloqueadoEnLosMinutosExactosDeInicioYFin() {
+        Bloqueo bloqueo = bloqueo(10, 12, new Ubicacion(2, 2), new Ubicacion(3, 2));
+        Ubicacion origen = new Ubicacion(1, 2);
+        Ubicacion destino = new Ubicacion(2, 2);
+
+        assertFalse(bloqueo.tramoBloqueado(origen, destino, DIA.plusHours(10)));
+        assertTrue(bloqueo.tramoBloqueado(origen, destino, DIA.plusHours(10).plusMinutes(1)));
+        assertTrue(bloqueo.tramoBloqueado(origen, destino, DIA.plusHours(12).minusMinutes(1)));
+        assertFalse(bloqueo.tramoBloqueado(origen, destino, DIA.plusHours(12)));
+        // Solo tramos entre nodos adyacentes
+        assertFalse(bloqueo.tramoBloqueado(new Ubicacion(0, 2), destino, DIA.plusHours(11)));
+    }
+
+    @Test
+    void mapaConIndiceCoincideConLosBloqueos() {
+        List<Bloqueo> bloqueos = List.of(
+                bloqueo(8, 12, new Ubicacion(1, 1), new Ubicacion(1, 2)),
+                bloqueo(10, 14, new Ubicacion(1, 2), new Ubicacion(1, 3)),
+                bloqueo(12, 16, new Ubicacion(1, 1)));
+        Mapa mapa = new Mapa();
+        mapa.usarBloqueos(bloqueos, null);
+
+        for (int minuto = 7 * 60; minuto <= 17 * 60; minuto += 30) {
+            LocalDateTime momento = DIA.plusMinutes(minuto);
+            for (int y = 0; y <= 4; y++) {
+                Ubicacion celda = new Ubicacion(1, y);
+                boolean esperado = bloqueos.stream().anyMatch(b -> b.estaBloqueado(celda, momento));
+                assertEquals(esperado, mapa.estaBloqueado(celda, momento), celda + " a las " + momento);
+            }
+        }
+    }
+
+    private static Bloqueo bloqueo(int horaInicio, int horaFin, Ubicacion... nodos) {
+        return new Bloqueo(DIA.plusHours(horaInicio), DIA.plusHours(horaFin), List.of(nodos));
+    }
+}
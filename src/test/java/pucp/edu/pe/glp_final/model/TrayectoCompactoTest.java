@@ -0,0 +1,126 @@
+package pucp.edu.pe.glp_final.model;
+
+import org.junit.jupiter.api.Test;
+import pucp.edu.pe.glp_final.model.MovimientoCamion.PasoMovimiento;
+import pucp.edu.pe.glp_final.model.MovimientoCamion.PasoMovimiento.TipoPaso;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrayectoCompactoTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    @Test
+    void expandeUnPasoPorCeldaYLasParadas() {
+        TrayectoCompacto trayecto = ejemplo();
+
+        // Dos celdas a la derecha, una arriba, la entrega, otra arriba y el fin
+        assertEquals(5, trayecto.cantidadSegmentos());
+        assertEquals(INICIO.plusSeconds(1140), trayecto.getHoraFin());
+
+        List<PasoMovimiento> pasos = trayecto.expandir("TA01", "R1").getPasos();
+        assertPaso(pasos.get(0), 0, 0, 0, TipoPaso.INICIO);
+        assertPaso(pasos.get(1), 1, 0, 60, TipoPaso.MOVIMIENTO);
+        assertPaso(pasos.get(2), 2, 0, 120, TipoPaso.MOVIMIENTO);
+        assertPaso(pasos.get(3), 2, 1, 180, TipoPaso.MOVIMIENTO);
+        assertPaso(pasos.get(4), 2, 1, 1080, TipoPaso.ENTREGA);
+        assertEquals("P1", pasos.get(4).getPedidoId());
+        assertEquals(15.0, pasos.get(4).getTiempoParada());
+        assertPaso(pasos.get(5), 2, 2, 1140, TipoPaso.MOVIMIENTO);
+        assertPaso(pasos.get(6), 2, 2, 1140, TipoPaso.FIN);
+        assertEquals(7, pasos.size());
+    }
+
+    @Test
+    void compactarLaExpansionDevuelveElMismoTrayecto() {
+        TrayectoCompacto original = ejemplo();
+        MovimientoCamion expandido = original.expandir("TA01", "R1");
+
+        Optional<TrayectoCompacto> compactado = expandido.compactar();
+
+        assertTrue(compactado.isPresent());
+        assertEquals(original.cantidadSegmentos(), compactado.get().cantidadSegmentos());
+        assertEquals(original.getHoraFin(), compactado.get().getHoraFin());
+        List<PasoMovimiento> esperados = expandido.getPasos();
+        List<PasoMovimiento> obtenidos = compactado.get().expandir("TA01", "R1").getPasos();
+        assertEquals(esperados.size(), obtenidos.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            PasoMovimiento esperado = esperados.get(i);
+            assertPaso(obtenidos.get(i), esperado.getUbicacion().getX(), esperado.getUbicacion().getY(),
+                    Duration.between(INICIO, esperado.getTiempoLlegada()).getSeconds(), esperado.getTipo());
+            assertEquals(esperado.getPedidoId(), obtenidos.get(i).getPedidoId());
+        }
+    }
+
+    @Test
+    void consultasPorMomentoCoincidenConLosPasos() {
+        TrayectoCompacto trayecto = ejemplo();
+
+        MovimientoCamion.PosicionCamion antes = trayecto.obtenerPosicionEnMomento(INICIO.minusSeconds(1));
+        assertEquals(new Ubicacion(0, 0), antes.getUbicacion());
+        assertEquals(MovimientoCamion.EstadoMovimiento.PENDIENTE, antes.getEstado());
+
+        MovimientoCamion.PosicionCamion enTramo = trayecto.obtenerPosicionEnMomento(INICIO.plusSeconds(90));
+        assertEquals(new Ubicacion(1, 0), enTramo.getUbicacion());
+        assertEquals(50.0, enTramo.getProgresoTramo());
+
+        assertEquals(new Ubicacion(2, 1), trayecto.obtenerPosicionEnMomento(INICIO.plusSeconds(600)).getUbicacion());
+        assertEquals(TipoPaso.ENTREGA, trayecto.obtenerTipoEnMomento(INICIO.plusSeconds(600)));
+
+        MovimientoCamion.PosicionCamion despues = trayecto.obtenerPosicionEnMomento(INICIO.plusSeconds(1200));
+        assertEquals(new Ubicacion(2, 2), despues.getUbicacion());
+        assertEquals(MovimientoCamion.EstadoMovimiento.COMPLETADO, despues.getEstado());
+
+        assertNull(trayecto.obtenerTipoEnMomento(INICIO.minusSeconds(1)));
+        assertEquals(50.0, trayecto.calcularProgreso(INICIO.plusSeconds(570)));
+        assertEquals(100.0, trayecto.calcularProgreso(INICIO.plusSeconds(1140)));
+    }
+
+    @Test
+    void noCompactaSaltosNiVelocidadesDistintas() {
+        MovimientoCamion salto = new MovimientoCamion("TA01", "R1");
+        salto.agregarPaso(new PasoMovimiento(new Ubicacion(0, 0), INICIO, TipoPaso.INICIO));
+        salto.agregarPaso(new PasoMovimiento(new Ubicacion(2, 0), INICIO.plusSeconds(120), TipoPaso.MOVIMIENTO));
+        assertTrue(salto.compactar().isEmpty());
+
+        MovimientoCamion velocidades = new MovimientoCamion("TA01", "R1");
+        velocidades.agregarPaso(new PasoMovimiento(new Ubicacion(0, 0), INICIO, TipoPaso.INICIO));
+        velocidades.agregarPaso(new PasoMovimiento(new Ubicacion(1, 0), INICIO.plusSeconds(60), TipoPaso.MOVIMIENTO));
+        velocidades.agregarPaso(new PasoMovimiento(new Ubicacion(2, 0), INICIO.plusSeconds(150), TipoPaso.MOVIMIENTO));
+        assertTrue(velocidades.compactar().isEmpty());
+    }
+
+    @Test
+    void constructorRechazaCeldasNoContiguas() {
+        TrayectoCompacto.Constructor constructor = TrayectoCompacto.desde(new Ubicacion(0, 0), INICIO, 60);
+
+        assertThrows(IllegalArgumentException.class, () -> constructor.mover(new Ubicacion(1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> constructor.detener(TipoPaso.ENTREGA, -1, null));
+        assertThrows(IllegalArgumentException.class, () -> TrayectoCompacto.desde(new Ubicacion(0, 0), INICIO, 0));
+    }
+
+    private static TrayectoCompacto ejemplo() {
+        return TrayectoCompacto.desde(new Ubicacion(0, 0), INICIO, 60)
+                .mover(new Ubicacion(1, 0))
+                .mover(new Ubicacion(2, 0))
+                .mover(new Ubicacion(2, 1))
+                .detener(TipoPaso.ENTREGA, 900, "P1")
+                .mover(new Ubicacion(2, 2))
+                .detener(TipoPaso.FIN, 0, null)
+                .construir();
+    }
+
+    private static void assertPaso(PasoMovimiento paso, int x, int y, long segundos, TipoPaso tipo) {
+        assertEquals(new Ubicacion(x, y), paso.getUbicacion());
+        assertEquals(INICIO.plusSeconds(segundos), paso.getTiempoLlegada());
+        assertEquals(tipo, paso.getTipo());
+    }
+}
@@ -0,0 +1,106 @@
+package pucp.edu.pe.glp_final.service;
+
+import org.junit.jupiter.api.Test;
+import pucp.edu.pe.glp_final.mapper.SecuenciaNodosCodec;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CargaBloqueosServiceTest {
+
+    private static final Timestamp CREACION = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+    @Test
+    void expandeLaPoligonalCeldaPorCelda() {
+        Object[] fila = parsear("01d00h31m-01d21h35m:15,10,30,10,30,18");
+
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 31)), fila[1]);
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 21, 35)), fila[2]);
+
+        List<Ubicacion> celdas = celdas(fila);
+        assertEquals(16 + 8, celdas.size());
+        assertEquals(new Ubicacion(15, 10), celdas.get(0));
+        assertEquals(new Ubicacion(30, 10), celdas.get(15));
+        assertEquals(new Ubicacion(30, 11), celdas.get(16));
+        assertEquals(new Ubicacion(30, 18), celdas.get(celdas.size() - 1));
+    }
+
+    @Test
+    void tramosEnSentidoDecrecienteYUnSoloVertice() {
+        assertEquals(List.of(new Ubicacion(3, 5), new Ubicacion(2, 5), new Ubicacion(1, 5), new Ubicacion(1, 4)),
+                celdas(parsear("01d00h00m-01d01h00m:3,5,1,5,1,4")));
+        assertEquals(List.of(new Ubicacion(5, 5)), celdas(parsear("01d00h00m-01d01h00m:5,5")));
+    }
+
+    @Test
+    void finEnElLimiteDelMes() {
+        // Termina justo al cambiar de mes: el fin se lee como día 1 del mes siguiente
+        Object[] fila = parsear("31d22h00m-01d00h00m:1,1,1,2");
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 1, 31, 22, 0)), fila[1]);
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 2, 1, 0, 0)), fila[2]);
+
+        fila = parsear("31d23h59m-01d02h00m:1,1");
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 2, 1, 2, 0)), fila[2]);
+    }
+
+    @Test
+    void rechazaFinAnteriorFueraDelCambioDeMes() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> parsear("05d10h00m-03d10h00m:1,1"));
+        assertEquals("el fin debe ser posterior al inicio", error.getMessage());
+        // Empieza en los últimos días pero termina lejos del inicio del mes siguiente
+        assertThrows(IllegalArgumentException.class, () -> parsear("30d10h00m-10d10h00m:1,1"));
+        // Termina en los primeros días pero empieza a mitad de mes
+        assertThrows(IllegalArgumentException.class, () -> parsear("15d10h00m-01d10h00m:1,1"));
+    }
+
+    @Test
+    void rechazaVerticesFueraDelMapa() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> parsear("01d00h00m-01d01h00m:0,0,999999999,0"));
+        assertTrue(error.getMessage().contains("fuera del mapa"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d01h00m:71,0"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d01h00m:0,0,0,51"));
+
+        // Los bordes del mapa sí son válidos
+        assertEquals(new Ubicacion(70, 50), celdas(parsear("01d00h00m-01d01h00m:70,50")).get(0));
+    }
+
+    @Test
+    void rechazaPoligonalesDemasiadoLargas() {
+        // Ida y vuelta por la fila 0 hasta superar el máximo de celdas
+        StringBuilder linea = new StringBuilder("01d00h00m-01d01h00m:0,0");
+        for (int i = 0; i < 200; i++) {
+            linea.append(i % 2 == 0 ? ",70,0" : ",0,0");
+        }
+        assertThrows(IllegalArgumentException.class, () -> parsear(linea.toString()));
+    }
+
+    @Test
+    void rechazaLineasMalFormadas() {
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d01h00m:1,1,2,2"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d01h00m:1,1,2"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d01h00m:1,,2,2"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d01h00m:"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d00h00m:1,1"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m 01d01h00m:1,1"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d01h00m 1,1"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m-01d01h00m:a,1"));
+    }
+
+    private static Object[] parsear(String linea) {
+        return CargaBloqueosService.parsearLinea(linea, 2025, 1, CREACION, new Mapa());
+    }
+
+    private static List<Ubicacion> celdas(Object[] fila) {
+        return new ArrayList<>(SecuenciaNodosCodec.decodificar((byte[]) fila[3]));
+    }
+}
@@ -0,0 +1,91 @@
+package pucp.edu.pe.glp_final.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CargaPedidosServiceTest {
+
+    private static final Timestamp CREACION = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+    @Test
+    void parseaLineaCompleta() {
+        Object[] fila = parsear("11d13h31m:45,43,c-167,9m3,36h");
+
+        assertEquals("c-167", fila[1]);
+        assertEquals(45, fila[2]);
+        assertEquals(43, fila[3]);
+        assertEquals(9.0, fila[4]);
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 1, 11, 13, 31)), fila[5]);
+        assertEquals(36, fila[6]);
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 1, 13, 1, 31)), fila[7]);
+        assertEquals(CREACION, fila[8]);
+    }
+
+    @Test
+    void aceptaCantidadDecimalYEspaciosFinales() {
+        Object[] fila = parsear("01d00h00m:0,0,c-1,12.25m3,4h \t");
+
+        assertEquals(12.25, fila[4]);
+        assertEquals(4, fila[6]);
+    }
+
+    @Test
+    void rechazaPlazoConHorasFraccionarias() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> parsear("11d13h31m:45,43,c-167,9m3,4.5h"));
+        assertTrue(error.getMessage().contains("entero"));
+    }
+
+    @Test
+    void rechazaSufijosFaltantesOIncorrectos() {
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,43,c-167,9,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,43,c-167,9m3,36"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,43,c-167,9m2,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,43,c-167,m3,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,43,c-167,9m3,h"));
+    }
+
+    @Test
+    void rechazaLineasMalFormadas() {
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m 45,43,c-167,9m3,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h:45,43,c-167,9m3,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,43,c-167,9m3"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,,c-167,9m3,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,43,,9m3,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:-45,43,c-167,9m3,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:45,43,c-167,9m3,36h,extra"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d13h31m:"));
+    }
+
+    @Test
+    void rechazaDigitosNoAscii() {
+        // Dígitos arábigo-índicos y de ancho completo en el momento
+        assertThrows(IllegalArgumentException.class, () -> parsear("١١d13h31m:45,43,c-167,9m3,36h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("11d１３h31m:45,43,c-167,9m3,36h"));
+    }
+
+    @Test
+    void valoresLimite() {
+        // Nueve dígitos siempre caben en un int; diez se rechazan
+        assertEquals(999_999_999, parsear("01d00h00m:999999999,0,c-1,1m3,1h")[2]);
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m:9999999999,0,c-1,1m3,1h"));
+
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m:0,0,c-1,0m3,1h"));
+        assertThrows(IllegalArgumentException.class, () -> parsear("01d00h00m:0,0,c-1,1m3,0h"));
+
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 1, 31, 23, 59)),
+                parsear("31d23h59m:0,0,c-1,1m3,1h")[5]);
+        assertThrows(DateTimeException.class, () -> parsear("32d00h00m:0,0,c-1,1m3,1h"));
+    }
+
+    private static Object[] parsear(String linea) {
+        return CargaPedidosService.parsearLinea(linea, 2025, 1, CREACION);
+    }
+}
@@ -0,0 +1,120 @@
+package pucp.edu.pe.glp_final.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+import pucp.edu.pe.glp_final.dto.CamionDTO;
+import pucp.edu.pe.glp_final.dto.UbicacionDTO;
+import pucp.edu.pe.glp_final.entity.CamionEntity;
+import pucp.edu.pe.glp_final.mapper.EntityMapper;
+import pucp.edu.pe.glp_final.model.enums.EstadoCamion;
+import pucp.edu.pe.glp_final.repository.CamionRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EstadoFlotaServiceTest {
+
+    private CamionRepository camionRepository;
+    private PlatformTransactionManager transactionManager;
+    private EstadoFlotaService servicio;
+    private CamionEntity entity;
+
+    @BeforeEach
+    void preparar() {
+        camionRepository = mock(CamionRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        servicio = new EstadoFlotaService(camionRepository, new EntityMapper(),
+                new TransactionTemplate(transactionManager));
+
+        entity = new CamionEntity();
+        entity.setCodigo("TA01");
+        entity.setUbicacionX(0);
+        entity.setUbicacionY(0);
+        entity.setEstado(EstadoCamion.DISPONIBLE);
+        when(camionRepository.findAllById(anyList())).thenReturn(List.of(entity));
+
+        servicio.registrar(camion("TA01"));
+    }
+
+    @Test
+    void escribeLosCambiosYNoVuelveAEscribirSinCambiosNuevos() {
+        servicio.actualizar("TA01", c -> c.setUbicacion(new UbicacionDTO(5, 7)));
+
+        servicio.persistirCambios();
+        servicio.persistirCambios();
+
+        assertEquals(5, entity.getUbicacionX());
+        assertEquals(7, entity.getUbicacionY());
+        verify(camionRepository, times(1)).saveAllAndFlush(anyList());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void unFlushFallidoDejaElCamionPendienteYSeReintenta() {
+        servicio.actualizar("TA01", c -> c.setUbicacion(new UbicacionDTO(5, 7)));
+        when(camionRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("fallo de flush"))
+                .thenReturn(List.of(entity));
+
+        servicio.persistirCambios();
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+
+        servicio.persistirCambios();
+        verify(camionRepository, times(2)).saveAllAndFlush(anyList());
+        verify(transactionManager, times(1)).commit(any());
+
+        // Ya escrito: no queda nada pendiente
+        servicio.persistirCambios();
+        verify(camionRepository, times(2)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void unCommitFallidoDejaElCamionPendienteYSeReintenta() {
+        servicio.actualizar("TA01", c -> c.setEstado(EstadoCamion.EN_RUTA));
+        doThrow(new TransactionSystemException("fallo de commit"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+
+        servicio.persistirCambios();
+        servicio.persistirCambios();
+
+        assertEquals(EstadoCamion.EN_RUTA, entity.getEstado());
+        verify(camionRepository, times(2)).saveAllAndFlush(anyList());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void sinCambiosNoAbreTransaccion() {
+        servicio.persistirCambios();
+
+        verify(transactionManager, never()).getTransaction(any());
+        verify(camionRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    private static CamionDTO camion(String codigo) {
+        CamionDTO camion = new CamionDTO();
+        camion.setCodigo(codigo);
+        camion.setUbicacion(new UbicacionDTO(0, 0));
+        camion.setEstado(EstadoCamion.DISPONIBLE);
+        camion.setNivelGlpActual(0.0);
+        camion.setNivelCombustibleActual(25.0);
+        camion.setEnMantenimiento(false);
+        camion.setAveriado(false);
+        return camion;
+    }
+}
@@ -0,0 +1,122 @@
+package pucp.edu.pe.glp_final.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import pucp.edu.pe.glp_final.dto.PedidoDTO;
+import pucp.edu.pe.glp_final.entity.PedidoEntity;
+import pucp.edu.pe.glp_final.mapper.EntityMapper;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.repository.PedidoRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LibroPedidosServiceTest {
+
+    private static final LocalDateTime RECEPCION = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private PedidoRepository pedidoRepository;
+    private LibroPedidosService servicio;
+    private TransactionTemplate transaccion;
+
+    @BeforeEach
+    void preparar() {
+        pedidoRepository = mock(PedidoRepository.class);
+        when(pedidoRepository.findByEntregado(false)).thenReturn(List.of(entity("P1", 10.0)));
+        servicio = new LibroPedidosService(pedidoRepository, new EntityMapper());
+        servicio.cargar();
+        transaccion = new TransactionTemplate(new TransaccionEnMemoria());
+    }
+
+    @Test
+    void unaTransaccionRevertidaNoCambiaElLibro() {
+        transaccion.executeWithoutResult(estado -> {
+            servicio.registrar(entity("P2", 5.0));
+            servicio.asignarCamion("P1", "TA01");
+            servicio.retirar("P1");
+            estado.setRollbackOnly();
+        });
+
+        assertEquals(1, servicio.contarPendientes());
+        assertEquals(10.0, servicio.sumaCantidadPendiente());
+        assertNull(servicio.obtenerPendientes().get(0).getCamionAsignado());
+    }
+
+    @Test
+    void losCambiosSeAplicanRecienAlConfirmar() {
+        transaccion.executeWithoutResult(estado -> {
+            servicio.registrar(entity("P2", 5.0));
+            servicio.asignarCamion("P1", "TA01");
+            // Dentro de la transacción el libro todavía no los ve
+            assertEquals(1, servicio.contarPendientes());
+        });
+
+        assertEquals(2, servicio.contarPendientes());
+        assertEquals(15.0, servicio.sumaCantidadPendiente());
+        assertEquals("TA01", servicio.obtenerPendientes().get(0).getCamionAsignado());
+
+        transaccion.executeWithoutResult(estado -> servicio.retirar("P1"));
+        assertEquals(List.of("P2"), servicio.obtenerPendientes().stream().map(PedidoDTO::getId).toList());
+    }
+
+    @Test
+    void lasCopiasEntregadasNoAlteranElLibro() {
+        Pedido copia = servicio.obtenerPendientesModelo().get(0);
+        copia.setCamionAsignado("TA01");
+        copia.setHoraEntregaProgramada(RECEPCION.plusHours(2));
+        copia.setEntregado(true);
+
+        Pedido otraCopia = servicio.obtenerPendientesModelo().get(0);
+        assertNull(otraCopia.getCamionAsignado());
+        assertNull(otraCopia.getHoraEntregaProgramada());
+        assertEquals(1, servicio.contarPendientes());
+        assertTrue(servicio.obtenerPendientes().stream().noneMatch(p -> Boolean.TRUE.equals(p.getEntregado())));
+    }
+
+    private static PedidoEntity entity(String id, double cantidad) {
+        PedidoEntity entity = new PedidoEntity();
+        entity.setId(id);
+        entity.setIdCliente("c-" + id);
+        entity.setUbicacionX(30);
+        entity.setUbicacionY(30);
+        entity.setCantidadGlp(cantidad);
+        entity.setHoraRecepcion(RECEPCION);
+        entity.setHorasLimiteEntrega(24);
+        entity.setEntregado(false);
+        return entity;
+    }
+
+    /**
+     * Administrador de transacciones sin recurso: solo dispara las sincronizaciones
+     * al confirmar o revertir, como lo haría el de JPA
+     */
+    private static class TransaccionEnMemoria extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ruta;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
+import pucp.edu.pe.glp_final.model.enums.TipoCamion;
+import pucp.edu.pe.glp_final.model.enums.TipoIncidente;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Corrida de colapso con averías, compartida por las pruebas de determinismo, registro e
+ * instantáneas: todo lo aleatorio sale de la semilla del simulador y el planificador no
+ * sortea nada, así que dos corridas con la misma semilla deben dar la misma traza
+ */
+final class CorridaDePrueba {
+
+    static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private CorridaDePrueba() {
+    }
+
+    static Simulador simulador(String id, long semilla, Mapa mapa, Planificador planificador) {
+        Simulador simulador = new Simulador(id, EscenarioSimulacion.COLAPSO, INICIO, 1,
+                true, false, mapa, planificador, semilla);
+        simulador.setModoLote(true);
+        return simulador;
+    }
+
+    /**
+     * Un pedido por camión disponible, en el orden en que llegan, como una solución ya
+     * decodificada del genético
+     */
+    static Planificador planificador() {
+        return (camiones, pedidos, mapa, momento) -> {
+            List<Ruta> rutas = new ArrayList<>();
+            for (int i = 0; i < camiones.size() && i < pedidos.size(); i++) {
+                Camion camion = camiones.get(i);
+                Ruta ruta = new Ruta(camion.getCodigo(), camion.getUbicacionActual());
+                ruta.setDestino(mapa.obtenerAlmacenCentral().getUbicacion());
+                ruta.agregarPedido(pedidos.get(i));
+                ruta.optimizarSecuencia();
+                rutas.add(ruta);
+            }
+            return rutas;
+        };
+    }
+
+    static List<Camion> camiones() {
+        List<Camion> camiones = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            camiones.add(new Camion("TA0" + i, TipoCamion.TA, new Ubicacion(12, 8)));
+        }
+        return camiones;
+    }
+
+    static List<Pedido> pedidos() {
+        return List.of(
+                new Pedido("P1", "c-1", new Ubicacion(30, 30), 10.0, INICIO, 24),
+                new Pedido("P2", "c-2", new Ubicacion(5, 40), 8.0, INICIO.plusMinutes(20), 12),
+                new Pedido("P3", "c-3", new Ubicacion(60, 10), 15.0, INICIO.plusMinutes(45), 8),
+                new Pedido("P4", "c-4", new Ubicacion(45, 25), 5.0, INICIO.plusMinutes(90), 6));
+    }
+
+    /**
+     * Atiende eventos mientras el reloj no pase del límite
+     */
+    static void avanzarHasta(Simulador simulador, LocalDateTime limite) {
+        while (simulador.procesarSiguienteEvento() && !simulador.getMomentoActual().isAfter(limite)) {
+            // Evento por evento
+        }
+    }
+
+    static String resumen(Simulador simulador) {
+        return simulador.getMomentoActual() + " recibidos=" + simulador.getPedidosRecibidos()
+                + " generados=" + simulador.getPedidosGenerados()
+                + " entregados=" + simulador.getPedidosEntregados()
+                + " aTiempo=" + simulador.getPedidosATiempo()
+                + " pendientes=" + simulador.getPedidosPendientes()
+                + " eventos=" + simulador.getEventosProcesados()
+                + " consumo=" + simulador.getConsumoTotalCombustible()
+                + " distancia=" + simulador.getDistanciaTotalRecorrida();
+    }
+
+    /**
+     * Lo que la simulación decidió y cuándo, sin los identificadores aleatorios de las rutas
+     */
+    static class Traza implements ObservadorSimulacion {
+
+        final List<String> lineas = new ArrayList<>();
+
+        @Override
+        public void pedidoEntregado(Simulador simulador, Pedido pedido) {
+            lineas.add(simulador.getMomentoActual() + " entrega " + pedido.getId());
+        }
+
+        @Override
+        public void pedidoGenerado(Simulador simulador, Pedido pedido) {
+            lineas.add(simulador.getMomentoActual() + " generado " + pedido.getId() + " en " + pedido.getUbicacion()
+                    + " " + pedido.getCantidadGLP());
+        }
+
+        @Override
+        public void averiaRegistrada(Simulador simulador, Camion camion, TipoIncidente tipo) {
+            lineas.add(simulador.getMomentoActual() + " averia " + camion.getCodigo() + " " + tipo);
+        }
+
+        @Override
+        public void planificacionCompletada(Simulador simulador, List<Ruta> rutas) {
+            lineas.add(simulador.getMomentoActual() + " planificacion " + rutas.stream()
+                    .map(ruta -> ruta.getCodigoCamion() + ":" + ruta.getPedidosAsignados().stream()
+                            .map(Pedido::getId).collect(Collectors.joining(",")))
+                    .collect(Collectors.joining(" ")));
+        }
+    }
+}
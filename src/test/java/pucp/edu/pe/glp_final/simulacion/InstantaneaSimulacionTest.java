@@ -0,0 +1,88 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class InstantaneaSimulacionTest {
+
+    private static final LocalDateTime CORTE = CorridaDePrueba.INICIO.plusHours(3);
+    private static final LocalDateTime LIMITE = CorridaDePrueba.INICIO.plusHours(8);
+
+    @Test
+    void laInstantaneaLeidaConservaElEstadoYSeReescribeIgual(@TempDir Path directorio) throws IOException {
+        Simulador simulador = corridaHastaElCorte();
+        Path archivo = directorio.resolve("corte.glpi");
+        simulador.guardarInstantanea(archivo);
+
+        InstantaneaSimulacion leida = InstantaneaSimulacion.leer(archivo);
+        assertEquals(simulador.getId(), leida.getId());
+        assertEquals(simulador.getEscenario(), leida.getEscenario());
+        assertEquals(7L, leida.getSemilla());
+        assertEquals(simulador.getMomentoActual(), leida.getReloj());
+        assertEquals(simulador.getCamiones().stream().map(Camion::getCodigo).toList(),
+                leida.getCamiones().stream().map(Camion::getCodigo).toList());
+        assertEquals(simulador.getPedidosPendientes(), leida.getPedidosPendientes().size());
+        assertEquals(simulador.getPedidosRecibidos(), leida.getPedidosRecibidos());
+        assertEquals(simulador.getPedidosEntregados(), leida.getPedidosEntregados());
+        assertEquals(simulador.getPedidosGenerados(), leida.getPedidosGenerados());
+        assertEquals(simulador.getEventosProcesados(), leida.getEventosProcesados());
+        assertEquals(simulador.getConsumoTotalCombustible(), leida.getConsumoTotalCombustible());
+        assertEquals(1, leida.getBloqueos().size());
+        assertFalse(leida.getEventos().isEmpty());
+
+        // Todo lo que se escribe se vuelve a leer: reescribirla da el mismo archivo
+        Path copia = directorio.resolve("copia.glpi");
+        leida.escribir(copia);
+        assertArrayEquals(Files.readAllBytes(archivo), Files.readAllBytes(copia));
+    }
+
+    @Test
+    void laSimulacionRestauradaContinuaIgualQueLaOriginal(@TempDir Path directorio) throws IOException {
+        Simulador simulador = corridaHastaElCorte();
+        Path archivo = directorio.resolve("corte.glpi");
+        simulador.guardarInstantanea(archivo);
+
+        CorridaDePrueba.Traza original = new CorridaDePrueba.Traza();
+        simulador.setObservador(original);
+        CorridaDePrueba.avanzarHasta(simulador, LIMITE);
+
+        InstantaneaSimulacion instantanea = InstantaneaSimulacion.leer(archivo);
+        Mapa mapa = new Mapa();
+        mapa.usarBloqueos(instantanea.getBloqueos(), null);
+        Simulador restaurada = Simulador.restaurar(instantanea, "prueba-restaurada", mapa,
+                CorridaDePrueba.planificador());
+        restaurada.setModoLote(true);
+        CorridaDePrueba.Traza continuacion = new CorridaDePrueba.Traza();
+        restaurada.setObservador(continuacion);
+        CorridaDePrueba.avanzarHasta(restaurada, LIMITE);
+
+        assertFalse(original.lineas.isEmpty());
+        assertEquals(original.lineas, continuacion.lineas);
+        assertEquals(CorridaDePrueba.resumen(simulador), CorridaDePrueba.resumen(restaurada));
+    }
+
+    private static Simulador corridaHastaElCorte() {
+        Mapa mapa = new Mapa();
+        mapa.usarBloqueos(List.of(new Bloqueo(CorridaDePrueba.INICIO, CorridaDePrueba.INICIO.plusHours(5),
+                List.of(new Ubicacion(20, 20), new Ubicacion(21, 20)))), null);
+        Simulador simulador = CorridaDePrueba.simulador("prueba-instantanea", 7L, mapa,
+                CorridaDePrueba.planificador());
+        simulador.inicializar(CorridaDePrueba.camiones(), CorridaDePrueba.pedidos());
+        CorridaDePrueba.avanzarHasta(simulador, CORTE);
+        return simulador;
+    }
+}
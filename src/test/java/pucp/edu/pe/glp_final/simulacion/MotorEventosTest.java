@@ -0,0 +1,80 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import org.junit.jupiter.api.Test;
+import pucp.edu.pe.glp_final.model.enums.TipoEventoSimulacion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MotorEventosTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    @Test
+    void atiendeLosEventosPorMomentoYAvanzaElReloj() {
+        MotorEventos motor = new MotorEventos(INICIO);
+        EventoSimulacion tarde = EventoSimulacion.general(INICIO.plusMinutes(30), TipoEventoSimulacion.REPLANIFICACION);
+        EventoSimulacion temprano = EventoSimulacion.general(INICIO.plusMinutes(10), TipoEventoSimulacion.RECARGA_ALMACENES);
+        motor.programar(tarde);
+        motor.programar(temprano);
+
+        assertEquals(INICIO.plusMinutes(10), motor.proximoMomento());
+        assertSame(temprano, motor.siguiente());
+        assertEquals(INICIO.plusMinutes(10), motor.getReloj());
+        assertSame(tarde, motor.siguiente());
+        assertEquals(INICIO.plusMinutes(30), motor.getReloj());
+        assertNull(motor.siguiente());
+        assertNull(motor.proximoMomento());
+    }
+
+    @Test
+    void losEventosDelMismoMomentoSalenEnElOrdenEnQueSeProgramaron() {
+        MotorEventos motor = new MotorEventos(INICIO);
+        List<EventoSimulacion> programados = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            EventoSimulacion evento = EventoSimulacion.deCamion(INICIO.plusMinutes(5),
+                    TipoEventoSimulacion.AVERIA, "TA" + i);
+            programados.add(evento);
+            motor.programar(evento);
+        }
+
+        for (EventoSimulacion esperado : programados) {
+            assertSame(esperado, motor.siguiente());
+        }
+    }
+
+    @Test
+    void unEventoCanceladoNoSeAtiende() {
+        MotorEventos motor = new MotorEventos(INICIO);
+        EventoSimulacion cancelado = EventoSimulacion.general(INICIO.plusMinutes(5), TipoEventoSimulacion.REPLANIFICACION);
+        EventoSimulacion vigente = EventoSimulacion.general(INICIO.plusMinutes(10), TipoEventoSimulacion.REPLANIFICACION);
+        motor.programar(cancelado);
+        motor.programar(vigente);
+
+        assertTrue(motor.cancelar(cancelado));
+        assertFalse(motor.cancelar(cancelado));
+        assertSame(vigente, motor.siguiente());
+        assertEquals(0, motor.pendientes());
+    }
+
+    @Test
+    void rechazaEventosAnterioresAlReloj() {
+        MotorEventos motor = new MotorEventos(INICIO);
+        motor.programar(EventoSimulacion.general(INICIO.plusMinutes(10), TipoEventoSimulacion.REPLANIFICACION));
+        motor.siguiente();
+
+        assertThrows(IllegalArgumentException.class, () -> motor.programar(
+                EventoSimulacion.general(INICIO.plusMinutes(5), TipoEventoSimulacion.REPLANIFICACION)));
+        // El mismo momento del reloj sí se admite
+        motor.programar(EventoSimulacion.general(INICIO.plusMinutes(10), TipoEventoSimulacion.REPLANIFICACION));
+        assertEquals(1, motor.pendientes());
+    }
+}
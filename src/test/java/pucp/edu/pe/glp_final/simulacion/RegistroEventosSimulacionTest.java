@@ -0,0 +1,82 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegistroEventosSimulacionTest {
+
+    private static final LocalDateTime LIMITE = CorridaDePrueba.INICIO.plusHours(6);
+
+    @Test
+    void laReproduccionDelRegistroLlegaAlMismoEstado(@TempDir Path directorio) throws IOException {
+        Path archivo = directorio.resolve("corrida.glps");
+        List<Camion> camiones = CorridaDePrueba.camiones();
+        List<Pedido> pedidos = CorridaDePrueba.pedidos();
+        Mapa mapa = new Mapa();
+        mapa.usarBloqueos(List.of(new Bloqueo(CorridaDePrueba.INICIO, CorridaDePrueba.INICIO.plusHours(3),
+                List.of(new Ubicacion(20, 20), new Ubicacion(21, 20)))), null);
+
+        CorridaDePrueba.Traza original = new CorridaDePrueba.Traza();
+        Simulador simulador = CorridaDePrueba.simulador("prueba-registro", 7L, mapa, CorridaDePrueba.planificador());
+        try (RegistroEventosSimulacion registro = new RegistroEventosSimulacion(archivo)) {
+            registro.escribirInicio(simulador, camiones, pedidos);
+            simulador.setObservador(original.y(registro));
+            simulador.inicializar(camiones, pedidos);
+            CorridaDePrueba.avanzarHasta(simulador, LIMITE);
+        }
+
+        RegistroSimulacion leido = RegistroSimulacion.leer(archivo);
+        assertTrue(leido.isCompleto());
+        assertEquals("prueba-registro", leido.getId());
+        assertEquals(EscenarioSimulacion.COLAPSO, leido.getEscenario());
+        assertEquals(CorridaDePrueba.INICIO, leido.getFechaInicio());
+        assertEquals(7L, leido.getSemilla());
+        assertEquals(1, leido.getBloqueos().size());
+        assertEquals(camiones.size(), leido.getCamiones().size());
+        assertEquals(pedidos.size(), leido.getPedidos().size());
+        assertEquals(simulador.getPedidosGenerados(), leido.getPedidosGenerados().size());
+        assertFalse(leido.getPlanificaciones().isEmpty());
+
+        CorridaDePrueba.Traza reproducida = new CorridaDePrueba.Traza();
+        Simulador reproduccion = reproducir(leido, reproducida);
+        CorridaDePrueba.avanzarHasta(reproduccion, LIMITE);
+
+        // Los pedidos generados se leen del registro en lugar de sortearse, y no se vuelven a notificar
+        original.lineas.removeIf(linea -> linea.contains(" generado "));
+        assertEquals(original.lineas, reproducida.lineas);
+        assertEquals(CorridaDePrueba.resumen(simulador), CorridaDePrueba.resumen(reproduccion));
+    }
+
+    /**
+     * Igual que la reproducción con rutas registradas de SimulacionService
+     */
+    private static Simulador reproducir(RegistroSimulacion registro, ObservadorSimulacion observador) {
+        Mapa mapa = new Mapa();
+        mapa.usarBloqueos(registro.getBloqueos(), null);
+        Simulador reproduccion = new Simulador("prueba-reproduccion", registro.getEscenario(),
+                registro.getFechaInicio(), registro.getDuracionDias(), registro.isIncluirAverias(),
+                registro.isIncluirMantenimientos(), mapa, new PlanificadorRegistrado(registro.getPlanificaciones()),
+                registro.getSemilla());
+        reproduccion.setModoLote(true);
+        reproduccion.setMinutosHorizonteCongelado(registro.getMinutosHorizonteCongelado());
+        reproduccion.setObservador(observador);
+        reproduccion.reproducirEntradas(registro.getPedidosGenerados(), registro.getAverias());
+        reproduccion.inicializar(registro.getCamiones(), registro.getPedidos());
+        return reproduccion;
+    }
+}
@@ -0,0 +1,87 @@
+package pucp.edu.pe.glp_final.simulacion;
+
+import org.junit.jupiter.api.Test;
+import pucp.edu.pe.glp_final.model.Bloqueo;
+import pucp.edu.pe.glp_final.model.Camion;
+import pucp.edu.pe.glp_final.model.Mapa;
+import pucp.edu.pe.glp_final.model.Pedido;
+import pucp.edu.pe.glp_final.model.Ubicacion;
+import pucp.edu.pe.glp_final.model.enums.EscenarioSimulacion;
+import pucp.edu.pe.glp_final.model.enums.TipoCamion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SimuladorTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    @Test
+    void unaVentanaConBloqueosDisparaLaReplanificacion() {
+        // Ventanas de 45 minutos: el bloqueo de las 09:40 llega con la ventana que se carga a las 08:45
+        Bloqueo bloqueo = new Bloqueo(INICIO.plusMinutes(100), INICIO.plusMinutes(160),
+                List.of(new Ubicacion(20, 20), new Ubicacion(21, 20)));
+
+        List<LocalDateTime> conBloqueo = planificacionesHasta(List.of(bloqueo), INICIO.plusMinutes(100));
+        List<LocalDateTime> sinBloqueo = planificacionesHasta(List.of(), INICIO.plusMinutes(100));
+
+        // Sin el bloqueo solo se reintenta el pedido sin asignar cada 60 minutos (DIA_A_DIA)
+        assertEquals(List.of(INICIO, INICIO.plusMinutes(60)), sinBloqueo);
+        // Con el bloqueo se replanifica 5 minutos después de cargarlo y el reintento se corre desde ahí
+        assertEquals(List.of(INICIO, INICIO.plusMinutes(50)), conBloqueo);
+    }
+
+    @Test
+    void laMismaSemillaDaLaMismaSecuenciaDeEventos() {
+        List<String> primera = trazaConSemilla(7L);
+        List<String> segunda = trazaConSemilla(7L);
+
+        // La corrida de colapso sortea pedidos cada 15 minutos y averías en cada despacho
+        assertFalse(primera.isEmpty());
+        assertEquals(primera, segunda);
+        assertNotEquals(primera, trazaConSemilla(8L));
+    }
+
+    private static List<String> trazaConSemilla(long semilla) {
+        CorridaDePrueba.Traza traza = new CorridaDePrueba.Traza();
+        Simulador simulador = CorridaDePrueba.simulador("prueba-semilla", semilla, new Mapa(),
+                CorridaDePrueba.planificador());
+        simulador.setObservador(traza);
+        simulador.inicializar(CorridaDePrueba.camiones(), CorridaDePrueba.pedidos());
+
+        CorridaDePrueba.avanzarHasta(simulador, CorridaDePrueba.INICIO.plusHours(6));
+        traza.lineas.add(CorridaDePrueba.resumen(simulador));
+        return traza.lineas;
+    }
+
+    /**
+     * Momentos en que se llamó al planificador; el planificador no asigna nada, así que el
+     * pedido queda pendiente y cada replanificación vuelve a llamarlo
+     */
+    private static List<LocalDateTime> planificacionesHasta(List<Bloqueo> bloqueos, LocalDateTime limite) {
+        List<LocalDateTime> llamadas = new ArrayList<>();
+        Planificador planificador = (camiones, pedidos, mapa, momento) -> {
+            llamadas.add(momento);
+            return List.of();
+        };
+
+        Simulador simulador = new Simulador("prueba-ventanas", EscenarioSimulacion.DIA_A_DIA, INICIO, 1,
+                false, false, new Mapa(), planificador, 42L);
+        simulador.setModoLote(true);
+        simulador.cargarPorVentanas(FuenteEntradas.deListas(List.of(), bloqueos), 45);
+        simulador.inicializar(
+                List.of(new Camion("TA01", TipoCamion.TA, new Ubicacion(12, 8))),
+                List.of(new Pedido("P1", "c-1", new Ubicacion(30, 30), 10.0, INICIO, 24)));
+
+        while (!simulador.getMomentoActual().isAfter(limite) && simulador.procesarSiguienteEvento()) {
+            // Avanza evento por evento hasta pasar el límite
+        }
+        llamadas.removeIf(momento -> momento.isAfter(limite));
+        return llamadas;
+    }
+}